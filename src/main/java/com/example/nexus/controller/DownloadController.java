@@ -1,6 +1,7 @@
 package com.example.nexus.controller;
 
 import com.example.nexus.model.Download;
+import com.example.nexus.service.DownloadBatch;
 import com.example.nexus.service.DownloadService;
 import com.example.nexus.service.SettingsService;
 import org.slf4j.Logger;
@@ -25,6 +26,10 @@ public class DownloadController {
         this.settingsService = settingsService;
     }
 
+    public DownloadService getDownloadService() {
+        return downloadService;
+    }
+
     /**
      * Close the download manager panel if it's open
      */
@@ -91,6 +96,14 @@ public class DownloadController {
         }
     }
 
+    public void promoteDownload(int downloadId) {
+        try {
+            downloadService.promoteDownload(downloadId);
+        } catch (Exception e) {
+            logger.error("Error promoting download: {}", downloadId, e);
+        }
+    }
+
     public void clearAllDownloads() {
         try {
             downloadService.clearDownloads();
@@ -136,6 +149,38 @@ public class DownloadController {
         return settingsService.isAskDownloadLocation();
     }
 
+    /**
+     * Queues every URL as one batch into the download folder, or a folder picked by the
+     * user when "ask where to save" is on. Must be called on the FX thread.
+     */
+    public DownloadBatch startBatch(String label, List<String> urls) {
+        try {
+            File targetDir;
+            if (shouldAskDownloadLocation()) {
+                javafx.stage.DirectoryChooser chooser = new javafx.stage.DirectoryChooser();
+                chooser.setTitle("Save Downloads To");
+                targetDir = chooser.showDialog(null);
+                if (targetDir == null) {
+                    logger.info("User cancelled folder selection for batch '{}'", label);
+                    return null;
+                }
+            } else {
+                String downloadPath = settingsService.getDownloadPath();
+                if (downloadPath == null || downloadPath.trim().isEmpty()) {
+                    downloadPath = System.getProperty("user.home", "") + File.separator + "Downloads";
+                }
+                targetDir = new File(downloadPath);
+            }
+            if (!targetDir.exists() && !targetDir.mkdirs()) {
+                logger.warn("Could not create download directory: {}", targetDir.getAbsolutePath());
+            }
+            return downloadService.startBatch(label, urls, targetDir.getAbsolutePath());
+        } catch (Exception e) {
+            logger.error("Error starting batch download '{}'", label, e);
+            return null;
+        }
+    }
+
     public void requestDownloadFromUI(String url, String suggestedFileName) {
         try {
             if (shouldAskDownloadLocation()) {
@@ -197,9 +242,11 @@ public class DownloadController {
                 });
             }
             @Override
-            public void downloadUpdated(com.example.nexus.model.Download download) {
-                javafx.application.Platform.runLater(() -> { try { downloadDropdown.refreshContent(); } catch (Exception ignored) {} });
-                javafx.application.Platform.runLater(() -> updateDownloadsBadge(null, downloadsButton));
+            public void downloadsChanged(List<com.example.nexus.service.DownloadDelta> deltas) {
+                // The dropdown patches its own rows; only the badge is kept here.
+                if (deltas.stream().anyMatch(d -> d.has(com.example.nexus.service.DownloadDelta.Field.STATUS))) {
+                    javafx.application.Platform.runLater(() -> updateDownloadsBadge(null, downloadsButton));
+                }
             }
         });
         return downloadDropdown;
@@ -9,10 +9,12 @@ import com.example.nexus.view.MainView;
 import com.example.nexus.view.components.BookmarkBarComponent;
 import com.example.nexus.view.components.BrowserTab;
 import com.example.nexus.view.components.DownloadDropdown;
+import com.example.nexus.view.components.FindBar;
+import com.example.nexus.view.components.PageLoadStatsPanel;
 import com.example.nexus.view.components.StatusBarComponent;
 import com.example.nexus.view.dialogs.SettingsPanel;
 import javafx.application.Platform;
-import javafx.concurrent.Worker;
+import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
@@ -42,8 +44,19 @@ public class MainController {
     private TabController tabController;
     private MenuController menuController;
     private NavigationController navController;
+    private TaskManagerController taskManagerController;
     private BookmarkBarComponent bookmarkBarComponent;
     private StatusBarComponent statusBarComponent;
+    private FindBar findBar;
+
+    private BrowserTab statusTab;
+    private final ChangeListener<Boolean> statusLoadingListener =
+            (obs, wasLoading, loading) -> statusBarComponent.setStatus(loading ? "Loading..." : "Ready");
+    private final ChangeListener<String> statusUrlListener = (obs, oldUrl, newUrl) -> {
+        if (newUrl != null && !newUrl.isEmpty()) statusBarComponent.setUrl(newUrl);
+    };
+    private final ChangeListener<Number> statusZoomListener =
+            (obs, oldZoom, newZoom) -> statusBarComponent.setZoom((int) (newZoom.doubleValue() * 100));
 
     @FXML private BorderPane rootPane;
     @FXML private TabPane tabPane;
@@ -70,6 +83,7 @@ public class MainController {
     private Stage historyStage;
     private Stage downloadStage;
     private Stage profileStage;
+    private PageLoadStatsPanel pageLoadStatsPanel;
 
     public void setContainer(DIContainer container) {
         this.container = container;
@@ -92,6 +106,8 @@ public class MainController {
 
             shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.T, javafx.scene.input.KeyCombination.CONTROL_DOWN), this::handleNewTab);
             shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.W, javafx.scene.input.KeyCombination.CONTROL_DOWN), this::handleCloseTab);
+            shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.A, javafx.scene.input.KeyCombination.CONTROL_DOWN, javafx.scene.input.KeyCombination.SHIFT_DOWN), this::handleShowTabOverview);
+            shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.ESCAPE, javafx.scene.input.KeyCombination.SHIFT_DOWN), this::handleShowTaskManager);
 
             shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.R, javafx.scene.input.KeyCombination.CONTROL_DOWN), this::handleReload);
             shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.R, javafx.scene.input.KeyCombination.CONTROL_DOWN, javafx.scene.input.KeyCombination.SHIFT_DOWN), this::handleReload);
@@ -106,6 +122,8 @@ public class MainController {
             shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.DIGIT0, javafx.scene.input.KeyCombination.CONTROL_DOWN), this::handleZoomReset);
             shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.NUMPAD0, javafx.scene.input.KeyCombination.CONTROL_DOWN), this::handleZoomReset);
 
+            shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.F, javafx.scene.input.KeyCombination.CONTROL_DOWN), this::handleFind);
+
             shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.H, javafx.scene.input.KeyCombination.CONTROL_DOWN), this::handleShowHistory);
             shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.J, javafx.scene.input.KeyCombination.CONTROL_DOWN), this::handleShowDownloads);
             shortcutManager.addShortcut(new javafx.scene.input.KeyCodeCombination(javafx.scene.input.KeyCode.B, javafx.scene.input.KeyCombination.CONTROL_DOWN), this::handleShowBookmarks);
@@ -182,37 +200,19 @@ public class MainController {
 
         rootPane.setTop(topContainer);
 
-        rootPane.setBottom(statusBarComponent);
+        findBar = new FindBar();
+        rootPane.setBottom(new VBox(findBar, statusBarComponent));
 
         addressBar.setOnAction(e -> navController.navigateToUrl(addressBar.getText()));
 
         tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
+            if (findBar.isShowing()) findBar.hide();
             if (newTab != null) {
                 tabController.showBrowserForTab(newTab);
 
-                BrowserTab browserTab = tabController.getBrowserTabForFxTab(newTab);
-                if (browserTab != null) {
-
-                    statusBarComponent.setUrl(browserTab.getUrl());
-
-                    browserTab.getWebEngine().getLoadWorker().stateProperty().addListener((ov, oldState, newState) -> {
-                        if (newState == Worker.State.RUNNING || newState == Worker.State.SCHEDULED) {
-                            statusBarComponent.setStatus("Loading...");
-                        } else if (newState == Worker.State.SUCCEEDED || newState == Worker.State.CANCELLED) {
-                            statusBarComponent.setStatus("Ready");
-                        }
-                    });
-
-                    browserTab.urlProperty().addListener((ov, oldUrl, newUrl) -> {
-                        if (newUrl != null && !newUrl.isEmpty()) {
-                            statusBarComponent.setUrl(newUrl);
-                        }
-                    });
-
-                    browserTab.getWebView().zoomProperty().addListener((ov, oldZoom, newZoom) -> {
-                        statusBarComponent.setZoom((int) (newZoom.doubleValue() * 100));
-                    });
-                }
+                showStatusFor(tabController.getBrowserTabForFxTab(newTab));
+            } else {
+                showStatusFor(null);
             }
         });
 
@@ -245,6 +245,29 @@ public class MainController {
 
     }
 
+    /**
+     * Points the status bar at the selected tab. Listeners go on the tab's own properties,
+     * never on its WebView, and come off when another tab is selected: views are pooled and
+     * may later belong to a background tab.
+     */
+    private void showStatusFor(BrowserTab browserTab) {
+        if (statusTab != null) {
+            statusTab.loadingProperty().removeListener(statusLoadingListener);
+            statusTab.urlProperty().removeListener(statusUrlListener);
+            statusTab.zoomProperty().removeListener(statusZoomListener);
+        }
+        statusTab = browserTab;
+        if (browserTab == null) return;
+
+        statusBarComponent.setUrl(browserTab.getUrl());
+        statusBarComponent.setStatus(browserTab.loadingProperty().get() ? "Loading..." : "Ready");
+        statusBarComponent.setZoom((int) (browserTab.getZoom() * 100));
+        statusBarComponent.showBlockedCount(browserTab.blockedCountProperty());
+        browserTab.loadingProperty().addListener(statusLoadingListener);
+        browserTab.urlProperty().addListener(statusUrlListener);
+        browserTab.zoomProperty().addListener(statusZoomListener);
+    }
+
     private void setupIcons() {
 
         backButton.setGraphic(safeIcon("mdi2a-arrow-left", 18));
@@ -366,6 +389,49 @@ public class MainController {
         }
     }
 
+    public void handleDownloadAllLinks() {
+        BrowserTab currentTab = tabController.getCurrentBrowserTab();
+        if (currentTab == null) return;
+
+        java.util.List<String> links = currentTab.collectLinks();
+        java.util.Map<DownloadBatch.Category, Integer> counts = DownloadBatch.countByCategory(links);
+        if (counts.values().stream().allMatch(c -> c == 0)) {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Download Links");
+            alert.setHeaderText("Nothing to download");
+            alert.setContentText("This page has no links to documents, images, archives or media files.");
+            alert.showAndWait();
+            return;
+        }
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Download Links");
+        dialog.setHeaderText("Download files linked from this page");
+        VBox options = new VBox(8);
+        java.util.Map<DownloadBatch.Category, CheckBox> boxes = new java.util.EnumMap<>(DownloadBatch.Category.class);
+        for (DownloadBatch.Category category : DownloadBatch.Category.values()) {
+            int count = counts.getOrDefault(category, 0);
+            CheckBox box = new CheckBox(category.label() + " (" + count + ")");
+            box.setDisable(count == 0);
+            box.setSelected(count > 0 && category != DownloadBatch.Category.IMAGES);
+            boxes.put(category, box);
+            options.getChildren().add(box);
+        }
+        dialog.getDialogPane().setContent(options);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) return;
+        java.util.Set<DownloadBatch.Category> selected = java.util.EnumSet.noneOf(DownloadBatch.Category.class);
+        boxes.forEach((category, box) -> { if (box.isSelected()) selected.add(category); });
+        java.util.List<String> urls = DownloadBatch.select(links, selected);
+        if (urls.isEmpty()) return;
+
+        String title = currentTab.getTitle();
+        if (downloadController.startBatch(title != null && !title.isBlank() ? title : currentTab.getUrl(), urls) != null) {
+            handleShowDownloads();
+        }
+    }
+
     @FXML
     public void handleDownloadsButtonClicked() {
         try {
@@ -547,7 +613,11 @@ public class MainController {
 
     @FXML
     public void handleFind() {
-        showNotImplementedAlert("Find");
+        BrowserTab currentTab = tabController.getCurrentBrowserTab();
+        if (currentTab == null || findBar == null) return;
+        String theme = settingsService.getTheme();
+        boolean isDarkTheme = "dark".equals(theme) || ("system".equals(theme) && settingsController.isSystemDark());
+        findBar.show(currentTab, isDarkTheme);
     }
 
     @FXML
@@ -580,6 +650,32 @@ public class MainController {
         }
     }
 
+    public void handleShowTabOverview() {
+        tabController.showTabOverview();
+    }
+
+    public void handleShowTaskManager() {
+        if (taskManagerController == null) {
+            taskManagerController = new TaskManagerController(tabController);
+        }
+        String theme = settingsService.getTheme();
+        boolean isDarkTheme = "dark".equals(theme) || ("system".equals(theme) && settingsController.isSystemDark());
+        taskManagerController.showTaskManagerPanel(isDarkTheme);
+    }
+
+    public void handleShowPageLoadStats() {
+        if (pageLoadStatsPanel != null && pageLoadStatsPanel.isShowing()) {
+            pageLoadStatsPanel.toFront();
+            pageLoadStatsPanel.requestFocus();
+            return;
+        }
+        String theme = settingsService.getTheme();
+        boolean isDarkTheme = "dark".equals(theme) || ("system".equals(theme) && settingsController.isSystemDark());
+        pageLoadStatsPanel = new PageLoadStatsPanel(container.getOrCreate(PageLoadStatsService.class), isDarkTheme);
+        pageLoadStatsPanel.setOnHidden(e -> pageLoadStatsPanel = null);
+        pageLoadStatsPanel.show();
+    }
+
     @FXML
     public void handlePinTab() {
         showNotImplementedAlert("Pin Tab");
@@ -739,8 +835,7 @@ public class MainController {
             } else {
                 logger.info("Session restore disabled or no saved session, creating default tab");
                 // Clear old tabs if restore is disabled
-                TabService tabService = container.getOrCreate(TabService.class);
-                tabService.clearProfileTabs(currentProfile.getId());
+                tabController.clearSessionForProfile(currentProfile.getId());
                 Platform.runLater(() -> tabController.createNewTab(settingsService.getHomePage()));
             }
 
@@ -777,8 +872,8 @@ public class MainController {
             } else {
                 logger.info("Session restore disabled, clearing saved tabs");
                 // Clear saved tabs if restore is disabled
-                TabService tabService = container.getOrCreate(TabService.class);
-                tabService.clearProfileTabs(currentProfile.getId());
+                tabController.clearSessionForProfile(currentProfile.getId());
+                container.getOrCreate(ThumbnailService.class).deletePersisted(currentProfile.getId());
             }
 
             // Close all open panels
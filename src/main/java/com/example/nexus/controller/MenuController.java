@@ -33,9 +33,23 @@ public class MenuController {
         MenuItem newWindow = createMenuItem("New Window", "mdi2o-open-in-new", "#3b82f6", "Ctrl+N");
         newWindow.setOnAction(e -> mainController.handleNewWindow());
 
+        MenuItem tabOverview = createMenuItem("Tab Overview", "mdi2v-view-grid-outline", "#3b82f6", "Ctrl+Shift+A");
+        tabOverview.setOnAction(e -> mainController.handleShowTabOverview());
+
+        MenuItem taskManager = createMenuItem("Task Manager", "mdi2m-monitor-dashboard", "#64748b", "Shift+Esc");
+        taskManager.setOnAction(e -> mainController.handleShowTaskManager());
+
+        MenuItem pageLoadStats = createMenuItem("Page Performance", "mdi2s-speedometer", "#64748b", null);
+        pageLoadStats.setOnAction(e -> mainController.handleShowPageLoadStats());
+
+        MenuItem find = createMenuItem("Find in Page", "mdi2f-file-find", "#64748b", "Ctrl+F");
+        find.setOnAction(e -> mainController.handleFind());
+
         Menu zoomMenu = createZoomSubmenu();
 
         CheckMenuItem webDarkMode = createWebDarkModeMenuItem();
+        CheckMenuItem softDarkMode = createSoftDarkModeMenuItem();
+        CheckMenuItem skipDarkMode = createSkipDarkModeMenuItem();
 
         MenuItem history = createMenuItem("History", "mdi2h-history", "#f59e0b", "Ctrl+H");
         history.setOnAction(e -> mainController.handleShowHistory());
@@ -43,6 +57,9 @@ public class MenuController {
         MenuItem downloads = createMenuItem("Downloads", "mdi2d-download", "#10b981", "Ctrl+J");
         downloads.setOnAction(e -> mainController.handleShowDownloads());
 
+        MenuItem downloadLinks = createMenuItem("Download Links on Page", "mdi2d-download-multiple", "#10b981", null);
+        downloadLinks.setOnAction(e -> mainController.handleDownloadAllLinks());
+
         MenuItem bookmarks = createMenuItem("Bookmarks", "mdi2b-bookmark-outline", "#ec4899", "Ctrl+B");
         bookmarks.setOnAction(e -> mainController.handleShowBookmarks());
 
@@ -59,12 +76,12 @@ public class MenuController {
         exit.setOnAction(e -> mainController.handleExit());
 
         menu.getItems().addAll(
-                newTab, newWindow,
+                newTab, newWindow, tabOverview,
                 new SeparatorMenuItem(),
-                zoomMenu,
-                webDarkMode,
+                find, zoomMenu,
+                webDarkMode, softDarkMode, skipDarkMode,
                 new SeparatorMenuItem(),
-                history, downloads, bookmarks, profile,
+                history, downloads, downloadLinks, bookmarks, profile, taskManager, pageLoadStats,
                 new SeparatorMenuItem(),
                 settings, about,
                 new SeparatorMenuItem(),
@@ -136,14 +153,62 @@ public class MenuController {
         webDarkMode.setOnAction(e -> {
             BrowserTab tab = tabController.getCurrentBrowserTab();
             if (tab != null) {
-                tab.toggleWebPageDarkMode();
+                // Set first: a tab turns dark mode back on while the global flag is set.
                 BrowserTab.setGlobalDarkModeEnabled(webDarkMode.isSelected());
+                tab.toggleWebPageDarkMode();
             }
         });
 
         return webDarkMode;
     }
 
+    private CheckMenuItem createSoftDarkModeMenuItem() {
+        CheckMenuItem softDarkMode = new CheckMenuItem("Soft Page Colors");
+        FontIcon icon = new FontIcon("mdi2w-weather-sunset");
+        icon.setIconSize(16);
+        icon.setIconColor(Color.web("#8b5cf6"));
+        softDarkMode.setGraphic(icon);
+        softDarkMode.setSelected(BrowserTab.getDarkModeStyle() == BrowserTab.DarkModeStyle.SOFT);
+
+        softDarkMode.setOnAction(e -> {
+            BrowserTab.setDarkModeStyle(softDarkMode.isSelected()
+                    ? BrowserTab.DarkModeStyle.SOFT : BrowserTab.DarkModeStyle.NORMAL);
+            tabController.getBrowserTabs().forEach(BrowserTab::refreshDarkMode);
+        });
+
+        return softDarkMode;
+    }
+
+    private CheckMenuItem createSkipDarkModeMenuItem() {
+        CheckMenuItem skipDarkMode = new CheckMenuItem("No Dark Mode on This Site");
+        FontIcon icon = new FontIcon("mdi2w-web-off");
+        icon.setIconSize(16);
+        icon.setIconColor(Color.web("#8b5cf6"));
+        skipDarkMode.setGraphic(icon);
+
+        BrowserTab currentBrowserTab = tabController.getCurrentBrowserTab();
+        String host = currentBrowserTab != null ? hostOf(currentBrowserTab.getUrl()) : null;
+        skipDarkMode.setDisable(host == null);
+        skipDarkMode.setSelected(host != null && BrowserTab.isDarkModeExcluded(currentBrowserTab.getUrl()));
+
+        skipDarkMode.setOnAction(e -> {
+            BrowserTab.setDarkModeExcluded(host, skipDarkMode.isSelected());
+            tabController.getBrowserTabs().forEach(BrowserTab::refreshDarkMode);
+        });
+
+        return skipDarkMode;
+    }
+
+    private static String hostOf(String url) {
+        if (url == null || !(url.startsWith("http://") || url.startsWith("https://"))) return null;
+        try {
+            String host = java.net.URI.create(url).getHost();
+            return host == null || host.isEmpty() ? null : host;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private void applyMenuStyling(ContextMenu menu) {
         boolean isDark = "dark".equals(settingsService.getTheme());
 
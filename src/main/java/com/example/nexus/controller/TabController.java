@@ -5,8 +5,12 @@ import com.example.nexus.model.Profile;
 import com.example.nexus.model.Tab;
 import com.example.nexus.service.*;
 import com.example.nexus.view.components.BrowserTab;
+import com.example.nexus.view.components.TabOverview;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
 import javafx.geometry.Bounds;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -29,11 +33,20 @@ public class TabController {
 
     private static final Logger logger = LoggerFactory.getLogger(TabController.class);
 
+    private static final Duration HIBERNATION_CHECK_INTERVAL = Duration.seconds(30);
+    private static final double MEMORY_PRESSURE_RATIO = 0.8;
+    // Restored tabs preloaded next to the active one, and how many load at a time.
+    private static final int WARM_UP_LIMIT = 4;
+    private static final int WARM_UP_CONCURRENCY = 2;
+    private static final Duration WARM_UP_TIMEOUT = Duration.seconds(20);
+
     private final DIContainer container;
     private final TabService tabService;
     private final SettingsService settingsService;
     private final HistoryController historyController;
     private final ZoomService zoomService;
+    private final ThumbnailService thumbnailService;
+    private final SessionJournal sessionJournal;
 
     private TabPane tabPane;
     private StackPane browserContainer;
@@ -43,6 +56,12 @@ public class TabController {
     private final Map<javafx.scene.control.Tab, BrowserTab> tabBrowserMap = new HashMap<>();
     private final Map<javafx.scene.control.Tab, Runnable> tabCleanupMap = new HashMap<>();
     private final Map<javafx.scene.control.Tab, UUID> tabUuidMap = new HashMap<>();
+    private final Map<javafx.scene.control.Tab, Long> tabLastActiveMap = new HashMap<>();
+    private final Map<javafx.scene.control.Tab, Integer> tabJournalIds = new HashMap<>();
+    private Timeline hibernationTimer;
+    private TabOverview tabOverview;
+    private final Deque<javafx.scene.control.Tab> warmUpQueue = new ArrayDeque<>();
+    private final Set<BrowserTab> warmingUp = new HashSet<>();
 
     public TabController(DIContainer container) {
         this.container = container;
@@ -51,6 +70,11 @@ public class TabController {
         HistoryService historyService = container.getOrCreate(HistoryService.class);
         this.historyController = new HistoryController(historyService);
         this.zoomService = container.getOrCreate(ZoomService.class);
+        this.thumbnailService = container.getOrCreate(ThumbnailService.class);
+        this.sessionJournal = container.getOrCreate(SessionJournal.class);
+        // The open tabs stay open across a profile switch, and are now the new profile's session.
+        container.getOrCreate(ProfileService.class).addProfileChangeListener(profile -> Platform.runLater(() ->
+                sessionJournal.useProfile(profile.getId(), tabPane != null ? currentSessionTabs() : null)));
     }
 
     public TabPane getTabPane() {
@@ -65,6 +89,8 @@ public class TabController {
         this.securityIcon = securityIcon;
 
         setupTabSelectionListener();
+        tabPane.getTabs().addListener(this::journalTabChanges);
+        startHibernationTimer();
         tabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
         tabPane.setFocusTraversable(false);
 
@@ -73,8 +99,13 @@ public class TabController {
 
     private void setupTabSelectionListener() {
         tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
+            if (oldTab != null && tabBrowserMap.containsKey(oldTab)) {
+                tabLastActiveMap.put(oldTab, System.currentTimeMillis());
+            }
             if (newTab != null) {
                 showBrowserForTab(newTab);
+                Integer id = tabJournalIds.get(newTab);
+                if (id != null) sessionJournal.select(id);
             }
         });
     }
@@ -93,9 +124,25 @@ public class TabController {
 
     public void createNewTab(String url) {
         logger.info("Creating new tab with URL: {}", url);
+        long start = System.nanoTime();
 
         BrowserTab browserTab = new BrowserTab(container, url);
+        javafx.scene.control.Tab tab = createFxTab(browserTab, new Tab(url));
+
+        tabPane.getTabs().add(tab);
+        tabPane.getSelectionModel().select(tab);
+
+        WebViewPool webViewPool = container.get(WebViewPool.class);
+        if (webViewPool != null) {
+            webViewPool.recordTabOpen(System.nanoTime() - start);
+        }
+
+        if (settingsService.getMaxTabsInMemory() > 0) {
+            hibernateIdleTabs();
+        }
+    }
 
+    private javafx.scene.control.Tab createFxTab(BrowserTab browserTab, Tab tabModel) {
         setupScrollZoom(browserTab);
 
         javafx.scene.control.Tab tab = new javafx.scene.control.Tab();
@@ -112,6 +159,7 @@ public class TabController {
 
 
         tabBrowserMap.put(tab, browserTab);
+        tabLastActiveMap.put(tab, System.currentTimeMillis());
 
         final ChangeListener<String> titleListener = (obs, oldTitle, newTitle) -> Platform.runLater(() -> {
             updateTabTitle(tab, newTitle);
@@ -119,7 +167,7 @@ public class TabController {
             Tab tabModelRef = browserTab.getTabModel();
             if (tabModelRef != null) {
                 tabModelRef.setTitle(newTitle);
-                tabService.updateTab(tabModelRef);
+                journalNavigation(browserTab);
             }
         });
 
@@ -132,7 +180,7 @@ public class TabController {
             Tab tabModelRef = browserTab.getTabModel();
             if (tabModelRef != null) {
                 tabModelRef.setUrl(newUrl);
-                tabService.updateTab(tabModelRef);
+                journalNavigation(browserTab);
             }
 
             if (newUrl != null && !newUrl.isEmpty() &&
@@ -147,8 +195,17 @@ public class TabController {
             }
         });
 
+        final ChangeListener<String> faviconListener = (obs, oldUrl, newUrl) -> Platform.runLater(() -> {
+            Tab tabModelRef = browserTab.getTabModel();
+            if (tabModelRef != null) {
+                tabModelRef.setFaviconUrl(newUrl);
+                journalNavigation(browserTab);
+            }
+        });
+
         browserTab.titleProperty().addListener(titleListener);
         browserTab.urlProperty().addListener(urlListener);
+        browserTab.faviconUrlProperty().addListener(faviconListener);
         tabCleanupMap.put(tab, () -> {
             try {
                 browserTab.titleProperty().removeListener(titleListener);
@@ -158,13 +215,12 @@ public class TabController {
                 browserTab.urlProperty().removeListener(urlListener);
             } catch (Exception ignored) {
             }
+            try {
+                browserTab.faviconUrlProperty().removeListener(faviconListener);
+            } catch (Exception ignored) {
+            }
         });
 
-        tabPane.getTabs().add(tab);
-        tabPane.getSelectionModel().select(tab);
-
-        Tab tabModel = new Tab(url);
-
         // Set profileId from current profile
         try {
             ProfileService profileService = container.getOrCreate(ProfileService.class);
@@ -181,15 +237,17 @@ public class TabController {
             tabModel.setProfileId(1);
         }
 
-        // Save tab to database immediately
-        // Old sessions are cleared on startup, not here
-        tabService.saveTab(tabModel);
+        // Restored tabs keep their id; the journal records the tab once it is in the tab strip.
+        if (tabModel.getId() == 0) tabModel.setId(sessionJournal.newTabId());
         browserTab.setTabModel(tabModel);
+        return tab;
     }
 
     void showBrowserForTab(javafx.scene.control.Tab tab) {
         BrowserTab browserTab = tabBrowserMap.get(tab);
         if (browserTab != null) {
+            browserTab.wake();
+            tabOverview = null;
 
             browserContainer.getChildren().clear();
             browserContainer.getChildren().add(browserTab);
@@ -200,6 +258,58 @@ public class TabController {
         }
     }
 
+    private void startHibernationTimer() {
+        hibernationTimer = new Timeline(new KeyFrame(HIBERNATION_CHECK_INTERVAL, e -> hibernateIdleTabs()));
+        hibernationTimer.setCycleCount(Timeline.INDEFINITE);
+        hibernationTimer.play();
+    }
+
+    /**
+     * Hibernates background tabs left unused for longer than the configured sleep time, and the
+     * least recently used ones while more tabs are live than the configured maximum. Under heap
+     * pressure one more tab goes per check, giving the collector time to reclaim it. The selected
+     * tab, pinned tabs and tabs playing media are left alone.
+     */
+    void hibernateIdleTabs() {
+        javafx.scene.control.Tab selected = tabPane.getSelectionModel().getSelectedItem();
+        List<javafx.scene.control.Tab> candidates = new ArrayList<>();
+        int live = 0;
+        for (Map.Entry<javafx.scene.control.Tab, BrowserTab> entry : tabBrowserMap.entrySet()) {
+            BrowserTab browserTab = entry.getValue();
+            if (browserTab.isHibernated()) continue;
+            live++;
+            Tab tabModel = browserTab.getTabModel();
+            if (entry.getKey() == selected || (tabModel != null && tabModel.isPinned())) continue;
+            candidates.add(entry.getKey());
+        }
+        if (candidates.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        candidates.sort(Comparator.comparingLong(tab -> tabLastActiveMap.getOrDefault(tab, now)));
+
+        long idleMillis = settingsService.getTabSleepMinutes() * 60_000L;
+        int maxLive = settingsService.getMaxTabsInMemory();
+        boolean memoryPressure = isUnderMemoryPressure();
+        for (javafx.scene.control.Tab tab : candidates) {
+            boolean idle = idleMillis > 0 && now - tabLastActiveMap.getOrDefault(tab, now) >= idleMillis;
+            boolean overLimit = maxLive > 0 && live > maxLive;
+            if (!idle && !overLimit && !memoryPressure) continue;
+
+            BrowserTab browserTab = tabBrowserMap.get(tab);
+            if (browserTab.isPlayingMedia()) continue;
+            if (browserTab.hibernate()) {
+                live--;
+                memoryPressure = false;
+            }
+        }
+    }
+
+    private static boolean isUnderMemoryPressure() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used > runtime.maxMemory() * MEMORY_PRESSURE_RATIO;
+    }
+
     private void updateSecurityIcon(String url) {
         if (securityIcon != null && securityIcon.getGraphic() instanceof FontIcon icon) {
             if (url != null && url.startsWith("https://")) {
@@ -239,7 +349,7 @@ public class TabController {
         faviconContainer.getChildren().add(defaultIcon);
         faviconContainer.setFocusTraversable(false);
 
-        Label titleLabel = new Label("New Tab");
+        Label titleLabel = new Label(browserTab.getTitle());
         titleLabel.setPrefWidth(90);
         titleLabel.setMinWidth(30);
         titleLabel.setMaxWidth(110);
@@ -249,31 +359,31 @@ public class TabController {
         titleLabel.setEllipsisString("...");
         HBox.setHgrow(titleLabel, Priority.ALWAYS);
 
-        Tooltip titleTooltip = new Tooltip("New Tab");
+        Tooltip titleTooltip = new Tooltip(browserTab.getTitle());
         titleTooltip.setShowDelay(Duration.millis(500));
         Tooltip.install(titleLabel, titleTooltip);
 
-        browserTab.faviconUrlProperty().addListener((obs, oldUrl, newUrl) -> {
-            Platform.runLater(() -> {
-                if (newUrl != null && !newUrl.isEmpty()) {
-                    try {
-                        javafx.scene.image.Image favicon = new javafx.scene.image.Image(newUrl, 14, 14, true, true, true);
-                        favicon.progressProperty().addListener((o, oldP, newP) -> {
-                            if (newP.doubleValue() >= 1.0 && !favicon.isError()) {
-                                Platform.runLater(() -> {
-                                    faviconView.setImage(favicon);
-                                    faviconContainer.getChildren().clear();
-                                    faviconContainer.getChildren().add(faviconView);
-                                });
-                            }
-                        });
-                    } catch (Exception e) {
-
-                        logger.debug("Failed to load favicon: {}", newUrl);
-                    }
+        java.util.function.Consumer<String> faviconLoader = newUrl -> {
+            if (newUrl != null && !newUrl.isEmpty()) {
+                try {
+                    javafx.scene.image.Image favicon = new javafx.scene.image.Image(newUrl, 14, 14, true, true, true);
+                    favicon.progressProperty().addListener((o, oldP, newP) -> {
+                        if (newP.doubleValue() >= 1.0 && !favicon.isError()) {
+                            Platform.runLater(() -> {
+                                faviconView.setImage(favicon);
+                                faviconContainer.getChildren().clear();
+                                faviconContainer.getChildren().add(faviconView);
+                            });
+                        }
+                    });
+                } catch (Exception e) {
+
+                    logger.debug("Failed to load favicon: {}", newUrl);
                 }
-            });
-        });
+            }
+        };
+        browserTab.faviconUrlProperty().addListener((obs, oldUrl, newUrl) -> Platform.runLater(() -> faviconLoader.accept(newUrl)));
+        faviconLoader.accept(browserTab.getFaviconUrl());
 
         Button closeBtn = new Button();
         FontIcon closeIcon = new FontIcon("mdi2c-close");
@@ -293,6 +403,9 @@ public class TabController {
 
         setupTabPreview(tab, header, browserTab);
 
+        header.setOpacity(browserTab.isHibernated() ? 0.6 : 1.0);
+        browserTab.hibernatedProperty().addListener((obs, wasHibernated, hibernated) -> header.setOpacity(hibernated ? 0.6 : 1.0));
+
 
         return header;
     }
@@ -355,10 +468,7 @@ public class TabController {
                     previewUrl.setText(browserTab.getUrl());
 
                     try {
-                        javafx.scene.image.WritableImage snapshot = browserTab.getPreviewSnapshot();
-                        if (snapshot != null) {
-                            previewImage.setImage(snapshot);
-                        }
+                        previewImage.setImage(browserTab.getPreviewSnapshot());
                     } catch (Exception ex) {
                         logger.debug("Could not get tab preview snapshot");
                     }
@@ -455,14 +565,10 @@ public class TabController {
         // Remove tab from maps
         tabBrowserMap.remove(tab);
         tabUuidMap.remove(tab);
+        tabLastActiveMap.remove(tab);
 
         tabPane.getTabs().remove(tab);
 
-        // Delete from database when tab is closed
-        if (browserTab != null && browserTab.getTabModel() != null) {
-            tabService.deleteTab(browserTab.getTabModel().getId());
-        }
-
         if (browserTab != null) {
             browserTab.dispose();
         }
@@ -472,6 +578,35 @@ public class TabController {
         }
     }
 
+    /** Shows every open tab as a grid of cached thumbnails over the page area. */
+    public void showTabOverview() {
+        if (tabOverview != null) {
+            closeTabOverview();
+            return;
+        }
+        javafx.scene.control.Tab selected = tabPane.getSelectionModel().getSelectedItem();
+        List<TabOverview.Item> items = new ArrayList<>();
+        for (javafx.scene.control.Tab tab : tabPane.getTabs()) {
+            BrowserTab browserTab = tabBrowserMap.get(tab);
+            if (browserTab == null) continue;
+            items.add(new TabOverview.Item(tab, browserTab.getTitle(), browserTab.getUrl(),
+                    browserTab.getPreviewSnapshot(), tab == selected));
+        }
+
+        tabOverview = new TabOverview(items, isDarkThemeActive(), key -> {
+            closeTabOverview();
+            tabPane.getSelectionModel().select((javafx.scene.control.Tab) key);
+        }, this::closeTabOverview);
+        browserContainer.getChildren().add(tabOverview);
+        tabOverview.requestFocus();
+    }
+
+    private void closeTabOverview() {
+        if (tabOverview == null) return;
+        browserContainer.getChildren().remove(tabOverview);
+        tabOverview = null;
+    }
+
     public BrowserTab getCurrentBrowserTab() {
         javafx.scene.control.Tab selectedTab = tabPane.getSelectionModel().getSelectedItem();
         if (selectedTab != null) {
@@ -546,52 +681,125 @@ public class TabController {
         return tabBrowserMap.get(fxTab);
     }
 
-    // === Session Persistence Methods ===
-
-    /**
-     * Save current tabs for the given profile
-     */
-    public void saveSessionForProfile(int profileId) {
-        try {
-            List<Tab> tabsToSave = new ArrayList<>();
+    /** Open browser tabs in tab strip order. */
+    public List<BrowserTab> getBrowserTabs() {
+        List<BrowserTab> tabs = new ArrayList<>();
+        for (javafx.scene.control.Tab tab : tabPane.getTabs()) {
+            BrowserTab browserTab = tabBrowserMap.get(tab);
+            if (browserTab != null) tabs.add(browserTab);
+        }
+        return tabs;
+    }
 
-            for (int i = 0; i < tabPane.getTabs().size(); i++) {
-                javafx.scene.control.Tab fxTab = tabPane.getTabs().get(i);
-                BrowserTab browserTab = tabBrowserMap.get(fxTab);
+    public void closeBrowserTab(BrowserTab browserTab) {
+        javafx.scene.control.Tab tab = fxTabOf(browserTab);
+        if (tab != null) handleTabClose(tab);
+    }
 
-                if (browserTab != null) {
-                    Tab tab = new Tab();
-                    tab.setProfileId(profileId);
+    /** Hibernates a background tab on request; the selected tab is never hibernated. */
+    public boolean hibernateBrowserTab(BrowserTab browserTab) {
+        javafx.scene.control.Tab tab = fxTabOf(browserTab);
+        if (tab == null || tab == tabPane.getSelectionModel().getSelectedItem()) return false;
+        return browserTab.hibernate();
+    }
 
-                    String title = browserTab.getTitle();
-                    if (title == null || title.trim().isEmpty()) {
-                        title = "New Tab"; // Fallback if title is null
-                    }
-                    tab.setTitle(title);
+    private javafx.scene.control.Tab fxTabOf(BrowserTab browserTab) {
+        for (Map.Entry<javafx.scene.control.Tab, BrowserTab> entry : tabBrowserMap.entrySet()) {
+            if (entry.getValue() == browserTab) return entry.getKey();
+        }
+        return null;
+    }
 
-                    tab.setUrl(browserTab.getUrl());
-                    tab.setPosition(i);
-                    tab.setActive(tabPane.getSelectionModel().getSelectedItem() == fxTab);
-                    tab.setPinned(false); // Add pinned state if you implement it
+    // === Session Persistence Methods ===
 
-                    tabsToSave.add(tab);
+    /** Records a tab strip change in the session journal, whatever made it. */
+    private void journalTabChanges(ListChangeListener.Change<? extends javafx.scene.control.Tab> change) {
+        while (change.next()) {
+            if (change.wasPermutated()) {
+                for (int i = change.getFrom(); i < change.getTo(); i++) {
+                    Integer id = tabJournalIds.get(change.getList().get(i));
+                    if (id != null) sessionJournal.move(id, i);
                 }
+                continue;
+            }
+            for (javafx.scene.control.Tab removed : change.getRemoved()) {
+                Integer id = tabJournalIds.remove(removed);
+                if (id != null) sessionJournal.close(id);
             }
+            List<? extends javafx.scene.control.Tab> added = change.getAddedSubList();
+            for (int i = 0; i < added.size(); i++) {
+                BrowserTab browserTab = tabBrowserMap.get(added.get(i));
+                if (browserTab == null || browserTab.getTabModel() == null) continue;
+                Tab tab = sessionTabOf(browserTab);
+                tabJournalIds.put(added.get(i), tab.getId());
+                sessionJournal.open(tab, change.getFrom() + i);
+            }
+        }
+    }
+
+    private void journalNavigation(BrowserTab browserTab) {
+        Tab tabModel = browserTab.getTabModel();
+        if (tabModel == null) return;
+        sessionJournal.navigate(tabModel.getId(), browserTab.getUrl(), browserTab.getTitle(), browserTab.getFaviconUrl(),
+                tabModel.isPinned());
+    }
 
-            // Always save tabs (even if empty) to clear old session
-            tabService.saveProfileTabs(tabsToSave, profileId);
-            logger.info("Saved {} tabs for profile {}", tabsToSave.size(), profileId);
+    private Tab sessionTabOf(BrowserTab browserTab) {
+        Tab tab = new Tab();
+        tab.setId(browserTab.getTabModel().getId());
+        tab.setUrl(browserTab.getUrl());
+        tab.setTitle(browserTab.getTitle());
+        tab.setFaviconUrl(browserTab.getFaviconUrl());
+        tab.setPinned(browserTab.getTabModel().isPinned());
+        return tab;
+    }
+
+    /** The open tabs in order, the selected one marked active. */
+    private List<Tab> currentSessionTabs() {
+        List<Tab> tabs = new ArrayList<>();
+        for (javafx.scene.control.Tab fxTab : tabPane.getTabs()) {
+            BrowserTab browserTab = tabBrowserMap.get(fxTab);
+            if (browserTab == null || browserTab.getTabModel() == null) continue;
+            Tab tab = sessionTabOf(browserTab);
+            tab.setPosition(tabs.size());
+            tab.setActive(tabPane.getSelectionModel().getSelectedItem() == fxTab);
+            tabs.add(tab);
+        }
+        return tabs;
+    }
+
+    /**
+     * Save current tabs for the given profile. The journal already holds them; this only
+     * folds its log into a snapshot and keeps the thumbnails.
+     */
+    public void saveSessionForProfile(int profileId) {
+        try {
+            List<Tab> tabs = currentSessionTabs();
+            sessionJournal.checkpoint();
+            thumbnailService.persist(profileId, tabs.stream().map(Tab::getUrl).toList());
+            logger.info("Saved {} tabs for profile {}", tabs.size(), profileId);
         } catch (Exception e) {
             logger.error("Error saving session for profile {}", profileId, e);
         }
     }
 
+    /** Forgets the saved tabs of a profile, e.g. when the session is not to be restored. */
+    public void clearSessionForProfile(int profileId) {
+        sessionJournal.reset(List.of());
+        tabService.clearProfileTabs(profileId);
+    }
+
     /**
-     * Restore tabs from saved session for the given profile
+     * Restore tabs from saved session for the given profile. Only the active tab is loaded;
+     * the others are placeholders that load when first selected, or in the background for
+     * the few next to the active one.
      */
     public void restoreSessionForProfile(int profileId) {
         try {
-            List<Tab> savedTabs = tabService.getTabsByProfileId(profileId);
+            List<Tab> journalTabs = sessionJournal.getTabs();
+            // Sessions saved before the journal existed are read once from the tabs table.
+            boolean fromJournal = !journalTabs.isEmpty();
+            List<Tab> savedTabs = fromJournal ? new ArrayList<>(journalTabs) : tabService.getTabsByProfileId(profileId);
 
             if (savedTabs.isEmpty()) {
                 logger.info("No saved tabs found for profile {}, creating default tab", profileId);
@@ -604,41 +812,61 @@ public class TabController {
             // Sort by position
             savedTabs.sort((a, b) -> Integer.compare(a.getPosition(), b.getPosition()));
 
-            // Clear old tabs from database - they'll be re-added as they're created
+            // The journal records the tabs as they're created; the old table is not read again
             tabService.clearProfileTabs(profileId);
-            logger.info("Cleared old saved tabs, will track current session going forward");
 
-            // Close any existing tabs first
+            thumbnailService.loadPersisted(profileId, savedTabs.stream().map(Tab::getUrl).toList());
+
+            Tab activeTab = savedTabs.get(0);
+            for (Tab tab : savedTabs) {
+                if (tab.isActive()) {
+                    activeTab = tab;
+                }
+            }
+            final Tab finalActiveTab = activeTab;
+
             Platform.runLater(() -> {
+                // Close any existing tabs first
                 tabPane.getTabs().clear();
                 tabBrowserMap.clear();
                 tabCleanupMap.clear();
                 tabUuidMap.clear();
-            });
+                tabLastActiveMap.clear();
+                warmUpQueue.clear();
+                warmingUp.clear();
+
+                List<javafx.scene.control.Tab> fxTabs = new ArrayList<>();
+                int activeIndex = 0;
+                for (Tab saved : savedTabs) {
+                    boolean active = saved == finalActiveTab;
+                    BrowserTab browserTab = active
+                            ? new BrowserTab(container, saved.getUrl())
+                            : BrowserTab.placeholder(container, saved.getUrl(), saved.getTitle(), saved.getFaviconUrl());
+
+                    Tab tabModel = new Tab(saved.getUrl());
+                    if (fromJournal) tabModel.setId(saved.getId());
+                    if (saved.getTitle() != null) tabModel.setTitle(saved.getTitle());
+                    tabModel.setFaviconUrl(saved.getFaviconUrl());
+                    tabModel.setPinned(saved.isPinned());
+
+                    if (active) activeIndex = fxTabs.size();
+                    fxTabs.add(createFxTab(browserTab, tabModel));
+                }
 
-            // Restore each tab
-            Tab activeTab = null;
-            for (Tab tab : savedTabs) {
-                if (tab.isActive()) {
-                    activeTab = tab;
+                // The tab pane selects the first tab added to it; adding the active one first
+                // keeps a placeholder from being selected, and so loaded, on the way.
+                javafx.scene.control.Tab activeFxTab = fxTabs.get(activeIndex);
+                tabPane.getTabs().add(activeFxTab);
+                for (int i = 0; i < fxTabs.size(); i++) {
+                    if (i != activeIndex) tabPane.getTabs().add(i, fxTabs.get(i));
                 }
-                Platform.runLater(() -> createNewTab(tab.getUrl()));
-            }
+                tabPane.getSelectionModel().select(activeFxTab);
 
-            // Select the active tab
-            if (activeTab != null) {
-                final Tab finalActiveTab = activeTab;
-                Platform.runLater(() -> {
-                    try {
-                        int activeIndex = finalActiveTab.getPosition();
-                        if (activeIndex >= 0 && activeIndex < tabPane.getTabs().size()) {
-                            tabPane.getSelectionModel().select(activeIndex);
-                        }
-                    } catch (Exception e) {
-                        logger.debug("Could not select active tab", e);
-                    }
-                });
-            }
+                if (settingsService.isPreloadPages()) {
+                    queueWarmUp(fxTabs, activeIndex);
+                    whenLoaded(tabBrowserMap.get(activeFxTab), this::warmUpNext);
+                }
+            });
 
         } catch (Exception e) {
             logger.error("Error restoring session for profile {}", profileId, e);
@@ -647,13 +875,59 @@ public class TabController {
         }
     }
 
+    private void queueWarmUp(List<javafx.scene.control.Tab> tabs, int activeIndex) {
+        int limit = WARM_UP_LIMIT;
+        int maxLive = settingsService.getMaxTabsInMemory();
+        if (maxLive > 0) limit = Math.min(limit, maxLive - 1);
+
+        // Nearest first, alternating right and left of the active tab.
+        for (int distance = 1; warmUpQueue.size() < limit && distance < tabs.size(); distance++) {
+            if (activeIndex + distance < tabs.size()) warmUpQueue.add(tabs.get(activeIndex + distance));
+            if (warmUpQueue.size() < limit && activeIndex - distance >= 0) warmUpQueue.add(tabs.get(activeIndex - distance));
+        }
+    }
+
+    private void warmUpNext() {
+        while (warmingUp.size() < WARM_UP_CONCURRENCY && !warmUpQueue.isEmpty()) {
+            BrowserTab browserTab = tabBrowserMap.get(warmUpQueue.poll());
+            // Closed or already selected in the meantime.
+            if (browserTab == null || !browserTab.isHibernated()) continue;
+
+            warmingUp.add(browserTab);
+            browserTab.wake();
+            whenLoaded(browserTab, () -> {
+                if (warmingUp.remove(browserTab)) warmUpNext();
+            });
+        }
+    }
+
+    /** Runs {@code action} once the tab's next page load ends, or after a timeout. */
+    private void whenLoaded(BrowserTab browserTab, Runnable action) {
+        javafx.animation.PauseTransition timeout = new javafx.animation.PauseTransition(WARM_UP_TIMEOUT);
+        ChangeListener<Boolean> listener = new ChangeListener<>() {
+            @Override
+            public void changed(javafx.beans.value.ObservableValue<? extends Boolean> obs, Boolean wasLoading, Boolean loading) {
+                if (!loading) {
+                    obs.removeListener(this);
+                    timeout.stop();
+                    action.run();
+                }
+            }
+        };
+        browserTab.loadingProperty().addListener(listener);
+        timeout.setOnFinished(e -> {
+            browserTab.loadingProperty().removeListener(listener);
+            action.run();
+        });
+        timeout.play();
+    }
+
     /**
      * Check if there are saved tabs for a profile
      */
     public boolean hasSessionForProfile(int profileId) {
         try {
-            List<Tab> savedTabs = tabService.getTabsByProfileId(profileId);
-            return !savedTabs.isEmpty();
+            return !sessionJournal.getTabs().isEmpty() || !tabService.getTabsByProfileId(profileId).isEmpty();
         } catch (Exception e) {
             logger.error("Error checking session for profile {}", profileId, e);
             return false;
@@ -0,0 +1,213 @@
+package com.example.nexus.controller;
+
+import com.example.nexus.view.components.BrowserTab;
+import com.example.nexus.view.components.TaskManagerPanel;
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Samples the resource use of every open tab for the task manager. While the panel is open a
+ * pass starts every couple of seconds and takes one tab per pulse, so many tabs never add up
+ * to one long frame. A tab costs a single script call reading its JS heap, DOM size and load
+ * timings; network bytes come from the loader hook. Native memory cannot be read per WebView,
+ * so the process memory outside the Java heap is shared out between live tabs by their size.
+ */
+public class TaskManagerController {
+    private static final Logger logger = LoggerFactory.getLogger(TaskManagerController.class);
+
+    private static final Duration SAMPLE_INTERVAL = Duration.seconds(2);
+    // Weight of a live WebView before its page is counted, in DOM nodes.
+    private static final long BASE_WEIGHT = 500;
+    private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+
+    /** One tab's figures; -1 means not available. */
+    public record Sample(BrowserTab tab, String title, String url, boolean selected, boolean hibernated,
+                         long jsHeapUsed, long jsHeapTotal, long domNodes, long domContentLoadedMillis,
+                         long loadMillis, long resources, long networkBytes, long nativeBytes) {}
+
+    /** A complete pass over all tabs, with process-wide figures. */
+    public record Pass(List<Sample> samples, long processNativeBytes, long javaHeapUsed,
+                       double sampleMillis, int pulses) {}
+
+    private record Measure(BrowserTab tab, boolean hibernated, long[] values) {}
+
+    private final TabController tabController;
+    private final Deque<BrowserTab> pending = new ArrayDeque<>();
+    private final List<Measure> measured = new ArrayList<>();
+    private Timeline timer;
+    private AnimationTimer pulse;
+    private boolean pulseRunning;
+    private long sampleNanos;
+    private Consumer<Pass> listener;
+    private TaskManagerPanel panel;
+
+    public TaskManagerController(TabController tabController) {
+        this.tabController = tabController;
+    }
+
+    public void showTaskManagerPanel(boolean isDarkTheme) {
+        if (panel != null && panel.isShowing()) {
+            panel.toFront();
+            panel.requestFocus();
+            return;
+        }
+        panel = new TaskManagerPanel(this, isDarkTheme);
+        panel.setOnHidden(e -> {
+            stop();
+            panel = null;
+        });
+        panel.show();
+        start(panel::update);
+    }
+
+    /** Starts sampling; {@code listener} receives every completed pass on the FX thread. */
+    public void start(Consumer<Pass> listener) {
+        this.listener = listener;
+        if (timer == null) {
+            timer = new Timeline(new KeyFrame(SAMPLE_INTERVAL, e -> beginPass()));
+            timer.setCycleCount(Timeline.INDEFINITE);
+        }
+        timer.play();
+        beginPass();
+    }
+
+    public void stop() {
+        listener = null;
+        if (timer != null) timer.stop();
+        if (pulse != null) pulse.stop();
+        pulseRunning = false;
+        pending.clear();
+        measured.clear();
+    }
+
+    /** Samples now instead of waiting for the next pass, e.g. after a tab was closed. */
+    public void refresh() {
+        if (listener != null && !pulseRunning) beginPass();
+    }
+
+    public void closeTab(BrowserTab tab) {
+        tabController.closeBrowserTab(tab);
+        refresh();
+    }
+
+    public boolean hibernateTab(BrowserTab tab) {
+        boolean hibernated = tabController.hibernateBrowserTab(tab);
+        if (hibernated) refresh();
+        return hibernated;
+    }
+
+    private void beginPass() {
+        // A pass still running when the next is due means the pulses are slow; let it finish.
+        if (pulseRunning || listener == null) return;
+        pending.addAll(tabController.getBrowserTabs());
+        measured.clear();
+        sampleNanos = 0;
+        if (pulse == null) {
+            pulse = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    BrowserTab tab = pending.poll();
+                    if (tab == null) {
+                        stopPulse();
+                        finishPass();
+                    } else {
+                        long start = System.nanoTime();
+                        measured.add(measure(tab));
+                        sampleNanos += System.nanoTime() - start;
+                    }
+                }
+            };
+        }
+        pulseRunning = true;
+        pulse.start();
+    }
+
+    private void stopPulse() {
+        pulse.stop();
+        pulseRunning = false;
+    }
+
+    private static Measure measure(BrowserTab tab) {
+        long[] values = {-1, -1, -1, -1, -1, -1};
+        if (tab.isHibernated()) return new Measure(tab, true, values);
+        if (tab.callPage("sample") instanceof String result) {
+            String[] parts = result.split(",");
+            for (int i = 0; i < parts.length && i < values.length; i++) {
+                try {
+                    values[i] = Math.round(Double.parseDouble(parts[i]));
+                } catch (NumberFormatException e) {
+                    // left at -1
+                }
+            }
+        }
+        return new Measure(tab, false, values);
+    }
+
+    private void finishPass() {
+        Consumer<Pass> target = listener;
+        if (target == null) return;
+
+        Set<BrowserTab> open = new HashSet<>(tabController.getBrowserTabs());
+        BrowserTab selected = tabController.getCurrentBrowserTab();
+        Runtime runtime = Runtime.getRuntime();
+        long rss = residentBytes();
+        long processNative = rss > 0 ? Math.max(0, rss - runtime.totalMemory()) : -1;
+
+        long totalWeight = 0;
+        for (Measure m : measured) {
+            if (open.contains(m.tab()) && !m.hibernated()) totalWeight += weight(m);
+        }
+
+        List<Sample> samples = new ArrayList<>(measured.size());
+        for (Measure m : measured) {
+            if (!open.contains(m.tab())) continue;
+            long[] v = m.values();
+            long nativeBytes = m.hibernated() ? 0
+                    : processNative < 0 || totalWeight == 0 ? -1 : processNative * weight(m) / totalWeight;
+            samples.add(new Sample(m.tab(), m.tab().getTitle(), m.tab().getUrl(), m.tab() == selected, m.hibernated(),
+                    v[0], v[1], v[2], v[3], v[4], v[5], m.hibernated() ? -1 : m.tab().getNetworkBytes(), nativeBytes));
+        }
+        int pulses = measured.size();
+        measured.clear();
+        target.accept(new Pass(samples, processNative, runtime.totalMemory() - runtime.freeMemory(),
+                sampleNanos / 1e6, pulses));
+    }
+
+    private static long weight(Measure m) {
+        long nodes = Math.max(0, m.values()[2]);
+        long heapKb = Math.max(0, m.values()[0]) / 1024;
+        return BASE_WEIGHT + nodes + heapKb;
+    }
+
+    /** Resident set size of the process, or -1 where /proc is not available. */
+    private static long residentBytes() {
+        if (!Files.isReadable(PROC_STATUS)) return -1;
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS)) {
+                if (line.startsWith("VmRSS:")) {
+                    String[] parts = line.substring(6).trim().split("\\s+");
+                    return Long.parseLong(parts[0]) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.debug("Could not read resident memory", e);
+        }
+        return -1;
+    }
+}
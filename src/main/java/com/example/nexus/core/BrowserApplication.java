@@ -1,9 +1,21 @@
 package com.example.nexus.core;
 
 import com.example.nexus.controller.MainController;
+import com.example.nexus.model.Profile;
+import com.example.nexus.repository.CookieRepository;
+import com.example.nexus.service.ContentBlocker;
+import com.example.nexus.service.DownloadService;
+import com.example.nexus.service.HttpResponseCache;
+import com.example.nexus.service.NavigationClassifier;
+import com.example.nexus.service.PageLoadStatsService;
+import com.example.nexus.service.PersistentCookieStore;
+import com.example.nexus.service.ProfileService;
+import com.example.nexus.service.SessionJournal;
+import com.example.nexus.service.WebViewPool;
 import com.example.nexus.util.DatabaseManager;
 import com.example.nexus.util.ThemeManager;
 import com.example.nexus.view.MainView;
+import com.example.nexus.view.components.PageRuntime;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Pos;
@@ -19,6 +31,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.net.CookieHandler;
+import java.net.CookieManager;
+import java.net.ResponseCache;
 import java.util.logging.Level;
 
 public class BrowserApplication extends Application {
@@ -56,9 +71,72 @@ public class BrowserApplication extends Application {
             logger.warn("Could not initialize SettingsService during init", e);
         }
 
+        installCookieStore();
+        installHttpCache();
+        installSessionJournal();
+        // WebViews are only created on the FX thread, the first when a tab is opened.
+        container.register(WebViewPool.class, new WebViewPool());
+
         container.registerDefaultControllers();
     }
 
+    // Must run before the first WebEngine exists: WebKit installs its own in-memory
+    // CookieHandler when none is set, and ours would then never see a request.
+    private void installCookieStore() {
+        try {
+            PersistentCookieStore cookieStore = new PersistentCookieStore(container.getOrCreate(CookieRepository.class));
+            ProfileService profileService = container.getOrCreate(ProfileService.class);
+            Profile profile = profileService.getCurrentProfile();
+            cookieStore.useProfile(profile != null ? profile.getId() : 1);
+            profileService.addProfileChangeListener(p -> cookieStore.useProfile(p.getId()));
+            CookieHandler.setDefault(new CookieManager(cookieStore, PersistentCookieStore.DOMAIN_MATCH_POLICY));
+            container.register(PersistentCookieStore.class, cookieStore);
+        } catch (Exception e) {
+            logger.warn("Could not install persistent cookie store", e);
+        }
+    }
+
+    private void installHttpCache() {
+        try {
+            HttpResponseCache httpCache = new HttpResponseCache(HttpResponseCache.defaultRoot());
+            ProfileService profileService = container.getOrCreate(ProfileService.class);
+            Profile profile = profileService.getCurrentProfile();
+            httpCache.useProfile(profile != null ? profile.getId() : 0);
+            profileService.addProfileChangeListener(p -> httpCache.useProfile(p.getId()));
+            installContentBlocker(httpCache);
+            ResponseCache.setDefault(httpCache);
+            container.register(HttpResponseCache.class, httpCache);
+        } catch (Exception e) {
+            logger.warn("Could not install HTTP cache", e);
+        }
+    }
+
+    // Loaded here, off the FX thread, so that restoring the session only reads memory.
+    private void installSessionJournal() {
+        try {
+            SessionJournal sessionJournal = new SessionJournal();
+            Profile profile = container.getOrCreate(ProfileService.class).getCurrentProfile();
+            sessionJournal.useProfile(profile != null ? profile.getId() : 1, null);
+            container.register(SessionJournal.class, sessionJournal);
+        } catch (Exception e) {
+            logger.warn("Could not open session journal", e);
+        }
+    }
+
+    private void installContentBlocker(HttpResponseCache httpCache) {
+        try {
+            ContentBlocker blocker = new ContentBlocker();
+            if (settingsService != null) {
+                blocker.setEnabled(settingsService.isBlockTrackers());
+                settingsService.addSettingsChangeListener(s -> blocker.setEnabled(s.isBlockTrackers()));
+            }
+            httpCache.setRequestFilter(blocker);
+            container.register(ContentBlocker.class, blocker);
+        } catch (Exception e) {
+            logger.warn("Could not install content blocker", e);
+        }
+    }
+
     private void suppressMediaPlayerWarnings() {
 
         java.util.logging.Logger.getLogger("com.sun.javafx.webkit.prism.WCMediaPlayerImpl").setLevel(Level.OFF);
@@ -190,6 +268,66 @@ public class BrowserApplication extends Application {
             controller.saveCurrentSession();
         }
 
+        SessionJournal sessionJournal = container.get(SessionJournal.class);
+        if (sessionJournal != null) {
+            var stats = sessionJournal.stats();
+            logger.info("Session journal: {} records, {} syncs, {} compactions, {} replayed at start",
+                    stats.records(), stats.syncs(), stats.compactions(), stats.replayed());
+            sessionJournal.close();
+        }
+
+        DownloadService downloadService = container.get(DownloadService.class);
+        if (downloadService != null) {
+            downloadService.getStateStore().checkpointAll();
+        }
+
+        HttpResponseCache httpCache = container.get(HttpResponseCache.class);
+        if (httpCache != null) {
+            var stats = httpCache.stats();
+            logger.info("HTTP cache: {} hits, {} revalidated, {} misses ({}% hit ratio), {} bytes saved",
+                    stats.hits(), stats.revalidated(), stats.misses(), Math.round(stats.hitRatio() * 100), stats.bytesSaved());
+            if (settingsService != null && settingsService.isClearCacheOnExit()) {
+                httpCache.clear();
+            }
+            httpCache.close();
+        }
+
+        PersistentCookieStore cookieStore = container.get(PersistentCookieStore.class);
+        if (cookieStore != null) {
+            cookieStore.close(settingsService != null && settingsService.isClearCookiesOnExit());
+        }
+
+        ContentBlocker blocker = container.get(ContentBlocker.class);
+        if (blocker != null) {
+            var stats = blocker.stats();
+            logger.info("Content blocker: {} of {} requests blocked, {} us average match time",
+                    stats.blocked(), stats.checked(), String.format("%.1f", stats.averageMicros()));
+            blocker.shutdown();
+        }
+
+        WebViewPool webViewPool = container.get(WebViewPool.class);
+        if (webViewPool != null) {
+            var stats = webViewPool.stats();
+            logger.info("WebView pool: {} hits, {} misses, {} recycled; {} tabs opened in {} ms on average, {} ms at most",
+                    stats.hits(), stats.misses(), stats.recycled(), stats.tabOpens(),
+                    String.format("%.1f", stats.averageOpenMillis()), String.format("%.1f", stats.maxOpenMillis()));
+        }
+
+        var runtimeStats = PageRuntime.stats();
+        logger.info("Page runtime: {} bridge calls for {} commands ({} per call), {} installs, {} upcalls",
+                runtimeStats.bridgeCalls(), runtimeStats.commands(), String.format("%.1f", runtimeStats.commandsPerCall()),
+                runtimeStats.installs(), runtimeStats.upcalls());
+
+        NavigationClassifier classifier = container.get(NavigationClassifier.class);
+        if (classifier != null) {
+            classifier.shutdown();
+        }
+
+        PageLoadStatsService pageLoadStats = container.get(PageLoadStatsService.class);
+        if (pageLoadStats != null) {
+            pageLoadStats.close();
+        }
+
         if (dbManager != null) {
             dbManager.close();
         }
@@ -11,6 +11,9 @@ public class Download {
     private long fileSize;
     private long downloadedSize;
     private String status;
+    private int priority;
+    private String checksum;
+    private String expectedChecksum;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
 
@@ -48,6 +51,15 @@ public class Download {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
+    public int getPriority() { return priority; }
+    public void setPriority(int priority) { this.priority = priority; }
+
+    public String getChecksum() { return checksum; }
+    public void setChecksum(String checksum) { this.checksum = checksum; }
+
+    public String getExpectedChecksum() { return expectedChecksum; }
+    public void setExpectedChecksum(String expectedChecksum) { this.expectedChecksum = expectedChecksum; }
+
     public LocalDateTime getStartTime() { return startTime; }
     public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
 
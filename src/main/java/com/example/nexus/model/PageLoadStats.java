@@ -0,0 +1,37 @@
+package com.example.nexus.model;
+
+/**
+ * Page load timings of one origin over one day. {@code day} is the epoch day in local time;
+ * {@code histograms} holds the encoded histogram of every measured metric.
+ */
+public class PageLoadStats {
+    private int id;
+    private String origin;
+    private long day;
+    private int loads;
+    private byte[] histograms;
+
+    public PageLoadStats() {}
+
+    public PageLoadStats(String origin, long day, int loads, byte[] histograms) {
+        this.origin = origin;
+        this.day = day;
+        this.loads = loads;
+        this.histograms = histograms;
+    }
+
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getOrigin() { return origin; }
+    public void setOrigin(String origin) { this.origin = origin; }
+
+    public long getDay() { return day; }
+    public void setDay(long day) { this.day = day; }
+
+    public int getLoads() { return loads; }
+    public void setLoads(int loads) { this.loads = loads; }
+
+    public byte[] getHistograms() { return histograms; }
+    public void setHistograms(byte[] histograms) { this.histograms = histograms; }
+}
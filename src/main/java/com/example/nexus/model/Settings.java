@@ -28,6 +28,7 @@ public class Settings {
     private boolean clearCacheOnExit;
     private boolean blockPopups;
     private boolean doNotTrack;
+    private boolean blockTrackers;
     private boolean blockThirdPartyCookies;
     private boolean httpsOnlyMode;
     private boolean saveBrowsingHistory;
@@ -44,6 +45,7 @@ public class Settings {
     private boolean preloadPages;
     private boolean lazyLoadImages;
     private int maxTabsInMemory;
+    private int tabSleepMinutes;
 
     private boolean highContrast;
     private boolean reduceMotion;
@@ -97,6 +99,7 @@ public class Settings {
         this.clearCacheOnExit = false;
         this.blockPopups = true;
         this.doNotTrack = true;
+        this.blockTrackers = true;
         this.blockThirdPartyCookies = false;
         this.httpsOnlyMode = false;
         this.saveBrowsingHistory = true;
@@ -113,6 +116,7 @@ public class Settings {
         this.preloadPages = true;
         this.lazyLoadImages = true;
         this.maxTabsInMemory = 0;
+        this.tabSleepMinutes = 30;
 
         this.highContrast = false;
         this.reduceMotion = false;
@@ -201,6 +205,9 @@ public class Settings {
     public boolean isDoNotTrack() { return doNotTrack; }
     public void setDoNotTrack(boolean doNotTrack) { this.doNotTrack = doNotTrack; }
 
+    public boolean isBlockTrackers() { return blockTrackers; }
+    public void setBlockTrackers(boolean blockTrackers) { this.blockTrackers = blockTrackers; }
+
     public boolean isBlockThirdPartyCookies() { return blockThirdPartyCookies; }
     public void setBlockThirdPartyCookies(boolean blockThirdPartyCookies) { this.blockThirdPartyCookies = blockThirdPartyCookies; }
 
@@ -243,6 +250,9 @@ public class Settings {
     public int getMaxTabsInMemory() { return maxTabsInMemory; }
     public void setMaxTabsInMemory(int maxTabsInMemory) { this.maxTabsInMemory = Math.max(0, maxTabsInMemory); }
 
+    public int getTabSleepMinutes() { return tabSleepMinutes; }
+    public void setTabSleepMinutes(int tabSleepMinutes) { this.tabSleepMinutes = Math.max(0, tabSleepMinutes); }
+
     public boolean isHighContrast() { return highContrast; }
     public void setHighContrast(boolean highContrast) { this.highContrast = highContrast; }
 
@@ -0,0 +1,76 @@
+package com.example.nexus.model;
+
+import java.net.HttpCookie;
+
+/**
+ * A persistent cookie of one profile. {@code site} is the registrable domain the cookie is
+ * indexed under; {@code expiresAt} is absolute, in epoch milliseconds.
+ */
+public class StoredCookie {
+    private int id;
+    private int profileId;
+    private String site;
+    private String domain;
+    private String path;
+    private String name;
+    private String value;
+    private long expiresAt;
+    private boolean secure;
+    private boolean httpOnly;
+
+    public StoredCookie() {}
+
+    public StoredCookie(int profileId, String site, HttpCookie cookie, long expiresAt) {
+        this.profileId = profileId;
+        this.site = site;
+        this.domain = cookie.getDomain();
+        this.path = cookie.getPath();
+        this.name = cookie.getName();
+        this.value = cookie.getValue();
+        this.expiresAt = expiresAt;
+        this.secure = cookie.getSecure();
+        this.httpOnly = cookie.isHttpOnly();
+    }
+
+    /** The cookie as seen by {@link java.net.CookieManager}, with its max-age counted from {@code now}. */
+    public HttpCookie toHttpCookie(long now) {
+        HttpCookie cookie = new HttpCookie(name, value);
+        cookie.setDomain(domain);
+        cookie.setPath(path);
+        cookie.setMaxAge(Math.max(1L, (expiresAt - now) / 1000L));
+        cookie.setSecure(secure);
+        cookie.setHttpOnly(httpOnly);
+        cookie.setVersion(0);
+        return cookie;
+    }
+
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public int getProfileId() { return profileId; }
+    public void setProfileId(int profileId) { this.profileId = profileId; }
+
+    public String getSite() { return site; }
+    public void setSite(String site) { this.site = site; }
+
+    public String getDomain() { return domain; }
+    public void setDomain(String domain) { this.domain = domain; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getValue() { return value; }
+    public void setValue(String value) { this.value = value; }
+
+    public long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(long expiresAt) { this.expiresAt = expiresAt; }
+
+    public boolean isSecure() { return secure; }
+    public void setSecure(boolean secure) { this.secure = secure; }
+
+    public boolean isHttpOnly() { return httpOnly; }
+    public void setHttpOnly(boolean httpOnly) { this.httpOnly = httpOnly; }
+}
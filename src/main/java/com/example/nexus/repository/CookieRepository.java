@@ -0,0 +1,172 @@
+package com.example.nexus.repository;
+
+import com.example.nexus.model.StoredCookie;
+import com.example.nexus.util.DatabaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class CookieRepository extends BaseRepository<StoredCookie> {
+    private static final Logger logger = LoggerFactory.getLogger(CookieRepository.class);
+
+    private static final String UPSERT_SQL = "INSERT OR REPLACE INTO cookies " +
+            "(profile_id, site, domain, path, name, value, expires_at, secure, http_only) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM cookies WHERE profile_id = ? AND domain = ? AND path = ? AND name = ?";
+
+    public CookieRepository(DatabaseManager dbManager) {
+        super(dbManager);
+    }
+
+    @Override
+    public List<StoredCookie> findAll() {
+        List<StoredCookie> cookies = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM cookies");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                cookies.add(mapResultSetToCookie(rs));
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding all cookies", e);
+        }
+        return cookies;
+    }
+
+    @Override
+    public StoredCookie findById(int id) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM cookies WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToCookie(rs);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding cookie by ID: " + id, e);
+        }
+        return null;
+    }
+
+    /** Cookies of a profile that have not expired by {@code now}. */
+    public List<StoredCookie> findByProfileId(int profileId, long now) {
+        List<StoredCookie> cookies = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM cookies WHERE profile_id = ? AND expires_at > ?")) {
+            stmt.setInt(1, profileId);
+            stmt.setLong(2, now);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    cookies.add(mapResultSetToCookie(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding cookies by profile ID: " + profileId, e);
+        }
+        return cookies;
+    }
+
+    @Override
+    public void save(StoredCookie cookie) {
+        saveAll(List.of(cookie), List.of());
+    }
+
+    @Override
+    public void update(StoredCookie cookie) {
+        saveAll(List.of(cookie), List.of());
+    }
+
+    @Override
+    public void delete(int id) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM cookies WHERE id = ?")) {
+            stmt.setInt(1, id);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error deleting cookie", e);
+        }
+    }
+
+    /** Writes and removes cookies in one transaction. */
+    public void saveAll(Collection<StoredCookie> upserts, Collection<StoredCookie> deletes) {
+        if (upserts.isEmpty() && deletes.isEmpty()) return;
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement upsert = conn.prepareStatement(UPSERT_SQL);
+                 PreparedStatement delete = conn.prepareStatement(DELETE_SQL)) {
+                for (StoredCookie c : upserts) {
+                    upsert.setInt(1, c.getProfileId());
+                    upsert.setString(2, c.getSite());
+                    upsert.setString(3, c.getDomain());
+                    upsert.setString(4, c.getPath());
+                    upsert.setString(5, c.getName());
+                    upsert.setString(6, c.getValue());
+                    upsert.setLong(7, c.getExpiresAt());
+                    upsert.setBoolean(8, c.isSecure());
+                    upsert.setBoolean(9, c.isHttpOnly());
+                    upsert.addBatch();
+                }
+                for (StoredCookie c : deletes) {
+                    delete.setInt(1, c.getProfileId());
+                    delete.setString(2, c.getDomain());
+                    delete.setString(3, c.getPath());
+                    delete.setString(4, c.getName());
+                    delete.addBatch();
+                }
+                if (!upserts.isEmpty()) upsert.executeBatch();
+                if (!deletes.isEmpty()) delete.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("Error writing {} cookie change(s)", upserts.size() + deletes.size(), e);
+        }
+    }
+
+    public void deleteByProfileId(int profileId) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM cookies WHERE profile_id = ?")) {
+            stmt.setInt(1, profileId);
+            int deleted = stmt.executeUpdate();
+            logger.debug("Deleted {} cookie(s) for profile ID: {}", deleted, profileId);
+        } catch (SQLException e) {
+            logger.error("Error deleting cookies by profile ID: " + profileId, e);
+        }
+    }
+
+    public void deleteExpired(int profileId, long now) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM cookies WHERE profile_id = ? AND expires_at <= ?")) {
+            stmt.setInt(1, profileId);
+            stmt.setLong(2, now);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error deleting expired cookies for profile ID: " + profileId, e);
+        }
+    }
+
+    private StoredCookie mapResultSetToCookie(ResultSet rs) throws SQLException {
+        StoredCookie c = new StoredCookie();
+        c.setId(rs.getInt("id"));
+        c.setProfileId(rs.getInt("profile_id"));
+        c.setSite(rs.getString("site"));
+        c.setDomain(rs.getString("domain"));
+        c.setPath(rs.getString("path"));
+        c.setName(rs.getString("name"));
+        c.setValue(rs.getString("value"));
+        c.setExpiresAt(rs.getLong("expires_at"));
+        c.setSecure(rs.getBoolean("secure"));
+        c.setHttpOnly(rs.getBoolean("http_only"));
+        return c;
+    }
+}
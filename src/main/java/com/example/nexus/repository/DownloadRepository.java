@@ -57,7 +57,7 @@ public class DownloadRepository extends BaseRepository<Download> {
     @Override
     public void save(Download download) {
         String sql = "INSERT INTO downloads (user_id, url, file_name, file_path, file_size, " +
-                "downloaded_size, status, start_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+                "downloaded_size, status, priority, checksum, expected_checksum, start_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (PreparedStatement stmt = getConnection().prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, 1);
@@ -67,7 +67,10 @@ public class DownloadRepository extends BaseRepository<Download> {
             stmt.setLong(5, download.getFileSize());
             stmt.setLong(6, download.getDownloadedSize());
             stmt.setString(7, download.getStatus());
-            stmt.setTimestamp(8, Timestamp.valueOf(download.getStartTime()));
+            stmt.setInt(8, download.getPriority());
+            stmt.setString(9, download.getChecksum());
+            stmt.setString(10, download.getExpectedChecksum());
+            stmt.setTimestamp(11, Timestamp.valueOf(download.getStartTime()));
 
             int affectedRows = stmt.executeUpdate();
 
@@ -86,7 +89,7 @@ public class DownloadRepository extends BaseRepository<Download> {
     @Override
     public void update(Download download) {
         String sql = "UPDATE downloads SET url = ?, file_name = ?, file_path = ?, file_size = ?, " +
-                "downloaded_size = ?, status = ?, end_time = ? WHERE id = ?";
+                "downloaded_size = ?, status = ?, priority = ?, checksum = ?, end_time = ? WHERE id = ?";
 
         try (PreparedStatement stmt = getConnection().prepareStatement(sql)) {
             stmt.setString(1, download.getUrl());
@@ -95,14 +98,16 @@ public class DownloadRepository extends BaseRepository<Download> {
             stmt.setLong(4, download.getFileSize());
             stmt.setLong(5, download.getDownloadedSize());
             stmt.setString(6, download.getStatus());
+            stmt.setInt(7, download.getPriority());
+            stmt.setString(8, download.getChecksum());
 
             if (download.getEndTime() != null) {
-                stmt.setTimestamp(7, Timestamp.valueOf(download.getEndTime()));
+                stmt.setTimestamp(9, Timestamp.valueOf(download.getEndTime()));
             } else {
-                stmt.setNull(7, java.sql.Types.TIMESTAMP);
+                stmt.setNull(9, java.sql.Types.TIMESTAMP);
             }
 
-            stmt.setInt(8, download.getId());
+            stmt.setInt(10, download.getId());
 
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -142,6 +147,9 @@ public class DownloadRepository extends BaseRepository<Download> {
         download.setFileSize(rs.getLong("file_size"));
         download.setDownloadedSize(rs.getLong("downloaded_size"));
         download.setStatus(rs.getString("status"));
+        download.setPriority(rs.getInt("priority"));
+        download.setChecksum(rs.getString("checksum"));
+        download.setExpectedChecksum(rs.getString("expected_checksum"));
 
         Timestamp startTime = rs.getTimestamp("start_time");
         if (startTime != null) {
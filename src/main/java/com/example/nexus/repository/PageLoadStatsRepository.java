@@ -0,0 +1,154 @@
+package com.example.nexus.repository;
+
+import com.example.nexus.model.PageLoadStats;
+import com.example.nexus.util.DatabaseManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class PageLoadStatsRepository extends BaseRepository<PageLoadStats> {
+    private static final Logger logger = LoggerFactory.getLogger(PageLoadStatsRepository.class);
+
+    private static final String UPSERT_SQL = "INSERT OR REPLACE INTO page_load_stats " +
+            "(origin, day, loads, histograms) VALUES (?, ?, ?, ?)";
+
+    public PageLoadStatsRepository(DatabaseManager dbManager) {
+        super(dbManager);
+    }
+
+    @Override
+    public List<PageLoadStats> findAll() {
+        return findSince(Long.MIN_VALUE);
+    }
+
+    @Override
+    public PageLoadStats findById(int id) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM page_load_stats WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToStats(rs);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding page load stats by ID: " + id, e);
+        }
+        return null;
+    }
+
+    public PageLoadStats find(String origin, long day) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM page_load_stats WHERE origin = ? AND day = ?")) {
+            stmt.setString(1, origin);
+            stmt.setLong(2, day);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToStats(rs);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding page load stats of {} for day {}", origin, day, e);
+        }
+        return null;
+    }
+
+    /** Rows of every origin from {@code day} on, oldest first. */
+    public List<PageLoadStats> findSince(long day) {
+        List<PageLoadStats> stats = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM page_load_stats WHERE day >= ? ORDER BY day")) {
+            stmt.setLong(1, day);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    stats.add(mapResultSetToStats(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding page load stats since day {}", day, e);
+        }
+        return stats;
+    }
+
+    @Override
+    public void save(PageLoadStats stats) {
+        saveAll(List.of(stats));
+    }
+
+    @Override
+    public void update(PageLoadStats stats) {
+        saveAll(List.of(stats));
+    }
+
+    /** Writes rows in one transaction, replacing those of the same origin and day. */
+    public void saveAll(Collection<PageLoadStats> rows) {
+        if (rows.isEmpty()) return;
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement upsert = conn.prepareStatement(UPSERT_SQL)) {
+                for (PageLoadStats s : rows) {
+                    upsert.setString(1, s.getOrigin());
+                    upsert.setLong(2, s.getDay());
+                    upsert.setInt(3, s.getLoads());
+                    upsert.setBytes(4, s.getHistograms());
+                    upsert.addBatch();
+                }
+                upsert.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("Error writing {} page load stats row(s)", rows.size(), e);
+        }
+    }
+
+    @Override
+    public void delete(int id) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM page_load_stats WHERE id = ?")) {
+            stmt.setInt(1, id);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error deleting page load stats", e);
+        }
+    }
+
+    public int deleteBefore(long day) {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM page_load_stats WHERE day < ?")) {
+            stmt.setLong(1, day);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error deleting page load stats before day {}", day, e);
+            return 0;
+        }
+    }
+
+    public void deleteAll() {
+        try (Connection conn = getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM page_load_stats")) {
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.error("Error deleting page load stats", e);
+        }
+    }
+
+    private PageLoadStats mapResultSetToStats(ResultSet rs) throws SQLException {
+        PageLoadStats s = new PageLoadStats();
+        s.setId(rs.getInt("id"));
+        s.setOrigin(rs.getString("origin"));
+        s.setDay(rs.getLong("day"));
+        s.setLoads(rs.getInt("loads"));
+        s.setHistograms(rs.getBytes("histograms"));
+        return s;
+    }
+}
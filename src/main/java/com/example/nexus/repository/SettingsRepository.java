@@ -115,15 +115,15 @@ public class SettingsRepository extends BaseRepository<Settings> {
                 user_id, theme, accent_color, font_size, page_zoom, show_bookmarks_bar, show_status_bar, compact_mode,
                 home_page, startup_behavior, restore_session, new_tab_page, custom_new_tab_url,
                 search_engine, custom_search_url, show_search_suggestions, search_in_address_bar,
-                clear_history_on_exit, clear_cookies_on_exit, clear_cache_on_exit, block_popups, do_not_track,
+                clear_history_on_exit, clear_cookies_on_exit, clear_cache_on_exit, block_popups, do_not_track, block_trackers,
                 block_third_party_cookies, https_only_mode, save_browsing_history, save_form_data, save_passwords,
                 download_path, ask_download_location, open_pdf_in_browser, show_download_notification,
-                hardware_acceleration, smooth_scrolling, preload_pages, lazy_load_images, max_tabs_in_memory,
+                hardware_acceleration, smooth_scrolling, preload_pages, lazy_load_images, max_tabs_in_memory, tab_sleep_minutes,
                 high_contrast, reduce_motion, force_zoom, default_encoding,
                 enable_javascript, enable_images, enable_webgl, developer_mode,
                 proxy_mode, proxy_host, proxy_port, user_agent,
                 enable_notifications, sound_enabled
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
             """;
 
         try (PreparedStatement stmt = getConnection().prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
@@ -154,6 +154,7 @@ public class SettingsRepository extends BaseRepository<Settings> {
             stmt.setBoolean(i++, s.isClearCacheOnExit());
             stmt.setBoolean(i++, s.isBlockPopups());
             stmt.setBoolean(i++, s.isDoNotTrack());
+            stmt.setBoolean(i++, s.isBlockTrackers());
             stmt.setBoolean(i++, s.isBlockThirdPartyCookies());
             stmt.setBoolean(i++, s.isHttpsOnlyMode());
             stmt.setBoolean(i++, s.isSaveBrowsingHistory());
@@ -170,6 +171,7 @@ public class SettingsRepository extends BaseRepository<Settings> {
             stmt.setBoolean(i++, s.isPreloadPages());
             stmt.setBoolean(i++, s.isLazyLoadImages());
             stmt.setInt(i++, s.getMaxTabsInMemory());
+            stmt.setInt(i++, s.getTabSleepMinutes());
 
             stmt.setBoolean(i++, s.isHighContrast());
             stmt.setBoolean(i++, s.isReduceMotion());
@@ -212,10 +214,10 @@ public class SettingsRepository extends BaseRepository<Settings> {
                 theme = ?, accent_color = ?, font_size = ?, page_zoom = ?, show_bookmarks_bar = ?, show_status_bar = ?, compact_mode = ?,
                 home_page = ?, startup_behavior = ?, restore_session = ?, new_tab_page = ?, custom_new_tab_url = ?,
                 search_engine = ?, custom_search_url = ?, show_search_suggestions = ?, search_in_address_bar = ?,
-                clear_history_on_exit = ?, clear_cookies_on_exit = ?, clear_cache_on_exit = ?, block_popups = ?, do_not_track = ?,
+                clear_history_on_exit = ?, clear_cookies_on_exit = ?, clear_cache_on_exit = ?, block_popups = ?, do_not_track = ?, block_trackers = ?,
                 block_third_party_cookies = ?, https_only_mode = ?, save_browsing_history = ?, save_form_data = ?, save_passwords = ?,
                 download_path = ?, ask_download_location = ?, open_pdf_in_browser = ?, show_download_notification = ?,
-                hardware_acceleration = ?, smooth_scrolling = ?, preload_pages = ?, lazy_load_images = ?, max_tabs_in_memory = ?,
+                hardware_acceleration = ?, smooth_scrolling = ?, preload_pages = ?, lazy_load_images = ?, max_tabs_in_memory = ?, tab_sleep_minutes = ?,
                 high_contrast = ?, reduce_motion = ?, force_zoom = ?, default_encoding = ?,
                 enable_javascript = ?, enable_images = ?, enable_webgl = ?, developer_mode = ?,
                 proxy_mode = ?, proxy_host = ?, proxy_port = ?, user_agent = ?,
@@ -250,6 +252,7 @@ public class SettingsRepository extends BaseRepository<Settings> {
             stmt.setBoolean(i++, s.isClearCacheOnExit());
             stmt.setBoolean(i++, s.isBlockPopups());
             stmt.setBoolean(i++, s.isDoNotTrack());
+            stmt.setBoolean(i++, s.isBlockTrackers());
             stmt.setBoolean(i++, s.isBlockThirdPartyCookies());
             stmt.setBoolean(i++, s.isHttpsOnlyMode());
             stmt.setBoolean(i++, s.isSaveBrowsingHistory());
@@ -266,6 +269,7 @@ public class SettingsRepository extends BaseRepository<Settings> {
             stmt.setBoolean(i++, s.isPreloadPages());
             stmt.setBoolean(i++, s.isLazyLoadImages());
             stmt.setInt(i++, s.getMaxTabsInMemory());
+            stmt.setInt(i++, s.getTabSleepMinutes());
 
             stmt.setBoolean(i++, s.isHighContrast());
             stmt.setBoolean(i++, s.isReduceMotion());
@@ -335,6 +339,7 @@ public class SettingsRepository extends BaseRepository<Settings> {
         s.setClearCacheOnExit(getBoolOrDefault(rs, "clear_cache_on_exit", false));
         s.setBlockPopups(getBoolOrDefault(rs, "block_popups", true));
         s.setDoNotTrack(getBoolOrDefault(rs, "do_not_track", true));
+        s.setBlockTrackers(getBoolOrDefault(rs, "block_trackers", true));
         s.setBlockThirdPartyCookies(getBoolOrDefault(rs, "block_third_party_cookies", false));
         s.setHttpsOnlyMode(getBoolOrDefault(rs, "https_only_mode", false));
         s.setSaveBrowsingHistory(getBoolOrDefault(rs, "save_browsing_history", true));
@@ -351,6 +356,7 @@ public class SettingsRepository extends BaseRepository<Settings> {
         s.setPreloadPages(getBoolOrDefault(rs, "preload_pages", true));
         s.setLazyLoadImages(getBoolOrDefault(rs, "lazy_load_images", true));
         s.setMaxTabsInMemory(getIntOrDefault(rs, "max_tabs_in_memory", 0));
+        s.setTabSleepMinutes(getIntOrDefault(rs, "tab_sleep_minutes", 30));
 
         s.setHighContrast(getBoolOrDefault(rs, "high_contrast", false));
         s.setReduceMotion(getBoolOrDefault(rs, "reduce_motion", false));
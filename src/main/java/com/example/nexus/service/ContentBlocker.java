@@ -0,0 +1,377 @@
+package com.example.nexus.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Blocks ad and tracker requests made by pages. Filter lists in EasyList syntax are read from
+ * {@code ~/.nexus/filters} next to a small built-in list, compiled by {@link FilterEngine} and
+ * cached as {@code compiled.bin} so later starts skip parsing. The default subscriptions are
+ * refreshed in the background every few days. Installed as the request filter of
+ * {@link HttpResponseCache}, so a blocked request never opens a connection.
+ */
+public class ContentBlocker implements HttpResponseCache.RequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ContentBlocker.class);
+
+    private static final String BUILTIN_LIST = "/com/example/nexus/filters/default.txt";
+    private static final String COMPILED_FILE = "compiled.bin";
+    private static final Map<String, String> SUBSCRIPTIONS = Map.of(
+            "easylist.txt", "https://easylist.to/easylist/easylist.txt",
+            "easyprivacy.txt", "https://easylist.to/easylist/easyprivacy.txt");
+    private static final long UPDATE_AFTER_MILLIS = TimeUnit.DAYS.toMillis(4);
+
+    /** {@code matchNanos} is the total time spent deciding, over {@code checked} requests. */
+    public record Stats(int rules, long checked, long blocked, long matchNanos, boolean fromCache) {
+
+        public double averageMicros() {
+            return checked == 0 ? 0.0 : matchNanos / 1000.0 / checked;
+        }
+    }
+
+    /**
+     * Blocked-request count and network bytes of one page, reset on navigation. Requests are
+     * attributed through their Referer; bytes are only counted where the response declared a
+     * Content-Length.
+     */
+    public final class PageCounter {
+        private final IntConsumer listener;
+        private final AtomicInteger blocked = new AtomicInteger();
+        private final AtomicLong networkBytes = new AtomicLong();
+        private volatile String pageUrl;
+        private volatile String origin;
+        private volatile long navigatedAt;
+
+        private PageCounter(IntConsumer listener) {
+            this.listener = listener;
+        }
+
+        public void navigated(String url) {
+            pageUrl = url;
+            origin = originOf(url);
+            navigatedAt = System.nanoTime();
+            blocked.set(0);
+            networkBytes.set(0);
+            listener.accept(0);
+        }
+
+        public int getBlocked() {
+            return blocked.get();
+        }
+
+        public long getNetworkBytes() {
+            return networkBytes.get();
+        }
+
+        private void increment() {
+            listener.accept(blocked.incrementAndGet());
+        }
+    }
+
+    private final Path dir;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "nexus-filters");
+        t.setDaemon(true);
+        return t;
+    });
+    private final List<PageCounter> pages = new CopyOnWriteArrayList<>();
+    private volatile FilterEngine engine;
+    private volatile boolean fromCache;
+    private volatile boolean enabled = true;
+
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong matchNanos = new AtomicLong();
+
+    public ContentBlocker() {
+        this(defaultDirectory());
+    }
+
+    public ContentBlocker(Path dir) {
+        this.dir = dir;
+        loader.execute(() -> {
+            load();
+            if (!"false".equals(System.getProperty("nexus.filters.autoUpdate")) && updateSubscriptions()) load();
+        });
+    }
+
+    public static Path defaultDirectory() {
+        String d = System.getProperty("nexus.filters.dir");
+        return d != null ? Paths.get(d) : Paths.get(System.getProperty("user.home"), ".nexus", "filters");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Stats stats() {
+        FilterEngine e = engine;
+        return new Stats(e != null ? e.ruleCount() : 0, checked.get(), blocked.get(), matchNanos.get(), fromCache);
+    }
+
+    public PageCounter registerPage(IntConsumer listener) {
+        PageCounter counter = new PageCounter(listener);
+        pages.add(counter);
+        return counter;
+    }
+
+    public void unregisterPage(PageCounter counter) {
+        pages.remove(counter);
+    }
+
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    @Override
+    public boolean blocks(URI uri, Map<String, List<String>> requestHeaders) {
+        FilterEngine e = engine;
+        if (!enabled || e == null) return false;
+        String accept = header(requestHeaders, "Accept");
+        // Documents, including frames, are left alone; only their subresources are filtered.
+        if (accept != null && accept.contains("text/html")) return false;
+
+        long start = System.nanoTime();
+        String referer = header(requestHeaders, "Referer");
+        String url = uri.toString();
+        String rule = e.match(FilterEngine.request(url, referer, typeOf(accept, uri.getRawPath())));
+        matchNanos.addAndGet(System.nanoTime() - start);
+        checked.incrementAndGet();
+        if (rule == null) return false;
+
+        blocked.incrementAndGet();
+        logger.debug("Blocked {} by {}", url, rule);
+        PageCounter page = referer != null ? pageFor(referer) : null;
+        if (page != null) page.increment();
+        return true;
+    }
+
+    @Override
+    public void received(URI uri, Map<String, List<String>> requestHeaders, long bytes) {
+        if (bytes <= 0 || pages.isEmpty()) return;
+        PageCounter page = null;
+        String accept = header(requestHeaders, "Accept");
+        if (accept != null && accept.contains("text/html")) {
+            // A top-level document is credited to the page it becomes, not the one linking to it.
+            String url = uri.toString();
+            for (PageCounter p : pages) {
+                if (url.equals(p.pageUrl)) page = p;
+            }
+        }
+        if (page == null) {
+            String referer = header(requestHeaders, "Referer");
+            if (referer != null) page = pageFor(referer);
+        }
+        if (page != null) page.networkBytes.addAndGet(bytes);
+    }
+
+    /** The page the Referer names, or failing that the latest page of its origin. */
+    private PageCounter pageFor(String referer) {
+        String origin = originOf(referer);
+        PageCounter best = null;
+        int bestRank = 0;
+        for (PageCounter page : pages) {
+            int rank = referer.equals(page.pageUrl) ? 2 : origin != null && origin.equals(page.origin) ? 1 : 0;
+            if (rank == 0) continue;
+            if (rank > bestRank || rank == bestRank && page.navigatedAt > best.navigatedAt) {
+                best = page;
+                bestRank = rank;
+            }
+        }
+        return best;
+    }
+
+    static int typeOf(String accept, String path) {
+        if (accept != null) {
+            String a = accept.toLowerCase(Locale.ROOT);
+            if (a.startsWith("text/css")) return FilterEngine.TYPE_STYLESHEET;
+            if (a.startsWith("image/")) return FilterEngine.TYPE_IMAGE;
+            if (a.startsWith("video/") || a.startsWith("audio/")) return FilterEngine.TYPE_MEDIA;
+        }
+        String p = path != null ? path.toLowerCase(Locale.ROOT) : "";
+        int dot = p.lastIndexOf('.');
+        if (dot < 0 || dot < p.lastIndexOf('/')) return FilterEngine.TYPE_UNKNOWN;
+        return switch (p.substring(dot + 1)) {
+            case "js", "mjs" -> FilterEngine.TYPE_SCRIPT;
+            case "css" -> FilterEngine.TYPE_STYLESHEET;
+            case "png", "jpg", "jpeg", "gif", "webp", "svg", "ico", "bmp", "avif" -> FilterEngine.TYPE_IMAGE;
+            case "woff", "woff2", "ttf", "otf", "eot" -> FilterEngine.TYPE_FONT;
+            case "mp4", "webm", "mp3", "ogg", "m4a", "m3u8" -> FilterEngine.TYPE_MEDIA;
+            case "swf" -> FilterEngine.TYPE_OBJECT;
+            default -> FilterEngine.TYPE_UNKNOWN;
+        };
+    }
+
+    private static String header(Map<String, List<String>> headers, String name) {
+        for (Map.Entry<String, List<String>> h : headers.entrySet()) {
+            if (name.equalsIgnoreCase(h.getKey()) && !h.getValue().isEmpty()) return h.getValue().get(0);
+        }
+        return null;
+    }
+
+    private static String originOf(String url) {
+        try {
+            URI u = URI.create(url);
+            return u.getScheme() != null && u.getRawAuthority() != null
+                    ? (u.getScheme() + "://" + u.getRawAuthority()).toLowerCase(Locale.ROOT) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // ---- loading -----------------------------------------------------------------------
+
+    private void load() {
+        long start = System.nanoTime();
+        List<Path> sources = listSources();
+        String key = sourceKey(sources);
+        Path compiled = dir.resolve(COMPILED_FILE);
+
+        if (Files.isRegularFile(compiled)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(compiled), 1 << 16))) {
+                FilterEngine cached = FilterEngine.read(in, key);
+                if (cached != null) {
+                    engine = cached;
+                    fromCache = true;
+                    logger.info("Loaded {} compiled filter rules in {} ms", cached.ruleCount(), (System.nanoTime() - start) / 1_000_000);
+                    return;
+                }
+            } catch (IOException e) {
+                logger.warn("Compiled filters unreadable, recompiling: {}", e.getMessage());
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = ContentBlocker.class.getResourceAsStream(BUILTIN_LIST)) {
+            if (in != null) readLines(in, lines);
+        } catch (IOException e) {
+            logger.warn("Could not read built-in filter list", e);
+        }
+        for (Path source : sources) {
+            try (InputStream in = Files.newInputStream(source)) {
+                readLines(in, lines);
+            } catch (IOException e) {
+                logger.warn("Could not read filter list {}", source, e);
+            }
+        }
+        FilterEngine compiledEngine = FilterEngine.compile(lines);
+        engine = compiledEngine;
+        fromCache = false;
+        logger.info("Compiled {} filter rules from {} lists in {} ms ({} skipped)", compiledEngine.ruleCount(),
+                sources.size() + 1, (System.nanoTime() - start) / 1_000_000, compiledEngine.skippedCount());
+
+        try {
+            Files.createDirectories(dir);
+            Path tmp = dir.resolve(COMPILED_FILE + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                compiledEngine.write(out, key);
+            }
+            Files.move(tmp, compiled, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not cache compiled filters: {}", e.getMessage());
+        }
+    }
+
+    private static void readLines(InputStream in, List<String> lines) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) lines.add(line);
+    }
+
+    private List<Path> listSources() {
+        List<Path> sources = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return sources;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.txt")) {
+            stream.forEach(sources::add);
+        } catch (IOException e) {
+            logger.warn("Could not list filter lists in {}", dir, e);
+        }
+        sources.sort(null);
+        return sources;
+    }
+
+    /** Identifies the exact set of list files a compiled engine was built from. */
+    private static String sourceKey(List<Path> sources) {
+        StringBuilder key = new StringBuilder(BUILTIN_LIST);
+        for (Path source : sources) {
+            try {
+                key.append('|').append(source.getFileName()).append(':').append(Files.size(source))
+                        .append(':').append(Files.getLastModifiedTime(source).toMillis());
+            } catch (IOException e) {
+                key.append('|').append(source.getFileName());
+            }
+        }
+        return key.toString();
+    }
+
+    /** Downloads default subscriptions that are missing or out of date; true if any changed. */
+    private boolean updateSubscriptions() {
+        HttpClient client = null;
+        boolean changed = false;
+        for (Map.Entry<String, String> subscription : SUBSCRIPTIONS.entrySet()) {
+            Path target = dir.resolve(subscription.getKey());
+            try {
+                if (Files.isRegularFile(target)
+                        && System.currentTimeMillis() - Files.getLastModifiedTime(target).toMillis() < UPDATE_AFTER_MILLIS) {
+                    continue;
+                }
+                if (client == null) {
+                    client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(15))
+                            .followRedirects(HttpClient.Redirect.NORMAL).build();
+                }
+                Files.createDirectories(dir);
+                Path tmp = dir.resolve(subscription.getKey() + ".part");
+                HttpResponse<Path> response = client.send(HttpRequest.newBuilder(URI.create(subscription.getValue()))
+                        .timeout(Duration.ofSeconds(60)).GET().build(), HttpResponse.BodyHandlers.ofFile(tmp));
+                if (response.statusCode() != 200 || Files.size(tmp) == 0) {
+                    Files.deleteIfExists(tmp);
+                    logger.warn("Filter list update from {} failed with HTTP {}", subscription.getValue(), response.statusCode());
+                    continue;
+                }
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                changed = true;
+                logger.info("Updated filter list {}", subscription.getKey());
+            } catch (IOException e) {
+                logger.warn("Could not update filter list {}: {}", subscription.getKey(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return changed;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.nexus.service;
+
+import com.example.nexus.model.Download;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads started together, e.g. every PDF linked from a page. Members are ordinary
+ * downloads going through the scheduler; the batch only groups them so progress can be
+ * shown and the batch cancelled as one.
+ */
+public class DownloadBatch {
+
+    public enum Category {
+        DOCUMENTS("Documents", "pdf|docx?|xlsx?|pptx?|odt|ods|odp|rtf|txt|csv|epub"),
+        IMAGES("Images", "png|jpe?g|gif|bmp|webp|svg|tiff?"),
+        ARCHIVES("Archives", "zip|rar|7z|tar|gz|tgz|bz2|xz|iso|dmg|exe|msi"),
+        MEDIA("Audio & video", "mp3|wav|flac|ogg|m4a|mp4|mkv|webm|mov|avi");
+
+        private final String label;
+        private final Pattern pattern;
+
+        Category(String label, String extensions) {
+            this.label = label;
+            this.pattern = Pattern.compile(".*\\.(?:" + extensions + ")$", Pattern.CASE_INSENSITIVE);
+        }
+
+        public String label() {
+            return label;
+        }
+
+        /** The category of a URL by the extension of its path, or null. */
+        public static Category of(String url) {
+            String path = pathOf(url);
+            if (path == null) return null;
+            for (Category c : values()) {
+                if (c.pattern.matcher(path).matches()) return c;
+            }
+            return null;
+        }
+    }
+
+    public record Progress(int total, int completed, int failed, int active, long downloadedBytes, long totalBytes) {
+        public boolean isDone() {
+            return completed + failed >= total;
+        }
+
+        /** Byte progress when every size is known, else the share of finished members. */
+        public double fraction() {
+            if (total == 0) return 1.0;
+            if (totalBytes > 0) return Math.min(1.0, (double) downloadedBytes / totalBytes);
+            return (double) (completed + failed) / total;
+        }
+    }
+
+    private static final AtomicInteger ids = new AtomicInteger();
+
+    private final int id;
+    private final String label;
+    private final List<Integer> downloadIds;
+    private final int skipped;
+    private final DownloadStateStore state;
+
+    DownloadBatch(String label, List<Integer> downloadIds, int skipped, DownloadStateStore state) {
+        this.id = ids.incrementAndGet();
+        this.label = label;
+        this.downloadIds = Collections.unmodifiableList(new ArrayList<>(downloadIds));
+        this.skipped = skipped;
+        this.state = state;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public List<Integer> getDownloadIds() {
+        return downloadIds;
+    }
+
+    /** Links left out because they were duplicates or already downloaded. */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public boolean contains(int downloadId) {
+        return downloadIds.contains(downloadId);
+    }
+
+    /** Aggregated over the members that still exist; a size is only counted once known. */
+    public Progress progress() {
+        int total = 0, completed = 0, failed = 0, active = 0;
+        long downloaded = 0, size = 0;
+        boolean allSized = true;
+        for (int downloadId : downloadIds) {
+            Download d = state.get(downloadId);
+            if (d == null) continue;
+            total++;
+            String status = d.getStatus();
+            if ("completed".equals(status)) completed++;
+            else if ("failed".equals(status) || "cancelled".equals(status)) failed++;
+            else if ("downloading".equals(status)) active++;
+            if (d.getFileSize() > 0) {
+                size += d.getFileSize();
+                downloaded += Math.min(d.getDownloadedSize(), d.getFileSize());
+            } else {
+                allSized = false;
+            }
+        }
+        return new Progress(total, completed, failed, active, downloaded, allSized ? size : -1L);
+    }
+
+    /** Links of the given categories, without fragments and duplicates, in page order. */
+    public static List<String> select(Collection<String> links, Set<Category> categories) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String link : links) {
+            String url = normalize(link);
+            if (url == null) continue;
+            Category c = Category.of(url);
+            if (c != null && categories.contains(c)) out.add(url);
+        }
+        return new ArrayList<>(out);
+    }
+
+    /** Number of distinct downloadable links per category. */
+    public static Map<Category, Integer> countByCategory(Collection<String> links) {
+        Map<Category, Integer> counts = new EnumMap<>(Category.class);
+        for (Category c : Category.values()) counts.put(c, 0);
+        for (String url : select(links, Set.of(Category.values()))) {
+            counts.merge(Category.of(url), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /** http(s) URL without its fragment, or null for anything else. */
+    static String normalize(String link) {
+        if (link == null) return null;
+        String url = link.trim();
+        int hash = url.indexOf('#');
+        if (hash >= 0) url = url.substring(0, hash);
+        String lower = url.toLowerCase(Locale.ROOT);
+        if (!lower.startsWith("http://") && !lower.startsWith("https://")) return null;
+        return url;
+    }
+
+    static String fileNameFor(String url) {
+        String path = pathOf(url);
+        if (path != null) {
+            String last = path.substring(path.lastIndexOf('/') + 1);
+            if (!last.isEmpty()) {
+                String name = URLDecoder.decode(last.replace("+", "%2B"), StandardCharsets.UTF_8);
+                return name.replaceAll("[\\\\/:*?\"<>|]", "_");
+            }
+        }
+        return "download";
+    }
+
+    private static String pathOf(String url) {
+        try {
+            return URI.create(url).getRawPath();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
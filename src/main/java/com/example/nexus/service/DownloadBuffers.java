@@ -0,0 +1,79 @@
+package com.example.nexus.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct buffers for the download write path, in three size classes.
+ * Buffers are picked from the measured throughput so fast transfers do fewer,
+ * larger reads and writes while slow ones do not pin a megabyte each.
+ */
+final class DownloadBuffers {
+    static final int SMALL = 64 * 1024;
+    static final int MEDIUM = 256 * 1024;
+    static final int LARGE = 1024 * 1024;
+
+    private static final int MAX_POOLED_PER_CLASS = 8;
+    private static final double TARGET_SECONDS_PER_BUFFER = 0.05;
+
+    private static final ConcurrentLinkedQueue<ByteBuffer> smallPool = new ConcurrentLinkedQueue<>();
+    private static final ConcurrentLinkedQueue<ByteBuffer> mediumPool = new ConcurrentLinkedQueue<>();
+    private static final ConcurrentLinkedQueue<ByteBuffer> largePool = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger smallCount = new AtomicInteger();
+    private static final AtomicInteger mediumCount = new AtomicInteger();
+    private static final AtomicInteger largeCount = new AtomicInteger();
+
+    private DownloadBuffers() {}
+
+    static int sizeFor(double bytesPerSecond) {
+        double wanted = bytesPerSecond * TARGET_SECONDS_PER_BUFFER;
+        if (wanted >= LARGE) return LARGE;
+        if (wanted >= MEDIUM) return MEDIUM;
+        return SMALL;
+    }
+
+    static ByteBuffer acquire(int size) {
+        ByteBuffer buffer = poolFor(size).poll();
+        if (buffer != null) {
+            counterFor(size).decrementAndGet();
+            buffer.clear();
+            return buffer;
+        }
+        return ByteBuffer.allocateDirect(classFor(size));
+    }
+
+    static void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) return;
+        int size = buffer.capacity();
+        if (size != SMALL && size != MEDIUM && size != LARGE) return;
+        if (counterFor(size).incrementAndGet() <= MAX_POOLED_PER_CLASS) {
+            buffer.clear();
+            poolFor(size).offer(buffer);
+        } else {
+            counterFor(size).decrementAndGet();
+        }
+    }
+
+    private static int classFor(int size) {
+        if (size >= LARGE) return LARGE;
+        if (size >= MEDIUM) return MEDIUM;
+        return SMALL;
+    }
+
+    private static ConcurrentLinkedQueue<ByteBuffer> poolFor(int size) {
+        return switch (classFor(size)) {
+            case LARGE -> largePool;
+            case MEDIUM -> mediumPool;
+            default -> smallPool;
+        };
+    }
+
+    private static AtomicInteger counterFor(int size) {
+        return switch (classFor(size)) {
+            case LARGE -> largeCount;
+            case MEDIUM -> mediumCount;
+            default -> smallCount;
+        };
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.nexus.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed store of finished downloads, by default under {@code ~/.nexus/download-cache}.
+ * Files are kept once per SHA-256 in {@code objects/<xx>/<hash>}; an index maps each URL to the
+ * object it last produced and the ETag/Last-Modified it was fetched under. A repeat download
+ * whose validators still match is materialized from the store (reflink, else copy) instead of
+ * going back to the network. Files are never hard-linked: the user's copies and the store must
+ * not share an inode, or editing one would change the others. Total size is capped; the least recently used
+ * objects are evicted first.
+ */
+public class DownloadCache {
+    private static final Logger logger = LoggerFactory.getLogger(DownloadCache.class);
+
+    public static final long DEFAULT_MAX_BYTES = 2L * 1024L * 1024L * 1024L;
+
+    private static final String INDEX_FILE = "index.tsv";
+
+    public record Stats(long hits, long misses, long bytesServed, long evictions,
+                        int entries, long totalBytes, long maxBytes) {}
+
+    /** One URL's view of the store: which object it resolved to and under which validators. */
+    public static final class Entry {
+        private final String url;
+        private final String sha256;
+        private final long size;
+        private final String etag;
+        private final String lastModified;
+        private long lastAccess;
+
+        Entry(String url, String sha256, long size, String etag, String lastModified, long lastAccess) {
+            this.url = url;
+            this.sha256 = sha256;
+            this.size = size;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.lastAccess = lastAccess;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+
+    private final Path root;
+    private final Path objects;
+    // Access-ordered, so iteration starts at the least recently used URL.
+    private final LinkedHashMap<String, Entry> byUrl = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> objectSizes = new HashMap<>();
+    private long totalBytes;
+
+    private volatile boolean enabled = true;
+    private volatile long maxBytes = DEFAULT_MAX_BYTES;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public DownloadCache(Path root) {
+        this.root = root;
+        this.objects = root.resolve("objects");
+        loadIndex();
+    }
+
+    public static Path defaultRoot() {
+        String dir = System.getProperty("nexus.download.cache.dir");
+        return dir != null ? Paths.get(dir) : Paths.get(System.getProperty("user.home"), ".nexus", "download-cache");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(0L, maxBytes);
+        if (evict()) saveIndex();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits.get(), misses.get(), bytesServed.get(), evictions.get(),
+                byUrl.size(), totalBytes, maxBytes);
+    }
+
+    /**
+     * Returns the entry for {@code url} if the server's current validators (and size, when
+     * known) still match the ones it was stored under, otherwise counts a miss.
+     */
+    synchronized Entry lookup(String url, String etag, String lastModified, long size) {
+        if (!enabled) return null;
+        Entry e = byUrl.get(url);
+        if (e == null || !validatorsMatch(e, etag, lastModified) || (size > 0 && size != e.size)
+                || !Files.isRegularFile(objectPath(e.sha256))) {
+            misses.incrementAndGet();
+            return null;
+        }
+        return e;
+    }
+
+    /**
+     * Places the cached object at {@code target}, replacing whatever partial file is there.
+     * Runs without the lock; if the object is evicted meanwhile this fails and the caller
+     * downloads instead.
+     */
+    void materialize(Entry entry, Path target) throws IOException {
+        Path object = objectPath(entry.sha256);
+        Files.deleteIfExists(target);
+        placeCopy(object, target);
+    }
+
+    synchronized void recordHit(Entry entry) {
+        entry.lastAccess = System.currentTimeMillis();
+        byUrl.get(entry.url);
+        hits.incrementAndGet();
+        bytesServed.addAndGet(entry.size);
+        saveIndex();
+    }
+
+    /** Drops an entry whose object no longer hashes to its name (e.g. it was damaged on disk). */
+    synchronized void invalidate(Entry entry) {
+        if (byUrl.get(entry.url) == entry) byUrl.remove(entry.url);
+        dropObject(entry.sha256);
+        misses.incrementAndGet();
+        saveIndex();
+    }
+
+    /**
+     * Adds a finished download to the store. Without a validator a later download could not
+     * be revalidated, so such files are not cached. The file is cloned or copied
+     * without holding the lock, which only guards the index.
+     */
+    void store(String url, String etag, String lastModified, Path file, String sha256) {
+        if (!enabled || sha256 == null || (etag == null && lastModified == null)) return;
+        Path tmp = null;
+        try {
+            long size = Files.size(file);
+            if (size == 0 || size > maxBytes) return;
+            Path object = objectPath(sha256);
+            if (!hasObject(sha256)) {
+                // Unique per thread, so two downloads of the same content never share a temp file.
+                tmp = object.resolveSibling(sha256 + "." + Thread.currentThread().threadId() + ".tmp");
+                Files.createDirectories(object.getParent());
+                Files.deleteIfExists(tmp);
+                placeCopy(file, tmp);
+            }
+            synchronized (this) {
+                if (tmp != null && !hasObject(sha256)) {
+                    move(tmp, object);
+                    tmp = null;
+                    Long previous = objectSizes.put(sha256, size);
+                    totalBytes += size - (previous != null ? previous : 0L);
+                }
+                // Evicted while this thread was copying.
+                if (!objectSizes.containsKey(sha256)) return;
+                Entry old = byUrl.put(url, new Entry(url, sha256, size, etag, lastModified, System.currentTimeMillis()));
+                if (old != null && !old.sha256.equals(sha256) && !isReferenced(old.sha256)) {
+                    dropObject(old.sha256);
+                }
+                evict();
+                saveIndex();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not add {} to the download cache: {}", file, e.getMessage());
+        } finally {
+            if (tmp != null) {
+                try { Files.deleteIfExists(tmp); } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private synchronized boolean hasObject(String sha256) {
+        return objectSizes.containsKey(sha256) && Files.isRegularFile(objectPath(sha256));
+    }
+
+    private static void placeCopy(Path from, Path to) throws IOException {
+        if (!reflink(from, to)) Files.copy(from, to, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public synchronized void clear() {
+        for (String hash : new ArrayList<>(objectSizes.keySet())) dropObject(hash);
+        byUrl.clear();
+        saveIndex();
+    }
+
+    private static boolean validatorsMatch(Entry e, String etag, String lastModified) {
+        if (e.etag != null && etag != null) {
+            // A weak ETag only promises equivalent content, not identical bytes.
+            return e.etag.equals(etag) && !etag.startsWith("W/");
+        }
+        return e.lastModified != null && e.lastModified.equals(lastModified);
+    }
+
+    private boolean evict() {
+        boolean changed = false;
+        Iterator<Entry> it = byUrl.values().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            String victim = it.next().sha256;
+            byUrl.values().removeIf(e -> e.sha256.equals(victim));
+            dropObject(victim);
+            evictions.incrementAndGet();
+            it = byUrl.values().iterator();
+            changed = true;
+        }
+        return changed;
+    }
+
+    private boolean isReferenced(String sha256) {
+        for (Entry e : byUrl.values()) {
+            if (e.sha256.equals(sha256)) return true;
+        }
+        return false;
+    }
+
+    private void dropObject(String sha256) {
+        Long size = objectSizes.remove(sha256);
+        if (size != null) totalBytes -= size;
+        try {
+            Files.deleteIfExists(objectPath(sha256));
+        } catch (IOException e) {
+            logger.debug("Could not delete cached object {}", sha256, e);
+        }
+    }
+
+    private Path objectPath(String sha256) {
+        return objects.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    /** Copy-on-write clone through the platform {@code cp}; false if the file system cannot do it. */
+    private static boolean reflink(Path from, Path to) {
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+        List<String> cmd;
+        if (os.contains("linux")) {
+            cmd = List.of("cp", "--reflink=always", from.toString(), to.toString());
+        } else if (os.contains("mac")) {
+            cmd = List.of("cp", "-c", from.toString(), to.toString());
+        } else {
+            return false;
+        }
+        try {
+            Process p = new ProcessBuilder(cmd).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            if (p.waitFor(30, TimeUnit.SECONDS) && p.exitValue() == 0) return true;
+            p.destroyForcibly();
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try { Files.deleteIfExists(to); } catch (IOException ignored) {}
+        return false;
+    }
+
+    private void loadIndex() {
+        Path index = root.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(index)) return;
+        List<Entry> loaded = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] f = line.split("\t", -1);
+                if (f.length < 6) continue;
+                try {
+                    loaded.add(new Entry(f[0], f[1], Long.parseLong(f[2]), nullable(f[3]), nullable(f[4]), Long.parseLong(f[5])));
+                } catch (NumberFormatException ignored) {}
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read download cache index {}: {}", index, e.getMessage());
+            return;
+        }
+        loaded.sort(Comparator.comparingLong(e -> e.lastAccess));
+        for (Entry e : loaded) {
+            if (e.sha256.length() < 2 || !Files.isRegularFile(objectPath(e.sha256))) continue;
+            byUrl.put(e.url, e);
+            if (objectSizes.putIfAbsent(e.sha256, e.size) == null) totalBytes += e.size;
+        }
+        logger.debug("Download cache: {} entries, {} bytes", byUrl.size(), totalBytes);
+    }
+
+    private void saveIndex() {
+        try {
+            Files.createDirectories(root);
+            Path index = root.resolve(INDEX_FILE);
+            Path tmp = root.resolve(INDEX_FILE + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Entry e : byUrl.values()) {
+                    out.write(clean(e.url) + "\t" + e.sha256 + "\t" + e.size + "\t" + clean(e.etag) + "\t"
+                            + clean(e.lastModified) + "\t" + e.lastAccess);
+                    out.newLine();
+                }
+            }
+            move(tmp, index);
+        } catch (IOException e) {
+            logger.warn("Could not write download cache index: {}", e.getMessage());
+        }
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static String nullable(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
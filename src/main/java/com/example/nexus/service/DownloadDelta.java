@@ -0,0 +1,46 @@
+package com.example.nexus.service;
+
+import com.example.nexus.model.Download;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A coalesced change to one download: which fields moved since the last event.
+ */
+public final class DownloadDelta {
+
+    public enum Field {
+        STATUS,
+        PROGRESS,
+        SIZE,
+        PRIORITY,
+        METADATA
+    }
+
+    private final int id;
+    private final Set<Field> fields;
+    private final Download download;
+
+    DownloadDelta(Download download, EnumSet<Field> fields) {
+        this.id = download.getId();
+        this.download = download;
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    public int getId() { return id; }
+
+    public Set<Field> getFields() { return fields; }
+
+    public Download getDownload() { return download; }
+
+    public boolean has(Field field) {
+        return fields.contains(field);
+    }
+
+    @Override
+    public String toString() {
+        return "DownloadDelta{id=" + id + ", fields=" + fields + "}";
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.nexus.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+/**
+ * Incremental checksums over a download, fed in file order from the write loop.
+ * Checksums are written as {@code algorithm:hex}, e.g. {@code sha256:9f86d0...}.
+ */
+public class DownloadDigest {
+
+    public enum Algorithm {
+        SHA256("sha256", "SHA-256", 64),
+        SHA512("sha512", "SHA-512", 128),
+        CRC32C("crc32c", null, 8);
+
+        private final String label;
+        private final String jcaName;
+        private final int hexLength;
+
+        Algorithm(String label, String jcaName, int hexLength) {
+            this.label = label;
+            this.jcaName = jcaName;
+            this.hexLength = hexLength;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        static Algorithm fromLabel(String label) {
+            String l = label.toLowerCase(Locale.ROOT).replace("-", "");
+            for (Algorithm a : values()) {
+                if (a.label.equals(l)) return a;
+            }
+            throw new IllegalArgumentException("Unsupported checksum algorithm: " + label);
+        }
+
+        static Algorithm fromHexLength(int length) {
+            for (Algorithm a : values()) {
+                if (a.hexLength == length) return a;
+            }
+            throw new IllegalArgumentException("Cannot infer checksum algorithm from a " + length + "-character value");
+        }
+    }
+
+    /** Parsed form of an expected checksum such as {@code sha512:ab12...} or a bare SHA-256 hex string. */
+    public record Expected(Algorithm algorithm, String hex) {
+        public static Expected parse(String value) {
+            if (value == null || value.isBlank()) return null;
+            String v = value.trim();
+            int colon = v.indexOf(':');
+            Algorithm algorithm = colon > 0
+                    ? Algorithm.fromLabel(v.substring(0, colon))
+                    : Algorithm.fromHexLength(v.length());
+            String hex = (colon > 0 ? v.substring(colon + 1) : v).trim().toLowerCase(Locale.ROOT);
+            if (hex.length() != algorithm.hexLength || !hex.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+                throw new IllegalArgumentException("Malformed " + algorithm.label + " checksum: " + value);
+            }
+            return new Expected(algorithm, hex);
+        }
+
+        @Override
+        public String toString() {
+            return algorithm.label + ":" + hex;
+        }
+    }
+
+    private final Map<Algorithm, MessageDigest> digests = new EnumMap<>(Algorithm.class);
+    private CRC32C crc;
+    private long length;
+
+    public DownloadDigest(Set<Algorithm> algorithms) {
+        EnumSet<Algorithm> wanted = algorithms.isEmpty() ? EnumSet.of(Algorithm.SHA256) : EnumSet.copyOf(algorithms);
+        for (Algorithm a : wanted) {
+            if (a == Algorithm.CRC32C) {
+                crc = new CRC32C();
+                continue;
+            }
+            try {
+                digests.put(a, MessageDigest.getInstance(a.jcaName));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(a.jcaName + " not available", e);
+            }
+        }
+    }
+
+    /** Consumes the remaining bytes of {@code buffer} without moving its position. */
+    public void update(ByteBuffer buffer) {
+        int remaining = buffer.remaining();
+        for (MessageDigest md : digests.values()) {
+            md.update(buffer.duplicate());
+        }
+        if (crc != null) crc.update(buffer.duplicate());
+        length += remaining;
+    }
+
+    /**
+     * Hashes {@code [length(), to)} of an already-written file. Used when resuming and
+     * to follow the contiguous prefix of a segmented download.
+     */
+    void updateFrom(DownloadFileWriter file, long to) throws IOException {
+        if (to <= length) return;
+        ByteBuffer buffer = DownloadBuffers.acquire(DownloadBuffers.MEDIUM);
+        try {
+            while (length < to) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), to - length));
+                int n = file.read(buffer, length);
+                if (n <= 0) throw new IOException("File shorter than expected while hashing at " + length);
+                buffer.flip();
+                update(buffer);
+            }
+        } finally {
+            DownloadBuffers.release(buffer);
+        }
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public String hex(Algorithm algorithm) {
+        if (algorithm == Algorithm.CRC32C) {
+            return crc != null ? String.format("%08x", crc.getValue()) : null;
+        }
+        MessageDigest md = digests.get(algorithm);
+        if (md == null) return null;
+        try {
+            return HexFormat.of().formatHex(((MessageDigest) md.clone()).digest());
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** All computed checksums, space separated, SHA-256 first. */
+    public String summary() {
+        List<String> parts = new ArrayList<>();
+        for (Algorithm a : Algorithm.values()) {
+            String hex = hex(a);
+            if (hex != null) parts.add(a.label + ":" + hex);
+        }
+        return String.join(" ", parts);
+    }
+
+    public boolean matches(Expected expected) {
+        return expected == null || expected.hex().equals(hex(expected.algorithm()));
+    }
+}
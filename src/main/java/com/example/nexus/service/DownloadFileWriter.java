@@ -0,0 +1,81 @@
+package com.example.nexus.service;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Positional, thread-safe writer for a download target file.
+ * Shared by the single-stream and segmented paths; applies the fsync policy.
+ */
+class DownloadFileWriter implements Closeable {
+    private static final long BATCH_BYTES = 32L * 1024L * 1024L;
+    private static final long BATCH_MILLIS = 5000L;
+
+    private final FileChannel channel;
+    private final DownloadService.FsyncPolicy fsyncPolicy;
+    private final AtomicLong unsyncedBytes = new AtomicLong();
+    private volatile long lastForce = System.currentTimeMillis();
+
+    DownloadFileWriter(File file, DownloadService.FsyncPolicy fsyncPolicy) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.fsyncPolicy = fsyncPolicy != null ? fsyncPolicy : DownloadService.FsyncPolicy.NONE;
+    }
+
+    /**
+     * Extends the file to its final length once, so the file system does not
+     * update the size on every append. Java has no fallocate, so on most file
+     * systems this reserves the length but not the blocks.
+     */
+    void preallocate(long size) throws IOException {
+        if (size > 0 && channel.size() < size) {
+            channel.write(ByteBuffer.allocate(1), size - 1);
+        }
+    }
+
+    int write(ByteBuffer buffer, long position) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        if (fsyncPolicy == DownloadService.FsyncPolicy.BATCHED) {
+            long pending = unsyncedBytes.addAndGet(written);
+            if (pending >= BATCH_BYTES || System.currentTimeMillis() - lastForce >= BATCH_MILLIS) {
+                force();
+            }
+        }
+        return written;
+    }
+
+    int read(ByteBuffer buffer, long position) throws IOException {
+        return channel.read(buffer, position);
+    }
+
+    void force() throws IOException {
+        unsyncedBytes.set(0);
+        lastForce = System.currentTimeMillis();
+        channel.force(false);
+    }
+
+    void truncate(long size) throws IOException {
+        channel.truncate(size);
+    }
+
+    void complete(long finalSize) throws IOException {
+        if (finalSize >= 0 && channel.size() > finalSize) {
+            channel.truncate(finalSize);
+        }
+        if (fsyncPolicy != DownloadService.FsyncPolicy.NONE) {
+            force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) channel.close();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.nexus.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Sidecar file ({@code <target>.nexus-journal}) recording which byte ranges of a
+ * download are durably on disk, plus the server validators they were fetched under.
+ * Ranges are only recorded after the data file has been forced, and the journal
+ * itself is replaced atomically, so after a crash it never claims bytes that were
+ * not written.
+ */
+final class DownloadJournal {
+    private static final Logger logger = LoggerFactory.getLogger(DownloadJournal.class);
+
+    static final String SUFFIX = ".nexus-journal";
+
+    private final File target;
+    private final String url;
+    private long size = -1L;
+    private String etag;
+    private String lastModified;
+    private List<long[]> ranges = new ArrayList<>();
+
+    DownloadJournal(File target, String url) {
+        this.target = target;
+        this.url = url;
+    }
+
+    static File fileFor(File target) {
+        return new File(target.getPath() + SUFFIX);
+    }
+
+    /** Loads the journal for {@code target}, or returns null if there is none or it is unreadable. */
+    static DownloadJournal load(File target) {
+        File file = fileFor(target);
+        if (!file.isFile()) return null;
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            p.load(in);
+            DownloadJournal journal = new DownloadJournal(target, p.getProperty("url"));
+            journal.size = Long.parseLong(p.getProperty("size", "-1"));
+            journal.etag = p.getProperty("etag");
+            journal.lastModified = p.getProperty("lastModified");
+            journal.ranges = parseRanges(p.getProperty("ranges", ""));
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable download journal {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    static void delete(File target) {
+        try {
+            Files.deleteIfExists(fileFor(target).toPath());
+        } catch (IOException e) {
+            logger.debug("Could not delete download journal for {}", target, e);
+        }
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    void setSize(long size) {
+        this.size = size;
+    }
+
+    void setValidators(String etag, String lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /** False when the server reports different validators than the ones the data was fetched under. */
+    boolean matches(String etag, String lastModified) {
+        if (this.etag != null && etag != null) return this.etag.equals(etag);
+        if (this.lastModified != null && lastModified != null) return this.lastModified.equals(lastModified);
+        return true;
+    }
+
+    /** Value for an If-Range header: a strong ETag if known, else Last-Modified. */
+    String ifRangeValidator() {
+        if (etag != null && !etag.startsWith("W/")) return etag;
+        return lastModified;
+    }
+
+    List<long[]> getRanges() {
+        return ranges;
+    }
+
+    void setRanges(List<long[]> ranges) {
+        this.ranges = merge(ranges);
+    }
+
+    long contiguousPrefix() {
+        if (ranges.isEmpty() || ranges.get(0)[0] != 0) return 0L;
+        return ranges.get(0)[1];
+    }
+
+    long coveredBytes() {
+        long total = 0;
+        for (long[] r : ranges) total += r[1] - r[0];
+        return total;
+    }
+
+    boolean hasGaps() {
+        return ranges.size() > 1 || (ranges.size() == 1 && ranges.get(0)[0] != 0);
+    }
+
+    void save() throws IOException {
+        Properties p = new Properties();
+        if (url != null) p.setProperty("url", url);
+        p.setProperty("size", Long.toString(size));
+        if (etag != null) p.setProperty("etag", etag);
+        if (lastModified != null) p.setProperty("lastModified", lastModified);
+        p.setProperty("ranges", formatRanges(ranges));
+
+        Path file = fileFor(target).toPath();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = Channels.newOutputStream(ch)) {
+            p.store(out, null);
+            out.flush();
+            ch.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static List<long[]> merge(List<long[]> input) {
+        List<long[]> sorted = new ArrayList<>();
+        for (long[] r : input) {
+            if (r[1] > r[0]) sorted.add(new long[]{r[0], r[1]});
+        }
+        sorted.sort(Comparator.comparingLong(r -> r[0]));
+        List<long[]> merged = new ArrayList<>();
+        for (long[] r : sorted) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && r[0] <= last[1]) {
+                last[1] = Math.max(last[1], r[1]);
+            } else {
+                merged.add(r);
+            }
+        }
+        return merged;
+    }
+
+    private static String formatRanges(List<long[]> ranges) {
+        StringBuilder sb = new StringBuilder();
+        for (long[] r : ranges) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(r[0]).append('-').append(r[1]);
+        }
+        return sb.toString();
+    }
+
+    private static List<long[]> parseRanges(String value) {
+        List<long[]> list = new ArrayList<>();
+        for (String part : value.split(",")) {
+            String t = part.trim();
+            if (t.isEmpty()) continue;
+            int dash = t.indexOf('-');
+            list.add(new long[]{Long.parseLong(t.substring(0, dash)), Long.parseLong(t.substring(dash + 1))});
+        }
+        return merge(list);
+    }
+}
@@ -2,8 +2,26 @@ package com.example.nexus.service;
 
 import com.example.nexus.model.Download;
 
+import java.util.List;
+
 public interface DownloadListener {
     default void downloadAdded(Download download) {}
     default void downloadUpdated(Download download) {}
     default void downloadRemoved(int downloadId) {}
+
+    /**
+     * Batched changes, delivered at most once per UI pulse. Listeners that only
+     * care about single downloads can keep implementing {@link #downloadUpdated}.
+     */
+    default void downloadsChanged(List<DownloadDelta> deltas) {
+        for (DownloadDelta delta : deltas) {
+            downloadUpdated(delta.getDownload());
+        }
+    }
+
+    /** A group of downloads was queued together; its members were already announced via {@link #downloadAdded}. */
+    default void batchStarted(DownloadBatch batch) {}
+
+    /** Speed, ETA and phase timings of the running downloads, once per second while any run. */
+    default void telemetryUpdated(List<DownloadTelemetry.Snapshot> snapshots) {}
 }
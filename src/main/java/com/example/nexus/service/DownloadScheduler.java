@@ -0,0 +1,262 @@
+package com.example.nexus.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which downloads run and how fast.
+ * At most {@code maxConcurrent} transfers run at once, and at most {@code maxPerHost}
+ * against any one host; the rest wait in a priority queue ordered by user promotion,
+ * then smallest known size, then arrival order.
+ * Transfers call {@link #throttle(int, int)} per chunk to honor the global and
+ * per-download rate limits, both of which can change while downloads are running.
+ */
+public class DownloadScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(DownloadScheduler.class);
+
+    public static final int DEFAULT_MAX_CONCURRENT = 3;
+    public static final int DEFAULT_MAX_PER_HOST = 2;
+
+    public record Snapshot(int active, int queued, int maxConcurrent, long globalRateLimit, List<Integer> queuedIds) {}
+
+    private static final class Entry {
+        final int id;
+        final long sequence;
+        int priority;
+        final long sizeHint;
+        final String host;
+        final Runnable task;
+
+        Entry(int id, long sequence, int priority, long sizeHint, String host, Runnable task) {
+            this.id = id;
+            this.sequence = sequence;
+            this.priority = priority;
+            this.sizeHint = sizeHint > 0 ? sizeHint : Long.MAX_VALUE;
+            this.host = host;
+            this.task = task;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingInt((Entry e) -> -e.priority)
+            .thenComparingLong(e -> e.sizeHint)
+            .thenComparingLong(e -> e.sequence);
+
+    private final ExecutorService executor;
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(ORDER);
+    private final List<Integer> running = new ArrayList<>();
+    private final Map<Integer, String> runningHosts = new HashMap<>();
+    private final Map<String, Integer> perHost = new HashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private int maxConcurrent = DEFAULT_MAX_CONCURRENT;
+    private int maxPerHost = DEFAULT_MAX_PER_HOST;
+
+    private final TokenBucket globalBucket = new TokenBucket(0);
+    private final Map<Integer, TokenBucket> downloadBuckets = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    public DownloadScheduler(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public void addChangeListener(Runnable listener) {
+        if (listener != null) changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Runnable listener) {
+        if (listener != null) changeListeners.remove(listener);
+    }
+
+    void enqueue(int id, int priority, long sizeHint, String host, Runnable task) {
+        synchronized (this) {
+            queue.removeIf(e -> e.id == id);
+            queue.add(new Entry(id, sequence.incrementAndGet(), priority, sizeHint, host, task));
+        }
+        dispatch();
+    }
+
+    boolean dequeue(int id) {
+        boolean removed;
+        synchronized (this) {
+            removed = queue.removeIf(e -> e.id == id);
+        }
+        if (removed) fireChanged();
+        return removed;
+    }
+
+    void clearQueue() {
+        synchronized (this) {
+            queue.clear();
+        }
+        fireChanged();
+    }
+
+    public boolean promote(int id, int priority) {
+        boolean found = false;
+        synchronized (this) {
+            for (Entry e : new ArrayList<>(queue)) {
+                if (e.id == id) {
+                    queue.remove(e);
+                    e.priority = priority;
+                    queue.add(e);
+                    found = true;
+                    break;
+                }
+            }
+        }
+        if (found) fireChanged();
+        return found;
+    }
+
+    /** Re-orders a queued download once its size is known; no-op if it already started. */
+    void updateSizeHint(int id, long sizeHint) {
+        boolean found = false;
+        synchronized (this) {
+            for (Entry e : new ArrayList<>(queue)) {
+                if (e.id == id) {
+                    queue.remove(e);
+                    queue.add(new Entry(e.id, e.sequence, e.priority, sizeHint, e.host, e.task));
+                    found = true;
+                    break;
+                }
+            }
+        }
+        if (found) fireChanged();
+    }
+
+    public synchronized boolean isQueued(int id) {
+        for (Entry e : queue) {
+            if (e.id == id) return true;
+        }
+        return false;
+    }
+
+    public synchronized int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        synchronized (this) {
+            this.maxConcurrent = Math.max(1, maxConcurrent);
+        }
+        logger.info("Download concurrency limit set to {}", maxConcurrent);
+        dispatch();
+    }
+
+    public synchronized int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    public void setMaxPerHost(int maxPerHost) {
+        synchronized (this) {
+            this.maxPerHost = Math.max(1, maxPerHost);
+        }
+        dispatch();
+    }
+
+    public long getGlobalRateLimit() {
+        return globalBucket.getRate();
+    }
+
+    public void setGlobalRateLimit(long bytesPerSecond) {
+        globalBucket.setRate(bytesPerSecond);
+        fireChanged();
+    }
+
+    public long getRateLimit(int id) {
+        TokenBucket bucket = downloadBuckets.get(id);
+        return bucket != null ? bucket.getRate() : 0L;
+    }
+
+    public void setRateLimit(int id, long bytesPerSecond) {
+        if (bytesPerSecond <= 0) {
+            downloadBuckets.remove(id);
+        } else {
+            downloadBuckets.computeIfAbsent(id, k -> new TokenBucket(0)).setRate(bytesPerSecond);
+        }
+        fireChanged();
+    }
+
+    /** Drops the rate limit of a download that will not run again. */
+    void forget(int id) {
+        downloadBuckets.remove(id);
+    }
+
+    void throttle(int id, int bytes) {
+        if (bytes <= 0) return;
+        try {
+            TokenBucket own = downloadBuckets.get(id);
+            if (own != null) own.acquire(bytes);
+            globalBucket.acquire(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized Snapshot snapshot() {
+        List<Entry> ordered = new ArrayList<>(queue);
+        ordered.sort(ORDER);
+        List<Integer> ids = new ArrayList<>(ordered.size());
+        for (Entry e : ordered) ids.add(e.id);
+        return new Snapshot(running.size(), queue.size(), maxConcurrent, globalBucket.getRate(), ids);
+    }
+
+    private void dispatch() {
+        List<Entry> toStart = new ArrayList<>();
+        synchronized (this) {
+            // Entries whose host is saturated are set aside so later hosts can still start.
+            List<Entry> hostBlocked = new ArrayList<>();
+            while (running.size() < maxConcurrent && !queue.isEmpty()) {
+                Entry next = queue.poll();
+                if (next.host != null && perHost.getOrDefault(next.host, 0) >= maxPerHost) {
+                    hostBlocked.add(next);
+                    continue;
+                }
+                running.add(next.id);
+                if (next.host != null) {
+                    runningHosts.put(next.id, next.host);
+                    perHost.merge(next.host, 1, Integer::sum);
+                }
+                toStart.add(next);
+            }
+            queue.addAll(hostBlocked);
+        }
+        for (Entry e : toStart) {
+            executor.submit(() -> {
+                try {
+                    e.task.run();
+                } finally {
+                    finished(e.id);
+                }
+            });
+        }
+        fireChanged();
+    }
+
+    private void finished(int id) {
+        synchronized (this) {
+            running.remove(Integer.valueOf(id));
+            String host = runningHosts.remove(id);
+            if (host != null) perHost.computeIfPresent(host, (h, n) -> n > 1 ? n - 1 : null);
+        }
+        // The rate limit stays: a paused download keeps its cap when resumed.
+        dispatch();
+    }
+
+    private void fireChanged() {
+        for (Runnable l : changeListeners) {
+            try { l.run(); } catch (Exception ignored) {}
+        }
+    }
+}
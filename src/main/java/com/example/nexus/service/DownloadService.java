@@ -8,18 +8,44 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 public class DownloadService {
     private static final Logger logger = LoggerFactory.getLogger(DownloadService.class);
 
-    private final DownloadRepository downloadRepository;
+    public enum FsyncPolicy {
+        NONE,
+        ON_COMPLETE,
+        BATCHED
+    }
+
+    private static final long JOURNAL_INTERVAL_MILLIS = 2000L;
+    private static final long JOURNAL_INTERVAL_BYTES = 32L * 1024L * 1024L;
+
+    public enum TransportType {
+        URL_CONNECTION,
+        HTTP_CLIENT
+    }
+
+    private final DownloadStateStore state;
+    private final DownloadCache cache;
+    private final DownloadTelemetry telemetry = new DownloadTelemetry();
 
     private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
         Thread t = new Thread(r);
@@ -27,33 +53,302 @@ public class DownloadService {
         return t;
     });
 
+    private final ExecutorService segmentExecutor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "nexus-download-segment");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final ExecutorService virtualSegmentExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Few threads on purpose: a large batch should not open a HEAD request per link at once.
+    private final ExecutorService sizeProbes = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "nexus-download-size");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<TransportType, DownloadTransport> transports = new EnumMap<>(TransportType.class);
+    private volatile DownloadTransport transport;
+    private volatile TransportType transportType;
+
+    private final DownloadScheduler scheduler = new DownloadScheduler(executor);
+
+    private volatile boolean segmentedDownloadsEnabled = true;
+    private volatile int maxSegments = SegmentedDownload.MAX_SEGMENTS;
+    private volatile FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+    private volatile Set<DownloadDigest.Algorithm> checksumAlgorithms = EnumSet.of(DownloadDigest.Algorithm.SHA256);
+
     private final ConcurrentMap<Integer, DownloadTask> activeTasks = new ConcurrentHashMap<>();
 
     private final ConcurrentMap<String, Integer> externalMap = new ConcurrentHashMap<>();
 
     public DownloadService(DIContainer container) {
-        this.downloadRepository = container.getOrCreate(DownloadRepository.class);
+        this.state = new DownloadStateStore(container.getOrCreate(DownloadRepository.class));
+        this.cache = new DownloadCache(DownloadCache.defaultRoot());
+        setTransport("urlconnection".equalsIgnoreCase(System.getProperty("nexus.download.transport"))
+                ? TransportType.URL_CONNECTION : TransportType.HTTP_CLIENT);
+        restoreQueue();
+    }
+
+    private void restoreQueue() {
+        try {
+            int restored = 0;
+            for (Download d : state.getAll()) {
+                String status = d.getStatus();
+                if ("queued".equals(status) || "downloading".equals(status)) {
+                    state.transition(d, "queued");
+                    enqueue(d);
+                    restored++;
+                }
+            }
+            if (restored > 0) logger.info("Resumed {} queued download(s) from previous session", restored);
+        } catch (Exception e) {
+            logger.warn("Failed to restore download queue", e);
+        }
+    }
+
+    private void enqueue(Download download) {
+        DownloadTask task = new DownloadTask(download);
+        activeTasks.put(download.getId(), task);
+        scheduler.enqueue(download.getId(), download.getPriority(), download.getFileSize(), hostOf(download.getUrl()), task);
+        if (download.getFileSize() <= 0 && scheduler.isQueued(download.getId())) probeSize(download);
+    }
+
+    /**
+     * Learns the size of a download that has to wait, so the queue can put small files first.
+     * Downloads that start right away skip this; their own HEAD request finds the size.
+     */
+    private void probeSize(Download download) {
+        int id = download.getId();
+        try {
+            sizeProbes.execute(() -> {
+                if (!scheduler.isQueued(id)) return;
+                try (DownloadTransport.Response head = transport.head(download.getUrl())) {
+                    String length = head.statusCode() / 100 == 2 ? head.header("Content-Length") : null;
+                    long size = length != null ? Long.parseLong(length.trim()) : -1L;
+                    if (size <= 0 || !scheduler.isQueued(id)) return;
+                    download.setFileSize(size);
+                    state.update(download, DownloadDelta.Field.SIZE);
+                    scheduler.updateSizeHint(id, size);
+                } catch (IOException | NumberFormatException e) {
+                    logger.debug("Could not learn the size of download id {}: {}", id, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // shutting down
+        }
     }
 
-    private final CopyOnWriteArrayList<com.example.nexus.service.DownloadListener> listeners = new CopyOnWriteArrayList<>();
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 
     public void addListener(com.example.nexus.service.DownloadListener l) {
-        if (l != null) listeners.add(l);
+        state.addListener(l);
+        telemetry.addListener(l);
     }
 
     public void removeListener(com.example.nexus.service.DownloadListener l) {
-        if (l != null) listeners.remove(l);
+        state.removeListener(l);
+        telemetry.removeListener(l);
+    }
+
+    public DownloadStateStore getStateStore() {
+        return state;
+    }
+
+    public DownloadTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    public DownloadCache getCache() {
+        return cache;
+    }
+
+    public DownloadScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public void setMaxConcurrentDownloads(int max) {
+        scheduler.setMaxConcurrent(max);
+    }
+
+    public void setGlobalRateLimit(long bytesPerSecond) {
+        scheduler.setGlobalRateLimit(bytesPerSecond);
+    }
+
+    public void setDownloadRateLimit(int id, long bytesPerSecond) {
+        scheduler.setRateLimit(id, bytesPerSecond);
+    }
+
+    public void promoteDownload(int id) {
+        Download d = state.get(id);
+        if (d == null) return;
+        d.setPriority(d.getPriority() + 1);
+        state.update(d, DownloadDelta.Field.PRIORITY);
+        scheduler.promote(id, d.getPriority());
+    }
+
+    public Set<DownloadDigest.Algorithm> getChecksumAlgorithms() {
+        return checksumAlgorithms;
+    }
+
+    /** Digests computed for every download; SHA-256 is always included. */
+    public void setChecksumAlgorithms(Set<DownloadDigest.Algorithm> algorithms) {
+        EnumSet<DownloadDigest.Algorithm> set = EnumSet.of(DownloadDigest.Algorithm.SHA256);
+        if (algorithms != null) set.addAll(algorithms);
+        this.checksumAlgorithms = Collections.unmodifiableSet(set);
+    }
+
+    public TransportType getTransport() {
+        return transportType;
+    }
+
+    /**
+     * Switches the HTTP engine for downloads started from now on; running transfers
+     * keep the engine they started with.
+     */
+    public synchronized void setTransport(TransportType type) {
+        TransportType wanted = type != null ? type : TransportType.HTTP_CLIENT;
+        if (wanted == transportType) return;
+        transport = transports.computeIfAbsent(wanted, DownloadService::newTransport);
+        transportType = wanted;
+        logger.info("Download transport: {}", transport.name());
+    }
+
+    /**
+     * Timeouts and retries come from system properties:
+     * {@code nexus.download.connectTimeoutSeconds} (default 15);
+     * {@code nexus.download.readTimeoutSeconds} (default 30), the longest a single read may
+     * wait for data, including the wait for response headers on the URLConnection engine;
+     * {@code nexus.download.responseTimeoutSeconds} (default 30), the wait for response
+     * headers on the HttpClient engine; and {@code nexus.download.retries} (default 3,
+     * HttpClient only).
+     */
+    private static DownloadTransport newTransport(TransportType type) {
+        Duration connectTimeout = Duration.ofSeconds(Math.max(1L, Long.getLong("nexus.download.connectTimeoutSeconds", 15L)));
+        Duration readTimeout = Duration.ofSeconds(Math.max(1L, Long.getLong("nexus.download.readTimeoutSeconds", 30L)));
+        if (type == TransportType.URL_CONNECTION) {
+            return new UrlConnectionTransport((int) connectTimeout.toMillis(), (int) readTimeout.toMillis());
+        }
+        Duration responseTimeout = Duration.ofSeconds(Math.max(1L, Long.getLong("nexus.download.responseTimeoutSeconds", 30L)));
+        return new HttpClientTransport(connectTimeout, responseTimeout, readTimeout, Integer.getInteger("nexus.download.retries", 3), 500L);
+    }
+
+    /** Counters for every engine used so far, for comparing them side by side. */
+    public synchronized List<DownloadTransport.Stats> getTransportStats() {
+        List<DownloadTransport.Stats> stats = new ArrayList<>();
+        for (DownloadTransport t : transports.values()) stats.add(t.stats());
+        return stats;
+    }
+
+    public boolean isSegmentedDownloadsEnabled() {
+        return segmentedDownloadsEnabled;
+    }
+
+    public void setSegmentedDownloadsEnabled(boolean enabled) {
+        this.segmentedDownloadsEnabled = enabled;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = Math.max(2, Math.min(SegmentedDownload.MAX_SEGMENTS, maxSegments));
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy != null ? fsyncPolicy : FsyncPolicy.NONE;
     }
 
     public List<Download> getAllDownloads() {
-        return downloadRepository.findAll();
+        return state.getAll();
     }
 
     public Download getDownload(int id) {
-        return downloadRepository.findById(id);
+        return state.get(id);
     }
 
     public void startDownload(String url, String fileName, String filePath) {
+        startDownload(url, fileName, filePath, null);
+    }
+
+    /**
+     * Starts a download that must match {@code expectedChecksum}, given as
+     * {@code sha256:<hex>}, {@code sha512:<hex>}, {@code crc32c:<hex>} or a bare hex
+     * string. The digest is computed while writing; a mismatch fails the download
+     * as soon as the last byte arrives.
+     *
+     * @throws IllegalArgumentException if the checksum cannot be parsed
+     */
+    public void startDownload(String url, String fileName, String filePath, String expectedChecksum) {
+        queueDownload(url, fileName, filePath, DownloadDigest.Expected.parse(expectedChecksum));
+    }
+
+    /**
+     * Queues every link not already downloaded, queued or running into {@code directory}
+     * and groups them as one batch. Links to the same host are spread by the scheduler's
+     * per-host limit rather than all starting at once.
+     */
+    public DownloadBatch startBatch(String label, Collection<String> urls, String directory) {
+        Set<String> known = new HashSet<>();
+        for (Download d : state.getAll()) {
+            String status = d.getStatus();
+            if ("failed".equals(status) || "cancelled".equals(status)) continue;
+            if ("completed".equals(status) && !new File(d.getFilePath()).exists()) continue;
+            String url = DownloadBatch.normalize(d.getUrl());
+            if (url != null) known.add(url);
+        }
+        List<Integer> ids = new ArrayList<>();
+        int skipped = 0;
+        for (String link : urls) {
+            String url = DownloadBatch.normalize(link);
+            if (url == null || !known.add(url)) {
+                skipped++;
+                continue;
+            }
+            String name = DownloadBatch.fileNameFor(url);
+            Download d = queueDownload(url, name, new File(directory, name).getAbsolutePath(), null);
+            if (d != null) ids.add(d.getId());
+        }
+        DownloadBatch batch = new DownloadBatch(label, ids, skipped, state);
+        state.addBatch(batch);
+        logger.info("Queued batch '{}': {} download(s), {} skipped", label, ids.size(), skipped);
+        return batch;
+    }
+
+    public List<DownloadBatch> getBatches() {
+        return state.getBatches();
+    }
+
+    public void cancelBatch(DownloadBatch batch) {
+        for (int id : batch.getDownloadIds()) {
+            Download d = state.get(id);
+            if (d == null) continue;
+            String status = d.getStatus();
+            if (!"completed".equals(status) && !"failed".equals(status) && !"cancelled".equals(status)) {
+                cancelDownload(id);
+            }
+        }
+    }
+
+    /** Forgets the grouping; the member downloads stay in the list. */
+    public void dismissBatch(DownloadBatch batch) {
+        state.removeBatch(batch);
+    }
+
+    private Download queueDownload(String url, String fileName, String filePath, DownloadDigest.Expected expected) {
         try {
 
             File f = new File(filePath);
@@ -64,7 +359,7 @@ public class DownloadService {
                 else logger.info("DownloadService: created parent directories for {}", filePath);
             }
 
-            if (f.exists()) {
+            if (isTaken(f)) {
                 String dir = f.getParent();
                 String name = f.getName();
                 String base;
@@ -82,130 +377,127 @@ public class DownloadService {
                     String candidate = base + " (" + index + ")" + ext;
                     nf = new File(dir, candidate);
                     index++;
-                } while (nf.exists());
+                } while (isTaken(nf));
                 filePath = nf.getAbsolutePath();
                 fileName = nf.getName();
                 f = nf;
             }
 
             Download download = new Download(url, fileName, filePath);
-            download.setStatus("pending");
+            download.setExpectedChecksum(expected != null ? expected.toString() : null);
+            download.setStatus("queued");
             download.setStartTime(LocalDateTime.now());
-            downloadRepository.save(download);
+            state.add(download);
 
-            for (com.example.nexus.service.DownloadListener l : listeners) {
-                try { l.downloadAdded(download); } catch (Exception ignored) {}
-            }
-
-            DownloadTask task = new DownloadTask(download);
-            activeTasks.put(download.getId(), task);
-            download.setStatus("downloading");
-            downloadRepository.update(download);
-            executor.submit(task);
+            enqueue(download);
 
-            logger.info("Started download: {} to {} (id={})", url, filePath, download.getId());
+            logger.info("Queued download: {} to {} (id={})", url, filePath, download.getId());
+            return download;
         } catch (Exception e) {
             logger.error("Failed to initialize download for {} -> {}", url, filePath, e);
+            return null;
+        }
+    }
+
+    /** A target is taken if it exists or an unfinished download will create it. */
+    private boolean isTaken(File f) {
+        if (f.exists()) return true;
+        String path = f.getAbsolutePath();
+        for (Download d : state.getAll()) {
+            String status = d.getStatus();
+            if (("queued".equals(status) || "downloading".equals(status) || "paused".equals(status) || "pending".equals(status))
+                    && path.equals(new File(d.getFilePath()).getAbsolutePath())) {
+                return true;
+            }
         }
+        return false;
     }
 
     public void pauseDownload(int id) {
+        if (scheduler.dequeue(id)) {
+            activeTasks.remove(id);
+        }
         DownloadTask task = activeTasks.get(id);
         if (task != null) task.requestPause();
         else {
 
-            Download d = downloadRepository.findById(id);
+            Download d = state.get(id);
             if (d != null) {
-                d.setStatus("paused");
-                downloadRepository.update(d);
+                state.transition(d, "paused");
             }
         }
     }
 
     public void resumeDownload(int id) {
-        Download d = downloadRepository.findById(id);
+        Download d = state.get(id);
         if (d == null) return;
 
         if (activeTasks.containsKey(id)) return;
 
-        DownloadTask task = new DownloadTask(d);
-        activeTasks.put(id, task);
-        d.setStatus("downloading");
-        downloadRepository.update(d);
-        executor.submit(task);
+        state.transition(d, "queued");
+        enqueue(d);
     }
 
     public void retryDownload(int id) {
-        Download d = downloadRepository.findById(id);
+        Download d = state.get(id);
         if (d == null) return;
 
+        DownloadJournal.delete(new File(d.getFilePath()));
         d.setDownloadedSize(0);
-        d.setStatus("pending");
         d.setStartTime(LocalDateTime.now());
         d.setEndTime(null);
-        downloadRepository.update(d);
+        state.transition(d, "pending");
         resumeDownload(id);
     }
 
     public void updateDownloadProgress(int id, long downloadedSize) {
-        Download download = downloadRepository.findById(id);
+        Download download = state.get(id);
         if (download != null) {
-            download.setDownloadedSize(downloadedSize);
-            downloadRepository.update(download);
-            for (com.example.nexus.service.DownloadListener l : listeners) {
-                try { l.downloadUpdated(download); } catch (Exception ignored) {}
-            }
+            state.progress(download, downloadedSize);
         }
     }
 
     public void completeDownload(int id) {
-        Download download = downloadRepository.findById(id);
+        Download download = state.get(id);
         if (download != null) {
-            download.setStatus("completed");
             download.setDownloadedSize(download.getFileSize());
-            download.setEndTime(LocalDateTime.now());
-            downloadRepository.update(download);
-            for (com.example.nexus.service.DownloadListener l : listeners) {
-                try { l.downloadUpdated(download); } catch (Exception ignored) {}
-            }
+            state.transition(download, "completed");
         }
         activeTasks.remove(id);
     }
 
     public void failDownload(int id, String error) {
-        Download download = downloadRepository.findById(id);
+        Download download = state.get(id);
         if (download != null) {
-            download.setStatus("failed");
-            download.setEndTime(LocalDateTime.now());
-            downloadRepository.update(download);
-            for (com.example.nexus.service.DownloadListener l : listeners) {
-                try { l.downloadUpdated(download); } catch (Exception ignored) {}
-            }
+            state.transition(download, "failed");
         }
         activeTasks.remove(id);
     }
 
     public void cancelDownload(int id) {
+        scheduler.dequeue(id);
         DownloadTask task = activeTasks.get(id);
         if (task != null) task.requestCancel();
-        Download download = downloadRepository.findById(id);
+        Download download = state.get(id);
         if (download != null) {
-            download.setStatus("cancelled");
-            download.setEndTime(LocalDateTime.now());
-            downloadRepository.update(download);
+            DownloadJournal.delete(new File(download.getFilePath()));
+            state.transition(download, "cancelled");
         }
         activeTasks.remove(id);
+        scheduler.forget(id);
     }
 
     public void deleteDownload(int id) {
 
+        scheduler.dequeue(id);
         DownloadTask task = activeTasks.remove(id);
         if (task != null) task.requestCancel();
 
-        Download d = downloadRepository.findById(id);
+        Download d = state.get(id);
         if (d != null) {
             try {
                 File f = new File(d.getFilePath());
+                DownloadJournal.delete(f);
                 if (f.exists()) {
                     boolean ok = f.delete();
                     if (!ok) logger.warn("Failed to delete file: {}", f.getAbsolutePath());
@@ -214,19 +506,31 @@ public class DownloadService {
                 logger.warn("Failed to delete download file", e);
             }
         }
-        downloadRepository.delete(id);
-        for (com.example.nexus.service.DownloadListener l : listeners) {
-            try { l.downloadRemoved(id); } catch (Exception ignored) {}
-        }
+        telemetry.forget(id);
+        scheduler.forget(id);
+        state.remove(id);
     }
 
     public void clearDownloads() {
 
+        scheduler.clearQueue();
         for (Map.Entry<Integer, DownloadTask> en : activeTasks.entrySet()) {
             en.getValue().requestCancel();
         }
         activeTasks.clear();
-        downloadRepository.clearAll();
+        for (Download d : state.getAll()) {
+            telemetry.forget(d.getId());
+            scheduler.forget(d.getId());
+        }
+        state.clear();
+    }
+
+    /** Splits the wait for a response into connect time (when the engine reports it) and time to first byte. */
+    static void recordResponse(DownloadTelemetry.Track track, DownloadTransport.Response response, long requestStart) {
+        long elapsed = System.nanoTime() - requestStart;
+        long connect = Math.min(elapsed, response.connectNanos());
+        if (connect > 0) track.time(DownloadTelemetry.Phase.CONNECT, connect);
+        track.time(DownloadTelemetry.Phase.TTFB, elapsed - Math.max(0L, connect));
     }
 
     public int registerExternalDownload(String externalToken, String url, String fileName, String filePath) {
@@ -247,7 +551,7 @@ public class DownloadService {
             Download download = new Download(url, fn, fp);
             download.setStatus("pending");
             download.setStartTime(java.time.LocalDateTime.now());
-            downloadRepository.save(download);
+            state.add(download);
             externalMap.put(externalToken, download.getId());
             logger.info("Registered external download token={} -> id={}", externalToken, download.getId());
             return download.getId();
@@ -261,14 +565,18 @@ public class DownloadService {
         try {
             Integer id = externalMap.get(externalToken);
             if (id == null) return;
-            Download d = downloadRepository.findById(id);
+            Download d = state.get(id);
             if (d == null) return;
-            if (totalBytes > 0) d.setFileSize(totalBytes);
-            d.setDownloadedSize(receivedBytes);
+            if (totalBytes > 0 && totalBytes != d.getFileSize()) {
+                d.setFileSize(totalBytes);
+                state.update(d, DownloadDelta.Field.SIZE);
+            }
             if (d.getStatus() == null || (!d.getStatus().equals("downloading") && !d.getStatus().equals("pending"))) {
-                d.setStatus("downloading");
+                d.setDownloadedSize(receivedBytes);
+                state.transition(d, "downloading");
+            } else {
+                state.progress(d, receivedBytes);
             }
-            downloadRepository.update(d);
         } catch (Exception e) {
             logger.debug("attachExternalProgress failed", e);
         }
@@ -296,6 +604,9 @@ public class DownloadService {
         private final Download download;
         private volatile boolean pauseRequested = false;
         private volatile boolean cancelRequested = false;
+        /** Response of the single-stream transfer in progress, closed to interrupt it. */
+        private volatile DownloadTransport.Response active;
+        private DownloadTelemetry.Track track;
 
         public DownloadTask(Download download) {
             this.download = download;
@@ -303,23 +614,93 @@ public class DownloadService {
 
         public void requestPause() {
             pauseRequested = true;
+            abortActive();
         }
 
         public void requestCancel() {
             cancelRequested = true;
+            abortActive();
+        }
+
+        /**
+         * Closes the response so a read waiting on a stalled server returns now. Closing
+         * can block on the engine's stream lock, so it never runs on the caller's thread.
+         */
+        private void abortActive() {
+            DownloadTransport.Response response = active;
+            if (response == null) return;
+            try {
+                executor.execute(response::close);
+            } catch (RejectedExecutionException ignored) {
+                // shutting down
+            }
+        }
+
+        /** Ends the task as paused or cancelled if either was asked for. */
+        private boolean stopIfRequested(File outFile, DownloadFileWriter writer, DownloadJournal journal, long written) throws IOException {
+            if (cancelRequested) {
+                DownloadJournal.delete(outFile);
+                state.transition(download, "cancelled");
+                activeTasks.remove(download.getId());
+                return true;
+            }
+            if (pauseRequested) {
+                checkpoint(writer, journal, List.of(new long[]{0, written}));
+                download.setDownloadedSize(written);
+                state.transition(download, "paused");
+                activeTasks.remove(download.getId());
+                return true;
+            }
+            return false;
+        }
+
+        private DownloadDigest newDigest() {
+            EnumSet<DownloadDigest.Algorithm> algorithms = EnumSet.copyOf(checksumAlgorithms);
+            DownloadDigest.Expected expected = DownloadDigest.Expected.parse(download.getExpectedChecksum());
+            if (expected != null) algorithms.add(expected.algorithm());
+            // The cache is addressed by SHA-256.
+            if (cache.isEnabled()) algorithms.add(DownloadDigest.Algorithm.SHA256);
+            return new DownloadDigest(algorithms);
+        }
+
+        /** Records the digest on the download; returns false (and fails it) on a mismatch. */
+        private boolean verifyDigest(DownloadDigest digest) {
+            download.setChecksum(digest.summary());
+            DownloadDigest.Expected expected = DownloadDigest.Expected.parse(download.getExpectedChecksum());
+            if (digest.matches(expected)) return true;
+            logger.error("Checksum mismatch for download id {}: expected {}, got {}",
+                    download.getId(), expected, expected.algorithm().label() + ":" + digest.hex(expected.algorithm()));
+            state.transition(download, "failed");
+            activeTasks.remove(download.getId());
+            return false;
         }
 
         @Override
         public void run() {
             int id = download.getId();
             File outFile = new File(download.getFilePath());
-            long existing = outFile.exists() ? outFile.length() : 0L;
-            download.setDownloadedSize(existing);
-            downloadRepository.update(download);
+            DownloadJournal journal = outFile.exists() ? DownloadJournal.load(outFile) : null;
+            if (journal != null && !download.getUrl().equals(journal.getUrl())) {
+                journal = null;
+            }
+            long existing;
+            if (journal != null) {
+                // Only ranges the journal recorded after forcing the file are trusted.
+                existing = journal.contiguousPrefix();
+            } else {
+                // No journal (started by an older version): fall back to the persisted
+                // progress, bounded by the file length.
+                existing = outFile.exists() ? Math.min(outFile.length(), Math.max(0L, download.getDownloadedSize())) : 0L;
+            }
+            download.setDownloadedSize(journal != null ? journal.coveredBytes() : existing);
+            state.transition(download, "downloading");
+            track = telemetry.open(id, () -> download.getFileSize() > 0
+                    ? Math.max(0L, download.getFileSize() - download.getDownloadedSize()) : -1L);
 
-            InputStream in = null;
-            RandomAccessFile raf = null;
-            HttpURLConnection conn = null;
+            DownloadTransport http = transport;
+            ReadableByteChannel source = null;
+            DownloadFileWriter writer = null;
+            DownloadTransport.Response conn = null;
 
             boolean success = false;
             try {
@@ -327,66 +708,97 @@ public class DownloadService {
 
                 boolean serverAcceptsRanges = false;
                 long serverFileSize = -1L;
-                try {
-                    URL probeUrl = new URL(download.getUrl());
-                    HttpURLConnection probeConn = (HttpURLConnection) probeUrl.openConnection();
-                    probeConn.setConnectTimeout(8000);
-                    probeConn.setReadTimeout(8000);
-                    probeConn.setRequestMethod("HEAD");
-                    probeConn.connect();
-                    int probeCode = probeConn.getResponseCode();
-                    if (probeCode / 100 == 2) {
-                        String ar = probeConn.getHeaderField("Accept-Ranges");
+                String etag = null;
+                String lastModified = null;
+                try (DownloadTransport.Response probe = http.head(download.getUrl())) {
+                    if (probe.statusCode() / 100 == 2) {
+                        String ar = probe.header("Accept-Ranges");
                         serverAcceptsRanges = ar != null && ar.toLowerCase().contains("bytes");
-                        String clProbe = probeConn.getHeaderField("Content-Length");
+                        String clProbe = probe.header("Content-Length");
                         if (clProbe != null) {
                             try { serverFileSize = Long.parseLong(clProbe); } catch (NumberFormatException ignored) {}
                         }
+                        etag = probe.header("ETag");
+                        lastModified = probe.header("Last-Modified");
                     }
-                    try { probeConn.disconnect(); } catch (Exception ignored) {}
                 } catch (Exception ignored) {}
 
-                for (int attempt = 0; attempt < 2 && !success; attempt++) {
-                    try {
-                        URL url = new URL(download.getUrl());
-                        conn = (HttpURLConnection) url.openConnection();
-                        conn.setConnectTimeout(15000);
-                        conn.setReadTimeout(15000);
+                if (journal != null && (!journal.matches(etag, lastModified)
+                        || (serverFileSize > 0 && journal.getSize() > 0 && serverFileSize != journal.getSize()))) {
+                    logger.info("Remote file changed since download id {} was interrupted, restarting", id);
+                    DownloadJournal.delete(outFile);
+                    journal = null;
+                    existing = 0L;
+                }
 
-                        if (existing > 0 && !retriedAfter416 && serverAcceptsRanges) {
-                            conn.setRequestProperty("Range", "bytes=" + existing + "-");
-                        }
+                if (journal == null && existing == 0 && restoreFromCache(outFile, serverFileSize, etag, lastModified)) {
+                    return;
+                }
 
-                        conn.connect();
+                if (segmentedDownloadsEnabled && serverAcceptsRanges && (journal != null || existing == 0)
+                        && serverFileSize >= SegmentedDownload.MIN_PARALLEL_SIZE) {
+                    if (runSegmented(http, outFile, serverFileSize, journal, etag, lastModified)) {
+                        return;
+                    }
+                    journal = null;
+                    existing = 0L;
+                }
 
-                        int responseCode = conn.getResponseCode();
+                if (journal != null && journal.hasGaps()) {
+                    // One stream can only continue the contiguous prefix; what lies past the first gap is fetched again.
+                    logger.info("Download id {} resumes as one stream from byte {}, dropping {} journaled bytes past a gap",
+                            id, existing, journal.coveredBytes() - existing);
+                    journal.setRanges(List.of(new long[]{0, existing}));
+                    download.setDownloadedSize(existing);
+                }
+                if (journal == null) {
+                    journal = new DownloadJournal(outFile, download.getUrl());
+                    journal.setValidators(etag, lastModified);
+                }
+
+                for (int attempt = 0; attempt < 2 && !success; attempt++) {
+                    try {
+                        long rangeFrom = (existing > 0 && !retriedAfter416 && serverAcceptsRanges) ? existing : -1L;
+                        String validator = journal.ifRangeValidator();
+                        long requestStart = System.nanoTime();
+                        conn = http.get(download.getUrl(), rangeFrom, -1L,
+                                rangeFrom >= 0 && validator != null ? Map.of("If-Range", validator) : null);
+                        recordResponse(track, conn, requestStart);
+                        active = conn;
+                        // A pause or cancel that came in before this point found nothing to close.
+                        if (pauseRequested || cancelRequested) conn.close();
+
+                        int responseCode = conn.statusCode();
 
                         if (responseCode == 416) {
 
                             if (existing > 0 && !retriedAfter416) {
 
                                 try { outFile.delete(); } catch (Exception ignored) {}
+                                DownloadJournal.delete(outFile);
+                                journal.setRanges(List.of());
                                 existing = 0L;
                                 retriedAfter416 = true;
-                                try { if (conn != null) conn.disconnect(); } catch (Exception ignored) {}
+                                conn.close();
+                                conn = null;
                                 continue;
                             } else {
                                 logger.error("Server returned HTTP 416 for download id {}", id);
-                                download.setStatus("failed");
-                                downloadRepository.update(download);
+                                state.transition(download, "failed");
+                                activeTasks.remove(id);
                                 return;
                             }
                         }
 
-                        if (responseCode / 100 == 2 || responseCode == HttpURLConnection.HTTP_PARTIAL) {
+                        if (responseCode / 100 == 2) {
                             long total = -1;
-                            String cl = conn.getHeaderField("Content-Length");
+                            String cl = conn.header("Content-Length");
                             if (cl != null) {
                                 try { total = Long.parseLong(cl); } catch (NumberFormatException ignored) {}
                             }
 
                             long fullSize = -1;
-                            String cr = conn.getHeaderField("Content-Range");
+                            String cr = conn.header("Content-Range");
                             if (cr != null) {
 
                                 int slash = cr.indexOf('/');
@@ -402,93 +814,124 @@ public class DownloadService {
 
                                 fileSize = total > 0 ? total : serverFileSize;
                             }
-                            if (fileSize > 0) download.setFileSize(fileSize);
-                            download.setStatus("downloading");
-                            downloadRepository.update(download);
+                            if (fileSize > 0 && fileSize != download.getFileSize()) {
+                                download.setFileSize(fileSize);
+                                state.update(download, DownloadDelta.Field.SIZE);
+                            }
+
+                            if (responseCode != HttpURLConnection.HTTP_PARTIAL && existing > 0) {
+                                // Server sent the whole body (no range support, or If-Range saw a
+                                // changed file); start over instead of appending it.
+                                existing = 0L;
+                            }
+                            if (existing == 0) {
+                                journal.setRanges(List.of());
+                                journal.setValidators(conn.header("ETag"), conn.header("Last-Modified"));
+                            }
+                            if (etag == null && lastModified == null) {
+                                etag = conn.header("ETag");
+                                lastModified = conn.header("Last-Modified");
+                            }
+                            journal.setSize(fileSize);
 
+                            DownloadDigest digest = newDigest();
                             try {
-                                raf = new RandomAccessFile(outFile, "rw");
-                                raf.seek(existing);
-                            } catch (FileNotFoundException fnf) {
-                                logger.error("Could not open file for writing: {}", outFile.getAbsolutePath(), fnf);
-                                download.setStatus("failed");
-                                downloadRepository.update(download);
+                                writer = new DownloadFileWriter(outFile, fsyncPolicy);
+                                if (existing == 0) writer.truncate(0);
+                                writer.preallocate(fileSize);
+                                // Resuming: bring the digest up to the resume offset from what is on disk.
+                                digest.updateFrom(writer, existing);
+                            } catch (IOException openError) {
+                                logger.error("Could not open file for writing: {}", outFile.getAbsolutePath(), openError);
+                                state.transition(download, "failed");
+                                activeTasks.remove(id);
                                 return;
                             }
 
-                            in = new BufferedInputStream(conn.getInputStream());
-                            byte[] buffer = new byte[8192];
+                            source = conn.body();
+                            ByteBuffer buffer = DownloadBuffers.acquire(DownloadBuffers.SMALL);
                             int read;
-                            long lastPersist = System.currentTimeMillis();
-                            while ((read = in.read(buffer, 0, buffer.length)) != -1) {
-                                if (cancelRequested) {
-                                    download.setStatus("cancelled");
-                                    downloadRepository.update(download);
-
-                                    for (com.example.nexus.service.DownloadListener l : listeners) {
-                                        try { l.downloadUpdated(download); } catch (Exception ignored) {}
+                            long lastRateCheck = System.currentTimeMillis();
+                            long bytesSinceRateCheck = 0;
+                            long lastJournal = lastRateCheck;
+                            long journaledBytes = existing;
+                            long mark = System.nanoTime();
+                            try {
+                                while (true) {
+                                    try {
+                                        read = source.read(buffer);
+                                    } catch (IOException readError) {
+                                        // Pause and cancel close the response to end a stalled read.
+                                        if (stopIfRequested(outFile, writer, journal, existing)) return;
+                                        throw readError;
                                     }
-                                    activeTasks.remove(id);
-                                    return;
-                                }
-                                if (pauseRequested) {
-                                    download.setStatus("paused");
-                                    try { download.setDownloadedSize(raf.length()); } catch (IOException ignore) {}
-                                    downloadRepository.update(download);
-
-                                    for (com.example.nexus.service.DownloadListener l : listeners) {
-                                        try { l.downloadUpdated(download); } catch (Exception ignored) {}
+                                    if (read == -1) break;
+                                    long readDone = System.nanoTime();
+                                    track.time(DownloadTelemetry.Phase.TRANSFER, readDone - mark);
+                                    mark = readDone;
+                                    if (read == 0 && buffer.hasRemaining()) continue;
+                                    if (stopIfRequested(outFile, writer, journal, existing)) return;
+                                    buffer.flip();
+                                    digest.update(buffer);
+                                    int chunk = writer.write(buffer, existing);
+                                    track.time(DownloadTelemetry.Phase.DISK, System.nanoTime() - mark);
+                                    track.transferred(chunk);
+                                    buffer.clear();
+                                    existing += chunk;
+                                    bytesSinceRateCheck += chunk;
+                                    scheduler.throttle(id, chunk);
+                                    state.progress(download, existing);
+                                    long now = System.currentTimeMillis();
+                                    if (now - lastRateCheck >= 500) {
+                                        int wanted = DownloadBuffers.sizeFor(bytesSinceRateCheck * 1000.0 / (now - lastRateCheck));
+                                        if (wanted != buffer.capacity()) {
+                                            DownloadBuffers.release(buffer);
+                                            buffer = DownloadBuffers.acquire(wanted);
+                                        }
+                                        lastRateCheck = now;
+                                        bytesSinceRateCheck = 0;
                                     }
-
-                                    activeTasks.remove(id);
-                                    return;
-                                }
-                                raf.write(buffer, 0, read);
-                                existing += read;
-                                download.setDownloadedSize(existing);
-                                long now = System.currentTimeMillis();
-                                if (now - lastPersist > 1000) {
-                                    downloadRepository.update(download);
-
-                                    for (com.example.nexus.service.DownloadListener l : listeners) {
-                                        try { l.downloadUpdated(download); } catch (Exception ignored) {}
+                                    if (now - lastJournal >= JOURNAL_INTERVAL_MILLIS || existing - journaledBytes >= JOURNAL_INTERVAL_BYTES) {
+                                        checkpoint(writer, journal, List.of(new long[]{0, existing}));
+                                        lastJournal = now;
+                                        journaledBytes = existing;
                                     }
-                                    lastPersist = now;
+                                    mark = System.nanoTime();
                                 }
+                            } finally {
+                                DownloadBuffers.release(buffer);
                             }
+                            // A closed response can also end as a short body.
+                            if (stopIfRequested(outFile, writer, journal, existing)) return;
 
+                            writer.complete(existing);
+                            DownloadJournal.delete(outFile);
                             download.setDownloadedSize(existing);
-                            download.setStatus("completed");
-                            download.setEndTime(LocalDateTime.now());
-                            downloadRepository.update(download);
-
-                            for (com.example.nexus.service.DownloadListener l : listeners) {
-                                try { l.downloadUpdated(download); } catch (Exception ignored) {}
+                            if (download.getFileSize() <= 0) download.setFileSize(existing);
+                            if (!verifyDigest(digest)) {
+                                success = true;
+                                break;
                             }
+                            cache.store(download.getUrl(), etag, lastModified, outFile.toPath(), digest.hex(DownloadDigest.Algorithm.SHA256));
+                            state.transition(download, "completed");
                             activeTasks.remove(id);
                             success = true;
                             break;
                         } else {
                             logger.error("Server returned HTTP {} for download id {}", responseCode, id);
-                            download.setStatus("failed");
-                            downloadRepository.update(download);
-                            for (com.example.nexus.service.DownloadListener l : listeners) {
-                                try { l.downloadUpdated(download); } catch (Exception ignored) {}
-                            }
+                            state.transition(download, "failed");
                             activeTasks.remove(id);
                             break;
                         }
 
-                    } catch (MalformedURLException e) {
-                        throw new RuntimeException(e);
                     } catch (IOException e) {
                         throw new RuntimeException(e);
                     } finally {
-                        try { if (in != null) in.close(); } catch (IOException ignored) {}
-                        try { if (raf != null) raf.close(); } catch (IOException ignored) {}
-                        if (conn != null) conn.disconnect();
+                        try { if (source != null) source.close(); } catch (IOException ignored) {}
+                        try { if (writer != null) writer.close(); } catch (IOException ignored) {}
+                        if (conn != null) conn.close();
 
-                        in = null; raf = null; conn = null;
+                        source = null; writer = null; conn = null; active = null;
                     }
                 }
 
@@ -499,16 +942,161 @@ public class DownloadService {
             } catch (Throwable t) {
                 logger.error("Unexpected error in download task id {}", id, t);
                 try {
-                    download.setStatus("failed");
-                    download.setEndTime(LocalDateTime.now());
-                    downloadRepository.update(download);
-                    for (com.example.nexus.service.DownloadListener l : listeners) {
-                        try { l.downloadUpdated(download); } catch (Exception ignored) {}
-                    }
+                    state.transition(download, "failed");
                 } catch (Exception ignored) {}
                 activeTasks.remove(id);
+            } finally {
+                telemetry.close(track);
             }
         }
+
+        /**
+         * Serves a repeat download from the local cache when the server's validators are
+         * unchanged. The materialized file is re-hashed from disk before it is accepted, since
+         * the stored object may have been damaged since it was cached.
+         */
+        private boolean restoreFromCache(File outFile, long size, String etag, String lastModified) {
+            DownloadCache.Entry entry = cache.lookup(download.getUrl(), etag, lastModified, size);
+            if (entry == null) return false;
+            int id = download.getId();
+            DownloadDigest digest = newDigest();
+            try {
+                cache.materialize(entry, outFile.toPath());
+                try (DownloadFileWriter writer = new DownloadFileWriter(outFile, FsyncPolicy.NONE)) {
+                    digest.updateFrom(writer, entry.getSize());
+                }
+            } catch (IOException e) {
+                logger.warn("Could not restore download id {} from cache: {}", id, e.getMessage());
+                cache.invalidate(entry);
+                return false;
+            }
+            if (!entry.getSha256().equals(digest.hex(DownloadDigest.Algorithm.SHA256))) {
+                logger.warn("Cached copy for download id {} is corrupt, fetching again", id);
+                cache.invalidate(entry);
+                try { Files.deleteIfExists(outFile.toPath()); } catch (IOException ignored) {}
+                return false;
+            }
+            cache.recordHit(entry);
+            download.setFileSize(entry.getSize());
+            download.setDownloadedSize(entry.getSize());
+            if (!verifyDigest(digest)) return true;
+            state.transition(download, "completed");
+            activeTasks.remove(id);
+            logger.info("Download id {} served from cache ({} bytes)", id, entry.getSize());
+            return true;
+        }
+
+        /**
+         * Forces the data file, then records {@code ranges} in the journal. The ranges
+         * must be captured before the force so the journal never gets ahead of the disk.
+         */
+        private void checkpoint(DownloadFileWriter writer, DownloadJournal journal, List<long[]> ranges) {
+            try {
+                writer.force();
+                journal.setRanges(ranges);
+                journal.save();
+            } catch (IOException e) {
+                logger.warn("Could not checkpoint download id {}: {}", download.getId(), e.getMessage());
+            }
+        }
+
+        /**
+         * Runs the download as parallel range requests, resuming the gaps of {@code journal}
+         * if there is one. Returns false when the server turned out not to honor ranges
+         * (or If-Range saw a changed file), so the caller can restart as one stream.
+         */
+        private boolean runSegmented(DownloadTransport http, File outFile, long size, DownloadJournal journal,
+                                     String etag, String lastModified) throws IOException, InterruptedException {
+            int id = download.getId();
+            int segments = SegmentedDownload.segmentCountFor(size, maxSegments);
+            boolean resuming = journal != null && !journal.getRanges().isEmpty();
+            if (journal == null) {
+                journal = new DownloadJournal(outFile, download.getUrl());
+            }
+            journal.setSize(size);
+            if (etag != null || lastModified != null) journal.setValidators(etag, lastModified);
+
+            download.setFileSize(size);
+            state.update(download, DownloadDelta.Field.SIZE);
+
+            String sha256;
+            try (DownloadFileWriter writer = new DownloadFileWriter(outFile, fsyncPolicy)) {
+                if (!resuming) writer.truncate(0);
+                writer.preallocate(size);
+                ExecutorService workers = http instanceof HttpClientTransport ? virtualSegmentExecutor : segmentExecutor;
+                SegmentedDownload segmented = new SegmentedDownload(download.getUrl(), http, writer, size, segments, workers);
+                segmented.setThrottle(bytes -> scheduler.throttle(id, bytes));
+                segmented.setTelemetry(track);
+                if (resuming) {
+                    segmented.setCompletedRanges(journal.getRanges());
+                    String validator = journal.ifRangeValidator();
+                    if (validator != null) segmented.setRequestHeaders(Map.of("If-Range", validator));
+                    logger.info("Resuming download id {} from journal ({} of {} bytes on disk)", id, journal.coveredBytes(), size);
+                }
+                segmented.start();
+
+                DownloadDigest digest = newDigest();
+                long lastJournal = System.currentTimeMillis();
+                while (!segmented.awaitCompletion(250)) {
+                    if (cancelRequested) {
+                        segmented.stop();
+                        DownloadJournal.delete(outFile);
+                        state.transition(download, "cancelled");
+                        activeTasks.remove(id);
+                        return true;
+                    }
+                    if (pauseRequested) {
+                        segmented.stop();
+                        checkpoint(writer, journal, segmented.writtenRanges());
+                        download.setDownloadedSize(journal.coveredBytes());
+                        state.transition(download, "paused");
+                        activeTasks.remove(id);
+                        return true;
+                    }
+                    long prefix = segmented.contiguousPrefix();
+                    state.progress(download, segmented.getDownloadedBytes(), prefix);
+                    // Follow the prefix while it is still in the page cache instead of re-reading the file at the end.
+                    digest.updateFrom(writer, prefix);
+                    long now = System.currentTimeMillis();
+                    if (now - lastJournal >= JOURNAL_INTERVAL_MILLIS) {
+                        checkpoint(writer, journal, segmented.writtenRanges());
+                        lastJournal = now;
+                    }
+                }
+
+                if (segmented.isRangeRejected()) {
+                    logger.info("Server rejected range requests for download id {}, falling back to single stream", id);
+                    writer.truncate(0);
+                    DownloadJournal.delete(outFile);
+                    download.setDownloadedSize(0);
+                    return false;
+                }
+
+                if (!segmented.isComplete()) {
+                    logger.error("Segmented download id {} failed", id, segmented.getFailure());
+                    checkpoint(writer, journal, segmented.writtenRanges());
+                    download.setDownloadedSize(journal.coveredBytes());
+                    state.transition(download, "failed");
+                    activeTasks.remove(id);
+                    return true;
+                }
+
+                digest.updateFrom(writer, size);
+                writer.complete(size);
+                DownloadJournal.delete(outFile);
+                if (!verifyDigest(digest)) {
+                    return true;
+                }
+                sha256 = digest.hex(DownloadDigest.Algorithm.SHA256);
+            }
+
+            cache.store(download.getUrl(), etag, lastModified, outFile.toPath(), sha256);
+            download.setDownloadedSize(size);
+            state.transition(download, "completed");
+            activeTasks.remove(id);
+            logger.info("Segmented download id {} completed ({} segments)", id, segments);
+            return true;
+        }
     }
 
     public void shutdown() {
@@ -517,7 +1105,15 @@ public class DownloadService {
                 try { en.getValue().requestCancel(); } catch (Exception ignored) {}
             }
         } catch (Exception ignored) {}
+        try { state.shutdown(); } catch (Exception ignored) {}
+        try { telemetry.shutdown(); } catch (Exception ignored) {}
         try { executor.shutdownNow(); } catch (Exception ignored) {}
+        try { segmentExecutor.shutdownNow(); } catch (Exception ignored) {}
+        try { virtualSegmentExecutor.shutdownNow(); } catch (Exception ignored) {}
+        try { sizeProbes.shutdownNow(); } catch (Exception ignored) {}
+        for (DownloadTransport t : transports.values()) {
+            try { t.close(); } catch (Exception ignored) {}
+        }
     }
 
 }
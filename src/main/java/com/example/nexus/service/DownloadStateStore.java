@@ -0,0 +1,264 @@
+package com.example.nexus.service;
+
+import com.example.nexus.model.Download;
+import com.example.nexus.repository.DownloadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Authoritative in-memory state for all downloads.
+ * Status transitions are written through to the database immediately; byte progress
+ * only reaches it as a checkpoint every few seconds or megabytes. Listeners receive
+ * coalesced {@link DownloadDelta}s at most once per pulse instead of one event per chunk.
+ */
+public class DownloadStateStore {
+    private static final Logger logger = LoggerFactory.getLogger(DownloadStateStore.class);
+
+    private static final long PULSE_MILLIS = 100L;
+
+    private static final Comparator<Download> NEWEST_FIRST = Comparator
+            .comparing(Download::getStartTime, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(Comparator.comparingInt(Download::getId).reversed());
+
+    private final DownloadRepository repository;
+    private final Map<Integer, Download> downloads = new ConcurrentHashMap<>();
+    private final Map<Integer, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<DownloadListener> listeners = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<DownloadBatch> batches = new CopyOnWriteArrayList<>();
+
+    private final Map<Integer, EnumSet<DownloadDelta.Field>> pending = new LinkedHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final ScheduledExecutorService pulse = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "nexus-download-events");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile long checkpointIntervalMillis = 5000L;
+    private volatile long checkpointBytes = 8L * 1024L * 1024L;
+
+    private static final class Checkpoint {
+        long time = System.currentTimeMillis();
+        long bytes;
+        long durableOffset;
+    }
+
+    public DownloadStateStore(DownloadRepository repository) {
+        this.repository = repository;
+        for (Download d : repository.findAll()) {
+            downloads.put(d.getId(), d);
+        }
+        logger.debug("Loaded {} download(s) into state store", downloads.size());
+    }
+
+    public void addListener(DownloadListener l) {
+        if (l != null) listeners.add(l);
+    }
+
+    public void removeListener(DownloadListener l) {
+        if (l != null) listeners.remove(l);
+    }
+
+    public void setCheckpointPolicy(long intervalMillis, long bytes) {
+        this.checkpointIntervalMillis = Math.max(250L, intervalMillis);
+        this.checkpointBytes = Math.max(64L * 1024L, bytes);
+    }
+
+    public List<Download> getAll() {
+        List<Download> all = new ArrayList<>(downloads.values());
+        all.sort(NEWEST_FIRST);
+        return all;
+    }
+
+    public Download get(int id) {
+        return downloads.get(id);
+    }
+
+    public List<DownloadBatch> getBatches() {
+        return List.copyOf(batches);
+    }
+
+    void addBatch(DownloadBatch batch) {
+        batches.add(batch);
+        for (DownloadListener l : listeners) {
+            try { l.batchStarted(batch); } catch (Exception ignored) {}
+        }
+    }
+
+    void removeBatch(DownloadBatch batch) {
+        batches.remove(batch);
+    }
+
+    void add(Download download) {
+        repository.save(download);
+        downloads.put(download.getId(), download);
+        for (DownloadListener l : listeners) {
+            try { l.downloadAdded(download); } catch (Exception ignored) {}
+        }
+    }
+
+    void remove(int id) {
+        downloads.remove(id);
+        checkpoints.remove(id);
+        synchronized (pending) {
+            pending.remove(id);
+        }
+        repository.delete(id);
+        for (DownloadListener l : listeners) {
+            try { l.downloadRemoved(id); } catch (Exception ignored) {}
+        }
+    }
+
+    void clear() {
+        List<Integer> ids = new ArrayList<>(downloads.keySet());
+        downloads.clear();
+        batches.clear();
+        checkpoints.clear();
+        synchronized (pending) {
+            pending.clear();
+        }
+        repository.clearAll();
+        for (int id : ids) {
+            for (DownloadListener l : listeners) {
+                try { l.downloadRemoved(id); } catch (Exception ignored) {}
+            }
+        }
+    }
+
+    /** Status change: always persisted right away together with the current progress. */
+    void transition(Download download, String status) {
+        download.setStatus(status);
+        if ("completed".equals(status) || "failed".equals(status) || "cancelled".equals(status)) {
+            download.setEndTime(LocalDateTime.now());
+        }
+        persist(download, download.getDownloadedSize());
+        publish(download, EnumSet.of(DownloadDelta.Field.STATUS, DownloadDelta.Field.PROGRESS));
+    }
+
+    /** Non-progress field change (size, priority, name) that should be persisted right away. */
+    void update(Download download, DownloadDelta.Field first, DownloadDelta.Field... rest) {
+        persist(download, download.getDownloadedSize());
+        publish(download, EnumSet.of(first, rest));
+    }
+
+    void progress(Download download, long downloaded) {
+        progress(download, downloaded, downloaded);
+    }
+
+    /**
+     * Records progress in memory and checkpoints it when due. {@code durableOffset} is
+     * what gets persisted: the offset a restart can safely resume from, which for
+     * out-of-order writers is smaller than the byte count shown to the user.
+     */
+    void progress(Download download, long downloaded, long durableOffset) {
+        download.setDownloadedSize(downloaded);
+        Checkpoint cp = checkpoints.computeIfAbsent(download.getId(), k -> new Checkpoint());
+        long now = System.currentTimeMillis();
+        boolean due;
+        synchronized (cp) {
+            cp.durableOffset = durableOffset;
+            due = now - cp.time >= checkpointIntervalMillis || downloaded - cp.bytes >= checkpointBytes;
+        }
+        if (due) persist(download, durableOffset);
+        publish(download, EnumSet.of(DownloadDelta.Field.PROGRESS));
+    }
+
+    /** Writes every in-flight download's last durable offset. */
+    public void checkpointAll() {
+        for (Map.Entry<Integer, Checkpoint> e : checkpoints.entrySet()) {
+            Download d = downloads.get(e.getKey());
+            if (d == null || !"downloading".equals(d.getStatus())) continue;
+            long offset;
+            synchronized (e.getValue()) {
+                offset = e.getValue().durableOffset;
+            }
+            persist(d, offset);
+        }
+    }
+
+    void shutdown() {
+        checkpointAll();
+        pulse.shutdownNow();
+    }
+
+    private void persist(Download download, long durableOffset) {
+        if (!downloads.containsKey(download.getId())) return;
+        long shown = download.getDownloadedSize();
+        if (durableOffset == shown) {
+            repository.update(download);
+        } else {
+            Download row = copyOf(download);
+            row.setDownloadedSize(durableOffset);
+            repository.update(row);
+        }
+        Checkpoint cp = checkpoints.computeIfAbsent(download.getId(), k -> new Checkpoint());
+        synchronized (cp) {
+            cp.time = System.currentTimeMillis();
+            cp.bytes = shown;
+            cp.durableOffset = durableOffset;
+        }
+    }
+
+    private void publish(Download download, EnumSet<DownloadDelta.Field> fields) {
+        synchronized (pending) {
+            EnumSet<DownloadDelta.Field> existing = pending.get(download.getId());
+            if (existing == null) pending.put(download.getId(), fields);
+            else existing.addAll(fields);
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                pulse.schedule(this::flushDeltas, PULSE_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    private void flushDeltas() {
+        List<DownloadDelta> deltas = new ArrayList<>();
+        synchronized (pending) {
+            flushScheduled.set(false);
+            for (Map.Entry<Integer, EnumSet<DownloadDelta.Field>> e : pending.entrySet()) {
+                Download d = downloads.get(e.getKey());
+                if (d != null) deltas.add(new DownloadDelta(d, e.getValue()));
+            }
+            pending.clear();
+        }
+        if (deltas.isEmpty()) return;
+        for (DownloadListener l : listeners) {
+            try { l.downloadsChanged(deltas); } catch (Exception e) { logger.debug("Download listener failed", e); }
+        }
+    }
+
+    private static Download copyOf(Download d) {
+        Download c = new Download();
+        c.setId(d.getId());
+        c.setUserId(d.getUserId());
+        c.setUrl(d.getUrl());
+        c.setFileName(d.getFileName());
+        c.setFilePath(d.getFilePath());
+        c.setFileSize(d.getFileSize());
+        c.setDownloadedSize(d.getDownloadedSize());
+        c.setStatus(d.getStatus());
+        c.setPriority(d.getPriority());
+        c.setChecksum(d.getChecksum());
+        c.setExpectedChecksum(d.getExpectedChecksum());
+        c.setStartTime(d.getStartTime());
+        c.setEndTime(d.getEndTime());
+        return c;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.nexus.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Throughput telemetry for running downloads. The transfer loops only add to counters on a
+ * {@link Track} they hold; once a second a sampler moves the byte count into a fixed-size
+ * ring buffer, updates an exponentially weighted speed and publishes {@link Snapshot}s to
+ * listeners. Nothing is allocated on the per-chunk path.
+ */
+public class DownloadTelemetry {
+    private static final Logger logger = LoggerFactory.getLogger(DownloadTelemetry.class);
+
+    /** Seconds of speed history kept per download. */
+    public static final int HISTORY = 60;
+
+    private static final long SAMPLE_MILLIS = 1000L;
+    // Time constant of the speed average; larger is smoother but slower to react.
+    private static final double EWMA_TAU_SECONDS = 5.0;
+
+    public enum Phase {
+        CONNECT,
+        TTFB,
+        TRANSFER,
+        DISK
+    }
+
+    /**
+     * Point-in-time view of one download. {@code history} holds bytes per second, oldest
+     * first; {@code etaSeconds} is -1 when the size or speed is unknown. Phase times are
+     * cumulative over all connections of the download.
+     */
+    public record Snapshot(int id, double bytesPerSecond, long etaSeconds, long[] history,
+                           long connectMillis, long ttfbMillis, long transferMillis, long diskMillis) {
+
+        public long phaseMillis(Phase phase) {
+            return switch (phase) {
+                case CONNECT -> connectMillis;
+                case TTFB -> ttfbMillis;
+                case TRANSFER -> transferMillis;
+                case DISK -> diskMillis;
+            };
+        }
+    }
+
+    /** Per-download counters, written from transfer threads. */
+    public static final class Track {
+        private final int id;
+        private final LongSupplier remaining;
+        private final LongAdder pending = new LongAdder();
+        private final LongAdder[] phases = new LongAdder[Phase.values().length];
+
+        // Only touched by the sampler thread and under the track's lock for snapshots.
+        private final long[] history = new long[HISTORY];
+        private int head;
+        private int count;
+        private double bytesPerSecond;
+        private long lastSampleNanos = System.nanoTime();
+
+        Track(int id, LongSupplier remaining) {
+            this.id = id;
+            this.remaining = remaining;
+            for (int i = 0; i < phases.length; i++) phases[i] = new LongAdder();
+        }
+
+        public void transferred(long bytes) {
+            pending.add(bytes);
+        }
+
+        public void time(Phase phase, long nanos) {
+            if (nanos > 0) phases[phase.ordinal()].add(nanos);
+        }
+
+        private synchronized void sample(long now) {
+            double seconds = Math.max(1e-3, (now - lastSampleNanos) / 1e9);
+            lastSampleNanos = now;
+            long bytes = pending.sumThenReset();
+            history[head] = bytes;
+            head = (head + 1) % HISTORY;
+            if (count < HISTORY) count++;
+            double rate = bytes / seconds;
+            if (count == 1) {
+                bytesPerSecond = rate;
+            } else {
+                double alpha = 1.0 - Math.exp(-seconds / EWMA_TAU_SECONDS);
+                bytesPerSecond += alpha * (rate - bytesPerSecond);
+            }
+        }
+
+        private synchronized Snapshot snapshot() {
+            long[] ordered = new long[count];
+            for (int i = 0; i < count; i++) {
+                ordered[i] = history[(head - count + i + HISTORY) % HISTORY];
+            }
+            long left = remaining.getAsLong();
+            long eta = left >= 0 && bytesPerSecond >= 1.0 ? (long) Math.ceil(left / bytesPerSecond) : -1L;
+            return new Snapshot(id, bytesPerSecond, eta, ordered,
+                    millis(Phase.CONNECT), millis(Phase.TTFB), millis(Phase.TRANSFER), millis(Phase.DISK));
+        }
+
+        private long millis(Phase phase) {
+            return phases[phase.ordinal()].sum() / 1_000_000L;
+        }
+    }
+
+    private final Map<Integer, Track> tracks = new ConcurrentHashMap<>();
+    private final Map<Integer, Snapshot> lastSnapshots = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<DownloadListener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "nexus-download-telemetry");
+        t.setDaemon(true);
+        return t;
+    });
+    private ScheduledFuture<?> ticker;
+
+    public void addListener(DownloadListener l) {
+        if (l != null) listeners.add(l);
+    }
+
+    public void removeListener(DownloadListener l) {
+        if (l != null) listeners.remove(l);
+    }
+
+    /**
+     * Starts tracking a download. {@code remaining} reports the bytes still to fetch, or -1
+     * if the size is unknown; it is only called when a snapshot is taken.
+     */
+    synchronized Track open(int id, LongSupplier remaining) {
+        Track track = new Track(id, remaining);
+        tracks.put(id, track);
+        if (ticker == null) {
+            ticker = sampler.scheduleAtFixedRate(this::tick, SAMPLE_MILLIS, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return track;
+    }
+
+    /** Stops tracking; the final snapshot stays available until the download is removed. */
+    synchronized void close(Track track) {
+        if (track == null || !tracks.remove(track.id, track)) return;
+        lastSnapshots.put(track.id, track.snapshot());
+        if (tracks.isEmpty() && ticker != null) {
+            ticker.cancel(false);
+            ticker = null;
+        }
+    }
+
+    void forget(int id) {
+        lastSnapshots.remove(id);
+    }
+
+    /** Latest view of a download, or null if it has never been tracked. */
+    public Snapshot snapshot(int id) {
+        Track track = tracks.get(id);
+        return track != null ? track.snapshot() : lastSnapshots.get(id);
+    }
+
+    void shutdown() {
+        sampler.shutdownNow();
+    }
+
+    private void tick() {
+        try {
+            long now = System.nanoTime();
+            for (Track track : tracks.values()) {
+                track.sample(now);
+            }
+            if (listeners.isEmpty()) return;
+            List<Snapshot> snapshots = new ArrayList<>(tracks.size());
+            for (Track track : tracks.values()) {
+                snapshots.add(track.snapshot());
+            }
+            for (DownloadListener l : listeners) {
+                try { l.telemetryUpdated(snapshots); } catch (Exception e) { logger.debug("Telemetry listener failed", e); }
+            }
+        } catch (Exception e) {
+            logger.debug("Telemetry sample failed", e);
+        }
+    }
+}
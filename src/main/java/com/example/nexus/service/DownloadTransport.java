@@ -0,0 +1,51 @@
+package com.example.nexus.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Map;
+
+/**
+ * HTTP engine used by download tasks. Implementations must be safe to share
+ * between all running downloads and their segment workers.
+ */
+public interface DownloadTransport extends Closeable {
+
+    String name();
+
+    Response head(String url) throws IOException;
+
+    /**
+     * GET with an optional byte range. {@code from < 0} requests the whole body,
+     * {@code to < 0} an open-ended range.
+     */
+    Response get(String url, long from, long to, Map<String, String> headers) throws IOException;
+
+    Stats stats();
+
+    @Override
+    default void close() throws IOException {}
+
+    interface Response extends Closeable {
+        int statusCode();
+
+        String header(String name);
+
+        ReadableByteChannel body() throws IOException;
+
+        /** Time spent establishing the connection, or -1 if the engine does not report it. */
+        default long connectNanos() {
+            return -1L;
+        }
+
+        /** Releases the connection; may be called from another thread to abort a blocked read. */
+        @Override
+        void close();
+    }
+
+    record Stats(String transport, long requests, long retries, long failures) {}
+
+    static String rangeHeader(long from, long to) {
+        return "bytes=" + from + "-" + (to >= 0 ? Long.toString(to) : "");
+    }
+}
@@ -0,0 +1,660 @@
+package com.example.nexus.service;
+
+import com.example.nexus.util.DomainNames;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Network filter rules in Adblock Plus/EasyList syntax, compiled for per-request matching.
+ * Rules of the form {@code ||host^} go into a hash trie of domain labels, looked up once per
+ * request host. Every other rule is indexed by its longest literal part in an Aho-Corasick
+ * automaton, so one pass over the URL finds the few rules worth checking in full. Cosmetic
+ * rules, regular expressions and options we cannot honor are skipped.
+ */
+final class FilterEngine {
+
+    static final int TYPE_SCRIPT = 1;
+    static final int TYPE_IMAGE = 1 << 1;
+    static final int TYPE_STYLESHEET = 1 << 2;
+    static final int TYPE_XHR = 1 << 3;
+    static final int TYPE_SUBDOCUMENT = 1 << 4;
+    static final int TYPE_FONT = 1 << 5;
+    static final int TYPE_MEDIA = 1 << 6;
+    static final int TYPE_OBJECT = 1 << 7;
+    static final int TYPE_OTHER = 1 << 8;
+    static final int TYPE_PING = 1 << 9;
+    static final int TYPE_WEBSOCKET = 1 << 10;
+    private static final int ALL_TYPES = (1 << 11) - 1;
+    /** What a request may be when neither its Accept header nor its extension tells. */
+    static final int TYPE_UNKNOWN = TYPE_SCRIPT | TYPE_XHR | TYPE_OTHER | TYPE_PING;
+
+    static final int PARTY_UNKNOWN = 0;
+    static final int PARTY_FIRST = 1;
+    static final int PARTY_THIRD = 2;
+
+    private static final int FLAG_MATCH_CASE = 1;
+    private static final int FLAG_DOMAIN_ANCHOR = 1 << 1;
+    private static final int FLAG_THIRD_PARTY = 1 << 2;
+    private static final int FLAG_FIRST_PARTY = 1 << 3;
+
+    private static final int MAGIC = 0x4e584646;
+    private static final int VERSION = 1;
+    private static final int MIN_KEYWORD = 3;
+
+    private static final Pattern PURE_DOMAIN = Pattern.compile("[a-z0-9][a-z0-9.-]*\\^");
+    private static final Map<String, Integer> TYPE_OPTIONS = Map.ofEntries(
+            Map.entry("script", TYPE_SCRIPT), Map.entry("image", TYPE_IMAGE),
+            Map.entry("stylesheet", TYPE_STYLESHEET), Map.entry("css", TYPE_STYLESHEET),
+            Map.entry("xmlhttprequest", TYPE_XHR), Map.entry("xhr", TYPE_XHR),
+            Map.entry("subdocument", TYPE_SUBDOCUMENT), Map.entry("frame", TYPE_SUBDOCUMENT),
+            Map.entry("font", TYPE_FONT), Map.entry("media", TYPE_MEDIA), Map.entry("object", TYPE_OBJECT),
+            Map.entry("other", TYPE_OTHER), Map.entry("ping", TYPE_PING), Map.entry("beacon", TYPE_PING),
+            Map.entry("websocket", TYPE_WEBSOCKET));
+
+    /** A request as the matcher sees it; build with {@link #request}. */
+    record Request(String url, String lowerUrl, String host, int hostStart, int hostEnd,
+                   String documentHost, int party, int type) {}
+
+    private final RuleSet block;
+    private final RuleSet allow;
+    private final int skipped;
+
+    private FilterEngine(RuleSet block, RuleSet allow, int skipped) {
+        this.block = block;
+        this.allow = allow;
+        this.skipped = skipped;
+    }
+
+    int ruleCount() {
+        return block.patterns.length + allow.patterns.length;
+    }
+
+    int skippedCount() {
+        return skipped;
+    }
+
+    /** The blocking rule that applies to {@code r}, or null if none does or an exception allows it. */
+    String match(Request r) {
+        int id = block.find(r);
+        if (id < 0 || allow.find(r) >= 0) return null;
+        return block.patterns[id];
+    }
+
+    static Request request(String url, String documentUrl, int type) {
+        String lower = url.toLowerCase(Locale.ROOT);
+        int hostStart = hostStart(lower);
+        int hostEnd = hostEnd(lower, hostStart);
+        String host = DomainNames.normalize(lower.substring(hostStart, hostEnd));
+        String documentHost = null;
+        int party = PARTY_UNKNOWN;
+        if (documentUrl != null) {
+            String doc = documentUrl.toLowerCase(Locale.ROOT);
+            int start = hostStart(doc);
+            documentHost = DomainNames.normalize(doc.substring(start, hostEnd(doc, start)));
+            if (!documentHost.isEmpty()) {
+                party = DomainNames.registrableDomain(host).equals(DomainNames.registrableDomain(documentHost)) ? PARTY_FIRST : PARTY_THIRD;
+            } else {
+                documentHost = null;
+            }
+        }
+        return new Request(url, lower, host, hostStart, hostEnd, documentHost, party, type);
+    }
+
+    private static int hostStart(String url) {
+        int scheme = url.indexOf("://");
+        int start = scheme < 0 ? 0 : scheme + 3;
+        int end = start;
+        while (end < url.length() && "/?#".indexOf(url.charAt(end)) < 0) end++;
+        int at = url.lastIndexOf('@', end - 1);
+        return at >= start ? at + 1 : start;
+    }
+
+    private static int hostEnd(String url, int start) {
+        int end = start;
+        if (end < url.length() && url.charAt(end) == '[') {
+            int close = url.indexOf(']', end);
+            if (close > 0) return close + 1;
+        }
+        while (end < url.length() && "/?#:".indexOf(url.charAt(end)) < 0) end++;
+        return end;
+    }
+
+    // ---- compiling ---------------------------------------------------------------------
+
+    static FilterEngine compile(Iterable<String> lines) {
+        Builder block = new Builder();
+        Builder allow = new Builder();
+        int skipped = 0;
+        for (String raw : lines) {
+            String line = raw.trim();
+            if (line.isEmpty() || line.startsWith("!") || line.startsWith("[")) continue;
+            if (!parse(line, block, allow)) skipped++;
+        }
+        return new FilterEngine(block.build(), allow.build(), skipped);
+    }
+
+    /** Adds one rule; false if it is not a network rule this engine can honor. */
+    private static boolean parse(String line, Builder block, Builder allow) {
+        if (line.contains("##") || line.contains("#@#") || line.contains("#?#") || line.contains("#$#") || line.contains("#%#")) {
+            return false;
+        }
+        Builder target = block;
+        String pattern = line;
+        if (pattern.startsWith("@@")) {
+            target = allow;
+            pattern = pattern.substring(2);
+        }
+
+        int flags = 0;
+        int types = 0;
+        int negatedTypes = 0;
+        List<String> includes = null;
+        List<String> excludes = null;
+        int dollar = pattern.lastIndexOf('$');
+        if (dollar >= 0 && !(pattern.startsWith("/") && pattern.endsWith("/"))) {
+            String options = pattern.substring(dollar + 1);
+            pattern = pattern.substring(0, dollar);
+            for (String option : options.split(",")) {
+                String o = option.trim().toLowerCase(Locale.ROOT);
+                if (o.isEmpty() || o.equals("important")) continue;
+                boolean negated = o.startsWith("~");
+                String name = negated ? o.substring(1) : o;
+                Integer type = TYPE_OPTIONS.get(name);
+                if (type != null) {
+                    if (negated) negatedTypes |= type; else types |= type;
+                } else if (name.equals("third-party") || name.equals("3p")) {
+                    flags |= negated ? FLAG_FIRST_PARTY : FLAG_THIRD_PARTY;
+                } else if (name.equals("first-party") || name.equals("1p")) {
+                    flags |= negated ? FLAG_THIRD_PARTY : FLAG_FIRST_PARTY;
+                } else if (name.equals("match-case")) {
+                    flags |= FLAG_MATCH_CASE;
+                } else if (name.startsWith("domain=")) {
+                    for (String d : name.substring(7).split("\\|")) {
+                        if (d.startsWith("~")) {
+                            if (excludes == null) excludes = new ArrayList<>();
+                            excludes.add(d.substring(1));
+                        } else if (!d.isEmpty()) {
+                            if (includes == null) includes = new ArrayList<>();
+                            includes.add(d);
+                        }
+                    }
+                } else {
+                    // document, popup, csp=, redirect= and friends change more than whether a request loads.
+                    return false;
+                }
+            }
+        }
+        if (negatedTypes != 0) types = (types == 0 ? ALL_TYPES : types) & ~negatedTypes;
+        if (types == 0 && negatedTypes != 0) return false;
+        if (pattern.startsWith("/") && pattern.endsWith("/") && pattern.length() > 1) return false;
+
+        boolean anchorStart = false;
+        boolean anchorEnd = false;
+        if (pattern.startsWith("||")) {
+            flags |= FLAG_DOMAIN_ANCHOR;
+            pattern = pattern.substring(2);
+        } else if (pattern.startsWith("|")) {
+            anchorStart = true;
+            pattern = pattern.substring(1);
+        }
+        if (pattern.endsWith("|")) {
+            anchorEnd = true;
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        if ((flags & FLAG_MATCH_CASE) == 0) pattern = pattern.toLowerCase(Locale.ROOT);
+        pattern = pattern.replaceAll("\\*+", "*");
+        String core = pattern;
+        if (core.isEmpty() || core.equals("*")) {
+            // Options-only rules would match every URL; keep them only when scoped to sites.
+            if (includes == null) return false;
+        }
+
+        String[] inc = includes != null ? includes.toArray(String[]::new) : null;
+        String[] exc = excludes != null ? excludes.toArray(String[]::new) : null;
+
+        if ((flags & FLAG_DOMAIN_ANCHOR) != 0 && !anchorEnd && PURE_DOMAIN.matcher(core).matches()) {
+            int id = target.add(core, flags, types, inc, exc);
+            target.domains.put(core.substring(0, core.length() - 1), append(target.domains.get(core.substring(0, core.length() - 1)), id));
+            return true;
+        }
+
+        String glob = core;
+        if ((flags & FLAG_DOMAIN_ANCHOR) == 0 && !anchorStart && !glob.startsWith("*")) glob = "*" + glob;
+        if (!anchorEnd && !glob.endsWith("*")) glob = glob + "*";
+        int id = target.add(glob, flags, types, inc, exc);
+        String keyword = keyword(core);
+        if (keyword != null) target.keywords.add(new Object[]{keyword, id});
+        else target.fallback.add(id);
+        return true;
+    }
+
+    private static String keyword(String core) {
+        String best = null;
+        for (String part : core.split("[*^|]")) {
+            if (part.length() >= MIN_KEYWORD && (best == null || part.length() > best.length())) best = part;
+        }
+        return best != null ? best.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static int[] append(int[] ids, int id) {
+        if (ids == null) return new int[]{id};
+        int[] out = Arrays.copyOf(ids, ids.length + 1);
+        out[ids.length] = id;
+        return out;
+    }
+
+    private static final class Builder {
+        final List<String> patterns = new ArrayList<>();
+        final List<Integer> flags = new ArrayList<>();
+        final List<Integer> types = new ArrayList<>();
+        final List<String[]> includes = new ArrayList<>();
+        final List<String[]> excludes = new ArrayList<>();
+        final Map<String, int[]> domains = new HashMap<>();
+        final List<Object[]> keywords = new ArrayList<>();
+        final List<Integer> fallback = new ArrayList<>();
+
+        int add(String pattern, int f, int t, String[] inc, String[] exc) {
+            patterns.add(pattern);
+            flags.add(f);
+            types.add(t);
+            includes.add(inc);
+            excludes.add(exc);
+            return patterns.size() - 1;
+        }
+
+        RuleSet build() {
+            int n = patterns.size();
+            int[] f = new int[n];
+            int[] t = new int[n];
+            for (int i = 0; i < n; i++) {
+                f[i] = flags.get(i);
+                t[i] = types.get(i);
+            }
+            return new RuleSet(patterns.toArray(String[]::new), f, t, includes.toArray(String[][]::new),
+                    excludes.toArray(String[][]::new), domains, Automaton.build(keywords),
+                    fallback.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    // ---- matching ----------------------------------------------------------------------
+
+    private static final class RuleSet {
+        final String[] patterns;
+        final int[] flags;
+        final int[] types;
+        final String[][] includes;
+        final String[][] excludes;
+        final Map<String, int[]> domains;
+        final DomainNode trie = new DomainNode();
+        final Automaton automaton;
+        final int[] fallback;
+
+        RuleSet(String[] patterns, int[] flags, int[] types, String[][] includes, String[][] excludes,
+                Map<String, int[]> domains, Automaton automaton, int[] fallback) {
+            this.patterns = patterns;
+            this.flags = flags;
+            this.types = types;
+            this.includes = includes;
+            this.excludes = excludes;
+            this.domains = domains;
+            this.automaton = automaton;
+            this.fallback = fallback;
+            for (Map.Entry<String, int[]> e : domains.entrySet()) trie.insert(e.getKey(), e.getValue());
+        }
+
+        int find(Request r) {
+            int id = trie.find(r.host(), this, r);
+            if (id >= 0) return id;
+            id = automaton.find(r, this);
+            if (id >= 0) return id;
+            for (int f : fallback) {
+                if (applies(f, r) && matchesPattern(f, r)) return f;
+            }
+            return -1;
+        }
+
+        boolean applies(int id, Request r) {
+            int t = types[id];
+            if (t != 0 && (t & r.type()) == 0) return false;
+            int f = flags[id];
+            if ((f & FLAG_THIRD_PARTY) != 0 && r.party() != PARTY_THIRD) return false;
+            if ((f & FLAG_FIRST_PARTY) != 0 && r.party() != PARTY_FIRST) return false;
+            String doc = r.documentHost();
+            if (includes[id] != null) {
+                if (doc == null) return false;
+                boolean any = false;
+                for (String d : includes[id]) {
+                    if (DomainNames.isSameOrSubdomain(doc, d)) { any = true; break; }
+                }
+                if (!any) return false;
+            }
+            if (excludes[id] != null && doc != null) {
+                for (String d : excludes[id]) {
+                    if (DomainNames.isSameOrSubdomain(doc, d)) return false;
+                }
+            }
+            return true;
+        }
+
+        boolean matchesPattern(int id, Request r) {
+            String p = patterns[id];
+            String url = (flags[id] & FLAG_MATCH_CASE) != 0 ? r.url() : r.lowerUrl();
+            if ((flags[id] & FLAG_DOMAIN_ANCHOR) == 0) return glob(p, url, 0);
+            // "||" matches at the start of the host or of any of its labels.
+            if (glob(p, url, r.hostStart())) return true;
+            for (int i = r.hostStart(); i < r.hostEnd(); i++) {
+                if (url.charAt(i) == '.' && glob(p, url, i + 1)) return true;
+            }
+            return false;
+        }
+    }
+
+    /** Host labels from the top-level domain down; a node with rules matches itself and every subdomain. */
+    private static final class DomainNode {
+        Map<String, DomainNode> children;
+        int[] rules;
+
+        void insert(String domain, int[] ids) {
+            DomainNode node = this;
+            int end = domain.length();
+            while (end > 0) {
+                int dot = domain.lastIndexOf('.', end - 1);
+                String label = domain.substring(dot + 1, end);
+                if (node.children == null) node.children = new HashMap<>(4);
+                node = node.children.computeIfAbsent(label, k -> new DomainNode());
+                end = dot < 0 ? 0 : dot;
+            }
+            node.rules = ids;
+        }
+
+        int find(String host, RuleSet set, Request r) {
+            DomainNode node = this;
+            int end = host.length();
+            while (end > 0 && node.children != null) {
+                int dot = host.lastIndexOf('.', end - 1);
+                node = node.children.get(host.substring(dot + 1, end));
+                if (node == null) return -1;
+                if (node.rules != null) {
+                    for (int id : node.rules) {
+                        if (set.applies(id, r)) return id;
+                    }
+                }
+                end = dot < 0 ? 0 : dot;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Aho-Corasick automaton over rule keywords, flattened into arrays. Edges of a state are
+     * sorted by character and found by binary search; the root has a direct table for ASCII.
+     */
+    private static final class Automaton {
+        final int[] edgeStart;
+        final char[] edgeChar;
+        final int[] edgeNext;
+        final int[] fail;
+        final int[] dictLink;
+        final int[] outStart;
+        final int[] outRules;
+        final int[] rootNext = new int[128];
+
+        Automaton(int[] edgeStart, char[] edgeChar, int[] edgeNext, int[] fail, int[] dictLink, int[] outStart, int[] outRules) {
+            this.edgeStart = edgeStart;
+            this.edgeChar = edgeChar;
+            this.edgeNext = edgeNext;
+            this.fail = fail;
+            this.dictLink = dictLink;
+            this.outStart = outStart;
+            this.outRules = outRules;
+            Arrays.fill(rootNext, -1);
+            for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+                if (edgeChar[e] < 128) rootNext[edgeChar[e]] = edgeNext[e];
+            }
+        }
+
+        static Automaton build(List<Object[]> keywords) {
+            List<TreeMap<Character, Integer>> go = new ArrayList<>();
+            List<List<Integer>> out = new ArrayList<>();
+            go.add(new TreeMap<>());
+            out.add(new ArrayList<>());
+            for (Object[] k : keywords) {
+                String word = (String) k[0];
+                int state = 0;
+                for (int i = 0; i < word.length(); i++) {
+                    Integer next = go.get(state).get(word.charAt(i));
+                    if (next == null) {
+                        next = go.size();
+                        go.add(new TreeMap<>());
+                        out.add(new ArrayList<>());
+                        go.get(state).put(word.charAt(i), next);
+                    }
+                    state = next;
+                }
+                out.get(state).add((Integer) k[1]);
+            }
+
+            int n = go.size();
+            int[] edgeStart = new int[n + 1];
+            int edges = 0;
+            for (int s = 0; s < n; s++) {
+                edgeStart[s] = edges;
+                edges += go.get(s).size();
+            }
+            edgeStart[n] = edges;
+            char[] edgeChar = new char[edges];
+            int[] edgeNext = new int[edges];
+            int[] outStart = new int[n + 1];
+            int outs = 0;
+            for (int s = 0; s < n; s++) {
+                int e = edgeStart[s];
+                for (Map.Entry<Character, Integer> edge : go.get(s).entrySet()) {
+                    edgeChar[e] = edge.getKey();
+                    edgeNext[e++] = edge.getValue();
+                }
+                outStart[s] = outs;
+                outs += out.get(s).size();
+            }
+            outStart[n] = outs;
+            int[] outRules = new int[outs];
+            for (int s = 0, o = 0; s < n; s++) {
+                for (int id : out.get(s)) outRules[o++] = id;
+            }
+
+            int[] fail = new int[n];
+            int[] dictLink = new int[n];
+            dictLink[0] = -1;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+                fail[edgeNext[e]] = 0;
+                dictLink[edgeNext[e]] = -1;
+                queue.add(edgeNext[e]);
+            }
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                for (int e = edgeStart[u]; e < edgeStart[u + 1]; e++) {
+                    int v = edgeNext[e];
+                    char c = edgeChar[e];
+                    int f = fail[u];
+                    int w;
+                    while ((w = child(edgeStart, edgeChar, edgeNext, f, c)) < 0 && f != 0) f = fail[f];
+                    fail[v] = w >= 0 && w != v ? w : 0;
+                    dictLink[v] = outStart[fail[v] + 1] > outStart[fail[v]] ? fail[v] : dictLink[fail[v]];
+                    queue.add(v);
+                }
+            }
+            return new Automaton(edgeStart, edgeChar, edgeNext, fail, dictLink, outStart, outRules);
+        }
+
+        private static int child(int[] edgeStart, char[] edgeChar, int[] edgeNext, int state, char c) {
+            int lo = edgeStart[state];
+            int hi = edgeStart[state + 1] - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char m = edgeChar[mid];
+                if (m < c) lo = mid + 1;
+                else if (m > c) hi = mid - 1;
+                else return edgeNext[mid];
+            }
+            return -1;
+        }
+
+        int find(Request r, RuleSet set) {
+            String text = r.lowerUrl();
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                int next;
+                while (true) {
+                    next = state == 0 ? (c < 128 ? rootNext[c] : child(edgeStart, edgeChar, edgeNext, 0, c))
+                            : child(edgeStart, edgeChar, edgeNext, state, c);
+                    if (next >= 0 || state == 0) break;
+                    state = fail[state];
+                }
+                state = next < 0 ? 0 : next;
+                for (int s = outStart[state + 1] > outStart[state] ? state : dictLink[state]; s > 0; s = dictLink[s]) {
+                    for (int k = outStart[s]; k < outStart[s + 1]; k++) {
+                        int id = outRules[k];
+                        if (set.applies(id, r) && set.matchesPattern(id, r)) return id;
+                    }
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Matches {@code p} against the whole of {@code s} from {@code from}. {@code *} is any run of
+     * characters; {@code ^} is one separator character, or the end of the URL.
+     */
+    static boolean glob(String p, String s, int from) {
+        int pi = 0;
+        int si = from;
+        int star = -1;
+        int mark = 0;
+        int n = s.length();
+        while (si < n) {
+            if (pi < p.length()) {
+                char pc = p.charAt(pi);
+                if (pc == '*') {
+                    star = pi++;
+                    mark = si;
+                    continue;
+                }
+                char c = s.charAt(si);
+                if (pc == '^' ? isSeparator(c) : pc == c) {
+                    pi++;
+                    si++;
+                    continue;
+                }
+            }
+            if (star < 0) return false;
+            pi = star + 1;
+            si = ++mark;
+        }
+        while (pi < p.length() && (p.charAt(pi) == '*' || p.charAt(pi) == '^')) pi++;
+        return pi == p.length();
+    }
+
+    private static boolean isSeparator(char c) {
+        return !(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                || c == '_' || c == '-' || c == '.' || c == '%') || c > 127;
+    }
+
+    // ---- persistence -------------------------------------------------------------------
+
+    void write(DataOutputStream out, String sourceKey) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(sourceKey);
+        out.writeInt(skipped);
+        writeSet(out, block);
+        writeSet(out, allow);
+    }
+
+    /** Reads a compiled engine, or returns null if it was built from other sources or another format. */
+    static FilterEngine read(DataInputStream in, String sourceKey) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(sourceKey)) return null;
+        int skipped = in.readInt();
+        RuleSet block = readSet(in);
+        RuleSet allow = readSet(in);
+        return new FilterEngine(block, allow, skipped);
+    }
+
+    private static void writeSet(DataOutputStream out, RuleSet set) throws IOException {
+        int n = set.patterns.length;
+        out.writeInt(n);
+        for (int i = 0; i < n; i++) {
+            out.writeUTF(set.patterns[i]);
+            out.writeInt(set.flags[i]);
+            out.writeInt(set.types[i]);
+            out.writeUTF(set.includes[i] != null ? String.join("|", set.includes[i]) : "");
+            out.writeUTF(set.excludes[i] != null ? String.join("|", set.excludes[i]) : "");
+        }
+        out.writeInt(set.domains.size());
+        for (Map.Entry<String, int[]> e : set.domains.entrySet()) {
+            out.writeUTF(e.getKey());
+            writeInts(out, e.getValue());
+        }
+        Automaton a = set.automaton;
+        writeInts(out, a.edgeStart);
+        out.writeInt(a.edgeChar.length);
+        for (char c : a.edgeChar) out.writeChar(c);
+        writeInts(out, a.edgeNext);
+        writeInts(out, a.fail);
+        writeInts(out, a.dictLink);
+        writeInts(out, a.outStart);
+        writeInts(out, a.outRules);
+        writeInts(out, set.fallback);
+    }
+
+    private static RuleSet readSet(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        String[] patterns = new String[n];
+        int[] flags = new int[n];
+        int[] types = new int[n];
+        String[][] includes = new String[n][];
+        String[][] excludes = new String[n][];
+        for (int i = 0; i < n; i++) {
+            patterns[i] = in.readUTF();
+            flags[i] = in.readInt();
+            types[i] = in.readInt();
+            String inc = in.readUTF();
+            String exc = in.readUTF();
+            includes[i] = inc.isEmpty() ? null : inc.split("\\|");
+            excludes[i] = exc.isEmpty() ? null : exc.split("\\|");
+        }
+        int domainCount = in.readInt();
+        Map<String, int[]> domains = new HashMap<>(domainCount * 2);
+        for (int i = 0; i < domainCount; i++) {
+            domains.put(in.readUTF(), readInts(in));
+        }
+        int[] edgeStart = readInts(in);
+        char[] edgeChar = new char[in.readInt()];
+        for (int i = 0; i < edgeChar.length; i++) edgeChar[i] = in.readChar();
+        Automaton a = new Automaton(edgeStart, edgeChar, readInts(in), readInts(in), readInts(in), readInts(in), readInts(in));
+        return new RuleSet(patterns, flags, types, includes, excludes, domains, a, readInts(in));
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int v : values) out.writeInt(v);
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) values[i] = in.readInt();
+        return values;
+    }
+}
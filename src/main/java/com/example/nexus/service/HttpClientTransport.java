@@ -0,0 +1,269 @@
+package com.example.nexus.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link HttpClient} engine. One client is shared by every download, so connections
+ * are pooled per origin and many small files from one HTTP/2 server are multiplexed
+ * over a single connection. The client dispatches on virtual threads.
+ * Connect failures, timeouts and 429/502/503/504 replies are retried with
+ * exponential backoff and jitter; a numeric Retry-After is honored.
+ * <p>
+ * The request timeout only covers the wait for response headers, so a watchdog closes
+ * any body stream whose current read has seen no data for the read timeout.
+ */
+class HttpClientTransport implements DownloadTransport {
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientTransport.class);
+
+    private static final long MAX_BACKOFF_MILLIS = 30_000L;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final long readTimeoutNanos;
+    private final Set<StreamChannel> openBodies = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "nexus-download-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    HttpClientTransport() {
+        this(Duration.ofSeconds(15), Duration.ofSeconds(30), Duration.ofSeconds(30), 3, 500L);
+    }
+
+    HttpClientTransport(Duration connectTimeout, Duration requestTimeout, Duration readTimeout, int maxRetries, long initialBackoffMillis) {
+        this.requestTimeout = requestTimeout;
+        this.readTimeoutNanos = readTimeout.toNanos();
+        this.maxRetries = Math.max(0, maxRetries);
+        this.initialBackoffMillis = Math.max(1L, initialBackoffMillis);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+        long period = Math.max(100L, Math.min(1000L, readTimeout.toMillis() / 4));
+        watchdog.scheduleWithFixedDelay(this::closeStalledBodies, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String name() {
+        return "httpclient";
+    }
+
+    @Override
+    public Response head(String url) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        return send(request);
+    }
+
+    @Override
+    public Response get(String url, long from, long to, Map<String, String> headers) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout).GET();
+        if (from >= 0) builder.header("Range", DownloadTransport.rangeHeader(from, to));
+        if (headers != null) headers.forEach(builder::header);
+        return send(builder.build());
+    }
+
+    @Override
+    public Stats stats() {
+        return new Stats(name(), requests.get(), retries.get(), failures.get());
+    }
+
+    @Override
+    public void close() {
+        watchdog.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private void closeStalledBodies() {
+        long now = System.nanoTime();
+        for (StreamChannel body : openBodies) {
+            long since = body.readingSince;
+            if (since != 0L && now - since > readTimeoutNanos) body.expire();
+        }
+    }
+
+    private Response send(HttpRequest request) throws IOException {
+        IOException lastError = null;
+        for (int attempt = 0; ; attempt++) {
+            requests.incrementAndGet();
+            long retryAfterMillis = -1L;
+            try {
+                HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                int code = response.statusCode();
+                if (!isRetryable(code) || attempt >= maxRetries) {
+                    return wrap(response);
+                }
+                retryAfterMillis = parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null));
+                try { response.body().close(); } catch (IOException ignored) {}
+                lastError = new IOException("HTTP " + code);
+            } catch (IOException e) {
+                lastError = e;
+                if (attempt >= maxRetries) {
+                    failures.incrementAndGet();
+                    throw e;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for " + request.uri(), e);
+            }
+
+            retries.incrementAndGet();
+            long delay = retryAfterMillis >= 0 ? retryAfterMillis : backoff(attempt);
+            logger.debug("Retrying {} {} in {} ms (attempt {}): {}", request.method(), request.uri(), delay, attempt + 1, lastError.getMessage());
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw lastError;
+            }
+        }
+    }
+
+    private long backoff(int attempt) {
+        long base = Math.min(MAX_BACKOFF_MILLIS, initialBackoffMillis << Math.min(attempt, 16));
+        return base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    private static long parseRetryAfter(String value) {
+        if (value == null) return -1L;
+        try {
+            return Math.min(MAX_BACKOFF_MILLIS, Long.parseLong(value.trim()) * 1000L);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private Response wrap(HttpResponse<InputStream> response) {
+        return new Response() {
+            private volatile StreamChannel channel;
+
+            @Override
+            public int statusCode() {
+                return response.statusCode();
+            }
+
+            @Override
+            public String header(String name) {
+                return response.headers().firstValue(name).orElse(null);
+            }
+
+            @Override
+            public ReadableByteChannel body() {
+                channel = new StreamChannel(response.body());
+                return channel;
+            }
+
+            /** Also aborts a read blocked in another thread; the stream's close wakes it. */
+            @Override
+            public void close() {
+                StreamChannel body = channel;
+                try {
+                    if (body != null) body.close(); else response.body().close();
+                } catch (IOException ignored) {}
+            }
+        };
+    }
+
+    /**
+     * Channel view of the response stream. {@code Channels.newChannel} reads under a
+     * monitor, which pins virtual threads; with the client's own tasks on the same
+     * carriers that can stall every transfer on small machines.
+     */
+    private final class StreamChannel implements ReadableByteChannel {
+        private final InputStream in;
+        private byte[] scratch = new byte[0];
+        private volatile boolean open = true;
+        private volatile boolean expired = false;
+        /** Start of the read in progress, or 0 between reads; checked by the watchdog. */
+        volatile long readingSince = 0L;
+
+        StreamChannel(InputStream in) {
+            this.in = in;
+            openBodies.add(this);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int len = dst.remaining();
+            if (len == 0) return 0;
+            int n;
+            readingSince = System.nanoTime();
+            try {
+                if (dst.hasArray()) {
+                    n = in.read(dst.array(), dst.arrayOffset() + dst.position(), len);
+                    if (n > 0) dst.position(dst.position() + n);
+                } else {
+                    if (scratch.length < len) scratch = new byte[Math.min(len, 256 * 1024)];
+                    n = in.read(scratch, 0, Math.min(len, scratch.length));
+                    if (n > 0) dst.put(scratch, 0, n);
+                }
+            } catch (IOException e) {
+                if (expired) throw timeout();
+                throw e;
+            } finally {
+                readingSince = 0L;
+            }
+            // A closed stream may also report end of body; that must not pass for a complete file.
+            if (n < 0 && expired) throw timeout();
+            return n;
+        }
+
+        private HttpTimeoutException timeout() {
+            return new HttpTimeoutException("No data received for " + TimeUnit.NANOSECONDS.toSeconds(readTimeoutNanos) + " s");
+        }
+
+        void expire() {
+            expired = true;
+            try { close(); } catch (IOException ignored) {}
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            open = false;
+            openBodies.remove(this);
+            in.close();
+        }
+    }
+}
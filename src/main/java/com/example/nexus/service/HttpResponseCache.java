@@ -0,0 +1,1106 @@
+package com.example.nexus.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.CacheRequest;
+import java.net.CacheResponse;
+import java.net.HttpURLConnection;
+import java.net.ResponseCache;
+import java.net.SecureCacheResponse;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+/**
+ * Disk-backed HTTP cache for everything loaded through {@code java.net}, which includes all
+ * WebView page resources. Installed with {@link ResponseCache#setDefault}. Responses are kept
+ * per profile under {@code ~/.nexus/http-cache/profile-<id>}, one header and one body file per
+ * URL in {@code objects/<xx>/}. Fresh entries (Cache-Control max-age, Expires, or a heuristic
+ * from Last-Modified) are served without touching the network; stale entries with an ETag or
+ * Last-Modified are revalidated with a conditional request. Bodies read repeatedly are
+ * memory-mapped. The total size is capped and least recently used entries are evicted on a
+ * background thread.
+ */
+public class HttpResponseCache extends ResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(HttpResponseCache.class);
+
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024L * 1024L;
+
+    private static final long MAX_ENTRY_BYTES = 16L * 1024L * 1024L;
+    private static final long HOT_MAX_BYTES = 64L * 1024L * 1024L;
+    private static final long HOT_ENTRY_BYTES = 2L * 1024L * 1024L;
+    private static final int HOT_AFTER_HITS = 2;
+    private static final long HEURISTIC_MAX_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long INDEX_SAVE_SECONDS = 30;
+    // Eviction stops at this share of the limit so it does not run again on the next store.
+    private static final double EVICT_TO = 0.9;
+    private static final int REVALIDATE_CONNECT_MILLIS = 15000;
+    private static final int REVALIDATE_READ_MILLIS = 30000;
+
+    private static final String INDEX_FILE = "index.tsv";
+    private static final int FLAG_NO_CACHE = 1;
+    private static final int FLAG_MUST_REVALIDATE = 2;
+
+    public record Stats(long hits, long revalidated, long misses, long stores, long evictions,
+                        long bytesSaved, int entries, long totalBytes, long maxBytes) {
+
+        /** Share of cacheable lookups answered from disk, including revalidated ones. */
+        public double hitRatio() {
+            long lookups = hits + revalidated + misses;
+            return lookups == 0 ? 0.0 : (double) (hits + revalidated) / lookups;
+        }
+    }
+
+    private static final class Entry {
+        final String key;
+        final String url;
+        final long size;
+        final Map<String, String> vary;
+        final String etag;
+        final String lastModified;
+        volatile long expiresAt;
+        volatile int flags;
+        long lastAccess;
+        int hits;
+
+        Entry(String key, String url, long size, Map<String, String> vary, String etag, String lastModified,
+              long expiresAt, int flags, long lastAccess) {
+            this.key = key;
+            this.url = url;
+            this.size = size;
+            this.vary = vary;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+            this.flags = flags;
+            this.lastAccess = lastAccess;
+        }
+
+        boolean isFresh(long now) {
+            return (flags & FLAG_NO_CACHE) == 0 && expiresAt > now;
+        }
+
+        boolean hasValidator() {
+            return etag != null || lastModified != null;
+        }
+    }
+
+    /**
+     * TLS parameters of the connection a response arrived on. HttpURLConnection ignores cached
+     * https responses that cannot report them.
+     */
+    private record Tls(String cipherSuite, List<Certificate> serverChain) {}
+
+    private record Stored(Map<String, List<String>> headers, Tls tls) {}
+
+    /**
+     * Consulted before the cache for every request; a request it blocks is answered with an
+     * empty 204 and never reaches the network.
+     */
+    public interface RequestFilter {
+        boolean blocks(URI uri, Map<String, List<String>> requestHeaders);
+
+        /** Size of a response the network delivered for a request that was not blocked; -1 if not known. */
+        default void received(URI uri, Map<String, List<String>> requestHeaders, long bytes) {}
+    }
+
+    private static final Tls BLOCKED_TLS = new Tls("TLS_NULL_WITH_NULL_NULL", List.of());
+
+    /** Request seen by {@link #get}, so {@link #put} on the same thread knows what was asked for. */
+    private record PendingRequest(URI uri, Map<String, List<String>> headers, boolean storable) {}
+
+    private final Path base;
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "nexus-http-cache");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ThreadLocal<PendingRequest> lastRequest = new ThreadLocal<>();
+    private volatile Store store;
+    private volatile boolean enabled = true;
+    private volatile RequestFilter requestFilter;
+    private volatile long maxBytes = DEFAULT_MAX_BYTES;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    public HttpResponseCache(Path base) {
+        this.base = base;
+        maintenance.scheduleWithFixedDelay(this::saveIndex, INDEX_SAVE_SECONDS, INDEX_SAVE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public static Path defaultRoot() {
+        String dir = System.getProperty("nexus.http.cache.dir");
+        return dir != null ? Paths.get(dir) : Paths.get(System.getProperty("user.home"), ".nexus", "http-cache");
+    }
+
+    /** Switches to the cache directory of a profile; the previous profile's index is saved. */
+    public synchronized void useProfile(int profileId) {
+        Path dir = base.resolve("profile-" + profileId);
+        Store previous = store;
+        if (previous != null && previous.dir.equals(dir)) return;
+        Store next = new Store(dir);
+        store = next;
+        if (previous != null) previous.close();
+        maintenance.execute(next::sweepOrphans);
+        scheduleEviction();
+        logger.info("HTTP cache for profile {}: {} entries, {} bytes", profileId, next.index.size(), next.totalBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setRequestFilter(RequestFilter requestFilter) {
+        this.requestFilter = requestFilter;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(0L, maxBytes);
+        scheduleEviction();
+    }
+
+    public Stats stats() {
+        Store s = store;
+        int entries = 0;
+        long total = 0;
+        if (s != null) {
+            synchronized (s) {
+                entries = s.index.size();
+                total = s.totalBytes;
+            }
+        }
+        return new Stats(hits.get(), revalidated.get(), misses.get(), stores.get(), evictions.get(),
+                bytesSaved.get(), entries, total, maxBytes);
+    }
+
+    /** Removes every entry of the current profile. */
+    public void clear() {
+        Store s = store;
+        if (s != null) s.clear();
+    }
+
+    /** Saves the index and stops background work. */
+    public void close() {
+        Store s = store;
+        if (s != null) s.close();
+        maintenance.shutdownNow();
+    }
+
+    @Override
+    public CacheResponse get(URI uri, String method, Map<String, List<String>> requestHeaders) {
+        lastRequest.remove();
+        RequestFilter filter = requestFilter;
+        if (filter != null && isHttp(uri) && filter.blocks(uri, requestHeaders)) return blocked(uri);
+        Store s = store;
+        if (!isHttp(uri)) return null;
+        if (!enabled || s == null || !"GET".equals(method)) {
+            if (filter != null) lastRequest.set(new PendingRequest(uri, requestHeaders, false));
+            return null;
+        }
+
+        Map<String, List<String>> headers = caseInsensitive(requestHeaders);
+        Map<String, String> cc = cacheControl(headers.get("Cache-Control"));
+        boolean bypass = headers.containsKey("Range") || headers.containsKey("If-Range")
+                || headers.containsKey("If-None-Match") || headers.containsKey("If-Modified-Since")
+                || headers.containsKey("Authorization");
+        lastRequest.set(new PendingRequest(uri, headers, !bypass && !cc.containsKey("no-store")));
+        // Conditional and partial requests come from a caller managing its own cache.
+        if (bypass || cc.containsKey("no-store")) return null;
+        boolean forceRevalidate = cc.containsKey("no-cache") || "0".equals(cc.get("max-age"))
+                || first(headers.get("Pragma")).toLowerCase(Locale.ROOT).contains("no-cache");
+
+        String url = uri.toString();
+        Entry e = s.lookup(keyFor(url), url);
+        if (e == null || !varyMatches(e, headers)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (!forceRevalidate && e.isFresh(now)) {
+            CacheResponse response = s.serve(e);
+            if (response != null) {
+                hits.incrementAndGet();
+                bytesSaved.addAndGet(e.size);
+                return response;
+            }
+        } else if (e.hasValidator()) {
+            return revalidate(s, e, uri, headers);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public CacheRequest put(URI uri, URLConnection connection) {
+        PendingRequest request = lastRequest.get();
+        lastRequest.remove();
+        RequestFilter filter = requestFilter;
+        if (filter != null && request != null && request.uri().equals(uri)) {
+            filter.received(uri, request.headers(), connection.getContentLengthLong());
+        }
+        Store s = store;
+        if (!enabled || s == null || request == null || !request.storable() || !request.uri().equals(uri)) return null;
+        if (!(connection instanceof HttpURLConnection http) || !"GET".equals(http.getRequestMethod())) return null;
+        try {
+            if (http.getResponseCode() != HttpURLConnection.HTTP_OK) return null;
+        } catch (IOException e) {
+            return null;
+        }
+        Tls tls = tlsOf(connection);
+        if (tls == null && "https".equalsIgnoreCase(uri.getScheme())) return null;
+        return s.begin(uri.toString(), request.headers(), connection.getHeaderFields(), tls, System.currentTimeMillis());
+    }
+
+    /**
+     * Asks the origin whether a stale entry is still current. A 304 refreshes the entry and
+     * serves it from disk; a 200 is streamed to the caller while it replaces the entry. If the
+     * network is unreachable the stale copy is served unless the server forbade that.
+     */
+    private CacheResponse revalidate(Store s, Entry e, URI uri, Map<String, List<String>> requestHeaders) {
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) uri.toURL().openConnection();
+            conn.setUseCaches(false);
+            conn.setInstanceFollowRedirects(false);
+            conn.setConnectTimeout(REVALIDATE_CONNECT_MILLIS);
+            conn.setReadTimeout(REVALIDATE_READ_MILLIS);
+            for (Map.Entry<String, List<String>> h : requestHeaders.entrySet()) {
+                String name = h.getKey();
+                if (name == null || name.equalsIgnoreCase("Host") || name.equalsIgnoreCase("Connection")
+                        || name.equalsIgnoreCase("Content-Length")) continue;
+                for (String v : h.getValue()) conn.addRequestProperty(name, v);
+            }
+            if (e.etag != null) conn.setRequestProperty("If-None-Match", e.etag);
+            if (e.lastModified != null) conn.setRequestProperty("If-Modified-Since", e.lastModified);
+
+            int code = conn.getResponseCode();
+            long now = System.currentTimeMillis();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                s.refresh(e, conn.getHeaderFields(), now);
+                conn.disconnect();
+                CacheResponse response = s.serve(e);
+                if (response != null) {
+                    revalidated.incrementAndGet();
+                    bytesSaved.addAndGet(e.size);
+                    return response;
+                }
+                misses.incrementAndGet();
+                return null;
+            }
+            misses.incrementAndGet();
+            if (code != HttpURLConnection.HTTP_OK) {
+                s.remove(e);
+                conn.disconnect();
+                return null;
+            }
+            Map<String, List<String>> responseHeaders = conn.getHeaderFields();
+            Tls tls = tlsOf(conn);
+            InputStream body = conn.getInputStream();
+            Store.Pending pending = tls != null || !"https".equalsIgnoreCase(uri.getScheme())
+                    ? s.begin(uri.toString(), requestHeaders, responseHeaders, tls, now) : null;
+            if (pending == null) {
+                s.remove(e);
+                return response(responseHeaders, tls, body);
+            }
+            return response(responseHeaders, tls, new TeeInputStream(body, pending));
+        } catch (IOException ex) {
+            logger.debug("Revalidation of {} failed: {}", uri, ex.getMessage());
+            if (conn != null) conn.disconnect();
+            if ((e.flags & (FLAG_MUST_REVALIDATE | FLAG_NO_CACHE)) == 0) {
+                CacheResponse stale = s.serve(e);
+                if (stale != null) {
+                    hits.incrementAndGet();
+                    bytesSaved.addAndGet(e.size);
+                    return stale;
+                }
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    private void scheduleEviction() {
+        Store s = store;
+        if (s == null) return;
+        try {
+            maintenance.execute(() -> s.evict(maxBytes));
+        } catch (java.util.concurrent.RejectedExecutionException ignored) {
+            // shutting down
+        }
+    }
+
+    private void saveIndex() {
+        Store s = store;
+        if (s != null) s.saveIndexIfDirty();
+    }
+
+    /** One profile's directory and in-memory index. */
+    private final class Store {
+        private final Path dir;
+        private final Path objects;
+        // Access-ordered, so iteration starts at the least recently used entry.
+        private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(256, 0.75f, true);
+        private final LinkedHashMap<String, MappedByteBuffer> hot = new LinkedHashMap<>(64, 0.75f, true);
+        private long totalBytes;
+        private long hotBytes;
+        private boolean dirty;
+        private boolean closed;
+
+        Store(Path dir) {
+            this.dir = dir;
+            this.objects = dir.resolve("objects");
+            loadIndex();
+        }
+
+        synchronized Entry lookup(String key, String url) {
+            if (closed) return null;
+            Entry e = index.get(key);
+            return e != null && e.url.equals(url) ? e : null;
+        }
+
+        CacheResponse serve(Entry e) {
+            Stored stored;
+            InputStream body;
+            try {
+                stored = readHeaders(headerPath(e.key));
+                if (stored.tls() == null && e.url.regionMatches(true, 0, "https:", 0, 6)) throw new IOException("no TLS details");
+                body = openBody(e);
+            } catch (IOException ex) {
+                logger.debug("Cached response for {} unreadable: {}", e.url, ex.getMessage());
+                remove(e);
+                return null;
+            }
+            synchronized (this) {
+                e.lastAccess = System.currentTimeMillis();
+                dirty = true;
+            }
+            return response(stored.headers(), stored.tls(), body);
+        }
+
+        private InputStream openBody(Entry e) throws IOException {
+            MappedByteBuffer mapped;
+            boolean map;
+            synchronized (this) {
+                mapped = hot.get(e.key);
+                e.hits++;
+                map = mapped == null && e.hits >= HOT_AFTER_HITS && e.size > 0 && e.size <= HOT_ENTRY_BYTES;
+            }
+            if (mapped != null) return new ByteBufferInputStream(mapped.duplicate());
+            Path body = bodyPath(e.key);
+            if (!map) return Files.newInputStream(body);
+
+            try (FileChannel ch = FileChannel.open(body, StandardOpenOption.READ)) {
+                if (ch.size() != e.size) throw new IOException("size mismatch");
+                mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, e.size);
+            }
+            synchronized (this) {
+                if (hot.put(e.key, mapped) == null) hotBytes += e.size;
+                Iterator<Map.Entry<String, MappedByteBuffer>> it = hot.entrySet().iterator();
+                while (hotBytes > HOT_MAX_BYTES && it.hasNext()) {
+                    hotBytes -= it.next().getValue().capacity();
+                    it.remove();
+                }
+            }
+            return new ByteBufferInputStream(mapped.duplicate());
+        }
+
+        /** Starts storing a response, or returns null if it must not be cached. */
+        Pending begin(String url, Map<String, List<String>> requestHeaders, Map<String, List<String>> responseHeaders,
+                      Tls tls, long now) {
+            synchronized (this) {
+                if (closed) return null;
+            }
+            Map<String, List<String>> headers = caseInsensitive(responseHeaders);
+            Map<String, String> cc = cacheControl(headers.get("Cache-Control"));
+            if (cc.containsKey("no-store") || headers.containsKey("Content-Range")) return null;
+            long length = parseLong(first(headers.get("Content-Length")));
+            if (length > MAX_ENTRY_BYTES || length > maxBytes / 8) return null;
+
+            Map<String, String> vary = new TreeMap<>();
+            for (String name : splitList(headers.get("Vary"))) {
+                if (name.equals("*")) return null;
+                vary.put(name.toLowerCase(Locale.ROOT), String.join(", ", requestHeaders.getOrDefault(name, List.of())));
+            }
+            String etag = emptyToNull(first(headers.get("ETag")));
+            String lastModified = emptyToNull(first(headers.get("Last-Modified")));
+            long expiresAt = freshUntil(headers, cc, now);
+            int flags = (cc.containsKey("no-cache") ? FLAG_NO_CACHE : 0) | (cc.containsKey("must-revalidate") ? FLAG_MUST_REVALIDATE : 0);
+            if (expiresAt <= now && etag == null && lastModified == null) return null;
+
+            String key = keyFor(url);
+            try {
+                Files.createDirectories(bodyPath(key).getParent());
+                Path tmp = Files.createTempFile(bodyPath(key).getParent(), key, ".tmp");
+                Entry template = new Entry(key, url, 0, Collections.unmodifiableMap(vary), etag, lastModified, expiresAt, flags, now);
+                return new Pending(template, responseHeaders, tls, tmp, length);
+            } catch (IOException ex) {
+                logger.debug("Could not start caching {}: {}", url, ex.getMessage());
+                return null;
+            }
+        }
+
+        void commit(Pending p, long size) {
+            Entry t = p.template;
+            try {
+                writeHeaders(headerPath(t.key), new Stored(p.responseHeaders, p.tls));
+                move(p.tmp, bodyPath(t.key));
+            } catch (IOException ex) {
+                logger.debug("Could not cache {}: {}", t.url, ex.getMessage());
+                deleteQuietly(p.tmp);
+                return;
+            }
+            Entry e = new Entry(t.key, t.url, size, t.vary, t.etag, t.lastModified, t.expiresAt, t.flags, System.currentTimeMillis());
+            boolean overLimit;
+            synchronized (this) {
+                if (closed) return;
+                Entry old = index.put(e.key, e);
+                totalBytes += size - (old != null ? old.size : 0L);
+                dropHot(e.key);
+                dirty = true;
+                overLimit = totalBytes > maxBytes;
+            }
+            stores.incrementAndGet();
+            if (overLimit) scheduleEviction();
+        }
+
+        /** Applies the headers of a 304 to a stored entry, as RFC 9111 requires. */
+        void refresh(Entry e, Map<String, List<String>> notModified, long now) throws IOException {
+            Stored stored = readHeaders(headerPath(e.key));
+            Map<String, List<String>> merged = new LinkedHashMap<>(stored.headers());
+            for (Map.Entry<String, List<String>> h : notModified.entrySet()) {
+                String name = h.getKey();
+                if (name == null || name.equalsIgnoreCase("Content-Length") || name.equalsIgnoreCase("Content-Encoding")
+                        || name.equalsIgnoreCase("Transfer-Encoding") || name.equalsIgnoreCase("Set-Cookie")) continue;
+                merged.keySet().removeIf(k -> k != null && k.equalsIgnoreCase(name));
+                merged.put(name, h.getValue());
+            }
+            writeHeaders(headerPath(e.key), new Stored(merged, stored.tls()));
+            Map<String, List<String>> headers = caseInsensitive(merged);
+            Map<String, String> cc = cacheControl(headers.get("Cache-Control"));
+            synchronized (this) {
+                e.expiresAt = freshUntil(headers, cc, now);
+                e.flags = (cc.containsKey("no-cache") ? FLAG_NO_CACHE : 0) | (cc.containsKey("must-revalidate") ? FLAG_MUST_REVALIDATE : 0);
+                dirty = true;
+            }
+        }
+
+        void remove(Entry e) {
+            synchronized (this) {
+                if (index.get(e.key) != e) return;
+                index.remove(e.key);
+                totalBytes -= e.size;
+                dropHot(e.key);
+                dirty = true;
+            }
+            deleteFiles(e.key);
+        }
+
+        void evict(long limit) {
+            List<String> victims = new ArrayList<>();
+            synchronized (this) {
+                if (closed || totalBytes <= limit) return;
+                long target = (long) (limit * EVICT_TO);
+                Iterator<Entry> it = index.values().iterator();
+                while (totalBytes > target && it.hasNext()) {
+                    Entry e = it.next();
+                    it.remove();
+                    totalBytes -= e.size;
+                    dropHot(e.key);
+                    victims.add(e.key);
+                }
+                dirty = true;
+            }
+            for (String key : victims) deleteFiles(key);
+            evictions.addAndGet(victims.size());
+            logger.debug("HTTP cache evicted {} entries", victims.size());
+        }
+
+        void clear() {
+            List<String> keys;
+            synchronized (this) {
+                keys = new ArrayList<>(index.keySet());
+                index.clear();
+                hot.clear();
+                hotBytes = 0;
+                totalBytes = 0;
+                dirty = true;
+            }
+            for (String key : keys) deleteFiles(key);
+            saveIndexIfDirty();
+        }
+
+        void close() {
+            saveIndexIfDirty();
+            synchronized (this) {
+                closed = true;
+                hot.clear();
+                hotBytes = 0;
+            }
+        }
+
+        /** Removes files left behind by a crash between writing a body and saving the index. */
+        void sweepOrphans() {
+            if (!Files.isDirectory(objects)) return;
+            int removed = 0;
+            try (DirectoryStream<Path> shards = Files.newDirectoryStream(objects)) {
+                for (Path shard : shards) {
+                    try (DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+                        for (Path f : files) {
+                            String name = f.getFileName().toString();
+                            int dot = name.indexOf('.');
+                            String key = dot > 0 ? name.substring(0, dot) : name;
+                            boolean known;
+                            synchronized (this) {
+                                known = index.containsKey(key);
+                            }
+                            // Temp files may belong to a store in progress; leave recent ones.
+                            if (!known && (!name.endsWith(".tmp")
+                                    || Files.getLastModifiedTime(f).toMillis() < System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1))) {
+                                deleteQuietly(f);
+                                removed++;
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("HTTP cache sweep failed: {}", e.getMessage());
+            }
+            if (removed > 0) logger.debug("HTTP cache removed {} orphaned files", removed);
+        }
+
+        private void dropHot(String key) {
+            MappedByteBuffer m = hot.remove(key);
+            if (m != null) hotBytes -= m.capacity();
+        }
+
+        private Path bodyPath(String key) {
+            return objects.resolve(key.substring(0, 2)).resolve(key + ".body");
+        }
+
+        private Path headerPath(String key) {
+            return objects.resolve(key.substring(0, 2)).resolve(key + ".hdr");
+        }
+
+        private void deleteFiles(String key) {
+            deleteQuietly(bodyPath(key));
+            deleteQuietly(headerPath(key));
+        }
+
+        private void loadIndex() {
+            Path file = dir.resolve(INDEX_FILE);
+            if (!Files.isRegularFile(file)) return;
+            List<Entry> loaded = new ArrayList<>();
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] f = line.split("\t", -1);
+                    if (f.length < 9 || f[0].length() < 2) continue;
+                    try {
+                        loaded.add(new Entry(f[0], f[1], Long.parseLong(f[2]), decodeVary(f[8]), nullable(f[5]), nullable(f[6]),
+                                Long.parseLong(f[3]), Integer.parseInt(f[4]), Long.parseLong(f[7])));
+                    } catch (NumberFormatException ignored) {}
+                }
+            } catch (IOException e) {
+                logger.warn("Could not read HTTP cache index {}: {}", file, e.getMessage());
+                return;
+            }
+            loaded.sort(Comparator.comparingLong(e -> e.lastAccess));
+            for (Entry e : loaded) {
+                if (!Files.isRegularFile(bodyPath(e.key))) continue;
+                index.put(e.key, e);
+                totalBytes += e.size;
+            }
+        }
+
+        void saveIndexIfDirty() {
+            List<Entry> snapshot;
+            synchronized (this) {
+                if (!dirty || closed) return;
+                dirty = false;
+                snapshot = new ArrayList<>(index.values());
+            }
+            try {
+                Files.createDirectories(dir);
+                Path tmp = dir.resolve(INDEX_FILE + ".tmp");
+                try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    for (Entry e : snapshot) {
+                        out.write(e.key + "\t" + clean(e.url) + "\t" + e.size + "\t" + e.expiresAt + "\t" + e.flags + "\t"
+                                + clean(e.etag) + "\t" + clean(e.lastModified) + "\t" + e.lastAccess + "\t" + encodeVary(e.vary));
+                        out.newLine();
+                    }
+                }
+                move(tmp, dir.resolve(INDEX_FILE));
+            } catch (IOException e) {
+                synchronized (this) {
+                    dirty = true;
+                }
+                logger.warn("Could not write HTTP cache index: {}", e.getMessage());
+            }
+        }
+
+        /** Receives the body as the caller reads it; committed only if it arrives complete. */
+        final class Pending extends CacheRequest {
+            private final Entry template;
+            private final Map<String, List<String>> responseHeaders;
+            private final Tls tls;
+            private final Path tmp;
+            private final long expectedLength;
+            private OutputStream out;
+            private long written;
+            private boolean done;
+
+            Pending(Entry template, Map<String, List<String>> responseHeaders, Tls tls, Path tmp, long expectedLength) {
+                this.template = template;
+                this.responseHeaders = responseHeaders;
+                this.tls = tls;
+                this.tmp = tmp;
+                this.expectedLength = expectedLength;
+            }
+
+            @Override
+            public synchronized OutputStream getBody() throws IOException {
+                if (out == null) out = Files.newOutputStream(tmp);
+                return new OutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        synchronized (Pending.this) {
+                            if (done) return;
+                            if (written + len > MAX_ENTRY_BYTES) {
+                                abort();
+                                return;
+                            }
+                            out.write(b, off, len);
+                            written += len;
+                        }
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        finish();
+                    }
+                };
+            }
+
+            synchronized void finish() throws IOException {
+                if (done) return;
+                done = true;
+                if (out != null) out.close();
+                if (expectedLength >= 0 && written != expectedLength) {
+                    deleteQuietly(tmp);
+                    return;
+                }
+                commit(this, written);
+            }
+
+            @Override
+            public synchronized void abort() {
+                if (done) return;
+                done = true;
+                try {
+                    if (out != null) out.close();
+                } catch (IOException ignored) {}
+                deleteQuietly(tmp);
+            }
+        }
+    }
+
+    /** Copies what the caller reads into the cache; a read to EOF commits, an early close discards. */
+    private static final class TeeInputStream extends FilterInputStream {
+        private final Store.Pending pending;
+        private final OutputStream sink;
+
+        TeeInputStream(InputStream in, Store.Pending pending) throws IOException {
+            super(in);
+            this.pending = pending;
+            this.sink = pending.getBody();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) sink.close(); else sink.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n < 0) sink.close(); else sink.write(b, off, n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            pending.abort();
+            super.close();
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    private static CacheResponse blocked(URI uri) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        headers.put(null, List.of("HTTP/1.1 204 No Content"));
+        headers.put("Content-Length", List.of("0"));
+        headers.put("Cache-Control", List.of("no-store"));
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        return response(headers, secure ? BLOCKED_TLS : null, InputStream.nullInputStream());
+    }
+
+    private static CacheResponse response(Map<String, List<String>> headers, Tls tls, InputStream body) {
+        if (tls == null) {
+            return new CacheResponse() {
+                @Override
+                public Map<String, List<String>> getHeaders() {
+                    return headers;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return body;
+                }
+            };
+        }
+        return new SecureCacheResponse() {
+            @Override
+            public Map<String, List<String>> getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public InputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public String getCipherSuite() {
+                return tls.cipherSuite();
+            }
+
+            @Override
+            public List<Certificate> getLocalCertificateChain() {
+                return null;
+            }
+
+            @Override
+            public List<Certificate> getServerCertificateChain() throws SSLPeerUnverifiedException {
+                if (tls.serverChain().isEmpty()) throw new SSLPeerUnverifiedException("no certificates cached");
+                return tls.serverChain();
+            }
+
+            @Override
+            public Principal getPeerPrincipal() throws SSLPeerUnverifiedException {
+                if (tls.serverChain().isEmpty() || !(tls.serverChain().get(0) instanceof X509Certificate x509)) {
+                    throw new SSLPeerUnverifiedException("no certificates cached");
+                }
+                return x509.getSubjectX500Principal();
+            }
+
+            @Override
+            public Principal getLocalPrincipal() {
+                return null;
+            }
+        };
+    }
+
+    private static Tls tlsOf(URLConnection connection) {
+        if (!(connection instanceof HttpsURLConnection https)) return null;
+        try {
+            return new Tls(https.getCipherSuite(), List.of(https.getServerCertificates()));
+        } catch (IllegalStateException | SSLPeerUnverifiedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * End of the freshness lifetime: max-age (less Age), else Expires relative to Date, else a
+     * tenth of the time since Last-Modified, capped at a day. no-cache entries are stored but
+     * always revalidated.
+     */
+    static long freshUntil(Map<String, List<String>> headers, Map<String, String> cc, long now) {
+        long age = Math.max(0L, parseLong(first(headers.get("Age"))));
+        if (cc.containsKey("max-age")) {
+            long maxAge = parseLong(cc.get("max-age"));
+            return maxAge > 0 ? now + (maxAge - age) * 1000L : 0L;
+        }
+        long date = parseDate(first(headers.get("Date")));
+        if (date < 0) date = now;
+        String expires = first(headers.get("Expires"));
+        if (!expires.isEmpty()) {
+            long at = parseDate(expires);
+            return at < 0 ? 0L : now + (at - date);
+        }
+        long lastModified = parseDate(first(headers.get("Last-Modified")));
+        if (lastModified > 0 && lastModified < date) {
+            return now + Math.min(HEURISTIC_MAX_MILLIS, (date - lastModified) / 10);
+        }
+        return 0L;
+    }
+
+    private static boolean varyMatches(Entry e, Map<String, List<String>> requestHeaders) {
+        for (Map.Entry<String, String> v : e.vary.entrySet()) {
+            String current = String.join(", ", requestHeaders.getOrDefault(v.getKey(), List.of()));
+            if (!current.equals(v.getValue())) return false;
+        }
+        return true;
+    }
+
+    static Map<String, String> cacheControl(List<String> values) {
+        Map<String, String> directives = new TreeMap<>();
+        for (String part : splitList(values)) {
+            int eq = part.indexOf('=');
+            String name = (eq < 0 ? part : part.substring(0, eq)).trim().toLowerCase(Locale.ROOT);
+            String value = eq < 0 ? "" : part.substring(eq + 1).trim().replace("\"", "");
+            directives.put(name, value);
+        }
+        return directives;
+    }
+
+    private static List<String> splitList(List<String> values) {
+        if (values == null) return List.of();
+        List<String> out = new ArrayList<>();
+        for (String v : values) {
+            if (v == null) continue;
+            for (String part : v.split(",")) {
+                String p = part.trim();
+                if (!p.isEmpty()) out.add(p);
+            }
+        }
+        return out;
+    }
+
+    private static Map<String, List<String>> caseInsensitive(Map<String, List<String>> headers) {
+        Map<String, List<String>> out = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (headers == null) return out;
+        for (Map.Entry<String, List<String>> h : headers.entrySet()) {
+            if (h.getKey() != null && h.getValue() != null) out.put(h.getKey(), h.getValue());
+        }
+        return out;
+    }
+
+    private static boolean isHttp(URI uri) {
+        String scheme = uri.getScheme();
+        return "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme);
+    }
+
+    private static String first(List<String> values) {
+        return values == null || values.isEmpty() || values.get(0) == null ? "" : values.get(0);
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return value == null || value.isEmpty() ? -1L : Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private static long parseDate(String value) {
+        if (value == null || value.isEmpty()) return -1L;
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1L;
+        }
+    }
+
+    private static String keyFor(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 20);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Header files: the status line first under an empty name, then one {@code name\tvalue} per
+     * line. TLS details use names starting with ':', which no HTTP header can have.
+     */
+    private static void writeHeaders(Path file, Stored stored) throws IOException {
+        Map<String, List<String>> headers = stored.headers();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            List<String> status = headers.get(null);
+            out.write("\t" + clean(status != null && !status.isEmpty() ? status.get(0) : "HTTP/1.1 200 OK"));
+            out.newLine();
+            for (Map.Entry<String, List<String>> h : headers.entrySet()) {
+                if (h.getKey() == null || h.getKey().equalsIgnoreCase("Set-Cookie") || h.getValue() == null) continue;
+                for (String v : h.getValue()) {
+                    out.write(clean(h.getKey()) + "\t" + clean(v));
+                    out.newLine();
+                }
+            }
+            if (stored.tls() != null) {
+                out.write(":cipher\t" + clean(stored.tls().cipherSuite()));
+                out.newLine();
+                for (Certificate cert : stored.tls().serverChain()) {
+                    out.write(":cert\t" + Base64.getEncoder().encodeToString(cert.getEncoded()));
+                    out.newLine();
+                }
+            }
+        } catch (CertificateException e) {
+            deleteQuietly(tmp);
+            throw new IOException("Could not encode certificate", e);
+        }
+        move(tmp, file);
+    }
+
+    private static Stored readHeaders(Path file) throws IOException {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        String cipher = null;
+        List<Certificate> chain = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) continue;
+                String name = tab == 0 ? null : line.substring(0, tab);
+                String value = line.substring(tab + 1);
+                if (":cipher".equals(name)) {
+                    cipher = value;
+                } else if (":cert".equals(name)) {
+                    chain.add(CertificateFactory.getInstance("X.509")
+                            .generateCertificate(new java.io.ByteArrayInputStream(Base64.getDecoder().decode(value))));
+                } else {
+                    headers.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+                }
+            }
+        } catch (CertificateException | IllegalArgumentException e) {
+            throw new IOException("Corrupt TLS details in " + file, e);
+        }
+        if (!headers.containsKey(null)) throw new IOException("missing status line");
+        return new Stored(headers, cipher != null ? new Tls(cipher, List.copyOf(chain)) : null);
+    }
+
+    private static String encodeVary(Map<String, String> vary) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> v : vary.entrySet()) {
+            if (sb.length() > 0) sb.append('\u001e');
+            sb.append(clean(v.getKey())).append('\u001f').append(clean(v.getValue()));
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, String> decodeVary(String encoded) {
+        if (encoded.isEmpty()) return Map.of();
+        Map<String, String> vary = new TreeMap<>();
+        for (String pair : encoded.split("\u001e")) {
+            int sep = pair.indexOf('\u001f');
+            if (sep > 0) vary.put(pair.substring(0, sep), pair.substring(sep + 1));
+        }
+        return Collections.unmodifiableMap(vary);
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {}
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static String nullable(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
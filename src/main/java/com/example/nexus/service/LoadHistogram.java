@@ -0,0 +1,108 @@
+package com.example.nexus.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Histogram of non-negative values with logarithmic buckets: four per power of two, so any
+ * percentile is within about 12% of the true value whatever the scale. Values below four have
+ * a bucket each. Only buckets in use are written, which keeps a day of loads to a few dozen
+ * bytes per metric.
+ */
+public class LoadHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - 2) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+
+    public void add(long value) {
+        if (value < 0) return;
+        counts[indexOf(value)]++;
+        total++;
+    }
+
+    public void merge(LoadHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) counts[i] += other.counts[i];
+        total += other.total;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    /** The value at percentile {@code p} (0 to 1), or -1 if the histogram is empty. */
+    public long percentile(double p) {
+        if (total == 0) return -1;
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return valueOf(i);
+        }
+        return valueOf(BUCKETS - 1);
+    }
+
+    public void write(DataOutput out) throws IOException {
+        int used = 0;
+        for (long c : counts) if (c > 0) used++;
+        writeVarLong(out, used);
+        int previous = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] == 0) continue;
+            writeVarLong(out, i - previous);
+            writeVarLong(out, counts[i]);
+            previous = i;
+        }
+    }
+
+    public static LoadHistogram read(DataInput in) throws IOException {
+        LoadHistogram h = new LoadHistogram();
+        long used = readVarLong(in);
+        int index = 0;
+        for (long n = 0; n < used; n++) {
+            index += (int) readVarLong(in);
+            if (index < 0 || index >= BUCKETS) throw new IOException("Bucket out of range: " + index);
+            long c = readVarLong(in);
+            h.counts[index] += c;
+            h.total += c;
+        }
+        return h;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - 2) * SUB_BUCKETS + sub;
+    }
+
+    /** The middle of a bucket. */
+    static long valueOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + 2;
+        long sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - 2);
+        return (SUB_BUCKETS + sub) * width + width / 2;
+    }
+
+    private static void writeVarLong(DataOutput out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.nexus.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decides whether a navigation is a page or a file to download. File extensions are matched
+ * locally; anything else is probed with a HEAD request on a small bounded pool. Results are
+ * cached per URL, and origins that keep answering with HTML stop being probed for a while,
+ * so ordinary browsing does not cost an extra request per page.
+ */
+public class NavigationClassifier {
+    private static final Logger logger = LoggerFactory.getLogger(NavigationClassifier.class);
+
+    private static final int PROBE_THREADS = 2;
+    private static final int PROBE_QUEUE = 16;
+    private static final int PROBE_TIMEOUT_MILLIS = 8000;
+
+    private static final int MAX_URLS = 512;
+    private static final int MAX_ORIGINS = 256;
+    private static final long URL_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long ORIGIN_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    // HTML answers in a row before an origin is treated as serving pages only.
+    private static final int HTML_STREAK = 3;
+
+    private static final Pattern DOWNLOAD_EXTENSION = Pattern.compile(
+            ".*\\.(zip|exe|msi|pdf|docx?|xlsx?|rar|7z|png|jpe?g|gif|bmp|webp)$", Pattern.CASE_INSENSITIVE);
+    // Paths that often serve files without an extension; these are probed even on HTML origins.
+    private static final Pattern DOWNLOAD_HINT = Pattern.compile(
+            "(?:/download|/attachment|/export|[?&](?:download|dl|attachment)(?:=|&|$))", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DISPOSITION_FILENAME = Pattern.compile(
+            "filename\\*?=\\s*\"?(?:UTF-8'')?([^;\"]+)", Pattern.CASE_INSENSITIVE);
+
+    public enum Kind {
+        PAGE,
+        DOWNLOAD,
+        /** The probe failed or was not run; the navigation should proceed as a page. */
+        UNKNOWN
+    }
+
+    public record Result(Kind kind, String fileName) {
+        static final Result PAGE = new Result(Kind.PAGE, null);
+        static final Result UNKNOWN = new Result(Kind.UNKNOWN, null);
+
+        public boolean isDownload() {
+            return kind == Kind.DOWNLOAD;
+        }
+    }
+
+    /**
+     * {@code probes} counts HEAD requests sent; every other classification was {@code avoided},
+     * broken down into extension matches, URL cache hits, known-HTML origins and non-HTTP schemes.
+     */
+    public record Stats(long probes, long avoided, long extensionMatches, long urlHits,
+                        long originSkips, long nonHttp, long rejected, long failures, long downloads) {}
+
+    private record Cached(Result result, long expiresAt) {}
+
+    private static final class OriginState {
+        int htmlStreak;
+        boolean servesDownloads;
+        long expiresAt;
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Cached> urls = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > MAX_URLS;
+        }
+    };
+    private final Map<String, OriginState> origins = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, OriginState> eldest) {
+            return size() > MAX_ORIGINS;
+        }
+    };
+    private final Map<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong probes = new AtomicLong();
+    private final AtomicLong extensionMatches = new AtomicLong();
+    private final AtomicLong urlHits = new AtomicLong();
+    private final AtomicLong originSkips = new AtomicLong();
+    private final AtomicLong nonHttp = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong downloads = new AtomicLong();
+
+    public NavigationClassifier() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(PROBE_THREADS, PROBE_THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(PROBE_QUEUE), r -> {
+                    Thread t = new Thread(r, "nexus-nav-probe-" + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Classifies {@code url}. Completes immediately when no probe is needed; otherwise on a
+     * probe thread. Never completes exceptionally.
+     */
+    public CompletableFuture<Result> classify(String url) {
+        if (url == null || url.isEmpty()) return CompletableFuture.completedFuture(Result.UNKNOWN);
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(Result.UNKNOWN);
+        }
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+        if (!scheme.equals("http") && !scheme.equals("https") || uri.getHost() == null) {
+            nonHttp.incrementAndGet();
+            return CompletableFuture.completedFuture(Result.UNKNOWN);
+        }
+
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        if (DOWNLOAD_EXTENSION.matcher(path).matches()) {
+            extensionMatches.incrementAndGet();
+            downloads.incrementAndGet();
+            return CompletableFuture.completedFuture(new Result(Kind.DOWNLOAD, fileNameFromUrl(url)));
+        }
+
+        long now = System.currentTimeMillis();
+        String origin = scheme + "://" + uri.getRawAuthority().toLowerCase(Locale.ROOT);
+        synchronized (this) {
+            Cached cached = urls.get(url);
+            if (cached != null) {
+                if (cached.expiresAt > now) {
+                    urlHits.incrementAndGet();
+                    return CompletableFuture.completedFuture(cached.result);
+                }
+                urls.remove(url);
+            }
+            OriginState state = origins.get(origin);
+            if (state != null && state.expiresAt <= now) {
+                origins.remove(origin);
+            } else if (state != null && state.htmlStreak >= HTML_STREAK && !state.servesDownloads
+                    && !DOWNLOAD_HINT.matcher(url).find()) {
+                originSkips.incrementAndGet();
+                return CompletableFuture.completedFuture(Result.PAGE);
+            }
+        }
+
+        CompletableFuture<Result> running = inFlight.get(url);
+        if (running != null) {
+            urlHits.incrementAndGet();
+            return running;
+        }
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        running = inFlight.putIfAbsent(url, future);
+        if (running != null) {
+            urlHits.incrementAndGet();
+            return running;
+        }
+        try {
+            executor.execute(() -> {
+                Result result = Result.UNKNOWN;
+                try {
+                    result = probe(url);
+                    remember(url, origin, result);
+                } finally {
+                    inFlight.remove(url, future);
+                    future.complete(result);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Too many navigations at once; letting them load as pages is the safe default.
+            rejected.incrementAndGet();
+            inFlight.remove(url, future);
+            future.complete(Result.UNKNOWN);
+        }
+        return future;
+    }
+
+    public Stats stats() {
+        long avoided = extensionMatches.get() + urlHits.get() + originSkips.get() + nonHttp.get();
+        return new Stats(probes.get(), avoided, extensionMatches.get(), urlHits.get(), originSkips.get(),
+                nonHttp.get(), rejected.get(), failures.get(), downloads.get());
+    }
+
+    public synchronized void clear() {
+        urls.clear();
+        origins.clear();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Result probe(String url) {
+        probes.incrementAndGet();
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) URI.create(url).toURL().openConnection();
+            conn.setRequestMethod("HEAD");
+            conn.setUseCaches(false);
+            conn.setInstanceFollowRedirects(true);
+            conn.setConnectTimeout(PROBE_TIMEOUT_MILLIS);
+            conn.setReadTimeout(PROBE_TIMEOUT_MILLIS);
+            int code = conn.getResponseCode();
+            String disposition = conn.getHeaderField("Content-Disposition");
+            String contentType = conn.getContentType();
+            if (!isDownload(code, disposition, contentType)) return Result.PAGE;
+
+            String fileName = fileNameFromDisposition(disposition);
+            downloads.incrementAndGet();
+            return new Result(Kind.DOWNLOAD, fileName != null ? fileName : fileNameFromUrl(url));
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            logger.debug("HEAD check failed for {}: {}", url, e.getMessage());
+            return Result.UNKNOWN;
+        } finally {
+            if (conn != null) conn.disconnect();
+        }
+    }
+
+    static boolean isDownload(int code, String disposition, String contentType) {
+        if (disposition != null) {
+            String d = disposition.toLowerCase(Locale.ROOT);
+            if (d.contains("attachment") || d.contains("filename=") || d.contains("filename*=")) return true;
+        }
+        String ct = contentType != null ? contentType.toLowerCase(Locale.ROOT) : null;
+        if (ct != null && (ct.startsWith("application/") || ct.startsWith("video/") || ct.startsWith("audio/"))) {
+            return !ct.startsWith("application/xhtml");
+        }
+        return code == HttpURLConnection.HTTP_OK && (ct == null || !ct.contains("text/html"));
+    }
+
+    private synchronized void remember(String url, String origin, Result result) {
+        if (result.kind() == Kind.UNKNOWN) return;
+        long now = System.currentTimeMillis();
+        urls.put(url, new Cached(result, now + URL_TTL_MILLIS));
+        OriginState state = origins.computeIfAbsent(origin, k -> new OriginState());
+        if (result.isDownload()) {
+            state.servesDownloads = true;
+            state.htmlStreak = 0;
+        } else {
+            state.htmlStreak++;
+        }
+        state.expiresAt = now + ORIGIN_TTL_MILLIS;
+    }
+
+    static String fileNameFromDisposition(String disposition) {
+        if (disposition == null) return null;
+        Matcher m = DISPOSITION_FILENAME.matcher(disposition);
+        if (!m.find()) return null;
+        String name = m.group(1).trim();
+        try {
+            name = URLDecoder.decode(name, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ignored) {
+            // keep the raw value
+        }
+        return name.isEmpty() ? null : name;
+    }
+
+    public static String fileNameFromUrl(String url) {
+        try {
+            String path = URI.create(url).getPath();
+            if (path != null && !path.isEmpty()) {
+                String last = path.substring(path.lastIndexOf('/') + 1);
+                if (!last.isEmpty()) return last;
+            }
+        } catch (IllegalArgumentException ignored) {
+            // fall through
+        }
+        return "download";
+    }
+}
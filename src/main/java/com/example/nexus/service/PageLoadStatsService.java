@@ -0,0 +1,294 @@
+package com.example.nexus.service;
+
+import com.example.nexus.core.DIContainer;
+import com.example.nexus.model.PageLoadStats;
+import com.example.nexus.repository.PageLoadStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page load timings per origin, from the Navigation and Resource Timing entries a page reports
+ * once it has loaded. Loads are counted into one histogram per metric, per origin and per day;
+ * the day's figures are merged into {@code page_load_stats} on a background thread, so the
+ * load path costs one page runtime command and a few array increments. Days older than the
+ * retention window are dropped.
+ */
+public class PageLoadStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(PageLoadStatsService.class);
+
+    private static final long FLUSH_DELAY_SECONDS = 30L;
+    public static final int RETENTION_DAYS = 30;
+    private static final int TREND_DAYS = 7;
+
+    public enum Metric {
+        TTFB("TTFB"),
+        DOM_CONTENT_LOADED("DOMContentLoaded"),
+        LOAD("Load"),
+        RESOURCES("Resources"),
+        RESOURCE_BYTES("Resource bytes");
+
+        private final String label;
+
+        Metric(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+
+    /** Percentiles of one origin over a period; arrays are indexed by {@link Metric#ordinal()}, -1 if unknown. */
+    public record Summary(String origin, long loads, long[] p50, long[] p95, double loadTrend) {
+        public long p50(Metric m) { return p50[m.ordinal()]; }
+        public long p95(Metric m) { return p95[m.ordinal()]; }
+    }
+
+    /** Percentiles of one origin on one day. */
+    public record Daily(LocalDate day, long loads, long[] p50, long[] p95) {
+        public long p50(Metric m) { return p50[m.ordinal()]; }
+        public long p95(Metric m) { return p95[m.ordinal()]; }
+    }
+
+    private record Key(String origin, long day) {}
+
+    private static final class Window {
+        int loads;
+        final LoadHistogram[] histograms = new LoadHistogram[METRICS.length];
+
+        Window() {
+            for (int i = 0; i < histograms.length; i++) histograms[i] = new LoadHistogram();
+        }
+
+        void merge(Window other) {
+            loads += other.loads;
+            for (int i = 0; i < histograms.length; i++) histograms[i].merge(other.histograms[i]);
+        }
+    }
+
+    private final PageLoadStatsRepository repository;
+    private final ScheduledThreadPoolExecutor writer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "nexus-page-load-stats");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<Key, Window> pending = new HashMap<>();
+    private boolean flushScheduled;
+    private long prunedDay = Long.MIN_VALUE;
+
+    public PageLoadStatsService(DIContainer container) {
+        this(container.getOrCreate(PageLoadStatsRepository.class));
+    }
+
+    public PageLoadStatsService(PageLoadStatsRepository repository) {
+        this.repository = repository;
+        writer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /** Whether loads of this page are measured; only web pages are. */
+    public static boolean isMeasured(String url) {
+        return url != null && (url.startsWith("http://") || url.startsWith("https://"));
+    }
+
+    /** Counts a load from "ttfb,domContentLoaded,load,resources,resourceBytes", times in ms and -1 where not reached. */
+    public void record(String url, Object timing) {
+        String origin = originOf(url);
+        if (origin == null || !(timing instanceof String s)) return;
+        String[] parts = s.split(",");
+        if (parts.length != METRICS.length) return;
+        long[] values = new long[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) values[i] = Math.round(Double.parseDouble(parts[i]));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        // A page that never got a response, e.g. served from the back/forward cache, has nothing to say.
+        if (values[Metric.TTFB.ordinal()] < 0 && values[Metric.LOAD.ordinal()] < 0) return;
+
+        synchronized (this) {
+            Window w = pending.computeIfAbsent(new Key(origin, LocalDate.now().toEpochDay()), k -> new Window());
+            w.loads++;
+            for (int i = 0; i < values.length; i++) w.histograms[i].add(values[i]);
+            scheduleFlush();
+        }
+    }
+
+    /** Per-origin percentiles over the last {@code days} days, most loaded first. */
+    public CompletableFuture<List<Summary>> summarize(int days) {
+        return CompletableFuture.supplyAsync(() -> {
+            flush();
+            long today = LocalDate.now().toEpochDay();
+            long from = today - days + 1;
+            Map<String, Window> total = new LinkedHashMap<>();
+            Map<String, Window> recent = new HashMap<>();
+            Map<String, Window> earlier = new HashMap<>();
+            for (PageLoadStats row : repository.findSince(Math.min(from, today - 2L * TREND_DAYS + 1))) {
+                Window w = decode(row);
+                if (w == null) continue;
+                if (row.getDay() >= from) total.computeIfAbsent(row.getOrigin(), o -> new Window()).merge(w);
+                if (row.getDay() > today - TREND_DAYS) {
+                    recent.computeIfAbsent(row.getOrigin(), o -> new Window()).merge(w);
+                } else if (row.getDay() > today - 2L * TREND_DAYS) {
+                    earlier.computeIfAbsent(row.getOrigin(), o -> new Window()).merge(w);
+                }
+            }
+
+            List<Summary> summaries = new ArrayList<>();
+            for (Map.Entry<String, Window> e : total.entrySet()) {
+                Window w = e.getValue();
+                summaries.add(new Summary(e.getKey(), w.loads, percentiles(w, 0.5), percentiles(w, 0.95),
+                        trend(recent.get(e.getKey()), earlier.get(e.getKey()))));
+            }
+            summaries.sort(Comparator.comparingLong(Summary::loads).reversed());
+            return summaries;
+        }, writer);
+    }
+
+    /** Daily percentiles of one origin over the last {@code days} days, oldest first. */
+    public CompletableFuture<List<Daily>> daily(String origin, int days) {
+        return CompletableFuture.supplyAsync(() -> {
+            flush();
+            Map<Long, Window> byDay = new TreeMap<>();
+            for (PageLoadStats row : repository.findSince(LocalDate.now().toEpochDay() - days + 1)) {
+                if (!origin.equals(row.getOrigin())) continue;
+                Window w = decode(row);
+                if (w != null) byDay.computeIfAbsent(row.getDay(), d -> new Window()).merge(w);
+            }
+            List<Daily> result = new ArrayList<>();
+            for (Map.Entry<Long, Window> e : byDay.entrySet()) {
+                Window w = e.getValue();
+                result.add(new Daily(LocalDate.ofEpochDay(e.getKey()), w.loads, percentiles(w, 0.5), percentiles(w, 0.95)));
+            }
+            return result;
+        }, writer);
+    }
+
+    public CompletableFuture<Void> clear() {
+        synchronized (this) {
+            pending.clear();
+        }
+        return CompletableFuture.runAsync(repository::deleteAll, writer);
+    }
+
+    /** Writes what is pending, then stops. */
+    public void close() {
+        writer.execute(this::flush);
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) logger.warn("Page load stats were not written in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled || writer.isShutdown()) return;
+        flushScheduled = true;
+        writer.schedule(this::flush, FLUSH_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** Merges pending windows into their stored rows. Runs on the writer thread only. */
+    private void flush() {
+        Map<Key, Window> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty()) return;
+            batch = new HashMap<>(pending);
+            pending.clear();
+        }
+        List<PageLoadStats> rows = new ArrayList<>(batch.size());
+        for (Map.Entry<Key, Window> e : batch.entrySet()) {
+            Key key = e.getKey();
+            Window w = e.getValue();
+            PageLoadStats stored = repository.find(key.origin(), key.day());
+            Window previous = stored != null ? decode(stored) : null;
+            if (previous != null) w.merge(previous);
+            byte[] encoded = encode(w);
+            if (encoded != null) rows.add(new PageLoadStats(key.origin(), key.day(), w.loads, encoded));
+        }
+        repository.saveAll(rows);
+
+        long today = LocalDate.now().toEpochDay();
+        if (prunedDay != today) {
+            prunedDay = today;
+            int removed = repository.deleteBefore(today - RETENTION_DAYS + 1);
+            if (removed > 0) logger.debug("Dropped {} day(s) of page load stats", removed);
+        }
+        logger.debug("Wrote page load stats of {} origin-day(s)", rows.size());
+    }
+
+    private static long[] percentiles(Window w, double p) {
+        long[] values = new long[METRICS.length];
+        for (int i = 0; i < values.length; i++) values[i] = w.histograms[i].percentile(p);
+        return values;
+    }
+
+    /** Relative change of the median load time, this week against the week before; NaN without both. */
+    private static double trend(Window recent, Window earlier) {
+        if (recent == null || earlier == null) return Double.NaN;
+        long now = recent.histograms[Metric.LOAD.ordinal()].percentile(0.5);
+        long before = earlier.histograms[Metric.LOAD.ordinal()].percentile(0.5);
+        return now < 0 || before <= 0 ? Double.NaN : (double) (now - before) / before;
+    }
+
+    private static byte[] encode(Window w) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(METRICS.length);
+            for (LoadHistogram h : w.histograms) h.write(out);
+        } catch (IOException e) {
+            logger.warn("Could not encode page load stats", e);
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Window decode(PageLoadStats row) {
+        byte[] data = row.getHistograms();
+        if (data == null) return null;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int n = in.readUnsignedByte();
+            Window w = new Window();
+            w.loads = row.getLoads();
+            // Metrics added later are simply missing from older rows.
+            for (int i = 0; i < n && i < METRICS.length; i++) w.histograms[i] = LoadHistogram.read(in);
+            return w;
+        } catch (IOException e) {
+            logger.debug("Skipping unreadable page load stats of {}", row.getOrigin(), e);
+            return null;
+        }
+    }
+
+    private static String originOf(String url) {
+        if (!isMeasured(url)) return null;
+        try {
+            URI u = URI.create(url);
+            if (u.getHost() == null) return null;
+            String origin = u.getScheme() + "://" + u.getHost() + (u.getPort() >= 0 ? ":" + u.getPort() : "");
+            return origin.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
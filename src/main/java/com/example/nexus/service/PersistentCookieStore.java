@@ -0,0 +1,335 @@
+package com.example.nexus.service;
+
+import com.example.nexus.model.StoredCookie;
+import com.example.nexus.repository.CookieRepository;
+import com.example.nexus.util.DomainNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.CookiePolicy;
+import java.net.CookieStore;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cookie store behind the application's {@link java.net.CookieManager}, kept per profile in the
+ * {@code cookies} table. Cookies are held in memory grouped by registrable domain, so a request
+ * only looks at the cookies of its own site. Changes are written behind in batches on a
+ * background thread; expired cookies are dropped when a lookup comes across them. Session
+ * cookies are never written.
+ */
+public class PersistentCookieStore implements CookieStore {
+    private static final Logger logger = LoggerFactory.getLogger(PersistentCookieStore.class);
+
+    private static final long FLUSH_DELAY_MILLIS = 2000L;
+    private static final long SESSION = Long.MAX_VALUE;
+
+    /**
+     * Accepts a cookie whose Domain, leading dot ignored, is the request host or one of its
+     * parents within the same site (RFC 6265). {@link CookiePolicy#ACCEPT_ORIGINAL_SERVER}
+     * rejects the common {@code Domain=example.com} sent by {@code www.example.com}.
+     */
+    public static final CookiePolicy DOMAIN_MATCH_POLICY = (uri, cookie) -> {
+        String host = uri != null ? DomainNames.normalize(uri.getHost()) : null;
+        if (host == null || cookie == null) return false;
+        if (cookie.getDomain() == null) return true;
+        String d = cookie.getDomain().toLowerCase(Locale.ROOT);
+        if (d.startsWith(".")) d = d.substring(1);
+        // CookieManager gives host-only cookies of dotless hosts the domain "<host>.local".
+        if (host.equals(d) || host.indexOf('.') < 0 && d.equals(host + ".local")) return true;
+        if (DomainNames.isIpAddress(host) || !DomainNames.isSameOrSubdomain(host, d)) return false;
+        return DomainNames.isSameOrSubdomain(d, DomainNames.registrableDomain(host));
+    };
+
+    private static final class Entry {
+        final HttpCookie cookie;
+        final String key;
+        final long expiresAt;
+
+        Entry(HttpCookie cookie, String key, long expiresAt) {
+            this.cookie = cookie;
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isPersistent() {
+            return expiresAt != SESSION;
+        }
+    }
+
+    private record Changes(List<StoredCookie> upserts, List<StoredCookie> deletes) {
+        boolean isEmpty() {
+            return upserts.isEmpty() && deletes.isEmpty();
+        }
+    }
+
+    private final CookieRepository repository;
+    private final ScheduledThreadPoolExecutor writer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "nexus-cookies");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<String, List<Entry>> bySite = new HashMap<>();
+    private final Map<String, StoredCookie> pendingUpserts = new LinkedHashMap<>();
+    private final Map<String, StoredCookie> pendingDeletes = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    private int profileId = -1;
+
+    public PersistentCookieStore(CookieRepository repository) {
+        this.repository = repository;
+        writer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /** Replaces the cookies in memory with those of a profile; pending writes of the previous one are kept. */
+    public void useProfile(int id) {
+        Changes changes;
+        synchronized (this) {
+            if (id == profileId) return;
+            changes = takeChanges();
+            profileId = id;
+            bySite.clear();
+        }
+        long now = System.currentTimeMillis();
+        List<StoredCookie> rows;
+        try {
+            rows = writer.submit(() -> {
+                write(changes);
+                repository.deleteExpired(id, now);
+                return repository.findByProfileId(id, now);
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            logger.warn("Could not load cookies for profile {}", id, e.getCause());
+            return;
+        }
+        synchronized (this) {
+            if (profileId != id) return;
+            for (StoredCookie row : rows) {
+                HttpCookie cookie = row.toHttpCookie(now);
+                String key = keyOf(cookie.getDomain(), cookie);
+                List<Entry> bucket = bySite.computeIfAbsent(row.getSite(), k -> new ArrayList<>(4));
+                // A cookie set while the profile was loading is newer than its stored copy.
+                if (indexOf(bucket, key) < 0) bucket.add(new Entry(cookie, key, row.getExpiresAt()));
+            }
+        }
+        logger.info("Loaded {} cookie(s) for profile {}", rows.size(), id);
+    }
+
+    @Override
+    public synchronized void add(URI uri, HttpCookie cookie) {
+        if (cookie == null) throw new NullPointerException("cookie is null");
+        if (cookie.getDomain() == null) {
+            if (uri == null || uri.getHost() == null) return;
+            cookie.setDomain(uri.getHost());
+        }
+        // Set-Cookie2 is long obsolete; a version 1 cookie would be sent back as $Version="1";name="value".
+        cookie.setVersion(0);
+        String domain = cookie.getDomain().toLowerCase(Locale.ROOT);
+        String site = siteOf(domain);
+        String key = keyOf(domain, cookie);
+        List<Entry> bucket = bySite.computeIfAbsent(site, k -> new ArrayList<>(4));
+        int existing = indexOf(bucket, key);
+        Entry previous = existing >= 0 ? bucket.remove(existing) : null;
+
+        long maxAge = cookie.getMaxAge();
+        if (maxAge == 0) {
+            if (previous != null && previous.isPersistent()) markDeleted(previous);
+            return;
+        }
+        long expiresAt = maxAge < 0 ? SESSION : System.currentTimeMillis() + Math.min(maxAge, Long.MAX_VALUE / 2000L) * 1000L;
+        Entry entry = new Entry(cookie, key, expiresAt);
+        bucket.add(entry);
+        if (entry.isPersistent()) {
+            pendingDeletes.remove(key);
+            pendingUpserts.put(key, new StoredCookie(profileId, site, cookie, expiresAt));
+            scheduleFlush();
+        } else if (previous != null && previous.isPersistent()) {
+            markDeleted(previous);
+        }
+    }
+
+    @Override
+    public synchronized List<HttpCookie> get(URI uri) {
+        if (uri == null) throw new NullPointerException("uri is null");
+        String host = DomainNames.normalize(uri.getHost());
+        if (host == null || host.isEmpty()) return List.of();
+        // CookieManager files cookies of dotless hosts such as localhost under "<host>.local".
+        if (host.indexOf('.') < 0) host = host + ".local";
+        List<Entry> bucket = bySite.get(siteOf(host));
+        if (bucket == null) return List.of();
+
+        long now = System.currentTimeMillis();
+        List<HttpCookie> cookies = new ArrayList<>(bucket.size());
+        for (Iterator<Entry> it = bucket.iterator(); it.hasNext(); ) {
+            Entry e = it.next();
+            if (e.expiresAt <= now) {
+                it.remove();
+                markDeleted(e);
+            } else if (domainMatches(e.cookie.getDomain(), host)) {
+                cookies.add(e.cookie);
+            }
+        }
+        return cookies;
+    }
+
+    @Override
+    public synchronized List<HttpCookie> getCookies() {
+        long now = System.currentTimeMillis();
+        List<HttpCookie> cookies = new ArrayList<>();
+        for (List<Entry> bucket : bySite.values()) {
+            for (Entry e : bucket) {
+                if (e.expiresAt > now) cookies.add(e.cookie);
+            }
+        }
+        return cookies;
+    }
+
+    @Override
+    public synchronized List<URI> getURIs() {
+        Set<URI> uris = new LinkedHashSet<>();
+        for (Map.Entry<String, List<Entry>> bucket : bySite.entrySet()) {
+            if (bucket.getValue().isEmpty()) continue;
+            try {
+                uris.add(new URI("http", bucket.getKey(), null, null));
+            } catch (java.net.URISyntaxException ignored) {
+                // not a host name; skip it
+            }
+        }
+        return new ArrayList<>(uris);
+    }
+
+    @Override
+    public synchronized boolean remove(URI uri, HttpCookie cookie) {
+        if (cookie == null) throw new NullPointerException("cookie is null");
+        String domain = cookie.getDomain() != null ? cookie.getDomain()
+                : uri != null && uri.getHost() != null ? uri.getHost() : null;
+        if (domain == null) return false;
+        domain = domain.toLowerCase(Locale.ROOT);
+        List<Entry> bucket = bySite.get(siteOf(domain));
+        if (bucket == null) return false;
+        int i = indexOf(bucket, keyOf(domain, cookie));
+        if (i < 0) return false;
+        Entry removed = bucket.remove(i);
+        if (removed.isPersistent()) markDeleted(removed);
+        return true;
+    }
+
+    @Override
+    public boolean removeAll() {
+        boolean any;
+        synchronized (this) {
+            any = !bySite.isEmpty();
+        }
+        clear();
+        return any;
+    }
+
+    /** Drops every cookie of the current profile with a single delete. */
+    public void clear() {
+        int id;
+        synchronized (this) {
+            bySite.clear();
+            pendingUpserts.clear();
+            pendingDeletes.clear();
+            id = profileId;
+        }
+        if (id >= 0 && !writer.isShutdown()) writer.execute(() -> repository.deleteByProfileId(id));
+    }
+
+    public synchronized int size() {
+        int n = 0;
+        for (List<Entry> bucket : bySite.values()) n += bucket.size();
+        return n;
+    }
+
+    /** Writes or, with {@code clearCookies}, deletes everything of the current profile, then stops. */
+    public void close(boolean clearCookies) {
+        if (clearCookies) {
+            clear();
+        } else {
+            Changes changes;
+            synchronized (this) {
+                changes = takeChanges();
+            }
+            writer.execute(() -> write(changes));
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) logger.warn("Cookie writes did not finish in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void markDeleted(Entry e) {
+        if (!e.isPersistent()) return;
+        pendingUpserts.remove(e.key);
+        pendingDeletes.put(e.key, new StoredCookie(profileId, null, e.cookie, e.expiresAt));
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled || writer.isShutdown()) return;
+        flushScheduled = true;
+        writer.schedule(this::flush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        Changes changes;
+        synchronized (this) {
+            changes = takeChanges();
+        }
+        write(changes);
+    }
+
+    private Changes takeChanges() {
+        flushScheduled = false;
+        Changes changes = new Changes(new ArrayList<>(pendingUpserts.values()), new ArrayList<>(pendingDeletes.values()));
+        pendingUpserts.clear();
+        pendingDeletes.clear();
+        return changes;
+    }
+
+    private void write(Changes changes) {
+        if (changes.isEmpty()) return;
+        repository.saveAll(changes.upserts(), changes.deletes());
+        logger.debug("Wrote {} cookie change(s)", changes.upserts().size() + changes.deletes().size());
+    }
+
+    private static int indexOf(List<Entry> bucket, String key) {
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i).key.equals(key)) return i;
+        }
+        return -1;
+    }
+
+    /** Same identity as {@link HttpCookie#equals}: name and domain ignoring case, and path. */
+    private static String keyOf(String domain, HttpCookie cookie) {
+        return domain.toLowerCase(Locale.ROOT) + '\t' + cookie.getPath() + '\t' + cookie.getName().toLowerCase(Locale.ROOT);
+    }
+
+    private static String siteOf(String domain) {
+        String d = domain.startsWith(".") ? domain.substring(1) : domain;
+        return DomainNames.registrableDomain(d);
+    }
+
+    private static boolean domainMatches(String domain, String host) {
+        String d = domain.toLowerCase(Locale.ROOT);
+        if (d.startsWith(".")) d = d.substring(1);
+        return DomainNames.isSameOrSubdomain(host, d);
+    }
+}
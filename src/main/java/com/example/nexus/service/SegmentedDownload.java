@@ -0,0 +1,331 @@
+package com.example.nexus.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Fetches one file over several parallel HTTP range requests.
+ * Each segment is written at its own offset through the shared {@link DownloadFileWriter}.
+ * When a worker runs out of pending segments it steals the second half of the
+ * slowest remaining segment, so one slow connection cannot hold up the whole file.
+ */
+class SegmentedDownload {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedDownload.class);
+
+    static final long MIN_PARALLEL_SIZE = 4L * 1024L * 1024L;
+    static final int MAX_SEGMENTS = 8;
+
+    private static final long BYTES_PER_SEGMENT = 4L * 1024L * 1024L;
+    private static final long MIN_STEAL_SIZE = 512L * 1024L;
+    private static final int MAX_SEGMENT_RETRIES = 3;
+
+    private final String url;
+    private final DownloadTransport transport;
+    private final DownloadFileWriter writer;
+    private final long totalSize;
+    private final int workerCount;
+    private final ExecutorService executor;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final AtomicLong downloaded = new AtomicLong();
+    private final Set<DownloadTransport.Response> openResponses = ConcurrentHashMap.newKeySet();
+    private CountDownLatch finished;
+    private IntConsumer throttle = bytes -> {};
+    private DownloadTelemetry.Track telemetry;
+    private List<long[]> completedRanges = List.of();
+    private Map<String, String> requestHeaders;
+
+    private volatile boolean stopRequested = false;
+    private volatile boolean rangeRejected = false;
+    private volatile Exception failure;
+
+    SegmentedDownload(String url, DownloadTransport transport, DownloadFileWriter writer, long totalSize, int workerCount, ExecutorService executor) {
+        this.url = url;
+        this.transport = transport;
+        this.writer = writer;
+        this.totalSize = totalSize;
+        this.workerCount = Math.max(1, workerCount);
+        this.executor = executor;
+    }
+
+    void setThrottle(IntConsumer throttle) {
+        this.throttle = throttle != null ? throttle : bytes -> {};
+    }
+
+    void setTelemetry(DownloadTelemetry.Track telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Ranges already on disk from an earlier run; only the gaps between them are fetched.
+     */
+    void setCompletedRanges(List<long[]> ranges) {
+        this.completedRanges = ranges != null ? DownloadJournal.merge(ranges) : List.of();
+    }
+
+    /** Extra headers for every range request, e.g. If-Range on resume. */
+    void setRequestHeaders(Map<String, String> headers) {
+        this.requestHeaders = headers;
+    }
+
+    static int segmentCountFor(long size, int maxSegments) {
+        long count = size / BYTES_PER_SEGMENT;
+        return (int) Math.max(2, Math.min(Math.max(2, maxSegments), count));
+    }
+
+    void start() {
+        synchronized (segments) {
+            if (completedRanges.isEmpty()) {
+                long segmentSize = totalSize / workerCount;
+                for (int i = 0; i < workerCount; i++) {
+                    long start = i * segmentSize;
+                    long end = (i == workerCount - 1) ? totalSize : start + segmentSize;
+                    segments.add(new Segment(start, end));
+                }
+            } else {
+                // Resume: one segment per gap, idle workers split the large ones by stealing.
+                long cursor = 0;
+                for (long[] r : completedRanges) {
+                    if (r[0] > cursor) segments.add(new Segment(cursor, Math.min(r[0], totalSize)));
+                    downloaded.addAndGet(Math.min(r[1], totalSize) - Math.min(r[0], totalSize));
+                    cursor = Math.max(cursor, r[1]);
+                }
+                if (cursor < totalSize) segments.add(new Segment(cursor, totalSize));
+            }
+        }
+
+        finished = new CountDownLatch(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            executor.submit(this::workerLoop);
+        }
+        logger.info("Segmented download started: {} ({} bytes, {} segments)", url, totalSize, workerCount);
+    }
+
+    boolean awaitCompletion(long timeoutMillis) throws InterruptedException {
+        return finished.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Stops the workers; their responses are closed so reads from a stalled server return at once. */
+    void stop() {
+        stopRequested = true;
+        for (DownloadTransport.Response response : openResponses) response.close();
+        try {
+            finished.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    long getDownloadedBytes() {
+        return downloaded.get();
+    }
+
+    Exception getFailure() {
+        return failure;
+    }
+
+    boolean isRangeRejected() {
+        return rangeRejected;
+    }
+
+    boolean isComplete() {
+        if (failure != null) return false;
+        synchronized (segments) {
+            for (Segment s : segments) {
+                if (s.position < s.end) return false;
+            }
+        }
+        return true;
+    }
+
+    /** Everything written so far, including ranges completed by an earlier run. */
+    List<long[]> writtenRanges() {
+        List<long[]> ranges = new ArrayList<>(completedRanges);
+        synchronized (segments) {
+            for (Segment s : segments) {
+                if (s.written > s.start) ranges.add(new long[]{s.start, s.written});
+            }
+        }
+        return DownloadJournal.merge(ranges);
+    }
+
+    /** Length of the fully written run starting at offset zero. */
+    long contiguousPrefix() {
+        synchronized (segments) {
+            List<Segment> ordered = new ArrayList<>(segments);
+            ordered.sort(Comparator.comparingLong(s -> s.start));
+            for (Segment s : ordered) {
+                if (s.written < s.end) return s.written;
+            }
+        }
+        return totalSize;
+    }
+
+    private void workerLoop() {
+        try {
+            Segment segment;
+            while (!stopRequested && failure == null && (segment = nextSegment()) != null) {
+                fetchSegment(segment);
+            }
+        } finally {
+            finished.countDown();
+        }
+    }
+
+    private Segment nextSegment() {
+        synchronized (segments) {
+            for (Segment s : segments) {
+                if (!s.active && s.position < s.end && s.retries <= MAX_SEGMENT_RETRIES) {
+                    s.active = true;
+                    return s;
+                }
+            }
+
+            Segment slowest = null;
+            long slowestRemaining = 0;
+            for (Segment s : segments) {
+                if (!s.active) continue;
+                long remaining = s.end - s.position;
+                if (remaining > slowestRemaining) {
+                    slowest = s;
+                    slowestRemaining = remaining;
+                }
+            }
+            if (slowest == null || slowestRemaining < 2 * MIN_STEAL_SIZE) return null;
+
+            long mid = slowest.position + slowestRemaining / 2;
+            Segment stolen = new Segment(mid, slowest.end);
+            stolen.active = true;
+            slowest.end = mid;
+            segments.add(stolen);
+            logger.debug("Segment [{}-{}) split, stole [{}-{})", slowest.start, mid, mid, stolen.end);
+            return stolen;
+        }
+    }
+
+    private void fetchSegment(Segment segment) {
+        DownloadTransport.Response response = null;
+        try {
+            long from;
+            long to;
+            synchronized (segments) {
+                from = segment.position;
+                to = segment.end - 1;
+            }
+            if (from > to) return;
+
+            long requestStart = System.nanoTime();
+            response = transport.get(url, from, to, requestHeaders);
+            openResponses.add(response);
+            // stop() may have run before the response was registered.
+            if (stopRequested) return;
+            if (telemetry != null) DownloadService.recordResponse(telemetry, response, requestStart);
+
+            int code = response.statusCode();
+            if (code != 206) {
+                rangeRejected = true;
+                failure = new IOException("Server ignored range request (HTTP " + code + ")");
+                return;
+            }
+
+            ByteBuffer buffer = DownloadBuffers.acquire(DownloadBuffers.SMALL);
+            try (ReadableByteChannel in = response.body()) {
+                int read;
+                long mark = System.nanoTime();
+                while (!stopRequested && (read = in.read(buffer)) != -1) {
+                    long readDone = System.nanoTime();
+                    if (telemetry != null) telemetry.time(DownloadTelemetry.Phase.TRANSFER, readDone - mark);
+                    mark = readDone;
+                    if (read == 0 && buffer.hasRemaining()) continue;
+                    buffer.flip();
+                    long writeAt;
+                    int allowed;
+                    synchronized (segments) {
+                        writeAt = segment.position;
+                        allowed = (int) Math.min(buffer.remaining(), segment.end - segment.position);
+                        if (allowed > 0) segment.position += allowed;
+                    }
+                    if (allowed <= 0) break;
+
+                    boolean truncated = allowed < buffer.remaining();
+                    buffer.limit(buffer.position() + allowed);
+                    try {
+                        long writeStart = System.nanoTime();
+                        writer.write(buffer, writeAt);
+                        if (telemetry != null) telemetry.time(DownloadTelemetry.Phase.DISK, System.nanoTime() - writeStart);
+                    } catch (IOException diskError) {
+                        failure = diskError;
+                        stopRequested = true;
+                        return;
+                    }
+                    synchronized (segments) {
+                        segment.written = Math.max(segment.written, writeAt + allowed);
+                    }
+                    downloaded.addAndGet(allowed);
+                    if (telemetry != null) telemetry.transferred(allowed);
+                    throttle.accept(allowed);
+                    buffer.clear();
+                    if (truncated) break;
+                    mark = System.nanoTime();
+                }
+            } finally {
+                DownloadBuffers.release(buffer);
+            }
+
+            synchronized (segments) {
+                if (!stopRequested && segment.position < segment.end) {
+                    throw new IOException("Connection closed before segment end");
+                }
+            }
+        } catch (Exception e) {
+            // A read failing because stop() closed the response is not a segment failure.
+            if (stopRequested) return;
+            synchronized (segments) {
+                segment.retries++;
+                if (segment.retries > MAX_SEGMENT_RETRIES && failure == null) {
+                    failure = e;
+                }
+            }
+            logger.debug("Segment [{}-{}) of {} failed (attempt {}): {}", segment.start, segment.end, url, segment.retries, e.getMessage());
+        } finally {
+            synchronized (segments) {
+                segment.active = false;
+            }
+            if (response != null) {
+                openResponses.remove(response);
+                response.close();
+            }
+        }
+    }
+
+    private static final class Segment {
+        final long start;
+        long end;
+        long position;
+        long written;
+        boolean active;
+        int retries;
+
+        Segment(long start, long end) {
+            this.start = start;
+            this.end = end;
+            this.position = start;
+            this.written = start;
+        }
+    }
+}
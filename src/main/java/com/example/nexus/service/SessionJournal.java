@@ -0,0 +1,532 @@
+package com.example.nexus.service;
+
+import com.example.nexus.model.Tab;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Open tabs of a profile, kept as a snapshot plus an append-only log of tab events under
+ * {@code ~/.nexus/sessions/profile-<id>}. Events are appended on a background thread as they
+ * happen and the log is forced to disk every second, so a crash loses at most the events of
+ * the last second or so, never the state saved before them. Once the log grows, the state is
+ * written to a new snapshot and the log starts over. Both carry a generation number, so a log
+ * left behind by an interrupted compaction is never replayed twice.
+ */
+public class SessionJournal {
+    private static final Logger logger = LoggerFactory.getLogger(SessionJournal.class);
+
+    private static final int LOG_MAGIC = 0x4E534A4C;      // "NSJL"
+    private static final int SNAPSHOT_MAGIC = 0x4E534A53; // "NSJS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int MAX_RECORD_BYTES = 4 << 20;
+    private static final long SYNC_INTERVAL_MILLIS = 1000L;
+    private static final int COMPACT_RECORDS = 2000;
+    private static final long COMPACT_BYTES = 1L << 20;
+
+    private static final byte OPEN = 1;
+    private static final byte CLOSE = 2;
+    private static final byte NAVIGATE = 3;
+    private static final byte SELECT = 4;
+    private static final byte MOVE = 5;
+
+    public record Stats(long records, long replayed, long syncs, long compactions) {}
+
+    private record Event(byte type, int id, int index, String url, String title, String faviconUrl, boolean pinned) {}
+
+    private final Path base;
+    private final ScheduledThreadPoolExecutor writer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "nexus-session");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    // Owned by the writer thread.
+    private final List<Tab> tabs = new ArrayList<>();
+    private int selectedId;
+    private int profileId = -1;
+    private FileChannel log;
+    private long generation;
+    private long logRecords;
+    private boolean dirty;
+
+    private volatile long records;
+    private volatile long replayed;
+    private volatile long syncs;
+    private volatile long compactions;
+
+    public SessionJournal() {
+        this(defaultRoot());
+    }
+
+    public SessionJournal(Path base) {
+        this.base = base;
+        writer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        writer.scheduleWithFixedDelay(this::sync, SYNC_INTERVAL_MILLIS, SYNC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public static Path defaultRoot() {
+        String dir = System.getProperty("nexus.session.dir");
+        return dir != null ? Paths.get(dir) : Paths.get(System.getProperty("user.home"), ".nexus", "sessions");
+    }
+
+    /**
+     * Switches to the journal of a profile. With {@code current} null the profile's saved tabs
+     * are loaded; otherwise they are replaced by {@code current}, e.g. the tabs that stay open
+     * across a profile switch.
+     */
+    public void useProfile(int id, List<Tab> current) {
+        List<Tab> copy = current != null ? copyOf(current) : null;
+        await(() -> {
+            if (id == profileId && copy == null) return null;
+            closeLog();
+            profileId = id;
+            load();
+            if (copy != null) replaceTabs(copy);
+            return null;
+        });
+    }
+
+    /** The saved tabs in order, with positions set and the selected one marked active. */
+    public List<Tab> getTabs() {
+        List<Tab> result = await(() -> {
+            List<Tab> out = copyOf(tabs);
+            for (int i = 0; i < out.size(); i++) {
+                out.get(i).setPosition(i);
+                out.get(i).setActive(out.get(i).getId() == selectedId);
+            }
+            return out;
+        });
+        return result != null ? result : List.of();
+    }
+
+    /** An id for a new tab, never used by a saved one. */
+    public int newTabId() {
+        return nextId.getAndIncrement();
+    }
+
+    public void open(Tab tab, int index) {
+        append(new Event(OPEN, tab.getId(), index, tab.getUrl(), tab.getTitle(), tab.getFaviconUrl(), tab.isPinned()));
+    }
+
+    public void close(int id) {
+        append(new Event(CLOSE, id, 0, null, null, null, false));
+    }
+
+    public void navigate(int id, String url, String title, String faviconUrl, boolean pinned) {
+        append(new Event(NAVIGATE, id, 0, url, title, faviconUrl, pinned));
+    }
+
+    public void select(int id) {
+        append(new Event(SELECT, id, 0, null, null, null, false));
+    }
+
+    public void move(int id, int index) {
+        append(new Event(MOVE, id, index, null, null, null, false));
+    }
+
+    /** Replaces the saved tabs, e.g. with none when the session is not to be restored. */
+    public void reset(List<Tab> current) {
+        List<Tab> copy = copyOf(current);
+        execute(() -> replaceTabs(copy));
+    }
+
+    /** Writes the state to a snapshot now, so the next start has no log to replay. */
+    public void checkpoint() {
+        execute(this::compact);
+    }
+
+    public Stats stats() {
+        return new Stats(records, replayed, syncs, compactions);
+    }
+
+    /** Writes a final snapshot and stops. */
+    public void close() {
+        execute(() -> {
+            compact();
+            closeLog();
+        });
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) logger.warn("Session journal did not finish in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(Event event) {
+        execute(() -> {
+            apply(event);
+            write(event);
+        });
+    }
+
+    private void execute(Runnable task) {
+        if (writer.isShutdown()) return;
+        writer.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.warn("Session journal update failed", e);
+            }
+        });
+    }
+
+    private <T> T await(Callable<T> task) {
+        if (writer.isShutdown()) return null;
+        try {
+            return writer.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("Session journal update failed", e.getCause());
+        }
+        return null;
+    }
+
+    // --- State ---
+
+    private void apply(Event e) {
+        int at = indexOf(e.id());
+        switch (e.type()) {
+            case OPEN -> {
+                if (at >= 0) tabs.remove(at);
+                Tab tab = new Tab(e.url());
+                tab.setId(e.id());
+                tab.setTitle(e.title());
+                tab.setFaviconUrl(e.faviconUrl());
+                tab.setPinned(e.pinned());
+                tabs.add(clamp(e.index(), tabs.size()), tab);
+            }
+            case CLOSE -> {
+                if (at >= 0) tabs.remove(at);
+                if (selectedId == e.id()) selectedId = 0;
+            }
+            case NAVIGATE -> {
+                if (at < 0) return;
+                Tab tab = tabs.get(at);
+                tab.setUrl(e.url());
+                tab.setTitle(e.title());
+                tab.setFaviconUrl(e.faviconUrl());
+                tab.setPinned(e.pinned());
+            }
+            case SELECT -> selectedId = e.id();
+            case MOVE -> {
+                if (at >= 0) tabs.add(clamp(e.index(), tabs.size() - 1), tabs.remove(at));
+            }
+            default -> throw new IllegalArgumentException("Unknown session event " + e.type());
+        }
+    }
+
+    private void replaceTabs(List<Tab> current) {
+        tabs.clear();
+        selectedId = 0;
+        for (Tab tab : current) {
+            tabs.add(tab);
+            if (tab.isActive()) selectedId = tab.getId();
+        }
+        compact();
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < tabs.size(); i++) {
+            if (tabs.get(i).getId() == id) return i;
+        }
+        return -1;
+    }
+
+    private static int clamp(int index, int max) {
+        return Math.max(0, Math.min(index, max));
+    }
+
+    private static List<Tab> copyOf(List<Tab> source) {
+        List<Tab> out = new ArrayList<>(source.size());
+        for (Tab t : source) {
+            Tab c = new Tab(t.getUrl());
+            c.setId(t.getId());
+            c.setTitle(t.getTitle());
+            c.setFaviconUrl(t.getFaviconUrl());
+            c.setActive(t.isActive());
+            c.setPinned(t.isPinned());
+            out.add(c);
+        }
+        return out;
+    }
+
+    // --- Files ---
+
+    private Path dir() {
+        return base.resolve("profile-" + profileId);
+    }
+
+    private void load() {
+        tabs.clear();
+        selectedId = 0;
+        generation = 0;
+        readSnapshot(dir().resolve("session.snapshot"));
+        try {
+            Files.createDirectories(dir());
+            log = FileChannel.open(dir().resolve("session.log"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long end = replay();
+            if (end < 0) {
+                startLog();
+            } else {
+                log.truncate(end);
+                log.position(end);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not open session journal in {}: {}", dir(), e.getMessage());
+            closeLog();
+        }
+        int max = 0;
+        for (Tab tab : tabs) max = Math.max(max, tab.getId());
+        nextId.accumulateAndGet(max + 1, Math::max);
+        logger.info("Loaded {} tab(s) of profile {} from the session journal", tabs.size(), profileId);
+    }
+
+    private void readSnapshot(Path file) {
+        if (!Files.isRegularFile(file)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) throw new IOException("not a session snapshot");
+            long gen = in.readLong();
+            int selected = in.readInt();
+            int count = in.readInt();
+            List<Tab> read = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Tab tab = new Tab(readString(in));
+                tab.setId(in.readInt());
+                tab.setTitle(readString(in));
+                tab.setFaviconUrl(readString(in));
+                tab.setPinned(in.readBoolean());
+                read.add(tab);
+            }
+            tabs.addAll(read);
+            selectedId = selected;
+            generation = gen;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable session snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Applies the log's records to the snapshot's state and returns where the valid records
+     * end, or -1 if the log does not belong to the snapshot. A torn last record is dropped.
+     */
+    private long replay() throws IOException {
+        if (log.size() < HEADER_BYTES) return -1;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(header, 0);
+        if (header.getInt(0) != LOG_MAGIC || header.getLong(4) != generation) return -1;
+
+        long position = HEADER_BYTES;
+        long count = 0;
+        ByteBuffer prefix = ByteBuffer.allocate(8);
+        CRC32 crc = new CRC32();
+        while (position + 8 <= log.size()) {
+            prefix.clear();
+            readFully(prefix, position);
+            int length = prefix.getInt(0);
+            if (length <= 0 || length > MAX_RECORD_BYTES || position + 8 + length > log.size()) break;
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + 8);
+            crc.reset();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != prefix.getInt(4)) break;
+            try {
+                apply(decode(payload.array()));
+            } catch (IOException | RuntimeException e) {
+                break;
+            }
+            position += 8 + length;
+            count++;
+        }
+        if (position < log.size()) logger.warn("Dropped a torn record at the end of the session log of profile {}", profileId);
+        logRecords = count;
+        replayed += count;
+        return position;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (log.read(buffer, position + buffer.position()) < 0) throw new IOException("unexpected end of session log");
+        }
+    }
+
+    private void startLog() throws IOException {
+        log.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(LOG_MAGIC).putLong(generation);
+        header.flip();
+        log.position(0);
+        while (header.hasRemaining()) log.write(header);
+        log.force(false);
+        logRecords = 0;
+        dirty = false;
+    }
+
+    private void write(Event event) {
+        if (log == null) return;
+        try {
+            byte[] payload = encode(event);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer record = ByteBuffer.allocate(8 + payload.length)
+                    .putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            record.flip();
+            while (record.hasRemaining()) log.write(record);
+            dirty = true;
+            records++;
+            if (++logRecords >= COMPACT_RECORDS || log.size() >= COMPACT_BYTES) compact();
+        } catch (IOException e) {
+            logger.warn("Could not append to the session log: {}", e.getMessage());
+        }
+    }
+
+    private void sync() {
+        if (!dirty || log == null) return;
+        try {
+            log.force(false);
+            dirty = false;
+            syncs++;
+        } catch (IOException e) {
+            logger.warn("Could not sync the session log: {}", e.getMessage());
+        }
+    }
+
+    /** Snapshot first, then the new log: a crash in between leaves a log the snapshot ignores. */
+    private void compact() {
+        if (log == null) return;
+        Path file = dir().resolve("session.snapshot");
+        Path tmp = file.resolveSibling("session.snapshot.tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 OutputStream raw = Channels.newOutputStream(ch);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(raw))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(generation + 1);
+                out.writeInt(selectedId);
+                out.writeInt(tabs.size());
+                for (Tab tab : tabs) {
+                    writeString(out, tab.getUrl());
+                    out.writeInt(tab.getId());
+                    writeString(out, tab.getTitle());
+                    writeString(out, tab.getFaviconUrl());
+                    out.writeBoolean(tab.isPinned());
+                }
+                out.flush();
+                ch.force(true);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            generation++;
+            startLog();
+            compactions++;
+        } catch (IOException e) {
+            logger.warn("Could not compact the session journal: {}", e.getMessage());
+        }
+    }
+
+    private void closeLog() {
+        if (log == null) return;
+        sync();
+        try {
+            log.close();
+        } catch (IOException e) {
+            logger.debug("Could not close the session log", e);
+        }
+        log = null;
+    }
+
+    private static byte[] encode(Event e) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(e.type());
+        out.writeInt(e.id());
+        switch (e.type()) {
+            case OPEN -> {
+                out.writeInt(e.index());
+                writeString(out, e.url());
+                writeString(out, e.title());
+                writeString(out, e.faviconUrl());
+                out.writeBoolean(e.pinned());
+            }
+            case NAVIGATE -> {
+                writeString(out, e.url());
+                writeString(out, e.title());
+                writeString(out, e.faviconUrl());
+                out.writeBoolean(e.pinned());
+            }
+            case MOVE -> out.writeInt(e.index());
+            default -> { }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Event decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        int id = in.readInt();
+        Event event = switch (type) {
+            case OPEN -> new Event(type, id, in.readInt(), readString(in), readString(in), readString(in), in.readBoolean());
+            case NAVIGATE -> new Event(type, id, 0, readString(in), readString(in), readString(in), in.readBoolean());
+            case MOVE -> new Event(type, id, in.readInt(), null, null, null, false);
+            case CLOSE, SELECT -> new Event(type, id, 0, null, null, null, false);
+            default -> throw new IOException("Unknown session event " + type);
+        };
+        if (in.available() > 0) throw new IOException("Trailing bytes in session event " + type);
+        return event;
+    }
+
+    // writeUTF stops at 64 KB, which a data: URL can exceed.
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        if (length > MAX_RECORD_BYTES) throw new IOException("String too long: " + length);
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) throw new EOFException();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -367,6 +367,15 @@ public class SettingsService {
         saveAndNotify();
     }
 
+    public boolean isClearCacheOnExit() {
+        return currentSettings.isClearCacheOnExit();
+    }
+
+    public void setClearCacheOnExit(boolean clear) {
+        currentSettings.setClearCacheOnExit(clear);
+        saveAndNotify();
+    }
+
     public boolean isBlockPopups() {
         return currentSettings.isBlockPopups();
     }
@@ -385,6 +394,15 @@ public class SettingsService {
         saveAndNotify();
     }
 
+    public boolean isBlockTrackers() {
+        return currentSettings.isBlockTrackers();
+    }
+
+    public void setBlockTrackers(boolean block) {
+        currentSettings.setBlockTrackers(block);
+        saveAndNotify();
+    }
+
     public boolean isSaveBrowsingHistory() {
         return currentSettings.isSaveBrowsingHistory();
     }
@@ -439,6 +457,33 @@ public class SettingsService {
         saveAndNotify();
     }
 
+    public boolean isPreloadPages() {
+        return currentSettings.isPreloadPages();
+    }
+
+    public void setPreloadPages(boolean enabled) {
+        currentSettings.setPreloadPages(enabled);
+        saveAndNotify();
+    }
+
+    public int getMaxTabsInMemory() {
+        return currentSettings.getMaxTabsInMemory();
+    }
+
+    public void setMaxTabsInMemory(int max) {
+        currentSettings.setMaxTabsInMemory(max);
+        saveAndNotify();
+    }
+
+    public int getTabSleepMinutes() {
+        return currentSettings.getTabSleepMinutes();
+    }
+
+    public void setTabSleepMinutes(int minutes) {
+        currentSettings.setTabSleepMinutes(minutes);
+        saveAndNotify();
+    }
+
     public boolean isHighContrast() {
         return currentSettings.isHighContrast();
     }
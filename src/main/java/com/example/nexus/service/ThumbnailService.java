@@ -0,0 +1,255 @@
+package com.example.nexus.service;
+
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.transform.Scale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Downscaled page thumbnails for tab previews and the tab overview, keyed by page URL. Pages
+ * are rendered once when they finish loading and again after a long scroll; hovers and the
+ * overview only decode what is cached here. Pixels are kept as packed RGB in an LRU bounded by
+ * a byte budget. The thumbnails of a saved session are written per profile so that restored
+ * tabs have a preview before they load.
+ */
+public class ThumbnailService {
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    public static final int MAX_WIDTH = 320;
+    public static final int MAX_HEIGHT = 200;
+
+    private static final int MAGIC = 0x4e585448; // "NXTH"
+    private static final String SUFFIX = ".thumb";
+
+    public record Stats(int entries, long bytes, long hits, long misses, long captures, double averageCaptureMillis) {}
+
+    private record Thumbnail(int width, int height, byte[] rgb) {
+        Image toImage() {
+            WritableImage image = new WritableImage(width, height);
+            image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getByteRgbInstance(), rgb, 0, width * 3);
+            return image;
+        }
+    }
+
+    private final Path root;
+    private final long budgetBytes;
+    private final LinkedHashMap<String, Thumbnail> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long captures;
+    private long captureNanos;
+
+    public ThumbnailService() {
+        this(defaultDirectory(), Long.getLong("nexus.thumbnails.budgetMb", 32L) * 1024 * 1024);
+    }
+
+    public ThumbnailService(Path root, long budgetBytes) {
+        this.root = root;
+        this.budgetBytes = budgetBytes;
+    }
+
+    public static Path defaultDirectory() {
+        String d = System.getProperty("nexus.thumbnails.dir");
+        return d != null ? Paths.get(d) : Paths.get(System.getProperty("user.home"), ".nexus", "thumbnails");
+    }
+
+    /**
+     * Renders a downscaled snapshot of {@code view} and caches it for {@code url}. Must be
+     * called on the FX thread; returns null if the view has not been laid out yet.
+     */
+    public Image capture(String url, Node view) {
+        if (url == null || url.isEmpty()) return null;
+        double w = view.getLayoutBounds().getWidth();
+        double h = view.getLayoutBounds().getHeight();
+        if (w < 2 || h < 2) return null;
+
+        long start = System.nanoTime();
+        double scale = Math.min(1.0, Math.min(MAX_WIDTH / w, MAX_HEIGHT / h));
+        int outW = Math.max(1, (int) Math.round(w * scale));
+        int outH = Math.max(1, (int) Math.round(h * scale));
+
+        SnapshotParameters params = new SnapshotParameters();
+        params.setTransform(new Scale(scale, scale));
+        WritableImage image = view.snapshot(params, new WritableImage(outW, outH));
+
+        int[] argb = new int[outW * outH];
+        image.getPixelReader().getPixels(0, 0, outW, outH, PixelFormat.getIntArgbInstance(), argb, 0, outW);
+        byte[] rgb = new byte[argb.length * 3];
+        for (int i = 0, j = 0; i < argb.length; i++) {
+            int p = argb[i];
+            rgb[j++] = (byte) (p >> 16);
+            rgb[j++] = (byte) (p >> 8);
+            rgb[j++] = (byte) p;
+        }
+        put(url, new Thumbnail(outW, outH, rgb));
+
+        synchronized (this) {
+            captures++;
+            captureNanos += System.nanoTime() - start;
+        }
+        return image;
+    }
+
+    /** The cached thumbnail of a page, or null; never renders anything. */
+    public Image get(String url) {
+        if (url == null) return null;
+        Thumbnail t;
+        synchronized (this) {
+            t = cache.get(url);
+            if (t != null) hits++; else misses++;
+        }
+        return t != null ? t.toImage() : null;
+    }
+
+    public synchronized boolean contains(String url) {
+        return url != null && cache.containsKey(url);
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+        bytes = 0;
+    }
+
+    public synchronized Stats stats() {
+        double average = captures == 0 ? 0 : captureNanos / 1e6 / captures;
+        return new Stats(cache.size(), bytes, hits, misses, captures, average);
+    }
+
+    /** Writes the thumbnails of a profile's saved tabs and removes those of tabs no longer open. */
+    public void persist(int profileId, Collection<String> urls) {
+        Path dir = root.resolve(String.valueOf(profileId));
+        Set<String> keep = new HashSet<>();
+        try {
+            Files.createDirectories(dir);
+            for (String url : urls) {
+                Thumbnail t;
+                synchronized (this) {
+                    t = url != null ? cache.get(url) : null;
+                }
+                if (t == null) continue;
+                String name = keyFor(url) + SUFFIX;
+                keep.add(name);
+                write(dir.resolve(name), t);
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+                for (Path f : files) {
+                    if (!keep.contains(f.getFileName().toString())) Files.deleteIfExists(f);
+                }
+            }
+            logger.debug("Saved {} thumbnail(s) for profile {}", keep.size(), profileId);
+        } catch (IOException e) {
+            logger.warn("Could not save thumbnails for profile {}", profileId, e);
+        }
+    }
+
+    /** Loads a profile's saved thumbnails for the given pages in the background. */
+    public CompletableFuture<Void> loadPersisted(int profileId, Collection<String> urls) {
+        Path dir = root.resolve(String.valueOf(profileId));
+        Set<String> wanted = new HashSet<>(urls);
+        return CompletableFuture.runAsync(() -> {
+            int loaded = 0;
+            for (String url : wanted) {
+                if (url == null || contains(url)) continue;
+                try {
+                    Thumbnail t = read(dir.resolve(keyFor(url) + SUFFIX));
+                    if (t != null) {
+                        put(url, t);
+                        loaded++;
+                    }
+                } catch (NoSuchFileException e) {
+                    // never captured
+                } catch (IOException e) {
+                    logger.debug("Could not read thumbnail of {}", url, e);
+                }
+            }
+            logger.debug("Loaded {} saved thumbnail(s) for profile {}", loaded, profileId);
+        });
+    }
+
+    /** Deletes the saved thumbnails of a profile. */
+    public void deletePersisted(int profileId) {
+        persist(profileId, Set.of());
+    }
+
+    private synchronized void put(String url, Thumbnail t) {
+        Thumbnail old = cache.put(url, t);
+        if (old != null) bytes -= old.rgb().length;
+        bytes += t.rgb().length;
+        for (Iterator<Thumbnail> it = cache.values().iterator(); bytes > budgetBytes && it.hasNext(); ) {
+            Thumbnail eldest = it.next();
+            if (eldest == t) continue;
+            bytes -= eldest.rgb().length;
+            it.remove();
+        }
+    }
+
+    private static void write(Path file, Thumbnail t) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream os = Files.newOutputStream(tmp);
+             DataOutputStream out = new DataOutputStream(os)) {
+            out.writeInt(MAGIC);
+            out.writeShort(t.width());
+            out.writeShort(t.height());
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DeflaterOutputStream z = new DeflaterOutputStream(out, deflater)) {
+                z.write(t.rgb());
+            } finally {
+                deflater.end();
+            }
+        }
+        Files.move(tmp, file, java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Thumbnail read(Path file) throws IOException {
+        try (InputStream is = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(is)) {
+            if (in.readInt() != MAGIC) return null;
+            int w = in.readUnsignedShort();
+            int h = in.readUnsignedShort();
+            if (w == 0 || h == 0 || w > MAX_WIDTH || h > MAX_HEIGHT) return null;
+            byte[] rgb = new byte[w * h * 3];
+            try (InflaterInputStream z = new InflaterInputStream(in)) {
+                if (z.readNBytes(rgb, 0, rgb.length) != rgb.length) return null;
+            }
+            return new Thumbnail(w, h, rgb);
+        }
+    }
+
+    private static String keyFor(String url) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 20);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
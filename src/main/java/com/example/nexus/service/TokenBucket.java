@@ -0,0 +1,57 @@
+package com.example.nexus.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Byte-rate limiter. A rate of zero or less means unlimited.
+ * Callers may go into debt, which is paid back by sleeping, so large chunks are
+ * shaped over time instead of being rejected.
+ */
+final class TokenBucket {
+    private static final long MIN_BURST = 64L * 1024L;
+
+    private long rate;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    TokenBucket(long bytesPerSecond) {
+        setRate(bytesPerSecond);
+    }
+
+    synchronized long getRate() {
+        return rate;
+    }
+
+    synchronized void setRate(long bytesPerSecond) {
+        refill();
+        this.rate = Math.max(0L, bytesPerSecond);
+        this.tokens = Math.min(tokens, capacity());
+    }
+
+    void acquire(int bytes) throws InterruptedException {
+        long waitNanos = reserve(bytes);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve(int bytes) {
+        if (rate <= 0) return 0L;
+        refill();
+        tokens -= bytes;
+        if (tokens >= 0) return 0L;
+        return (long) (-tokens / rate * 1_000_000_000L);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        if (rate > 0) {
+            tokens = Math.min(capacity(), tokens + (now - lastRefill) / 1_000_000_000.0 * rate);
+        }
+        lastRefill = now;
+    }
+
+    private double capacity() {
+        return Math.max(MIN_BURST, rate / 2.0);
+    }
+}
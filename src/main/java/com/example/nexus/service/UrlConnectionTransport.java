@@ -0,0 +1,112 @@
+package com.example.nexus.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The original {@link HttpURLConnection} engine, one connection per request.
+ */
+class UrlConnectionTransport implements DownloadTransport {
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    UrlConnectionTransport() {
+        this(15000, 15000);
+    }
+
+    UrlConnectionTransport(int connectTimeoutMillis, int readTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    @Override
+    public String name() {
+        return "urlconnection";
+    }
+
+    @Override
+    public Response head(String url) throws IOException {
+        HttpURLConnection conn = open(url);
+        conn.setConnectTimeout(Math.min(connectTimeoutMillis, 8000));
+        conn.setReadTimeout(Math.min(readTimeoutMillis, 8000));
+        conn.setRequestMethod("HEAD");
+        return connect(conn);
+    }
+
+    @Override
+    public Response get(String url, long from, long to, Map<String, String> headers) throws IOException {
+        HttpURLConnection conn = open(url);
+        if (from >= 0) conn.setRequestProperty("Range", DownloadTransport.rangeHeader(from, to));
+        if (headers != null) headers.forEach(conn::setRequestProperty);
+        return connect(conn);
+    }
+
+    @Override
+    public Stats stats() {
+        return new Stats(name(), requests.get(), 0L, failures.get());
+    }
+
+    private HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setConnectTimeout(connectTimeoutMillis);
+        conn.setReadTimeout(readTimeoutMillis);
+        // Downloads bypass the page cache; they have their own.
+        conn.setUseCaches(false);
+        return conn;
+    }
+
+    private Response connect(HttpURLConnection conn) throws IOException {
+        requests.incrementAndGet();
+        int code;
+        long connectNanos;
+        try {
+            long start = System.nanoTime();
+            conn.connect();
+            connectNanos = System.nanoTime() - start;
+            code = conn.getResponseCode();
+        } catch (IOException e) {
+            failures.incrementAndGet();
+            conn.disconnect();
+            throw e;
+        }
+        return new Response() {
+            private InputStream in;
+
+            @Override
+            public int statusCode() {
+                return code;
+            }
+
+            @Override
+            public String header(String name) {
+                return conn.getHeaderField(name);
+            }
+
+            @Override
+            public long connectNanos() {
+                return connectNanos;
+            }
+
+            @Override
+            public ReadableByteChannel body() throws IOException {
+                in = conn.getInputStream();
+                return Channels.newChannel(in);
+            }
+
+            @Override
+            public void close() {
+                try { if (in != null) in.close(); } catch (IOException ignored) {}
+                conn.disconnect();
+            }
+        };
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.nexus.service;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.concurrent.Worker;
+import javafx.scene.web.WebEngine;
+import javafx.scene.web.WebHistory;
+import javafx.scene.web.WebView;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A few WebViews built ahead of time, so that opening a tab does not pay for creating one;
+ * the first creation alone takes hundreds of milliseconds. The pool is topped up one view at a
+ * time once the FX thread has been left alone for a moment. Views of closed and hibernated
+ * tabs come back to it after their page and history have been cleared. All methods must be
+ * called on the FX thread.
+ */
+public class WebViewPool {
+    private static final Logger logger = LoggerFactory.getLogger(WebViewPool.class);
+
+    private static final Duration REFILL_DELAY = Duration.millis(1500);
+
+    public record Stats(long hits, long misses, long recycled, int idle,
+                        long tabOpens, double averageOpenMillis, double maxOpenMillis) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private final int capacity;
+    private final Deque<WebView> idle = new ArrayDeque<>();
+    private PauseTransition refillDelay;
+    private int scrubbing;
+
+    private long hits;
+    private long misses;
+    private long recycled;
+    private long tabOpens;
+    private long openNanos;
+    private long maxOpenNanos;
+
+    public WebViewPool() {
+        this(Integer.getInteger("nexus.webviewPool.size", 2));
+    }
+
+    public WebViewPool(int capacity) {
+        this.capacity = Math.max(0, capacity);
+    }
+
+    /** A ready WebView from the pool, or a new one if it is empty. */
+    public WebView acquire() {
+        WebView view = idle.poll();
+        if (view != null) {
+            hits++;
+        } else {
+            misses++;
+            view = new WebView();
+        }
+        scheduleRefill();
+        return view;
+    }
+
+    /**
+     * Takes back the WebView of a closed or hibernated tab. Its page is replaced by a blank one
+     * and its history dropped before it is handed out again; if the pool is full, or the
+     * history could not be cleared, the view is only emptied and left to the collector.
+     * Listeners on the view or its engine must be removed first, as they would follow the
+     * view into its next tab.
+     */
+    public void release(WebView view) {
+        WebEngine engine = view.getEngine();
+        if (idle.size() + scrubbing >= capacity || view.getParent() != null) {
+            engine.load(null);
+            return;
+        }
+
+        view.getTransforms().clear();
+        view.setZoom(1.0);
+        view.setFontScale(1.0);
+        engine.setUserStyleSheetLocation(null);
+        engine.setJavaScriptEnabled(true);
+
+        scrubbing++;
+        engine.getLoadWorker().stateProperty().addListener(new ChangeListener<>() {
+            @Override
+            public void changed(ObservableValue<? extends Worker.State> obs, Worker.State oldState, Worker.State state) {
+                if (state == Worker.State.READY || state == Worker.State.SCHEDULED || state == Worker.State.RUNNING) return;
+                obs.removeListener(this);
+                scrubbing--;
+
+                // Shrinking the history to nothing drops the previous tab's back/forward entries.
+                WebHistory history = engine.getHistory();
+                int maxSize = history.getMaxSize();
+                history.setMaxSize(0);
+                history.setMaxSize(maxSize);
+
+                if (state == Worker.State.SUCCEEDED && history.getEntries().isEmpty() && idle.size() < capacity) {
+                    idle.add(view);
+                    recycled++;
+                } else {
+                    engine.load(null);
+                }
+            }
+        });
+        engine.load("about:blank");
+    }
+
+    /** Records how long opening a tab took on the FX thread. */
+    public void recordTabOpen(long nanos) {
+        tabOpens++;
+        openNanos += nanos;
+        maxOpenNanos = Math.max(maxOpenNanos, nanos);
+    }
+
+    public Stats stats() {
+        double average = tabOpens == 0 ? 0 : openNanos / 1e6 / tabOpens;
+        return new Stats(hits, misses, recycled, idle.size(), tabOpens, average, maxOpenNanos / 1e6);
+    }
+
+    private void scheduleRefill() {
+        if (idle.size() + scrubbing >= capacity) return;
+        if (refillDelay == null) {
+            refillDelay = new PauseTransition(REFILL_DELAY);
+            refillDelay.setOnFinished(e -> refillOne());
+        }
+        // Restarted on every call, so the pool only fills once tabs stop being opened.
+        refillDelay.playFromStart();
+    }
+
+    private void refillOne() {
+        if (idle.size() + scrubbing >= capacity) return;
+        long start = System.nanoTime();
+        idle.add(new WebView());
+        logger.debug("Pre-created WebView in {} ms ({} idle)", (System.nanoTime() - start) / 1_000_000, idle.size());
+        // One view per event keeps the frames in between short.
+        if (idle.size() + scrubbing < capacity) {
+            Platform.runLater(this::refillOne);
+        }
+    }
+}
@@ -14,6 +14,8 @@ public class DatabaseMigration {
         try {
             migrateProfileTable(conn);
             migrateTabsTable(conn);
+            migrateDownloadsTable(conn);
+            migrateSettingsTable(conn);
             logger.info("Database migration completed successfully");
         } catch (Exception e) {
             logger.error("Database migration failed", e);
@@ -120,4 +122,50 @@ public class DatabaseMigration {
             }
         }
     }
+
+    private static void migrateDownloadsTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+
+            try {
+                stmt.execute("ALTER TABLE downloads ADD COLUMN priority INTEGER DEFAULT 0");
+                logger.info("Added priority column to downloads table");
+            } catch (SQLException e) {
+                logger.debug("priority column already exists");
+            }
+
+            try {
+                stmt.execute("ALTER TABLE downloads ADD COLUMN checksum TEXT");
+                stmt.execute("ALTER TABLE downloads ADD COLUMN expected_checksum TEXT");
+                logger.info("Added checksum columns to downloads table");
+            } catch (SQLException e) {
+                logger.debug("checksum columns already exist");
+            }
+
+            // DownloadRepository still writes user_id, which the profile-based schema dropped.
+            try {
+                stmt.execute("ALTER TABLE downloads ADD COLUMN user_id INTEGER DEFAULT 1");
+                logger.info("Added user_id column to downloads table");
+            } catch (SQLException e) {
+                logger.debug("user_id column already exists");
+            }
+        }
+    }
+
+    private static void migrateSettingsTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try {
+                stmt.execute("ALTER TABLE settings ADD COLUMN tab_sleep_minutes INTEGER DEFAULT 30");
+                logger.info("Added tab_sleep_minutes column to settings table");
+            } catch (SQLException e) {
+                logger.debug("tab_sleep_minutes column already exists");
+            }
+
+            try {
+                stmt.execute("ALTER TABLE settings ADD COLUMN block_trackers BOOLEAN DEFAULT 1");
+                logger.info("Added block_trackers column to settings table");
+            } catch (SQLException e) {
+                logger.debug("block_trackers column already exists");
+            }
+        }
+    }
 }
@@ -0,0 +1,61 @@
+package com.example.nexus.util;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Host name helpers. The registrable domain ("eTLD+1") is approximated without the full
+ * public suffix list: the last two labels, or three when the last two form a common
+ * second-level public suffix such as {@code co.uk}.
+ */
+public final class DomainNames {
+    private DomainNames() {}
+
+    private static final Set<String> SECOND_LEVEL_SUFFIXES = Set.of(
+            "co.uk", "org.uk", "ac.uk", "gov.uk", "me.uk", "ltd.uk", "plc.uk",
+            "com.au", "net.au", "org.au", "edu.au", "gov.au",
+            "co.nz", "org.nz", "co.jp", "ne.jp", "or.jp", "ac.jp", "co.kr", "or.kr",
+            "com.br", "net.br", "org.br", "com.cn", "net.cn", "org.cn", "gov.cn",
+            "com.mx", "com.ar", "com.tr", "com.tw", "com.hk", "com.sg", "com.my",
+            "co.in", "net.in", "org.in", "co.za", "co.il", "com.ua", "com.pl",
+            "github.io", "gitlab.io", "herokuapp.com", "appspot.com", "blogspot.com",
+            "cloudfront.net", "azurewebsites.net", "netlify.app", "vercel.app", "pages.dev");
+
+    /** Lower-cased host without a trailing dot; null stays null. */
+    public static String normalize(String host) {
+        if (host == null) return null;
+        String h = host.toLowerCase(Locale.ROOT);
+        if (h.endsWith(".")) h = h.substring(0, h.length() - 1);
+        if (h.startsWith("[") && h.endsWith("]")) h = h.substring(1, h.length() - 1);
+        return h;
+    }
+
+    public static String registrableDomain(String host) {
+        String h = normalize(host);
+        if (h == null || h.isEmpty() || isIpAddress(h)) return h;
+        int last = h.lastIndexOf('.');
+        if (last <= 0) return h;
+        int second = h.lastIndexOf('.', last - 1);
+        if (second < 0) return h;
+        if (SECOND_LEVEL_SUFFIXES.contains(h.substring(second + 1))) {
+            int third = h.lastIndexOf('.', second - 1);
+            return h.substring(third + 1);
+        }
+        return h.substring(second + 1);
+    }
+
+    /** True if {@code host} is {@code domain} or one of its subdomains. */
+    public static boolean isSameOrSubdomain(String host, String domain) {
+        if (host == null || domain == null) return false;
+        return host.equals(domain) || (host.endsWith(domain) && host.charAt(host.length() - domain.length() - 1) == '.');
+    }
+
+    public static boolean isIpAddress(String host) {
+        if (host.indexOf(':') >= 0) return true;
+        for (int i = 0; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if ((c < '0' || c > '9') && c != '.') return false;
+        }
+        return true;
+    }
+}
@@ -3,6 +3,12 @@ package com.example.nexus.view.components;
 import com.example.nexus.core.DIContainer;
 import com.example.nexus.model.Tab;
 import com.example.nexus.controller.DownloadController;
+import com.example.nexus.service.ContentBlocker;
+import com.example.nexus.service.NavigationClassifier;
+import com.example.nexus.service.PageLoadStatsService;
+import com.example.nexus.service.ThumbnailService;
+import com.example.nexus.service.WebViewPool;
+import com.example.nexus.util.DomainNames;
 import javafx.application.Platform;
 import javafx.beans.property.*;
 import javafx.concurrent.Worker;
@@ -10,30 +16,38 @@ import javafx.geometry.Pos;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.ScrollPane;
-import javafx.scene.image.WritableImage;
+import javafx.scene.image.Image;
+import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.transform.Scale;
 import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
-import javafx.scene.SnapshotParameters;
 import javafx.beans.value.ChangeListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.URL;
-import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BrowserTab extends BorderPane {
     private static final Logger logger = LoggerFactory.getLogger(BrowserTab.class);
 
     private final DIContainer container;
-    private final WebView webView;
-    private final WebEngine webEngine;
+    private final NavigationClassifier classifier;
+    private static final String USER_AGENT = "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.0 Safari/605.1.15";
+
+    // All three are null while the tab is hibernated.
+    private WebView webView;
+    private WebEngine webEngine;
+    private PageRuntime runtime;
     private final ProgressBar loadingBar;
     private final StackPane contentPane;
     private final ScrollPane scrollPane;
@@ -44,15 +58,41 @@ public class BrowserTab extends BorderPane {
     private final StringProperty faviconUrlProperty = new SimpleStringProperty("");
     private final BooleanProperty loadingProperty = new SimpleBooleanProperty(false);
     private final DoubleProperty zoomProperty = new SimpleDoubleProperty(1.0);
+    private final IntegerProperty blockedCountProperty = new SimpleIntegerProperty(0);
+    private final BooleanProperty hibernatedProperty = new SimpleBooleanProperty(false);
+    private final ObjectProperty<FindResult> findResultProperty = new SimpleObjectProperty<>(FindResult.NONE);
+    private final AtomicBoolean blockedCountPending = new AtomicBoolean();
+    private final ContentBlocker contentBlocker;
+    private final ContentBlocker.PageCounter blockedCounter;
+    private final WebViewPool webViewPool;
+    private final ThumbnailService thumbnails;
+    private final PageLoadStatsService pageLoadStats;
+    private final javafx.animation.PauseTransition thumbnailDelay = new javafx.animation.PauseTransition(javafx.util.Duration.millis(400));
+    private final javafx.event.EventHandler<ScrollEvent> scrollTracker = this::onPageScrolled;
+    private double scrolledSinceThumbnail;
+    private boolean thumbnailPending;
     private Tab tabModel;
     private boolean disposed = false;
 
     private double viewportZoom = 1.0;
 
+    private double savedZoom = 1.0;
+    private double pendingScrollX = Double.NaN;
+    private double pendingScrollY = Double.NaN;
+
+    private String findQuery;
+    private boolean findMatchCase;
+    // Set when the document changes, which drops the page's matches.
+    private boolean findStale;
+
     private boolean webPageDarkMode = false;
     private static boolean globalDarkModeEnabled = false;
+    private static DarkModeStyle darkModeStyle = DarkModeStyle.NORMAL;
+    private static final Set<String> darkModeExcludedHosts = new HashSet<>();
 
     private ChangeListener<javafx.geometry.Bounds> viewportBoundsListener;
+    private ChangeListener<Worker.State> loadingStateListener;
+    private ChangeListener<Number> zoomChangeListener;
     private ChangeListener<String> titleChangeListener;
     private ChangeListener<String> locationChangeListener;
     private ChangeListener<Worker.State> stateChangeListener;
@@ -60,26 +100,32 @@ public class BrowserTab extends BorderPane {
     private ChangeListener<Throwable> exceptionChangeListener;
 
     public BrowserTab(DIContainer container, String url) {
-        this.container = container;
-
-        this.webView = new WebView();
-        this.webEngine = webView.getEngine();
-
-        webView.setCache(true);
-        webView.setContextMenuEnabled(true);  // Enable default WebView context menu
-
-        webEngine.setJavaScriptEnabled(true);
-
-
-        String userAgent = "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.0 Safari/605.1.15";
-        webEngine.setUserAgent(userAgent);
+        this(container, url, false);
+    }
 
-        webEngine.getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
-            loadingProperty.set(newState == Worker.State.RUNNING || newState == Worker.State.SCHEDULED);
-        });
+    /**
+     * A tab showing a saved page's title and favicon without loading it. It starts out
+     * hibernated, so the page is only loaded by {@link #wake()}, normally on first selection.
+     */
+    public static BrowserTab placeholder(DIContainer container, String url, String title, String faviconUrl) {
+        BrowserTab tab = new BrowserTab(container, url, true);
+        if (title != null && !title.isBlank()) tab.titleProperty.set(title);
+        if (faviconUrl != null && !faviconUrl.isEmpty()) tab.faviconUrlProperty.set(faviconUrl);
+        return tab;
+    }
 
-        webView.zoomProperty().addListener((obs, oldZoom, newZoom) -> {
-            zoomProperty.set(newZoom.doubleValue());
+    private BrowserTab(DIContainer container, String url, boolean deferLoad) {
+        this.container = container;
+        this.classifier = container.getOrCreate(NavigationClassifier.class);
+        this.contentBlocker = container.get(ContentBlocker.class);
+        this.blockedCounter = contentBlocker != null ? contentBlocker.registerPage(this::onBlockedCountChanged) : null;
+        this.webViewPool = container.get(WebViewPool.class);
+        this.thumbnails = container.getOrCreate(ThumbnailService.class);
+        this.pageLoadStats = container.getOrCreate(PageLoadStatsService.class);
+        thumbnailDelay.setOnFinished(e -> captureThumbnail());
+        // A page finished while in the background is captured once it is on screen.
+        sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene != null && thumbnailPending) thumbnailDelay.playFromStart();
         });
 
         this.loadingBar = new ProgressBar();
@@ -88,7 +134,7 @@ public class BrowserTab extends BorderPane {
         loadingBar.setVisible(false);
         loadingBar.setStyle("-fx-accent: #4285f4;");
 
-        this.zoomGroup = new javafx.scene.Group(webView);
+        this.zoomGroup = new javafx.scene.Group();
 
         this.scrollPane = new ScrollPane(zoomGroup);
         scrollPane.setPannable(true);
@@ -107,30 +153,178 @@ public class BrowserTab extends BorderPane {
         setCenter(contentPane);
 
         viewportBoundsListener = (obs, oldBounds, newBounds) -> {
-            if (viewportZoom == 1.0) {
+            if (viewportZoom == 1.0 && webView != null) {
                 webView.setPrefWidth(newBounds.getWidth());
                 webView.setPrefHeight(newBounds.getHeight());
             }
         };
         scrollPane.viewportBoundsProperty().addListener(viewportBoundsListener);
 
+        if (deferLoad) {
+            urlProperty.set(url != null ? url : "");
+            updateFaviconUrl(url);
+            hibernatedProperty.set(true);
+        } else {
+            createWebView();
+
+            if (url != null && !url.isEmpty()) {
+                loadUrl(url);
+            }
+        }
+
+        logger.info("BrowserTab created with URL: {}", url);
+    }
+
+    private void createWebView() {
+        webView = webViewPool != null ? webViewPool.acquire() : new WebView();
+        webEngine = webView.getEngine();
+        runtime = new PageRuntime(webEngine);
+        runtime.setEventHandler(this::onPageEvent);
+        applyDarkMode(null);
+
+        webView.setCache(true);
+        webView.setContextMenuEnabled(true);  // Enable default WebView context menu
+
+        webEngine.setJavaScriptEnabled(true);
+        webEngine.setUserAgent(USER_AGENT);
+
+        loadingStateListener = (obs, oldState, newState) -> {
+            loadingProperty.set(newState == Worker.State.RUNNING || newState == Worker.State.SCHEDULED);
+        };
+        webEngine.getLoadWorker().stateProperty().addListener(loadingStateListener);
+
+        zoomChangeListener = (obs, oldZoom, newZoom) -> {
+            zoomProperty.set(newZoom.doubleValue());
+        };
+        webView.zoomProperty().addListener(zoomChangeListener);
+        webView.addEventFilter(ScrollEvent.SCROLL, scrollTracker);
+
         setupWebEngineHandlers();
 
         webEngine.setCreatePopupHandler(config -> {
             WebView popupView = new WebView();
             popupView.getEngine().setJavaScriptEnabled(true);
-            popupView.getEngine().setUserAgent(userAgent);
+            popupView.getEngine().setUserAgent(USER_AGENT);
             return popupView.getEngine();
         });
 
         webEngine.setOnAlert(event -> logger.info("JavaScript Alert: {}", event.getData()));
 
+        if (viewportZoom != 1.0) {
+            webView.getTransforms().setAll(new Scale(viewportZoom, viewportZoom, 0, 0));
+        } else if (scrollPane.getViewportBounds().getWidth() > 0) {
+            webView.setPrefWidth(scrollPane.getViewportBounds().getWidth());
+            webView.setPrefHeight(scrollPane.getViewportBounds().getHeight());
+        }
+        zoomGroup.getChildren().setAll(webView);
+    }
+
+    /** Unhooks the page from this tab and returns its view, or null while hibernated. */
+    private WebView detachWebView() {
+        WebView view = webView;
+        WebEngine engine = webEngine;
+        if (engine == null) return null;
+
+        try {
+            if (loadingStateListener != null) engine.getLoadWorker().stateProperty().removeListener(loadingStateListener);
+            if (zoomChangeListener != null) webView.zoomProperty().removeListener(zoomChangeListener);
+            view.removeEventFilter(ScrollEvent.SCROLL, scrollTracker);
+            if (titleChangeListener != null) engine.titleProperty().removeListener(titleChangeListener);
+            if (locationChangeListener != null) engine.locationProperty().removeListener(locationChangeListener);
+            if (stateChangeListener != null) engine.getLoadWorker().stateProperty().removeListener(stateChangeListener);
+            if (progressChangeListener != null) engine.getLoadWorker().progressProperty().removeListener(progressChangeListener);
+            if (exceptionChangeListener != null) engine.getLoadWorker().exceptionProperty().removeListener(exceptionChangeListener);
+        } catch (Exception e) {
+            logger.debug("Error removing web engine listeners", e);
+        }
 
+        engine.setOnAlert(null);
+        engine.setOnError(null);
+        engine.setCreatePopupHandler(null);
+        try {
+            engine.getLoadWorker().cancel();
+        } catch (Exception ignore) {}
+
+        runtime.close();
+        zoomGroup.getChildren().clear();
+        webView = null;
+        webEngine = null;
+        runtime = null;
+        return view;
+    }
+
+    private void releaseWebView(WebView view) {
+        if (webViewPool != null) {
+            webViewPool.release(view);
+        } else {
+            view.getEngine().load(null);
+        }
+    }
+
+    /**
+     * Releases the WebView of a background tab. The URL, title, favicon, zoom, scroll position
+     * and last thumbnail are kept, and {@link #wake()} loads the page again. Back/forward history
+     * is lost. Must be called on the FX thread.
+     */
+    public boolean hibernate() {
+        if (disposed || webEngine == null) return false;
+
+        thumbnailDelay.stop();
+        savedZoom = webView.getZoom();
+        Object scroll = runtime.callNow("scrollPosition");
+        if (scroll instanceof String pos && pos.indexOf(',') > 0) {
+            try {
+                pendingScrollX = Double.parseDouble(pos.substring(0, pos.indexOf(',')));
+                pendingScrollY = Double.parseDouble(pos.substring(pos.indexOf(',') + 1));
+            } catch (NumberFormatException e) {
+                pendingScrollX = Double.NaN;
+            }
+        }
+
+        stopSmoothScrollAnimation();
+        releaseWebView(detachWebView());
+        loadingBar.setVisible(false);
+        loadingProperty.set(false);
+        hibernatedProperty.set(true);
+        logger.info("Hibernated tab: {}", getUrl());
+        return true;
+    }
+
+    /** Rebuilds the WebView of a hibernated tab and reloads its page. Must be called on the FX thread. */
+    public void wake() {
+        if (disposed || webEngine != null) return;
+        restoreWebView();
+        String url = getUrl();
         if (url != null && !url.isEmpty()) {
-            loadUrl(url);
+            loadingBar.setVisible(true);
+            loadingBar.setProgress(-1);
+            webEngine.load(url);
         }
+        logger.info("Woke hibernated tab: {}", url);
+    }
 
-        logger.info("BrowserTab created with URL: {}", url);
+    private void restoreWebView() {
+        if (webEngine != null) return;
+        createWebView();
+        webView.setZoom(savedZoom);
+        hibernatedProperty.set(false);
+    }
+
+    private void ensureAwake() {
+        if (webEngine == null) wake();
+    }
+
+    public boolean isHibernated() {
+        return hibernatedProperty.get();
+    }
+
+    public ReadOnlyBooleanProperty hibernatedProperty() {
+        return hibernatedProperty;
+    }
+
+    /** Whether the page has audio or video playing right now. */
+    public boolean isPlayingMedia() {
+        return runtime != null && Boolean.TRUE.equals(runtime.callNow("mediaPlaying"));
     }
 
     public BooleanProperty loadingProperty() {
@@ -144,6 +338,26 @@ public class BrowserTab extends BorderPane {
     public double getZoom() {
         return zoomProperty.get();
     }
+
+    /** Requests blocked by the content blocker since the current page started loading. */
+    public ReadOnlyIntegerProperty blockedCountProperty() {
+        return blockedCountProperty;
+    }
+
+    /** Bytes the network delivered for the current page so far, or -1 without the loader hook. */
+    public long getNetworkBytes() {
+        return blockedCounter != null ? blockedCounter.getNetworkBytes() : -1;
+    }
+
+    private void onBlockedCountChanged(int count) {
+        // Blocks arrive on loader threads, often many per page; coalesce them into one UI update.
+        if (blockedCountPending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                blockedCountPending.set(false);
+                blockedCountProperty.set(blockedCounter.getBlocked());
+            });
+        }
+    }
     private void setupWebEngineHandlers() {
 
         titleChangeListener = (obs, oldTitle, newTitle) -> {
@@ -152,86 +366,30 @@ public class BrowserTab extends BorderPane {
         webEngine.titleProperty().addListener(titleChangeListener);
 
         locationChangeListener = (obs, oldUrl, newUrl) -> {
+            if (blockedCounter != null) blockedCounter.navigated(newUrl);
+            applyDarkMode(newUrl);
+            findStale = true;
+            findResultProperty.set(FindResult.NONE);
             Platform.runLater(() -> {
                 try {
                     String urlStr = newUrl != null ? newUrl : "";
 
-                    if (urlStr != null && !urlStr.isEmpty()) {
-                        String lower = urlStr.split("\\?")[0].toLowerCase();
-                        if (lower.matches(".*\\.(zip|exe|msi|pdf|docx?|xlsx?|rar|7z|png|jpe?g|gif|bmp|webp)$")) {
-                            try {
-                                String fileName = suggestFileNameFromUrl(urlStr);
-                                DownloadController dc = container.getOrCreate(DownloadController.class);
-                                dc.requestDownloadFromUI(urlStr, fileName);
-
-                                try { webEngine.getLoadWorker().cancel(); } catch (Exception ignore) {}
-                                logger.info("Intercepted navigation and started download: {}", urlStr);
-                                return;
-                            } catch (Exception ex) {
-                                logger.debug("Failed to start download for intercepted URL: {}", urlStr, ex);
-                            }
-                        } else {
-
-                            java.util.concurrent.CompletableFuture.runAsync(() -> {
-                                HttpURLConnection conn = null;
+                    if (!urlStr.isEmpty()) {
+                        classifier.classify(urlStr).thenAccept(result -> {
+                            if (!result.isDownload()) return;
+                            Platform.runLater(() -> {
+                                // The user may have moved on while the probe was running.
+                                if (disposed || webEngine == null || !urlStr.equals(webEngine.getLocation())) return;
                                 try {
-                                    java.net.URL u = new java.net.URL(urlStr);
-                                    conn = (HttpURLConnection) u.openConnection();
-                                    conn.setRequestMethod("HEAD");
-                                    conn.setInstanceFollowRedirects(true);
-                                    conn.setConnectTimeout(8000);
-                                    conn.setReadTimeout(8000);
-                                    conn.connect();
-
-                                    String disposition = conn.getHeaderField("Content-Disposition");
-                                    String contentType = conn.getContentType();
-                                    int code = conn.getResponseCode();
-
-                                    boolean looksLikeAttachment = false;
-                                    if (disposition != null && disposition.toLowerCase().contains("attachment")) looksLikeAttachment = true;
-                                    if (disposition != null && (disposition.toLowerCase().contains("filename=") || disposition.toLowerCase().contains("filename*="))) looksLikeAttachment = true;
-                                    if (contentType != null) {
-                                        String ct = contentType.toLowerCase();
-
-                                        if (ct.startsWith("application/") || ct.startsWith("video/") || ct.startsWith("audio/") ) looksLikeAttachment = true;
-
-                                        if (ct.equals("application/octet-stream")) looksLikeAttachment = true;
-                                    }
-
-                                    if (looksLikeAttachment || code == HttpURLConnection.HTTP_OK && (contentType == null || !contentType.toLowerCase().contains("text/html"))) {
-
-                                        String suggested = null;
-                                        if (disposition != null) {
-
-                                            java.util.regex.Matcher m = java.util.regex.Pattern.compile("filename\\*?=\\s*(?:\\\"?)(?:UTF-8'')?([^;\\\"]+)", java.util.regex.Pattern.CASE_INSENSITIVE).matcher(disposition);
-                                            if (m.find()) {
-                                                suggested = m.group(1).trim().replaceAll("[\\\"]", "");
-                                                try { suggested = java.net.URLDecoder.decode(suggested, java.nio.charset.StandardCharsets.UTF_8); } catch (Exception ignored) {}
-                                            }
-                                        }
-                                        if (suggested == null || suggested.isEmpty()) suggested = suggestFileNameFromUrl(urlStr);
-
-                                        final String fileName = suggested;
-
-                                        javafx.application.Platform.runLater(() -> {
-                                            try {
-                                                DownloadController dc = container.getOrCreate(DownloadController.class);
-                                                dc.requestDownloadFromUI(urlStr, fileName);
-                                                try { webEngine.getLoadWorker().cancel(); } catch (Exception ignore) {}
-                                                logger.info("HEAD-detected download and started: {} (suggested={})", urlStr, fileName);
-                                            } catch (Exception ex) {
-                                                logger.debug("Failed to start HEAD-detected download for {}", urlStr, ex);
-                                            }
-                                        });
-                                    }
-                                } catch (Exception e) {
-
-                                    logger.debug("HEAD check failed for {}: {}", urlStr, e.getMessage());
-                                } finally {
-                                    if (conn != null) conn.disconnect();
+                                    DownloadController dc = container.getOrCreate(DownloadController.class);
+                                    dc.requestDownloadFromUI(urlStr, result.fileName());
+                                    try { webEngine.getLoadWorker().cancel(); } catch (Exception ignore) {}
+                                    logger.info("Intercepted navigation and started download: {} (suggested={})", urlStr, result.fileName());
+                                } catch (Exception ex) {
+                                    logger.debug("Failed to start download for intercepted URL: {}", urlStr, ex);
                                 }
                             });
-                        }
+                        });
                     }
 
                     urlProperty.set(newUrl != null ? newUrl : "");
@@ -249,7 +407,7 @@ public class BrowserTab extends BorderPane {
             Platform.runLater(() -> {
                 logger.debug("WebEngine state changed: {} -> {}", oldState, newState);
 
-                if (newState == null) return;
+                if (newState == null || webEngine == null) return;
 
                 switch (newState) {
                     case READY -> loadingBar.setVisible(false);
@@ -266,8 +424,10 @@ public class BrowserTab extends BorderPane {
                         loadingBar.setProgress(1.0);
 
                         extractFaviconFromPage();
+                        restorePendingScroll();
+                        scheduleThumbnail();
+                        recordPageLoad();
 
-                        reapplyDarkModeIfEnabled();
                         logger.info("Page loaded successfully: {}", webEngine.getLocation());
                     }
                     case CANCELLED -> {
@@ -311,6 +471,12 @@ public class BrowserTab extends BorderPane {
         webEngine.setOnError(event -> logger.error("WebEngine error event: {}", event.getMessage()));
     }
 
+    private void restorePendingScroll() {
+        if (Double.isNaN(pendingScrollX)) return;
+        runtime.post("scrollTo", pendingScrollX, pendingScrollY);
+        pendingScrollX = Double.NaN;
+    }
+
     private void updateFaviconUrl(String pageUrl) {
         if (pageUrl == null || pageUrl.isEmpty()) {
             faviconUrlProperty.set("");
@@ -332,49 +498,45 @@ public class BrowserTab extends BorderPane {
     }
 
     private void extractFaviconFromPage() {
-        try {
-
-            String script = """
-                (function() {
-                    var link = document.querySelector("link[rel*='icon']");
-                    if (link) return link.href;
-                    var shortcut = document.querySelector("link[rel='shortcut icon']");
-                    if (shortcut) return shortcut.href;
-                    return null;
-                })()
-                """;
-            Object result = webEngine.executeScript(script);
-            if (result != null && !result.toString().equals("null")) {
-                faviconUrlProperty.set(result.toString());
-            }
-        } catch (Exception e) {
-
-            logger.debug("Could not extract favicon from page", e);
-        }
+        runtime.call(result -> {
+            if (result instanceof String href && !href.isEmpty()) faviconUrlProperty.set(href);
+        }, "favicon");
     }
 
-    public WritableImage getPreviewSnapshot() {
-        if (disposed || webView == null) return null;
-        try {
-            double w = Math.max(1, webView.getWidth());
-            double h = Math.max(1, webView.getHeight());
-
-            final double MAX_W = 320;
-            final double MAX_H = 200;
+    /** The cached thumbnail of the current page, or null; nothing is rendered. */
+    public Image getPreviewSnapshot() {
+        if (disposed) return null;
+        return thumbnails.get(getUrl());
+    }
 
-            double scale = Math.min(1.0, Math.min(MAX_W / w, MAX_H / h));
+    /** Hands the page's Navigation and Resource Timing entries to the stats. */
+    private void recordPageLoad() {
+        String location = webEngine.getLocation();
+        if (!PageLoadStatsService.isMeasured(location)) return;
+        runtime.call(timing -> pageLoadStats.record(location, timing), "timing");
+    }
 
-            SnapshotParameters params = new SnapshotParameters();
-            params.setTransform(new Scale(scale, scale));
+    private void scheduleThumbnail() {
+        thumbnailPending = true;
+        scrolledSinceThumbnail = 0;
+        // Waits for the page, or the scrolling, to settle.
+        thumbnailDelay.playFromStart();
+    }
 
-            int outW = Math.max(1, (int) Math.round(w * scale));
-            int outH = Math.max(1, (int) Math.round(h * scale));
+    private void onPageScrolled(ScrollEvent event) {
+        scrolledSinceThumbnail += Math.abs(event.getDeltaY()) + Math.abs(event.getDeltaX());
+        if (webView != null && scrolledSinceThumbnail > webView.getHeight() / 2) {
+            scheduleThumbnail();
+        }
+    }
 
-            WritableImage out = new WritableImage(outW, outH);
-            return webView.snapshot(params, out);
+    private void captureThumbnail() {
+        // Views that are not on screen are not painted and would give a blank thumbnail.
+        if (disposed || webView == null || getScene() == null) return;
+        try {
+            if (thumbnails.capture(getUrl(), webView) != null) thumbnailPending = false;
         } catch (Exception e) {
-            logger.debug("Could not create page snapshot", e);
-            return null;
+            logger.debug("Could not capture page thumbnail", e);
         }
     }
 
@@ -423,11 +585,16 @@ public class BrowserTab extends BorderPane {
 
         Platform.runLater(() -> {
             try {
+                if (disposed) return;
+                restoreWebView();
+                // A new page has its own scroll position.
+                pendingScrollX = Double.NaN;
 
                 if (webEngine.getLoadWorker().isRunning()) {
                     webEngine.getLoadWorker().cancel();
                 }
 
+                applyDarkMode(finalUrl);
                 webEngine.load(finalUrl);
                 urlProperty.set(finalUrl);
                 logger.info("Loading URL: {}", finalUrl);
@@ -441,6 +608,10 @@ public class BrowserTab extends BorderPane {
 
     public void goBack() {
         if (disposed) return;
+        if (webEngine == null) {
+            wake();
+            return;
+        }
         Platform.runLater(() -> {
             try {
                 if (webEngine.getHistory().getCurrentIndex() > 0) {
@@ -454,6 +625,10 @@ public class BrowserTab extends BorderPane {
 
     public void goForward() {
         if (disposed) return;
+        if (webEngine == null) {
+            wake();
+            return;
+        }
         Platform.runLater(() -> {
             try {
                 if (webEngine.getHistory().getCurrentIndex() < webEngine.getHistory().getEntries().size() - 1) {
@@ -467,6 +642,10 @@ public class BrowserTab extends BorderPane {
 
     public void reload() {
         if (disposed) return;
+        if (webEngine == null) {
+            wake();
+            return;
+        }
         Platform.runLater(() -> {
             try {
                 webEngine.reload();
@@ -480,7 +659,7 @@ public class BrowserTab extends BorderPane {
         if (disposed) return;
         Platform.runLater(() -> {
             try {
-                webEngine.getLoadWorker().cancel();
+                if (webEngine != null) webEngine.getLoadWorker().cancel();
             } catch (Exception e) {
                 logger.error("Error stopping", e);
             }
@@ -489,6 +668,7 @@ public class BrowserTab extends BorderPane {
 
     public void print() {
         if (disposed) return;
+        ensureAwake();
         Platform.runLater(() -> {
             try {
 
@@ -508,53 +688,91 @@ public class BrowserTab extends BorderPane {
         print();
     }
 
-    public void find(String searchText, boolean forward, boolean matchCase, boolean findNext) {
-        if (disposed || searchText == null || searchText.isEmpty()) return;
-        Platform.runLater(() -> {
-            try {
+    /** Matches of the current search: the selected one (from 1, or 0), how many, and whether the scan is done. */
+    public record FindResult(int current, int total, boolean complete) {
+        public static final FindResult NONE = new FindResult(0, 0, true);
+    }
 
-                String script = String.format(
-                    "window.find('%s', %b, %b, true, false, true, false);",
-                    searchText.replace("'", "\\'"),
-                    matchCase,
-                    !forward
-                );
-                webEngine.executeScript(script);
-            } catch (Exception e) {
-                logger.error("Error finding text", e);
-            }
-        });
+    public ReadOnlyObjectProperty<FindResult> findResultProperty() {
+        return findResultProperty;
+    }
+
+    /**
+     * Starts a search, cancelling one still scanning. The page is scanned in slices and
+     * {@link #findResultProperty()} follows as matches are found.
+     */
+    public void find(String searchText, boolean matchCase) {
+        if (disposed || runtime == null) return;
+        findQuery = searchText;
+        findMatchCase = matchCase;
+        findStale = false;
+        if (searchText == null || searchText.isEmpty()) {
+            runtime.post("findClear");
+            findResultProperty.set(FindResult.NONE);
+            return;
+        }
+        findResultProperty.set(new FindResult(0, 0, false));
+        runtime.post("findStart", searchText, matchCase);
+    }
+
+    /** Selects the next or previous match, searching again if the page changed since. */
+    public void findNext(boolean forward) {
+        if (disposed || runtime == null || findQuery == null || findQuery.isEmpty()) return;
+        if (findStale) {
+            find(findQuery, findMatchCase);
+        } else {
+            runtime.post("findStep", forward);
+        }
     }
 
     public void stopFind() {
-        if (disposed) return;
-        Platform.runLater(() -> {
-            try {
-                webEngine.executeScript("window.getSelection().removeAllRanges();");
-            } catch (Exception e) {
-                logger.debug("Error clearing selection", e);
-            }
-        });
+        findQuery = null;
+        findResultProperty.set(FindResult.NONE);
+        if (disposed || runtime == null) return;
+        runtime.post("findClear");
+    }
+
+    private void onPageEvent(String type, Object data) {
+        if (!"find".equals(type) || findQuery == null || !(data instanceof String s)) return;
+        String[] parts = s.split(",");
+        if (parts.length != 3) return;
+        try {
+            findResultProperty.set(new FindResult(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), "1".equals(parts[2])));
+        } catch (NumberFormatException e) {
+            logger.debug("Malformed find result: {}", s);
+        }
     }
 
     public void zoomIn() {
         if (disposed) return;
-        Platform.runLater(() -> webView.setZoom(webView.getZoom() * 1.1));
+        ensureAwake();
+        Platform.runLater(() -> {
+            if (webView != null) webView.setZoom(webView.getZoom() * 1.1);
+        });
     }
 
     public void zoomOut() {
         if (disposed) return;
-        Platform.runLater(() -> webView.setZoom(webView.getZoom() / 1.1));
+        ensureAwake();
+        Platform.runLater(() -> {
+            if (webView != null) webView.setZoom(webView.getZoom() / 1.1);
+        });
     }
 
     public void resetZoom() {
         if (disposed) return;
-        Platform.runLater(() -> webView.setZoom(1.0));
+        ensureAwake();
+        Platform.runLater(() -> {
+            if (webView != null) webView.setZoom(1.0);
+        });
     }
 
     public void setZoomLevel(double zoomLevel) {
         if (disposed) return;
-        Platform.runLater(() -> webView.setZoom(zoomLevel));
+        ensureAwake();
+        Platform.runLater(() -> {
+            if (webView != null) webView.setZoom(zoomLevel);
+        });
     }
 
     public void setViewportZoom(double zoomLevel) {
@@ -567,9 +785,9 @@ public class BrowserTab extends BorderPane {
 
         Platform.runLater(() -> {
 
-            Scale scale = new Scale(zoomLevel, zoomLevel, 0, 0);
-            webView.getTransforms().clear();
-            webView.getTransforms().add(scale);
+            if (webView != null) {
+                webView.getTransforms().setAll(new Scale(zoomLevel, zoomLevel, 0, 0));
+            }
 
             if (zoomLevel > 1.0) {
                 scrollPane.setFitToWidth(false);
@@ -734,7 +952,7 @@ public class BrowserTab extends BorderPane {
 
     public void viewSource() {
         if (disposed) return;
-        String currentUrl = webEngine.getLocation();
+        String currentUrl = webEngine != null ? webEngine.getLocation() : getUrl();
         if (currentUrl != null && !currentUrl.startsWith("view-source:")) {
             loadUrl("view-source:" + currentUrl);
         }
@@ -773,20 +991,23 @@ public class BrowserTab extends BorderPane {
     }
 
     public boolean isLoading() {
-        return webEngine.getLoadWorker().isRunning();
+        return webEngine != null && webEngine.getLoadWorker().isRunning();
     }
 
     public WebView getWebView() {
+        ensureAwake();
         return webView;
     }
 
     public WebEngine getWebEngine() {
+        ensureAwake();
         return webEngine;
     }
 
     public Object executeScript(String script) {
-        if (disposed || script == null || script.isEmpty()) return null;
+        if (disposed || webEngine == null || script == null || script.isEmpty()) return null;
         try {
+            PageRuntime.countBridgeCall();
             return webEngine.executeScript(script);
         } catch (Exception e) {
             logger.debug("Error executing script: {}", e.getMessage());
@@ -794,22 +1015,31 @@ public class BrowserTab extends BorderPane {
         }
     }
 
+    /**
+     * Runs a command of the page runtime now and returns its result, or null while hibernated.
+     * Must be called on the FX thread.
+     */
+    public Object callPage(String command, Object... args) {
+        if (disposed || runtime == null) return null;
+        return runtime.callNow(command, args);
+    }
+
+    /** Absolute URLs of every link and image on the page, de-duplicated. Must be called on the FX thread. */
+    public List<String> collectLinks() {
+        if (!(callPage("links") instanceof String s) || s.isEmpty()) return List.of();
+        return List.of(s.split("\n"));
+    }
+
     public void dispose() {
         if (disposed) return;
         disposed = true;
 
+        if (contentBlocker != null) contentBlocker.unregisterPage(blockedCounter);
+
         stopSmoothScrollAnimation();
 
-        try {
-            if (viewportBoundsListener != null) scrollPane.viewportBoundsProperty().removeListener(viewportBoundsListener);
-            if (titleChangeListener != null) webEngine.titleProperty().removeListener(titleChangeListener);
-            if (locationChangeListener != null) webEngine.locationProperty().removeListener(locationChangeListener);
-            if (stateChangeListener != null) webEngine.getLoadWorker().stateProperty().removeListener(stateChangeListener);
-            if (progressChangeListener != null) webEngine.getLoadWorker().progressProperty().removeListener(progressChangeListener);
-            if (exceptionChangeListener != null) webEngine.getLoadWorker().exceptionProperty().removeListener(exceptionChangeListener);
-        } catch (Exception e) {
-            logger.debug("Error removing listeners during dispose", e);
-        }
+        if (viewportBoundsListener != null) scrollPane.viewportBoundsProperty().removeListener(viewportBoundsListener);
+        thumbnailDelay.stop();
 
         try {
             this.setOnMouseMoved(null);
@@ -821,17 +1051,11 @@ public class BrowserTab extends BorderPane {
                 scrollPane.setOnMouseDragged(null);
             }
 
-            webEngine.setOnAlert(null);
-            webEngine.setOnError(null);
-            webEngine.setCreatePopupHandler(null);
-
-            try {
-                webEngine.getLoadWorker().cancel();
-            } catch (Exception ignore) {}
+            WebView view = detachWebView();
 
             Platform.runLater(() -> {
                 try {
-                    webEngine.load(null);
+                    if (view != null) releaseWebView(view);
                     contentPane.getChildren().clear();
                 } catch (Exception ignore) {
                 }
@@ -889,16 +1113,29 @@ public class BrowserTab extends BorderPane {
         }
         """;
 
+    /** Page colour schemes for dark mode, each encoded once as a data URI for the user style sheet. */
+    public enum DarkModeStyle {
+        NORMAL(DARK_MODE_CSS),
+        SOFT(DARK_MODE_CSS_SOFT);
+
+        private final String location;
+
+        DarkModeStyle(String css) {
+            location = "data:text/css;charset=utf-8;base64,"
+                    + Base64.getEncoder().encodeToString(css.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
     public void enableWebPageDarkMode() {
         if (disposed) return;
         webPageDarkMode = true;
-        injectDarkModeCSS();
+        refreshDarkMode();
     }
 
     public void disableWebPageDarkMode() {
         if (disposed) return;
         webPageDarkMode = false;
-        removeDarkModeCSS();
+        refreshDarkMode();
     }
 
     public void toggleWebPageDarkMode() {
@@ -921,84 +1158,64 @@ public class BrowserTab extends BorderPane {
         return globalDarkModeEnabled;
     }
 
-    private void injectDarkModeCSS() {
-        if (disposed) return;
-
-        Platform.runLater(() -> {
-            try {
-                String escapedCSS = DARK_MODE_CSS
-                    .replace("\\", "\\\\")
-                    .replace("'", "\\'")
-                    .replace("\n", " ")
-                    .replace("\r", "");
-
-                String script = """
-                    (function() {
-                        // Remove existing dark mode style if any
-                        var existing = document.getElementById('nexus-dark-mode');
-                        if (existing) existing.remove();
-
-                        // Create and inject dark mode style
-                        var style = document.createElement('style');
-                        style.id = 'nexus-dark-mode';
-                        style.type = 'text/css';
-                        style.innerHTML = '%s';
-                        document.head.appendChild(style);
-                        return true;
-                    })()
-                    """.formatted(escapedCSS);
-
-                webEngine.executeScript(script);
-                logger.info("Dark mode CSS injected");
-            } catch (Exception e) {
-                logger.debug("Error injecting dark mode CSS: {}", e.getMessage());
-            }
-        });
+    public static DarkModeStyle getDarkModeStyle() {
+        return darkModeStyle;
     }
 
-    private void removeDarkModeCSS() {
-        if (disposed) return;
-
-        Platform.runLater(() -> {
-            try {
-                String script = """
-                    (function() {
-                        var existing = document.getElementById('nexus-dark-mode');
-                        if (existing) existing.remove();
-                        return true;
-                    })()
-                    """;
-
-                webEngine.executeScript(script);
-                logger.info("Dark mode CSS removed");
-            } catch (Exception e) {
-                logger.debug("Error removing dark mode CSS: {}", e.getMessage());
-            }
-        });
+    /** Takes effect on each tab at its next navigation or {@link #refreshDarkMode()}. */
+    public static void setDarkModeStyle(DarkModeStyle style) {
+        darkModeStyle = style != null ? style : DarkModeStyle.NORMAL;
     }
 
-    private void reapplyDarkModeIfEnabled() {
-        if (webPageDarkMode || globalDarkModeEnabled) {
-            webPageDarkMode = true;
-
-            javafx.animation.PauseTransition delay = new javafx.animation.PauseTransition(javafx.util.Duration.millis(100));
-            delay.setOnFinished(e -> injectDarkModeCSS());
-            delay.play();
+    /**
+     * Keeps dark mode off for a host and its subdomains, for the rest of the session. Including
+     * a host again also drops exclusions of its parent domains.
+     */
+    public static void setDarkModeExcluded(String host, boolean excluded) {
+        String h = DomainNames.normalize(host);
+        if (h == null || h.isEmpty()) return;
+        if (excluded) {
+            darkModeExcludedHosts.add(h);
+            return;
         }
+        for (String d = h; d != null; d = parentDomain(d)) darkModeExcludedHosts.remove(d);
     }
 
-    private String suggestFileNameFromUrl(String urlStr) {
+    public static boolean isDarkModeExcluded(String url) {
+        if (darkModeExcludedHosts.isEmpty() || url == null) return false;
+        String host;
         try {
-            URI u = new URI(urlStr);
-            String path = u.getPath();
-            if (path != null && !path.isEmpty()) {
-                String last = path.substring(path.lastIndexOf('/') + 1);
-                if (last == null || last.isEmpty()) last = "download";
-                return java.net.URLDecoder.decode(last, java.nio.charset.StandardCharsets.UTF_8);
-            }
-        } catch (Exception e) {
+            host = DomainNames.normalize(URI.create(url).getHost());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        for (String h = host; h != null; h = parentDomain(h)) {
+            if (darkModeExcludedHosts.contains(h)) return true;
+        }
+        return false;
+    }
+
+    private static String parentDomain(String host) {
+        int dot = host.indexOf('.');
+        return dot >= 0 ? host.substring(dot + 1) : null;
+    }
+
+    /** Applies the current dark mode state, style and exclusions to the page shown. */
+    public void refreshDarkMode() {
+        if (disposed || webEngine == null) return;
+        applyDarkMode(webEngine.getLocation());
+    }
 
+    /**
+     * Sets the user style sheet for a document about to load, so it is styled before its first
+     * paint instead of being restyled once loaded. Changing it restyles the current document.
+     */
+    private void applyDarkMode(String url) {
+        if (webEngine == null) return;
+        if (globalDarkModeEnabled) webPageDarkMode = true;
+        String location = webPageDarkMode && !isDarkModeExcluded(url) ? darkModeStyle.location : null;
+        if (!Objects.equals(location, webEngine.getUserStyleSheetLocation())) {
+            webEngine.setUserStyleSheetLocation(location);
         }
-        return "download";
     }
 }
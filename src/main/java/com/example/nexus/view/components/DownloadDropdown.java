@@ -1,6 +1,7 @@
 package com.example.nexus.view.components;
 
 import com.example.nexus.model.Download;
+import com.example.nexus.service.DownloadDelta;
 import com.example.nexus.service.DownloadListener;
 import com.example.nexus.service.DownloadService;
 import com.example.nexus.controller.DownloadController;
@@ -19,7 +20,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class DownloadDropdown implements DownloadListener {
@@ -30,6 +33,9 @@ public class DownloadDropdown implements DownloadListener {
     private final boolean dark;
     private final DownloadController downloadController;
     private final Runnable openPanelAction;
+    private final Map<Integer, Row> rows = new HashMap<>();
+
+    private record Row(Label status, ProgressBar progress, Label meta) {}
 
     private final String openIconLiteral = "mdi2f-folder-open-outline";
     private final String openIconLiteralAlt = "mdi2f-folder-open";
@@ -99,7 +105,7 @@ public class DownloadDropdown implements DownloadListener {
             }
         });
 
-        refreshContent();
+        rebuild();
 
         try { if (!content.getStyleClass().contains("showing")) content.getStyleClass().add("showing"); } catch (Exception ignored) {}
 
@@ -129,85 +135,98 @@ public class DownloadDropdown implements DownloadListener {
         });
     }
 
+    /** Rebuilds the rows for the latest downloads; call on any thread. */
     public void refreshContent() {
-        Platform.runLater(() -> {
-            content.getChildren().clear();
-            List<Download> latest = downloadService.getAllDownloads().stream()
-                .sorted(Comparator.comparing(Download::getStartTime).reversed())
-                .limit(3)
-                .collect(Collectors.toList());
-
-            if (latest.isEmpty()) {
-                Label empty = new Label("No recent downloads");
-                empty.getStyleClass().add("download-dropdown-empty");
-                content.getChildren().add(empty);
-            } else {
-                for (Download d : latest) {
-                    VBox card = new VBox(6);
-                    card.getStyleClass().add("download-card-row");
-                    card.setPadding(new Insets(8));
-
-                    if (this.dark) {
-                        card.setStyle("-fx-background-color: transparent; -fx-border-color: rgba(255,255,255,0.02); -fx-border-width: 1; -fx-background-radius: 8; -fx-border-radius: 8; -fx-padding: 10;");
-                    }
-
-                    HBox top = new HBox(8);
-                    top.setAlignment(Pos.CENTER_LEFT);
-
-                    javafx.scene.Node fileIcon = createSafeIcon("mdi-file-outline", 18, "#6b7280");
-                    Label name = new Label(d.getFileName());
-                    name.getStyleClass().addAll("download-dropdown-name");
-                    name.setMaxWidth(340);
-                    name.setTooltip(new javafx.scene.control.Tooltip(d.getFileName()));
-                    Region sp = new Region(); HBox.setHgrow(sp, Priority.ALWAYS);
-                    Label status = new Label(d.getStatus()); status.getStyleClass().add("download-dropdown-percent");
-                    top.getChildren().addAll(fileIcon, name, sp, status);
-
-                    ProgressBar pb = new ProgressBar();
-                    pb.getStyleClass().addAll("download-progress","progress-bar");
-                    pb.setPrefWidth(400);
-                    pb.setPrefHeight(10);
-                    if (d.getFileSize() > 0) {
-                        pb.setProgress(d.getProgress());
-                    } else {
-                        pb.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
-                    }
-
-                    HBox metaRow = new HBox(8);
-                    metaRow.setAlignment(Pos.CENTER_LEFT);
-                    Label meta = new Label(); meta.getStyleClass().add("download-dropdown-percent");
-                    if (d.getFileSize() > 0) meta.setText(String.format("%.0f%% • %s", d.getProgress() * 100, formatShortSize(d))); else meta.setText(formatShortSize(d));
-
-                    if ("completed".equalsIgnoreCase(d.getStatus()) && d.getEndTime() != null) {
-                        meta.setText(meta.getText() + " • " + formatDateTime(d.getEndTime()));
-                    }
-                    Region metaSpacer = new Region(); HBox.setHgrow(metaSpacer, Priority.ALWAYS);
-
-                    HBox actions = new HBox(6);
-                    actions.setAlignment(Pos.CENTER_RIGHT);
-
-                    Button openBtn = iconButton(openIconLiteral, "Open", "small");
-                    openBtn.getStyleClass().add("icon-button");
-                    openBtn.setOnAction(e -> { try { downloadController.openDownloadFile(d); } catch (Exception ex) { logger.debug("Failed to open download file {}", d.getId(), ex); } });
-                    Button del = iconButton("mdi2d-delete", "Delete", "small");
-                    del.setOnAction(e -> { try { downloadController.deleteDownload(d.getId()); refreshContent(); } catch (Exception ex) { logger.debug("Failed to delete download {}", d.getId(), ex); } });
-                    actions.getChildren().addAll(openBtn, del);
-
-                    metaRow.getChildren().addAll(meta, metaSpacer, actions);
-
-                    card.getChildren().addAll(top, pb, metaRow);
-                    content.getChildren().add(card);
-                }
+        Platform.runLater(this::rebuild);
+    }
+
+    private void rebuild() {
+        content.getChildren().clear();
+        rows.clear();
+        List<Download> latest = downloadService.getAllDownloads().stream()
+            .sorted(Comparator.comparing(Download::getStartTime).reversed())
+            .limit(3)
+            .collect(Collectors.toList());
+
+        if (latest.isEmpty()) {
+            Label empty = new Label("No recent downloads");
+            empty.getStyleClass().add("download-dropdown-empty");
+            content.getChildren().add(empty);
+            return;
+        }
+
+        for (Download d : latest) {
+            VBox card = new VBox(6);
+            card.getStyleClass().add("download-card-row");
+            card.setPadding(new Insets(8));
 
-                HBox footer = new HBox(8);
-                footer.setAlignment(Pos.CENTER_RIGHT);
-                Button openPanel = new Button("Open downloads");
-                openPanel.getStyleClass().addAll("primary-button");
-                openPanel.setOnAction(e -> { if (openPanelAction != null) openPanelAction.run(); popup.hide(); });
-                footer.getChildren().add(openPanel);
-                content.getChildren().add(footer);
+            if (this.dark) {
+                card.setStyle("-fx-background-color: transparent; -fx-border-color: rgba(255,255,255,0.02); -fx-border-width: 1; -fx-background-radius: 8; -fx-border-radius: 8; -fx-padding: 10;");
             }
-        });
+
+            HBox top = new HBox(8);
+            top.setAlignment(Pos.CENTER_LEFT);
+
+            javafx.scene.Node fileIcon = createSafeIcon("mdi-file-outline", 18, "#6b7280");
+            Label name = new Label(d.getFileName());
+            name.getStyleClass().addAll("download-dropdown-name");
+            name.setMaxWidth(340);
+            name.setTooltip(new javafx.scene.control.Tooltip(d.getFileName()));
+            Region sp = new Region(); HBox.setHgrow(sp, Priority.ALWAYS);
+            Label status = new Label(); status.getStyleClass().add("download-dropdown-percent");
+            top.getChildren().addAll(fileIcon, name, sp, status);
+
+            ProgressBar pb = new ProgressBar();
+            pb.getStyleClass().addAll("download-progress","progress-bar");
+            pb.setPrefWidth(400);
+            pb.setPrefHeight(10);
+
+            HBox metaRow = new HBox(8);
+            metaRow.setAlignment(Pos.CENTER_LEFT);
+            Label meta = new Label(); meta.getStyleClass().add("download-dropdown-percent");
+            Region metaSpacer = new Region(); HBox.setHgrow(metaSpacer, Priority.ALWAYS);
+
+            HBox actions = new HBox(6);
+            actions.setAlignment(Pos.CENTER_RIGHT);
+
+            Button openBtn = iconButton(openIconLiteral, "Open", "small");
+            openBtn.getStyleClass().add("icon-button");
+            openBtn.setOnAction(e -> { try { downloadController.openDownloadFile(d); } catch (Exception ex) { logger.debug("Failed to open download file {}", d.getId(), ex); } });
+            Button del = iconButton("mdi2d-delete", "Delete", "small");
+            del.setOnAction(e -> { try { downloadController.deleteDownload(d.getId()); } catch (Exception ex) { logger.debug("Failed to delete download {}", d.getId(), ex); } });
+            actions.getChildren().addAll(openBtn, del);
+
+            metaRow.getChildren().addAll(meta, metaSpacer, actions);
+
+            card.getChildren().addAll(top, pb, metaRow);
+            content.getChildren().add(card);
+
+            Row row = new Row(status, pb, meta);
+            rows.put(d.getId(), row);
+            updateRow(row, d);
+        }
+
+        HBox footer = new HBox(8);
+        footer.setAlignment(Pos.CENTER_RIGHT);
+        Button openPanel = new Button("Open downloads");
+        openPanel.getStyleClass().addAll("primary-button");
+        openPanel.setOnAction(e -> { if (openPanelAction != null) openPanelAction.run(); popup.hide(); });
+        footer.getChildren().add(openPanel);
+        content.getChildren().add(footer);
+    }
+
+    private static void updateRow(Row row, Download d) {
+        row.status().setText(d.getStatus());
+        if (d.getFileSize() > 0) {
+            row.progress().setProgress(d.getProgress());
+            row.meta().setText(String.format("%.0f%% • %s", d.getProgress() * 100, formatShortSize(d)));
+        } else {
+            row.progress().setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+            row.meta().setText(formatShortSize(d));
+        }
+        if ("completed".equalsIgnoreCase(d.getStatus()) && d.getEndTime() != null) {
+            row.meta().setText(row.meta().getText() + " • " + formatDateTime(d.getEndTime()));
+        }
     }
 
     private javafx.scene.Node createSafeIcon(String iconLiteral, int size, String colorHex) {
@@ -226,19 +245,28 @@ public class DownloadDropdown implements DownloadListener {
 
     @Override
     public void downloadAdded(Download download) {
-
-        Platform.runLater(this::refreshContent);
+        Platform.runLater(() -> {
+            if (isShowing()) rebuild();
+        });
     }
 
+    // Only the rows on screen are patched; a hidden popup is rebuilt when it is next shown.
     @Override
-    public void downloadUpdated(Download download) {
-
-        Platform.runLater(this::refreshContent);
+    public void downloadsChanged(List<DownloadDelta> deltas) {
+        Platform.runLater(() -> {
+            if (!isShowing()) return;
+            for (DownloadDelta delta : deltas) {
+                Row row = rows.get(delta.getId());
+                if (row != null) updateRow(row, delta.getDownload());
+            }
+        });
     }
 
     @Override
     public void downloadRemoved(int downloadId) {
-        refreshContent();
+        Platform.runLater(() -> {
+            if (isShowing()) rebuild();
+        });
     }
 
     public void dispose() {
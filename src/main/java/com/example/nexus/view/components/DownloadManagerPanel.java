@@ -2,32 +2,79 @@ package com.example.nexus.view.components;
 
 import com.example.nexus.controller.DownloadController;
 import com.example.nexus.model.Download;
+import com.example.nexus.service.DownloadBatch;
+import com.example.nexus.service.DownloadDelta;
+import com.example.nexus.service.DownloadListener;
+import com.example.nexus.service.DownloadScheduler;
+import com.example.nexus.service.DownloadTelemetry;
 import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import javafx.stage.WindowEvent;
 import org.kordamp.ikonli.javafx.FontIcon;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Download manager window. Rows are kept in an observable list keyed by download id and
+ * patched from {@link DownloadDelta} and telemetry events; cells build their graphics once
+ * and only rebind to the row they display, so nothing is re-read or rebuilt per event.
+ */
 public class DownloadManagerPanel extends Stage {
     private final DownloadController downloadController;
     private final boolean isDarkTheme;
-    private final ListView<Download> downloadListView;
-    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> { Thread t = new Thread(r); t.setDaemon(true); return t; });
+    private final ObservableList<DownloadRow> rows = FXCollections.observableArrayList();
+    private final FilteredList<DownloadRow> visibleRows = new FilteredList<>(rows);
+    private final Map<Integer, DownloadRow> rowsById = new HashMap<>();
+    private final Set<Integer> queuedIds = new HashSet<>();
+    private final ListView<DownloadRow> downloadListView;
+    private final Label schedulerLabel = new Label();
+    private final VBox batchBox = new VBox(6);
+    private final Map<Integer, BatchView> batchViews = new HashMap<>();
+    private DownloadScheduler scheduler;
+    private com.example.nexus.service.DownloadCache cache;
+    private DownloadTelemetry downloadTelemetry;
+    private Runnable schedulerListener;
+    private com.example.nexus.service.DownloadService downloadService;
+    private DownloadListener downloadListener;
 
     public DownloadManagerPanel(com.example.nexus.core.DIContainer container, DownloadController downloadController, boolean isDarkTheme) {
 
         this.downloadController = downloadController;
         this.isDarkTheme = isDarkTheme;
-        this.downloadListView = new ListView<>();
+        this.downloadListView = new ListView<>(visibleRows);
+        try {
+            this.downloadService = container != null
+                    ? container.getOrCreate(com.example.nexus.service.DownloadService.class)
+                    : downloadController.getDownloadService();
+            this.scheduler = downloadService.getScheduler();
+            this.cache = downloadService.getCache();
+            this.downloadTelemetry = downloadService.getTelemetry();
+        } catch (Exception ignored) {}
         setTitle("Downloads");
         initModality(Modality.NONE);
         initStyle(StageStyle.DECORATED);
@@ -38,22 +85,39 @@ public class DownloadManagerPanel extends Stage {
         initializeUI();
         loadDownloads();
 
-        try {
-            var downloadService = container.getOrCreate(com.example.nexus.service.DownloadService.class);
-            downloadService.addListener(new com.example.nexus.service.DownloadListener() {
+        if (scheduler != null) {
+            schedulerListener = () -> Platform.runLater(this::updateSchedulerLabel);
+            scheduler.addChangeListener(schedulerListener);
+            updateSchedulerLabel();
+        }
+
+        if (downloadService != null) {
+            downloadListener = new DownloadListener() {
                 @Override
-                public void downloadAdded(com.example.nexus.model.Download download) { Platform.runLater(() -> loadDownloads()); }
+                public void downloadAdded(Download download) { Platform.runLater(() -> addRow(download, true)); }
 
                 @Override
-                public void downloadUpdated(com.example.nexus.model.Download download) { Platform.runLater(() -> loadDownloads()); }
+                public void downloadsChanged(List<DownloadDelta> deltas) { Platform.runLater(() -> applyDeltas(deltas)); }
 
                 @Override
-                public void downloadRemoved(int downloadId) { Platform.runLater(() -> loadDownloads()); }
-            });
-        } catch (Exception ignored) {
+                public void downloadRemoved(int downloadId) { Platform.runLater(() -> removeRow(downloadId)); }
 
-            refresher.scheduleAtFixedRate(this::loadDownloads, 1, 1, TimeUnit.SECONDS);
+                @Override
+                public void batchStarted(DownloadBatch batch) { Platform.runLater(() -> addBatch(batch)); }
+
+                @Override
+                public void telemetryUpdated(List<DownloadTelemetry.Snapshot> snapshots) {
+                    Platform.runLater(() -> {
+                        for (DownloadTelemetry.Snapshot s : snapshots) {
+                            DownloadRow row = rowsById.get(s.id());
+                            if (row != null) row.updateTelemetry(s);
+                        }
+                    });
+                }
+            };
+            downloadService.addListener(downloadListener);
         }
+        addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> detach());
     }
 
     private void initializeUI() {
@@ -68,7 +132,7 @@ public class DownloadManagerPanel extends Stage {
         searchField.setPromptText("Search downloads...");
         searchField.getStyleClass().add("search-field");
         searchField.setPrefWidth(260);
-        searchField.textProperty().addListener((obs, oldV, newV) -> loadDownloads(newV));
+        searchField.textProperty().addListener((obs, oldV, newV) -> applyFilter(newV));
 
         Label searchIcon = new Label("\uD83D\uDD0D");
         searchIcon.getStyleClass().add("search-icon");
@@ -77,19 +141,44 @@ public class DownloadManagerPanel extends Stage {
 
         Button clearBtn = new Button("Clear All");
         clearBtn.getStyleClass().addAll("action-button","secondary-button");
-        clearBtn.setOnAction(e -> { downloadController.clearAllDownloads(); loadDownloads(); });
+        clearBtn.setOnAction(e -> downloadController.clearAllDownloads());
         Region spacer = new Region(); HBox.setHgrow(spacer, Priority.ALWAYS);
         header.getChildren().addAll(title, searchBox, spacer, clearBtn);
         header.setPadding(new Insets(16));
         root.setTop(header);
 
         downloadListView.setCellFactory(lv -> new DownloadCell());
-        root.setCenter(downloadListView);
+        batchBox.setPadding(new Insets(0, 16, 8, 16));
+        batchBox.managedProperty().bind(batchBox.visibleProperty());
+        batchBox.setVisible(false);
+        VBox.setVgrow(downloadListView, Priority.ALWAYS);
+        root.setCenter(new VBox(batchBox, downloadListView));
 
         Button closeBtn = new Button("Close");
         closeBtn.getStyleClass().addAll("action-button","secondary-button");
-        closeBtn.setOnAction(e -> { refresher.shutdownNow(); close(); });
-        HBox footer = new HBox(closeBtn);
+        closeBtn.setOnAction(e -> close());
+        HBox footer = new HBox(10);
+        if (scheduler != null) {
+            schedulerLabel.getStyleClass().add("download-dropdown-percent");
+
+            Spinner<Integer> concurrency = new Spinner<>(1, 8, scheduler.getMaxConcurrent());
+            concurrency.setPrefWidth(70);
+            concurrency.setTooltip(new Tooltip("Simultaneous downloads"));
+            concurrency.valueProperty().addListener((obs, o, n) -> { if (n != null) scheduler.setMaxConcurrent(n); });
+
+            ComboBox<String> rateLimit = new ComboBox<>();
+            rateLimit.getItems().addAll(RATE_LABELS);
+            rateLimit.getSelectionModel().select(rateIndexFor(scheduler.getGlobalRateLimit()));
+            rateLimit.setTooltip(new Tooltip("Bandwidth limit for all downloads"));
+            rateLimit.setOnAction(e -> {
+                int i = rateLimit.getSelectionModel().getSelectedIndex();
+                if (i >= 0) scheduler.setGlobalRateLimit(RATE_LIMITS[i]);
+            });
+
+            Region footerSpacer = new Region(); HBox.setHgrow(footerSpacer, Priority.ALWAYS);
+            footer.getChildren().addAll(schedulerLabel, new Label("Parallel:"), concurrency, new Label("Limit:"), rateLimit, footerSpacer);
+        }
+        footer.getChildren().add(closeBtn);
         footer.setAlignment(Pos.CENTER_RIGHT);
         footer.setPadding(new Insets(12));
         root.setBottom(footer);
@@ -100,113 +189,376 @@ public class DownloadManagerPanel extends Stage {
         setScene(scene);
     }
 
-    private void loadDownloads() { loadDownloads(null); }
+    private static final String[] RATE_LABELS = {"Unlimited", "256 KB/s", "1 MB/s", "5 MB/s", "10 MB/s"};
+    private static final long[] RATE_LIMITS = {0L, 256L * 1024, 1024L * 1024, 5L * 1024 * 1024, 10L * 1024 * 1024};
 
-    private void loadDownloads(String filter) {
-        final String f = (filter == null) ? "" : filter.trim().toLowerCase();
-        Platform.runLater(() -> {
-            List<Download> downloads = downloadController.getAllDownloads();
-            if (!f.isEmpty()) {
-                downloads = downloads.stream()
-                    .filter(d -> (d.getFileName() != null && d.getFileName().toLowerCase().contains(f)) ||
-                                 (d.getUrl() != null && d.getUrl().toLowerCase().contains(f)))
-                    .toList();
+    private static int rateIndexFor(long limit) {
+        for (int i = 0; i < RATE_LIMITS.length; i++) {
+            if (RATE_LIMITS[i] == limit) return i;
+        }
+        return 0;
+    }
+
+    private void updateSchedulerLabel() {
+        DownloadScheduler.Snapshot s = scheduler.snapshot();
+        String text = s.active() + " of " + s.maxConcurrent() + " active";
+        if (s.queued() > 0) text += " \u00B7 " + s.queued() + " queued";
+        if (s.globalRateLimit() > 0) text += " \u00B7 " + formatBytes(s.globalRateLimit()) + "/s";
+        if (cache != null) {
+            var c = cache.stats();
+            if (c.hits() > 0) text += " \u00B7 " + c.hits() + " from cache";
+            schedulerLabel.setTooltip(new Tooltip("Cache: " + c.hits() + " hits, " + c.misses() + " misses, "
+                    + formatBytes(c.bytesServed()) + " saved, " + formatBytes(c.totalBytes()) + " of " + formatBytes(c.maxBytes()) + " used"));
+        }
+        schedulerLabel.setText(text);
+
+        // Only rows entering, leaving or moving within the queue change.
+        List<Integer> order = s.queuedIds();
+        Set<Integer> previous = new HashSet<>(queuedIds);
+        queuedIds.clear();
+        for (int i = 0; i < order.size(); i++) {
+            int id = order.get(i);
+            queuedIds.add(id);
+            previous.remove(id);
+            DownloadRow row = rowsById.get(id);
+            if (row != null) row.setQueuePosition(i + 1);
+        }
+        for (int id : previous) {
+            DownloadRow row = rowsById.get(id);
+            if (row != null) row.setQueuePosition(0);
+        }
+    }
+
+    private void loadDownloads() {
+        rows.clear();
+        rowsById.clear();
+        for (Download d : downloadController.getAllDownloads()) {
+            addRow(d, false);
+        }
+        if (downloadService != null) {
+            for (DownloadBatch batch : downloadService.getBatches()) addBatch(batch);
+        }
+    }
+
+    private void addBatch(DownloadBatch batch) {
+        if (batchViews.containsKey(batch.getId())) return;
+        BatchView view = new BatchView(batch);
+        batchViews.put(batch.getId(), view);
+        batchBox.getChildren().add(0, view.root);
+        batchBox.setVisible(true);
+        view.refresh();
+    }
+
+    private void removeBatch(BatchView view) {
+        batchViews.remove(view.batch.getId());
+        batchBox.getChildren().remove(view.root);
+        batchBox.setVisible(!batchViews.isEmpty());
+    }
+
+    private void addRow(Download download, boolean newest) {
+        if (rowsById.containsKey(download.getId())) return;
+        DownloadRow row = new DownloadRow(download);
+        if (downloadTelemetry != null) {
+            DownloadTelemetry.Snapshot s = downloadTelemetry.snapshot(download.getId());
+            if (s != null) row.updateTelemetry(s);
+        }
+        rowsById.put(download.getId(), row);
+        if (newest) rows.add(0, row); else rows.add(row);
+    }
+
+    private void removeRow(int id) {
+        DownloadRow row = rowsById.remove(id);
+        if (row != null) rows.remove(row);
+    }
+
+    private void applyDeltas(List<DownloadDelta> deltas) {
+        for (DownloadDelta delta : deltas) {
+            // Unknown ids were removed after the delta was taken; additions arrive as downloadAdded.
+            DownloadRow row = rowsById.get(delta.getId());
+            if (row != null) row.update(delta.getDownload());
+        }
+        for (BatchView view : batchViews.values()) {
+            for (DownloadDelta delta : deltas) {
+                if (view.batch.contains(delta.getId())) {
+                    view.refresh();
+                    break;
+                }
             }
-            int sel = downloadListView.getSelectionModel().getSelectedIndex();
-            downloadListView.getItems().setAll(downloads);
-            if (sel >= 0 && sel < downloadListView.getItems().size()) downloadListView.getSelectionModel().select(sel);
-        });
+        }
     }
 
-    private class DownloadCell extends ListCell<Download> {
-        @Override
-        protected void updateItem(Download item, boolean empty) {
-            super.updateItem(item, empty);
-            if (empty || item == null) {
-                setText(null); setGraphic(null);
-            } else {
-                VBox vbox = new VBox(6);
-                vbox.setPadding(new Insets(8));
-                HBox topRow = new HBox(8);
-                topRow.setAlignment(Pos.CENTER_LEFT);
-
-                Label fileTypeIcon = new Label(getFileTypeIcon(item.getFileName()));
-                fileTypeIcon.getStyleClass().add("file-type-icon");
-
-                Label name = new Label(item.getFileName());
-                name.getStyleClass().add("download-item-title");
-                Region spacer = new Region();
-                HBox.setHgrow(spacer, Priority.ALWAYS);
-                Label status = new Label(item.getStatus());
-                status.getStyleClass().add("status");
-                topRow.getChildren().addAll(fileTypeIcon, name, spacer, status);
-
-                ProgressBar pb = new ProgressBar();
-                pb.getStyleClass().addAll("download-progress","progress-bar");
-                pb.setPrefWidth(480);
-                pb.setPrefHeight(10);
-                if (item.getFileSize() > 0) {
-                    pb.setProgress(item.getProgress());
+    /** Aggregate progress of one batch, shown above the list until dismissed. */
+    private final class BatchView {
+        private final DownloadBatch batch;
+        private final HBox root = new HBox(10);
+        private final ProgressBar bar = new ProgressBar(0);
+        private final Label counts = new Label();
+        private final Button action = new Button("Cancel");
+
+        BatchView(DownloadBatch batch) {
+            this.batch = batch;
+            Label name = new Label(batch.getLabel());
+            name.getStyleClass().add("download-filename");
+            name.setMaxWidth(240);
+            bar.setPrefWidth(200);
+            counts.getStyleClass().add("download-dropdown-percent");
+            action.getStyleClass().addAll("action-button", "secondary-button");
+            action.setOnAction(e -> {
+                if (batch.progress().isDone()) {
+                    downloadService.dismissBatch(batch);
+                    removeBatch(this);
                 } else {
-                    pb.setProgress(ProgressBar.INDETERMINATE_PROGRESS);
+                    downloadService.cancelBatch(batch);
                 }
-                Label percent = new Label(item.getFileSize() > 0 ? String.format("%.0f%%", item.getProgress() * 100) : "");
-                percent.getStyleClass().add("download-dropdown-percent");
+            });
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            root.setAlignment(Pos.CENTER_LEFT);
+            root.getChildren().addAll(new FontIcon("mdi2d-download-multiple"), name, bar, counts, spacer, action);
+        }
 
-                String sizeText = formatBytes(item.getDownloadedSize());
-                if (item.getFileSize() > 0) sizeText += " / " + formatBytes(item.getFileSize());
-                Label sizeLabel = new Label(sizeText);
-                sizeLabel.getStyleClass().add("download-dropdown-percent");
+        void refresh() {
+            DownloadBatch.Progress p = batch.progress();
+            bar.setProgress(p.fraction());
+            String text = p.completed() + " of " + p.total() + " done";
+            if (p.active() > 0) text += " \u00B7 " + p.active() + " active";
+            if (p.failed() > 0) text += " \u00B7 " + p.failed() + " failed";
+            if (p.totalBytes() > 0) text += " \u00B7 " + formatBytes(p.downloadedBytes()) + " / " + formatBytes(p.totalBytes());
+            if (batch.getSkipped() > 0) text += " \u00B7 " + batch.getSkipped() + " skipped";
+            counts.setText(text);
+            action.setText(p.isDone() ? "Dismiss" : "Cancel");
+        }
+    }
 
-                Label eta = new Label(estimateTimeLeft(item));
-                eta.getStyleClass().add("download-dropdown-percent");
+    private void applyFilter(String filter) {
+        final String f = (filter == null) ? "" : filter.trim().toLowerCase();
+        if (f.isEmpty()) {
+            visibleRows.setPredicate(null);
+            return;
+        }
+        visibleRows.setPredicate(row -> {
+            Download d = row.download;
+            return (d.getFileName() != null && d.getFileName().toLowerCase().contains(f)) ||
+                   (d.getUrl() != null && d.getUrl().toLowerCase().contains(f));
+        });
+    }
 
-                if ("completed".equalsIgnoreCase(item.getStatus()) && item.getEndTime() != null) {
-                    eta.setText(formatDateTime(item.getEndTime()));
-                }
+    /** UI state of one download; cells bind to these properties. */
+    private static final class DownloadRow {
+        private Download download;
+        private int queuePosition;
+        private final StringProperty name = new SimpleStringProperty();
+        private final StringProperty status = new SimpleStringProperty();
+        private final DoubleProperty progress = new SimpleDoubleProperty();
+        private final StringProperty percent = new SimpleStringProperty();
+        private final StringProperty size = new SimpleStringProperty();
+        private final StringProperty detail = new SimpleStringProperty();
+        private final StringProperty phases = new SimpleStringProperty();
+        private final BooleanProperty queued = new SimpleBooleanProperty();
+        private final BooleanProperty active = new SimpleBooleanProperty();
+        private final ObjectProperty<long[]> history = new SimpleObjectProperty<>(new long[0]);
+        private DownloadTelemetry.Snapshot telemetry;
+
+        DownloadRow(Download download) {
+            update(download);
+        }
 
-                Button openBtn = new Button();
-                try {
-                    FontIcon fi = new FontIcon("mdi2f-folder-open-outline");
-                    fi.setIconSize(16);
+        void update(Download d) {
+            this.download = d;
+            name.set(d.getFileName());
+            queued.set("queued".equals(d.getStatus()));
+            active.set("downloading".equals(d.getStatus()));
+            refreshStatus();
+            if (d.getFileSize() > 0) {
+                progress.set(d.getProgress());
+                percent.set(String.format("%.0f%%", d.getProgress() * 100));
+            } else {
+                progress.set(ProgressBar.INDETERMINATE_PROGRESS);
+                percent.set("");
+            }
+            String sizeText = formatBytes(d.getDownloadedSize());
+            if (d.getFileSize() > 0) sizeText += " / " + formatBytes(d.getFileSize());
+            size.set(sizeText);
+            refreshDetail();
+        }
 
-                    openBtn.setGraphic(fi);
-                } catch (Throwable t) {
-                    Label openIcon = new Label("📁"); openIcon.getStyleClass().add("action-icon"); openBtn.setGraphic(openIcon);
-                }
-                openBtn.getStyleClass().addAll("icon-button", "open");
-                openBtn.setTooltip(new Tooltip("Open file"));
-                openBtn.setOnAction(e -> downloadController.openDownloadFile(item));
-
-                Button deleteBtn = new Button();
-                try {
-                    FontIcon di = new FontIcon("mdi2d-delete");
-                    di.setIconSize(14);
-
-                    deleteBtn.setGraphic(di);
-                } catch (Throwable t) {
-                    Label deleteIcon = new Label("✖"); deleteIcon.getStyleClass().add("action-icon"); deleteBtn.setGraphic(deleteIcon);
-                }
-                deleteBtn.getStyleClass().addAll("icon-button","delete","danger-button");
-                deleteBtn.setTooltip(new Tooltip("Delete download"));
-                deleteBtn.setOnAction(e -> { downloadController.deleteDownload(item.getId()); loadDownloads(); });
+        void updateTelemetry(DownloadTelemetry.Snapshot s) {
+            this.telemetry = s;
+            history.set(s.history());
+            phases.set(String.format("Connect %d ms \u00B7 First byte %d ms \u00B7 Network %d ms \u00B7 Disk %d ms",
+                    s.connectMillis(), s.ttfbMillis(), s.transferMillis(), s.diskMillis()));
+            refreshDetail();
+        }
 
-                HBox rightActions = new HBox(8, openBtn, deleteBtn);
-                rightActions.setAlignment(Pos.CENTER_RIGHT);
+        void setQueuePosition(int position) {
+            if (queuePosition == position) return;
+            queuePosition = position;
+            refreshStatus();
+        }
 
-                HBox progressRow = new HBox(8);
-                progressRow.setAlignment(Pos.CENTER_LEFT);
-                Region midSpacer = new Region(); HBox.setHgrow(midSpacer, Priority.ALWAYS);
-                VBox infoBox = new VBox(2, percent, sizeLabel);
-                infoBox.setAlignment(Pos.CENTER_LEFT);
+        private void refreshStatus() {
+            String s = download.getStatus();
+            status.set("queued".equals(s) && queuePosition > 0 ? "queued #" + queuePosition : s);
+        }
+
+        private void refreshDetail() {
+            if ("completed".equalsIgnoreCase(download.getStatus()) && download.getEndTime() != null) {
+                detail.set(formatDateTime(download.getEndTime()));
+            } else if (active.get()) {
+                detail.set(formatSpeed(telemetry));
+            } else {
+                detail.set("");
+            }
+        }
+    }
 
-                progressRow.getChildren().addAll(pb, infoBox, midSpacer, rightActions);
+    private class DownloadCell extends ListCell<DownloadRow> {
+        private final VBox vbox = new VBox(6);
+        private final Label fileTypeIcon = new Label();
+        private final Label name = new Label();
+        private final Label status = new Label();
+        private final ProgressBar pb = new ProgressBar();
+        private final Tooltip phasesTip = new Tooltip();
+        private final Label percent = new Label();
+        private final Label sizeLabel = new Label();
+        private final Label eta = new Label();
+        private final Canvas spark = new Canvas(DownloadTelemetry.HISTORY * 2, 18);
+        private final Button promoteBtn = new Button();
+        private final ChangeListener<long[]> historyListener = (obs, o, n) -> drawSparkline(n);
+        private DownloadRow bound;
+
+        DownloadCell() {
+            vbox.setPadding(new Insets(8));
+            HBox topRow = new HBox(8);
+            topRow.setAlignment(Pos.CENTER_LEFT);
+
+            fileTypeIcon.getStyleClass().add("file-type-icon");
+            name.getStyleClass().add("download-item-title");
+            Region spacer = new Region();
+            HBox.setHgrow(spacer, Priority.ALWAYS);
+            status.getStyleClass().add("status");
+            topRow.getChildren().addAll(fileTypeIcon, name, spacer, status);
+
+            pb.getStyleClass().addAll("download-progress","progress-bar");
+            pb.setPrefWidth(480);
+            pb.setPrefHeight(10);
+            percent.getStyleClass().add("download-dropdown-percent");
+            sizeLabel.getStyleClass().add("download-dropdown-percent");
+            eta.getStyleClass().add("download-dropdown-percent");
+
+            Button openBtn = new Button();
+            try {
+                FontIcon fi = new FontIcon("mdi2f-folder-open-outline");
+                fi.setIconSize(16);
+
+                openBtn.setGraphic(fi);
+            } catch (Throwable t) {
+                Label openIcon = new Label("📁"); openIcon.getStyleClass().add("action-icon"); openBtn.setGraphic(openIcon);
+            }
+            openBtn.getStyleClass().addAll("icon-button", "open");
+            openBtn.setTooltip(new Tooltip("Open file"));
+            openBtn.setOnAction(e -> { if (getItem() != null) downloadController.openDownloadFile(getItem().download); });
+
+            Button deleteBtn = new Button();
+            try {
+                FontIcon di = new FontIcon("mdi2d-delete");
+                di.setIconSize(14);
+
+                deleteBtn.setGraphic(di);
+            } catch (Throwable t) {
+                Label deleteIcon = new Label("✖"); deleteIcon.getStyleClass().add("action-icon"); deleteBtn.setGraphic(deleteIcon);
+            }
+            deleteBtn.getStyleClass().addAll("icon-button","delete","danger-button");
+            deleteBtn.setTooltip(new Tooltip("Delete download"));
+            deleteBtn.setOnAction(e -> { if (getItem() != null) downloadController.deleteDownload(getItem().download.getId()); });
+
+            try {
+                FontIcon pi = new FontIcon("mdi2a-arrow-up-bold");
+                pi.setIconSize(14);
+                promoteBtn.setGraphic(pi);
+            } catch (Throwable t) {
+                promoteBtn.setText("\u2191");
+            }
+            promoteBtn.getStyleClass().add("icon-button");
+            promoteBtn.setTooltip(new Tooltip("Download next"));
+            promoteBtn.setOnAction(e -> { if (getItem() != null) downloadController.promoteDownload(getItem().download.getId()); });
+            promoteBtn.managedProperty().bind(promoteBtn.visibleProperty());
+            spark.managedProperty().bind(spark.visibleProperty());
+
+            HBox rightActions = new HBox(8, promoteBtn, openBtn, deleteBtn);
+            rightActions.setAlignment(Pos.CENTER_RIGHT);
+
+            HBox progressRow = new HBox(8);
+            progressRow.setAlignment(Pos.CENTER_LEFT);
+            Region midSpacer = new Region(); HBox.setHgrow(midSpacer, Priority.ALWAYS);
+            VBox infoBox = new VBox(2, percent, sizeLabel, eta);
+            infoBox.setAlignment(Pos.CENTER_LEFT);
+
+            progressRow.getChildren().addAll(pb, infoBox, midSpacer, spark, rightActions);
+            vbox.getChildren().addAll(topRow, progressRow);
+            Tooltip.install(pb, phasesTip);
+        }
 
-                vbox.getChildren().addAll(topRow, progressRow);
+        @Override
+        protected void updateItem(DownloadRow item, boolean empty) {
+            super.updateItem(item, empty);
+            if (bound != item) {
+                unbind();
+                if (!empty && item != null) bind(item);
+            }
+            if (empty || item == null) {
+                setText(null); setGraphic(null);
+            } else {
+                fileTypeIcon.setText(getFileTypeIcon(item.download.getFileName()));
                 setGraphic(vbox); setText(null);
             }
         }
 
+        private void bind(DownloadRow row) {
+            bound = row;
+            name.textProperty().bind(row.name);
+            status.textProperty().bind(row.status);
+            pb.progressProperty().bind(row.progress);
+            percent.textProperty().bind(row.percent);
+            sizeLabel.textProperty().bind(row.size);
+            eta.textProperty().bind(row.detail);
+            phasesTip.textProperty().bind(row.phases);
+            if (scheduler != null) promoteBtn.visibleProperty().bind(row.queued); else promoteBtn.setVisible(false);
+            spark.visibleProperty().bind(row.active);
+            row.history.addListener(historyListener);
+            drawSparkline(row.history.get());
+        }
+
+        private void unbind() {
+            if (bound == null) return;
+            name.textProperty().unbind();
+            status.textProperty().unbind();
+            pb.progressProperty().unbind();
+            percent.textProperty().unbind();
+            sizeLabel.textProperty().unbind();
+            eta.textProperty().unbind();
+            phasesTip.textProperty().unbind();
+            promoteBtn.visibleProperty().unbind();
+            spark.visibleProperty().unbind();
+            bound.history.removeListener(historyListener);
+            bound = null;
+        }
+
+        private void drawSparkline(long[] history) {
+            GraphicsContext g = spark.getGraphicsContext2D();
+            g.clearRect(0, 0, spark.getWidth(), spark.getHeight());
+            if (history == null || history.length < 2) return;
+            long max = 1;
+            for (long v : history) max = Math.max(max, v);
+            g.setStroke(Color.web("#4a90d9"));
+            g.setLineWidth(1.2);
+            double h = spark.getHeight() - 2;
+            double x0 = spark.getWidth() - history.length * 2;
+            for (int i = 1; i < history.length; i++) {
+                g.strokeLine(x0 + (i - 1) * 2, 1 + h - h * history[i - 1] / max, x0 + i * 2, 1 + h - h * history[i] / max);
+            }
+        }
+
         private String getFileTypeIcon(String fileName) {
             if (fileName == null) return "📦";
             String lower = fileName.toLowerCase();
@@ -232,31 +584,19 @@ public class DownloadManagerPanel extends Stage {
         return dt.format(f);
     }
 
-    private static String estimateTimeLeft(Download item) {
-        if (item.getFileSize() <= 0) return "";
-        long downloaded = item.getDownloadedSize();
-        long total = item.getFileSize();
-        if (downloaded <= 0) return "";
-        java.time.LocalDateTime start = item.getStartTime();
-        if (start == null) return "";
-        long elapsedSecs = java.time.Duration.between(start, java.time.LocalDateTime.now()).getSeconds();
-        if (elapsedSecs <= 0) return "";
-        double speed = (double) downloaded / elapsedSecs;
-        if (speed <= 0) return "";
-        long remaining = total - downloaded;
-        if (remaining <= 0) return "";
-        long secs = (long) Math.ceil(remaining / speed);
-        if (secs < 60) return secs + "s";
+    private static String formatSpeed(DownloadTelemetry.Snapshot s) {
+        if (s == null || s.history().length == 0) return "";
+        String text = formatBytes((long) s.bytesPerSecond()) + "/s";
+        long secs = s.etaSeconds();
+        if (secs < 0) return text;
+        if (secs < 60) return text + " \u00B7 " + secs + "s left";
         long mins = secs / 60;
-        if (mins < 60) return mins + "m";
-        long hrs = mins / 60;
-        return hrs + "h";
+        if (mins < 60) return text + " \u00B7 " + mins + "m left";
+        return text + " \u00B7 " + (mins / 60) + "h " + (mins % 60) + "m left";
     }
 
-
-    @Override
-    public void close() {
-        try { refresher.shutdownNow(); } catch (Exception ignored) {}
-        super.close();
+    private void detach() {
+        if (scheduler != null && schedulerListener != null) scheduler.removeChangeListener(schedulerListener);
+        if (downloadService != null && downloadListener != null) downloadService.removeListener(downloadListener);
     }
 }
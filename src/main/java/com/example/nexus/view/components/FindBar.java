@@ -0,0 +1,146 @@
+package com.example.nexus.view.components;
+
+import javafx.beans.value.ChangeListener;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import org.kordamp.ikonli.javafx.FontIcon;
+
+/**
+ * Find-in-page bar shown above the status bar. Searches the tab it was shown for as the query
+ * is typed and shows "n of m" while the page is scanned; Enter and Shift+Enter move between
+ * matches and Escape closes the bar.
+ */
+public class FindBar extends HBox {
+
+    private final TextField queryField = new TextField();
+    private final Label countLabel = new Label();
+    private final ToggleButton matchCase = new ToggleButton();
+    private final ChangeListener<BrowserTab.FindResult> resultListener = (obs, o, n) -> showResult(n);
+    private BrowserTab tab;
+    private boolean isDarkTheme;
+
+    public FindBar() {
+        setSpacing(6);
+        setPadding(new Insets(4, 10, 4, 10));
+        setAlignment(Pos.CENTER_LEFT);
+        setVisible(false);
+        setManaged(false);
+
+        queryField.setPromptText("Find in page");
+        queryField.setPrefWidth(260);
+        queryField.textProperty().addListener((obs, o, n) -> search());
+        queryField.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ENTER) {
+                if (tab != null) tab.findNext(!e.isShiftDown());
+                e.consume();
+            } else if (e.getCode() == KeyCode.ESCAPE) {
+                close();
+                e.consume();
+            }
+        });
+
+        countLabel.setMinWidth(90);
+
+        Button previous = iconButton("mdi2c-chevron-up", "Previous match (Shift+Enter)");
+        previous.setOnAction(e -> {
+            if (tab != null) tab.findNext(false);
+        });
+        Button next = iconButton("mdi2c-chevron-down", "Next match (Enter)");
+        next.setOnAction(e -> {
+            if (tab != null) tab.findNext(true);
+        });
+
+        matchCase.setGraphic(new FontIcon("mdi2f-format-letter-case"));
+        matchCase.setTooltip(new Tooltip("Match case"));
+        matchCase.setFocusTraversable(false);
+        matchCase.setOnAction(e -> search());
+
+        Button close = iconButton("mdi2c-close", "Close (Esc)");
+        close.setOnAction(e -> close());
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        getChildren().addAll(queryField, countLabel, previous, next, matchCase, spacer, close);
+    }
+
+    public boolean isShowing() {
+        return isVisible();
+    }
+
+    /** Shows the bar for a tab and focuses the query, searching again if there is one. */
+    public void show(BrowserTab browserTab, boolean isDarkTheme) {
+        this.isDarkTheme = isDarkTheme;
+        setStyle(isDarkTheme
+                ? "-fx-background-color: #2d2d2d; -fx-border-color: #404040; -fx-border-width: 1 0 0 0;"
+                : "-fx-background-color: #f8f9fa; -fx-border-color: #e0e0e0; -fx-border-width: 1 0 0 0;");
+        if (browserTab != tab) {
+            detach();
+            tab = browserTab;
+            if (tab != null) tab.findResultProperty().addListener(resultListener);
+            search();
+        }
+        setVisible(true);
+        setManaged(true);
+        queryField.requestFocus();
+        queryField.selectAll();
+    }
+
+    /** Hides the bar and clears the highlights from the page. */
+    public void hide() {
+        detach();
+        setVisible(false);
+        setManaged(false);
+    }
+
+    /** Hides the bar and hands the focus back to the page. */
+    public void close() {
+        BrowserTab previous = tab;
+        hide();
+        if (previous != null && previous.getWebView() != null) previous.getWebView().requestFocus();
+    }
+
+    private void detach() {
+        if (tab == null) return;
+        tab.findResultProperty().removeListener(resultListener);
+        tab.stopFind();
+        tab = null;
+    }
+
+    private void search() {
+        if (tab == null) return;
+        tab.find(queryField.getText(), matchCase.isSelected());
+        showResult(tab.findResultProperty().get());
+    }
+
+    private void showResult(BrowserTab.FindResult result) {
+        String query = queryField.getText();
+        boolean noMatch = false;
+        if (query == null || query.isEmpty()) {
+            countLabel.setText("");
+        } else if (result.total() == 0) {
+            countLabel.setText(result.complete() ? "No results" : "Searching…");
+            noMatch = result.complete();
+        } else {
+            countLabel.setText(result.current() + " of " + result.total() + (result.complete() ? "" : "+"));
+        }
+        String muted = isDarkTheme ? "#b0b0b0" : "#6c757d";
+        countLabel.setStyle("-fx-font-size: 12px; -fx-text-fill: " + (noMatch ? "#dc3545" : muted) + ";");
+    }
+
+    private static Button iconButton(String literal, String tooltip) {
+        Button button = new Button();
+        button.setGraphic(new FontIcon(literal));
+        button.setTooltip(new Tooltip(tooltip));
+        button.setFocusTraversable(false);
+        return button;
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.nexus.view.components;
+
+import com.example.nexus.service.PageLoadStatsService;
+import com.example.nexus.service.PageLoadStatsService.Daily;
+import com.example.nexus.service.PageLoadStatsService.Metric;
+import com.example.nexus.service.PageLoadStatsService.Summary;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.SplitPane;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import org.kordamp.ikonli.javafx.FontIcon;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page load diagnostics: p50/p95 load timings per origin over a chosen period, and the daily
+ * trend of the selected origin. Figures are read from {@link PageLoadStatsService} off the FX
+ * thread when the window opens or the period changes.
+ */
+public class PageLoadStatsPanel extends Stage {
+    private static final String[] PERIOD_LABELS = {"Today", "Last 7 days", "Last 30 days"};
+    private static final int[] PERIOD_DAYS = {1, 7, PageLoadStatsService.RETENTION_DAYS};
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("MMM d");
+
+    private final PageLoadStatsService stats;
+    private final boolean isDarkTheme;
+    private final ObservableList<Summary> rows = FXCollections.observableArrayList();
+    private final TableView<Summary> table = new TableView<>();
+    private final ComboBox<String> period = new ComboBox<>();
+    private final LineChart<String, Number> chart = new LineChart<>(new CategoryAxis(), new NumberAxis());
+    private final Label summary = new Label();
+
+    public PageLoadStatsPanel(PageLoadStatsService stats, boolean isDarkTheme) {
+        this.stats = stats;
+        this.isDarkTheme = isDarkTheme;
+        setTitle("Page Performance");
+        initModality(Modality.NONE);
+        initStyle(StageStyle.DECORATED);
+        setMinWidth(700);
+        setMinHeight(460);
+        setWidth(960);
+        setHeight(620);
+        initializeUI();
+        reload();
+    }
+
+    private void initializeUI() {
+        BorderPane root = new BorderPane();
+        root.getStyleClass().add("download-panel");
+
+        Label title = new Label("Page Performance");
+        title.getStyleClass().addAll("download-title", "modern-title");
+
+        period.getItems().addAll(PERIOD_LABELS);
+        period.getSelectionModel().select(1);
+        period.setOnAction(e -> reload());
+
+        Button refresh = new Button("Refresh");
+        refresh.setGraphic(icon("mdi2r-refresh"));
+        refresh.getStyleClass().addAll("action-button", "secondary-button");
+        refresh.setOnAction(e -> reload());
+
+        Button clear = new Button("Clear");
+        clear.setGraphic(icon("mdi2d-delete-outline"));
+        clear.getStyleClass().addAll("action-button", "secondary-button");
+        clear.setOnAction(e -> stats.clear().thenRun(() -> Platform.runLater(this::reload)));
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox header = new HBox(10, title, spacer, period, refresh, clear);
+        header.setAlignment(Pos.CENTER_LEFT);
+        header.setPadding(new Insets(16));
+        root.setTop(header);
+
+        TableColumn<Summary, String> originColumn = new TableColumn<>("Origin");
+        originColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().origin()));
+        originColumn.setPrefWidth(220);
+
+        TableColumn<Summary, Long> loadsColumn = numberColumn("Loads", Summary::loads, String::valueOf);
+        loadsColumn.setSortType(TableColumn.SortType.DESCENDING);
+
+        table.getColumns().add(originColumn);
+        table.getColumns().add(loadsColumn);
+        for (Metric m : List.of(Metric.TTFB, Metric.DOM_CONTENT_LOADED, Metric.LOAD)) {
+            table.getColumns().add(numberColumn(m.label() + " p50", s -> s.p50(m), PageLoadStatsPanel::formatMillis));
+            table.getColumns().add(numberColumn(m.label() + " p95", s -> s.p95(m), PageLoadStatsPanel::formatMillis));
+        }
+        table.getColumns().add(numberColumn("Resources p50", s -> s.p50(Metric.RESOURCES), String::valueOf));
+        table.getColumns().add(numberColumn("Bytes p50", s -> s.p50(Metric.RESOURCE_BYTES), PageLoadStatsPanel::formatBytes));
+        table.getColumns().add(trendColumn());
+
+        SortedList<Summary> sorted = new SortedList<>(rows);
+        sorted.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sorted);
+        table.getSortOrder().add(loadsColumn);
+        table.setPlaceholder(new Label("No page loads recorded yet"));
+        table.getSelectionModel().selectedItemProperty().addListener((obs, o, n) -> showTrend(n));
+
+        chart.setAnimated(false);
+        chart.setCreateSymbols(true);
+        chart.getYAxis().setLabel("ms");
+        chart.setTitle("Daily load time");
+        chart.setMinHeight(180);
+
+        SplitPane split = new SplitPane(table, chart);
+        split.setOrientation(javafx.geometry.Orientation.VERTICAL);
+        split.setDividerPositions(0.6);
+        root.setCenter(split);
+
+        summary.setStyle("-fx-font-size: 12px; -fx-text-fill: " + (isDarkTheme ? "#b0b0b0" : "#6c757d") + ";");
+        HBox footer = new HBox(summary);
+        footer.setPadding(new Insets(12));
+        root.setBottom(footer);
+
+        Scene scene = new Scene(root);
+        String cssPath = isDarkTheme ? "/com/example/nexus/css/dark.css" : "/com/example/nexus/css/main.css";
+        var res = getClass().getResource(cssPath);
+        if (res != null) scene.getStylesheets().add(res.toExternalForm());
+        scene.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ESCAPE) close();
+        });
+        setScene(scene);
+    }
+
+    private void reload() {
+        int days = PERIOD_DAYS[Math.max(0, period.getSelectionModel().getSelectedIndex())];
+        String selected = table.getSelectionModel().getSelectedItem() != null
+                ? table.getSelectionModel().getSelectedItem().origin() : null;
+        summary.setText("Loading…");
+        stats.summarize(days).thenAccept(list -> Platform.runLater(() -> {
+            rows.setAll(list);
+            long loads = list.stream().mapToLong(Summary::loads).sum();
+            summary.setText(loads + " page loads on " + list.size() + (list.size() == 1 ? " origin" : " origins")
+                    + " · trend compares the median load of the last 7 days with the 7 before");
+            for (Summary s : table.getItems()) {
+                if (s.origin().equals(selected)) {
+                    table.getSelectionModel().select(s);
+                    return;
+                }
+            }
+            if (!table.getItems().isEmpty()) table.getSelectionModel().selectFirst();
+            else chart.getData().clear();
+        }));
+    }
+
+    private void showTrend(Summary s) {
+        chart.getData().clear();
+        if (s == null) return;
+        chart.setTitle("Daily load time · " + s.origin());
+        stats.daily(s.origin(), PageLoadStatsService.RETENTION_DAYS).thenAccept(days -> Platform.runLater(() -> {
+            Summary current = table.getSelectionModel().getSelectedItem();
+            if (current == null || !current.origin().equals(s.origin())) return;
+            chart.getData().setAll(List.of(
+                    series("Load p50", days, d -> d.p50(Metric.LOAD)),
+                    series("Load p95", days, d -> d.p95(Metric.LOAD)),
+                    series("TTFB p50", days, d -> d.p50(Metric.TTFB))));
+        }));
+    }
+
+    private static XYChart.Series<String, Number> series(String name, List<Daily> days, Function<Daily, Long> value) {
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        series.setName(name);
+        for (Daily d : days) {
+            long v = value.apply(d);
+            if (v >= 0) series.getData().add(new XYChart.Data<>(d.day().format(DAY_FORMAT), v));
+        }
+        return series;
+    }
+
+    private static TableColumn<Summary, Long> numberColumn(String title, Function<Summary, Long> value,
+                                                           Function<Long, String> format) {
+        TableColumn<Summary, Long> column = new TableColumn<>(title);
+        column.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(value.apply(c.getValue())));
+        column.setCellFactory(c -> new TableCell<>() {
+            @Override
+            protected void updateItem(Long item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item < 0 ? "–" : format.apply(item));
+            }
+        });
+        column.setStyle("-fx-alignment: CENTER-RIGHT;");
+        column.setPrefWidth(90);
+        return column;
+    }
+
+    private static TableColumn<Summary, Double> trendColumn() {
+        TableColumn<Summary, Double> column = new TableColumn<>("Trend");
+        column.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().loadTrend()));
+        column.setCellFactory(c -> new TableCell<>() {
+            @Override
+            protected void updateItem(Double item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty || item == null || item.isNaN()) {
+                    setText(empty ? null : "–");
+                    setStyle("-fx-alignment: CENTER-RIGHT;");
+                    return;
+                }
+                long percent = Math.round(item * 100);
+                setText((percent > 0 ? "+" : "") + percent + "%");
+                // Slower is worse; changes within 5% are noise.
+                String color = percent > 5 ? "#dc3545" : percent < -5 ? "#28a745" : "#6c757d";
+                setStyle("-fx-alignment: CENTER-RIGHT; -fx-text-fill: " + color + ";");
+            }
+        });
+        column.setPrefWidth(70);
+        return column;
+    }
+
+    private static FontIcon icon(String literal) {
+        FontIcon icon = new FontIcon(literal);
+        icon.setIconSize(14);
+        return icon;
+    }
+
+    private static String formatMillis(long ms) {
+        return ms < 1000 ? ms + " ms" : String.format("%.2f s", ms / 1000.0);
+    }
+
+    private static String formatBytes(long b) {
+        if (b <= 0) return "0 B";
+        final String[] units = {"B", "KB", "MB", "GB", "TB"};
+        int u = 0; double val = b;
+        while (val >= 1024 && u < units.length -1) { val /= 1024; u++; }
+        return String.format("%.1f %s", val, units[u]);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.nexus.view.components;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.web.WebEngine;
+import netscape.javascript.JSException;
+import netscape.javascript.JSObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Helper script installed once in each document of a {@link WebEngine}, so that tab features
+ * send short commands instead of building and parsing a script per call. Commands posted
+ * during a pulse go to the page together in one call; results come back through an upcall
+ * to a Java object. Must be used on the FX thread.
+ * <p>
+ * The bridge and the command entry point are handed over as a call argument and a return
+ * value, never through a global, so page scripts can neither reach the bridge nor run
+ * commands or fake their results. The page still supplies the DOM and built-ins the
+ * commands read, and a page can keep the runtime out of its own window by defining
+ * {@code window.__nexus} before it installs.
+ */
+public final class PageRuntime {
+    private static final Logger logger = LoggerFactory.getLogger(PageRuntime.class);
+
+    /** Bump when page-runtime.js changes, so documents holding an older copy reinstall it. */
+    static final int VERSION = 5;
+    /** Most arguments a command takes; page-runtime.js passes no more. */
+    private static final int MAX_ARGS = 2;
+    private static final String SOURCE = loadSource();
+
+    public record Stats(long bridgeCalls, long commands, long installs, long upcalls) {
+        public double commandsPerCall() {
+            return bridgeCalls == 0 ? 0 : (double) commands / bridgeCalls;
+        }
+    }
+
+    private static long bridgeCalls;
+    private static long commandCount;
+    private static long installs;
+    private static long upcalls;
+
+    private record Command(int id, Object[] values) {}
+
+    /** Receives upcalls from the page. Public, with public methods, for the JavaScript bridge. */
+    public final class Bridge {
+        // Handler errors stay on the Java side; thrown into the page they would abort the batch.
+        public void deliver(int id, Object value) {
+            upcalls++;
+            Consumer<Object> callback = callbacks.remove(id);
+            try {
+                if (callback != null) callback.accept(value);
+            } catch (RuntimeException e) {
+                logger.warn("Page runtime callback failed", e);
+            }
+        }
+
+        public void emit(String type, Object data) {
+            upcalls++;
+            try {
+                if (eventHandler != null && type != null) eventHandler.accept(type, data);
+            } catch (RuntimeException e) {
+                logger.warn("Page runtime event handler failed for {}", type, e);
+            }
+        }
+    }
+
+    private final WebEngine engine;
+    private final Bridge bridge = new Bridge();
+    private final List<Command> queue = new ArrayList<>();
+    private final Map<Integer, Consumer<Object>> callbacks = new HashMap<>();
+    /** The runtime's entry point in the current window; only this object holds it. */
+    private JSObject handle;
+    private BiConsumer<String, Object> eventHandler;
+    private int nextId = 1;
+    private boolean closed;
+
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            flush();
+        }
+    };
+
+    public PageRuntime(WebEngine engine) {
+        this.engine = engine;
+    }
+
+    /** Handles events the page sends on its own, outside of a command. */
+    public void setEventHandler(BiConsumer<String, Object> eventHandler) {
+        this.eventHandler = eventHandler;
+    }
+
+    /** Queues a command whose result does not matter. */
+    public void post(String command, Object... args) {
+        enqueue(0, command, args);
+    }
+
+    /** Queues a command; {@code onResult} gets its result, or null if the page could not run it. */
+    public void call(Consumer<Object> onResult, String command, Object... args) {
+        int id = nextId++;
+        callbacks.put(id, onResult);
+        enqueue(id, command, args);
+    }
+
+    /** Runs a command now, together with anything queued, and returns its result. */
+    public Object callNow(String command, Object... args) {
+        Object[] result = new Object[1];
+        call(value -> result[0] = value, command, args);
+        pulse.stop();
+        flush();
+        return result[0];
+    }
+
+    /** Drops queued commands and answers their callbacks with null. */
+    public void close() {
+        closed = true;
+        handle = null;
+        pulse.stop();
+        queue.clear();
+        List<Consumer<Object>> pending = new ArrayList<>(callbacks.values());
+        callbacks.clear();
+        for (Consumer<Object> callback : pending) callback.accept(null);
+    }
+
+    public static Stats stats() {
+        return new Stats(bridgeCalls, commandCount, installs, upcalls);
+    }
+
+    /** Counts a script call made outside the runtime. */
+    static void countBridgeCall() {
+        bridgeCalls++;
+    }
+
+    private void enqueue(int id, String command, Object... args) {
+        if (closed) {
+            Consumer<Object> callback = callbacks.remove(id);
+            if (callback != null) callback.accept(null);
+            return;
+        }
+        if (args.length > MAX_ARGS) {
+            callbacks.remove(id);
+            throw new IllegalArgumentException("Too many arguments for " + command);
+        }
+        Object[] values = new Object[3 + args.length];
+        values[0] = id;
+        values[1] = command;
+        values[2] = args.length;
+        for (int i = 0; i < args.length; i++) values[3 + i] = toScriptValue(args[i]);
+        queue.add(new Command(id, values));
+        if (queue.size() == 1) pulse.start();
+    }
+
+    private void flush() {
+        if (queue.isEmpty()) return;
+        List<Command> batch = new ArrayList<>(queue);
+        queue.clear();
+        commandCount += batch.size();
+
+        List<Object> args = new ArrayList<>();
+        for (Command c : batch) args.addAll(List.of(c.values()));
+        Object[] flat = args.toArray();
+
+        try {
+            // run() answers false once the window holds a different document.
+            if (!run(flat)) {
+                install();
+                run(flat);
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Page runtime batch failed: {}", e.getMessage());
+        }
+        // Commands the page never answered, e.g. because it was navigating away.
+        for (Command c : batch) {
+            Consumer<Object> callback = callbacks.remove(c.id());
+            if (callback != null) callback.accept(null);
+        }
+    }
+
+    private boolean run(Object[] flat) {
+        if (handle == null) return false;
+        bridgeCalls++;
+        try {
+            return Boolean.TRUE.equals(handle.call("run", flat));
+        } catch (JSException e) {
+            // The window it was installed in is gone.
+            handle = null;
+            return false;
+        }
+    }
+
+    private void install() {
+        if (SOURCE == null) throw new IllegalStateException("page runtime script is missing");
+        bridgeCalls++;
+        JSObject runtime = (JSObject) engine.executeScript(SOURCE);
+        bridgeCalls++;
+        Object entry = runtime.call("install", bridge);
+        handle = entry instanceof JSObject js ? js : null;
+        installs++;
+        if (handle == null) logger.debug("Page runtime could not install: the page holds window.__nexus");
+    }
+
+    /** Strings, booleans and finite numbers cross as themselves; anything else as its string form. */
+    private static Object toScriptValue(Object value) {
+        if (value == null || value instanceof Boolean || value instanceof String || value instanceof Integer) {
+            return value;
+        }
+        if (value instanceof Number n) {
+            double d = n.doubleValue();
+            return Double.isFinite(d) ? d : null;
+        }
+        return value.toString();
+    }
+
+    private static String loadSource() {
+        try (InputStream in = PageRuntime.class.getResourceAsStream("/com/example/nexus/js/page-runtime.js")) {
+            if (in == null) {
+                logger.error("Page runtime script not found");
+                return null;
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("__VERSION__", String.valueOf(VERSION));
+        } catch (IOException e) {
+            logger.error("Could not read page runtime script", e);
+            return null;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.example.nexus.view.components;
 import com.example.nexus.model.Settings;
 import com.example.nexus.service.SettingsService;
 import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.beans.value.ObservableIntegerValue;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
@@ -19,6 +21,7 @@ public class StatusBarComponent extends HBox {
     private Label urlLabel;
     private Label statusLabel;
     private Label zoomLabel;
+    private Label blockedLabel;
 
     public StatusBarComponent(SettingsService settingsService) {
         this.settingsService = settingsService;
@@ -39,7 +42,12 @@ public class StatusBarComponent extends HBox {
         zoomLabel = new Label("100%");
         zoomLabel.setStyle("-fx-text-fill: #666666; -fx-font-size: 11px;");
 
-        getChildren().addAll(urlLabel, statusLabel, zoomLabel);
+        blockedLabel = new Label();
+        blockedLabel.setStyle("-fx-text-fill: #666666; -fx-font-size: 11px;");
+        blockedLabel.visibleProperty().bind(blockedLabel.textProperty().isNotEmpty());
+        blockedLabel.managedProperty().bind(blockedLabel.visibleProperty());
+
+        getChildren().addAll(urlLabel, statusLabel, blockedLabel, zoomLabel);
 
         com.example.nexus.util.UISettingsBinder.bindVisibility(this, settingsService, () -> settingsService.isShowStatusBar());
 
@@ -75,6 +83,17 @@ public class StatusBarComponent extends HBox {
         }
     }
 
+    /** Follows the blocked-request count of the selected tab; null clears it. */
+    public void showBlockedCount(ObservableIntegerValue count) {
+        blockedLabel.textProperty().unbind();
+        if (count == null) {
+            blockedLabel.setText("");
+            return;
+        }
+        blockedLabel.textProperty().bind(Bindings.createStringBinding(
+                () -> count.get() == 0 ? "" : count.get() + " blocked", count));
+    }
+
     public void setZoom(int zoomPercent) {
         zoomLabel.setText(zoomPercent + "%");
     }
@@ -0,0 +1,108 @@
+package com.example.nexus.view.components;
+
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.OverrunStyle;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import org.kordamp.ikonli.javafx.FontIcon;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Grid of every open tab, laid over the page area. Thumbnails come from the cache, so opening
+ * the overview renders no pages. Clicking a card picks its tab; Escape or a click on the
+ * background closes the overview.
+ */
+public class TabOverview extends StackPane {
+
+    private static final double CARD_WIDTH = 240;
+    private static final double IMAGE_HEIGHT = 150;
+
+    public record Item(Object key, String title, String url, Image thumbnail, boolean selected) {}
+
+    public TabOverview(List<Item> items, boolean dark, Consumer<Object> onPick, Runnable onClose) {
+        String cardBg = dark ? "#2d2d2d" : "white";
+        String border = dark ? "#404040" : "#dee2e6";
+        String titleColor = dark ? "#e0e0e0" : "#212529";
+        String urlColor = dark ? "#909090" : "#6c757d";
+        String imageBg = dark ? "#1e1e1e" : "#f8f9fa";
+
+        setStyle("-fx-background-color: " + (dark ? "rgba(18, 18, 18, 0.92)" : "rgba(241, 243, 245, 0.95)") + ";");
+        setFocusTraversable(true);
+
+        FlowPane grid = new FlowPane(16, 16);
+        grid.setPadding(new Insets(24));
+        grid.setAlignment(Pos.TOP_CENTER);
+
+        for (Item item : items) {
+            ImageView imageView = new ImageView(item.thumbnail());
+            imageView.setFitWidth(CARD_WIDTH - 16);
+            imageView.setFitHeight(IMAGE_HEIGHT);
+            imageView.setPreserveRatio(true);
+            imageView.setSmooth(true);
+
+            StackPane imageBox = new StackPane(imageView);
+            imageBox.setPrefSize(CARD_WIDTH - 16, IMAGE_HEIGHT);
+            imageBox.setMinSize(CARD_WIDTH - 16, IMAGE_HEIGHT);
+            imageBox.setStyle("-fx-background-color: " + imageBg + "; -fx-background-radius: 4;");
+            if (item.thumbnail() == null) {
+                FontIcon icon = new FontIcon("mdi2w-web");
+                icon.setIconSize(36);
+                icon.setIconColor(Color.web(urlColor));
+                imageBox.getChildren().add(icon);
+            }
+
+            Label title = new Label(item.title());
+            title.setMaxWidth(CARD_WIDTH - 16);
+            title.setTextOverrun(OverrunStyle.ELLIPSIS);
+            title.setStyle("-fx-font-size: 12px; -fx-font-weight: 600; -fx-text-fill: " + titleColor + ";");
+
+            Label url = new Label(item.url());
+            url.setMaxWidth(CARD_WIDTH - 16);
+            url.setTextOverrun(OverrunStyle.ELLIPSIS);
+            url.setStyle("-fx-font-size: 11px; -fx-text-fill: " + urlColor + ";");
+
+            VBox card = new VBox(6, imageBox, title, url);
+            card.setPadding(new Insets(8));
+            card.setPrefWidth(CARD_WIDTH);
+            card.setMaxWidth(CARD_WIDTH);
+            String cardBorder = item.selected() ? "#4285f4" : border;
+            String style = "-fx-background-color: " + cardBg + "; -fx-background-radius: 8;" +
+                    "-fx-border-color: " + cardBorder + "; -fx-border-radius: 8; -fx-border-width: " + (item.selected() ? 2 : 1) + ";" +
+                    "-fx-cursor: hand;";
+            card.setStyle(style);
+            card.setOnMouseEntered(e -> card.setStyle(style + "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.18), 10, 0, 0, 2);"));
+            card.setOnMouseExited(e -> card.setStyle(style));
+            card.setOnMouseClicked(e -> {
+                e.consume();
+                onPick.accept(item.key());
+            });
+
+            grid.getChildren().add(card);
+        }
+
+        ScrollPane scroll = new ScrollPane(grid);
+        scroll.setFitToWidth(true);
+        scroll.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
+        scroll.setStyle("-fx-background-color: transparent; -fx-background: transparent;");
+        grid.setOnMouseClicked(e -> onClose.run());
+
+        getChildren().add(scroll);
+
+        setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ESCAPE) {
+                e.consume();
+                onClose.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.nexus.view.components;
+
+import com.example.nexus.controller.TaskManagerController;
+import com.example.nexus.controller.TaskManagerController.Sample;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import org.kordamp.ikonli.javafx.FontIcon;
+
+import java.util.function.Function;
+
+/**
+ * Task manager window: one row per tab with the figures of the latest sampling pass. Columns
+ * sort on click, defaulting to estimated native memory; rows are replaced per pass and the
+ * selection follows its tab.
+ */
+public class TaskManagerPanel extends Stage {
+    private final TaskManagerController controller;
+    private final boolean isDarkTheme;
+    private final ObservableList<Sample> rows = FXCollections.observableArrayList();
+    private final TableView<Sample> table = new TableView<>();
+    private final Label summary = new Label("Sampling…");
+    private final Button hibernateButton = new Button("Hibernate");
+    private final Button endButton = new Button("End tab");
+
+    public TaskManagerPanel(TaskManagerController controller, boolean isDarkTheme) {
+        this.controller = controller;
+        this.isDarkTheme = isDarkTheme;
+        setTitle("Task Manager");
+        initModality(Modality.NONE);
+        initStyle(StageStyle.DECORATED);
+        setMinWidth(640);
+        setMinHeight(320);
+        setWidth(860);
+        setHeight(440);
+        initializeUI();
+    }
+
+    private void initializeUI() {
+        BorderPane root = new BorderPane();
+        root.getStyleClass().add("download-panel");
+
+        TableColumn<Sample, String> tabColumn = new TableColumn<>("Tab");
+        tabColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().title()));
+        tabColumn.setPrefWidth(260);
+
+        TableColumn<Sample, String> stateColumn = new TableColumn<>("State");
+        stateColumn.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(stateOf(c.getValue())));
+        stateColumn.setPrefWidth(80);
+
+        TableColumn<Sample, Long> nativeColumn = numberColumn("Memory (est.)", Sample::nativeBytes, TaskManagerPanel::formatBytes);
+        nativeColumn.setSortType(TableColumn.SortType.DESCENDING);
+
+        table.getColumns().add(tabColumn);
+        table.getColumns().add(stateColumn);
+        table.getColumns().add(nativeColumn);
+        table.getColumns().add(numberColumn("JS heap", Sample::jsHeapUsed, TaskManagerPanel::formatBytes));
+        table.getColumns().add(numberColumn("DOM nodes", Sample::domNodes, String::valueOf));
+        table.getColumns().add(numberColumn("Load", Sample::loadMillis, v -> v + " ms"));
+        table.getColumns().add(numberColumn("Network", Sample::networkBytes, TaskManagerPanel::formatBytes));
+        table.getColumns().add(numberColumn("Requests", Sample::resources, String::valueOf));
+
+        SortedList<Sample> sorted = new SortedList<>(rows);
+        sorted.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sorted);
+        table.getSortOrder().add(nativeColumn);
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        table.setPlaceholder(new Label("No tabs"));
+        table.getSelectionModel().selectedItemProperty().addListener((obs, o, n) -> updateButtons(n));
+        table.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.DELETE) endSelected();
+        });
+        root.setCenter(table);
+
+        hibernateButton.setGraphic(icon("mdi2s-sleep"));
+        hibernateButton.getStyleClass().addAll("action-button", "secondary-button");
+        hibernateButton.setOnAction(e -> {
+            Sample s = table.getSelectionModel().getSelectedItem();
+            if (s != null) controller.hibernateTab(s.tab());
+        });
+        endButton.setGraphic(icon("mdi2c-close-circle-outline"));
+        endButton.getStyleClass().addAll("action-button", "secondary-button");
+        endButton.setOnAction(e -> endSelected());
+        updateButtons(null);
+
+        summary.setStyle("-fx-font-size: 12px; -fx-text-fill: " + (isDarkTheme ? "#b0b0b0" : "#6c757d") + ";");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox footer = new HBox(10, summary, spacer, hibernateButton, endButton);
+        footer.setAlignment(Pos.CENTER_LEFT);
+        footer.setPadding(new Insets(12));
+        root.setBottom(footer);
+
+        Scene scene = new Scene(root);
+        String cssPath = isDarkTheme ? "/com/example/nexus/css/dark.css" : "/com/example/nexus/css/main.css";
+        var res = getClass().getResource(cssPath);
+        if (res != null) scene.getStylesheets().add(res.toExternalForm());
+        scene.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ESCAPE) close();
+        });
+        setScene(scene);
+    }
+
+    /** Shows a completed sampling pass. */
+    public void update(TaskManagerController.Pass pass) {
+        Sample previous = table.getSelectionModel().getSelectedItem();
+        rows.setAll(pass.samples());
+        if (previous != null) {
+            for (Sample s : table.getItems()) {
+                if (s.tab() == previous.tab()) {
+                    table.getSelectionModel().select(s);
+                    break;
+                }
+            }
+        }
+        updateButtons(table.getSelectionModel().getSelectedItem());
+
+        StringBuilder text = new StringBuilder();
+        text.append(pass.samples().size()).append(pass.samples().size() == 1 ? " tab" : " tabs");
+        if (pass.processNativeBytes() >= 0) text.append(" · native ").append(formatBytes(pass.processNativeBytes()));
+        text.append(" · Java heap ").append(formatBytes(pass.javaHeapUsed()));
+        text.append(String.format(" · sampled in %.1f ms over %d frames", pass.sampleMillis(), pass.pulses()));
+        summary.setText(text.toString());
+    }
+
+    private void endSelected() {
+        Sample s = table.getSelectionModel().getSelectedItem();
+        if (s != null) controller.closeTab(s.tab());
+    }
+
+    private void updateButtons(Sample s) {
+        hibernateButton.setDisable(s == null || s.hibernated() || s.selected());
+        endButton.setDisable(s == null);
+    }
+
+    private static TableColumn<Sample, Long> numberColumn(String title, Function<Sample, Long> value,
+                                                          Function<Long, String> format) {
+        TableColumn<Sample, Long> column = new TableColumn<>(title);
+        column.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(value.apply(c.getValue())));
+        column.setCellFactory(c -> new TableCell<>() {
+            @Override
+            protected void updateItem(Long item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item < 0 ? "–" : format.apply(item));
+            }
+        });
+        column.setStyle("-fx-alignment: CENTER-RIGHT;");
+        column.setPrefWidth(90);
+        return column;
+    }
+
+    private static String stateOf(Sample s) {
+        if (s.hibernated()) return "Sleeping";
+        return s.selected() ? "Active" : "Running";
+    }
+
+    private static FontIcon icon(String literal) {
+        FontIcon icon = new FontIcon(literal);
+        icon.setIconSize(14);
+        return icon;
+    }
+
+    private static String formatBytes(long b) {
+        if (b <= 0) return "0 B";
+        final String[] units = {"B", "KB", "MB", "GB", "TB"};
+        int u = 0; double val = b;
+        while (val >= 1024 && u < units.length -1) { val /= 1024; u++; }
+        return String.format("%.1f %s", val, units[u]);
+    }
+}
@@ -1087,7 +1087,9 @@ public class SettingsPanel extends BorderPane {
             createToggleRow("Block pop-up windows", "Prevent websites from opening pop-ups",
                 "mdi2c-card-off-outline", settingsService.isBlockPopups(), settingsService::setBlockPopups),
             createToggleRow("Send \"Do Not Track\" request", "Ask websites not to track your activity",
-                "mdi2e-eye-off-outline", settingsService.isDoNotTrack(), settingsService::setDoNotTrack)
+                "mdi2e-eye-off-outline", settingsService.isDoNotTrack(), settingsService::setDoNotTrack),
+            createToggleRow("Block ads and trackers", "Stop requests to known ad and tracker servers",
+                "mdi2s-shield-check-outline", settingsService.isBlockTrackers(), settingsService::setBlockTrackers)
         );
         contentArea.getChildren().add(securityCard);
 
@@ -1151,10 +1153,44 @@ public class SettingsPanel extends BorderPane {
             createToggleRow("Hardware acceleration", "Use GPU when available for better performance",
                 "mdi2c-chip", settingsService.isHardwareAcceleration(), settingsService::setHardwareAcceleration),
             createToggleRow("Smooth scrolling", "Enable smooth scrolling animations",
-                "mdi2a-arrow-up-down", settingsService.isSmoothScrolling(), settingsService::setSmoothScrolling)
+                "mdi2a-arrow-up-down", settingsService.isSmoothScrolling(), settingsService::setSmoothScrolling),
+            createToggleRow("Preload restored tabs", "Load the tabs next to the active one in the background after restoring a session",
+                "mdi2t-tab-unselected", settingsService.isPreloadPages(), settingsService::setPreloadPages)
         );
         contentArea.getChildren().add(speedCard);
 
+        VBox memoryCard = createSettingsCard("Memory", "mdi2m-memory");
+
+        HBox sleepSliderBox = new HBox(12);
+        sleepSliderBox.setAlignment(Pos.CENTER_LEFT);
+        sleepSliderBox.setPadding(new Insets(12, 0, 0, 0));
+        sleepSliderBox.setMaxWidth(Double.MAX_VALUE);
+        sleepSliderBox.setDisable(settingsService.getTabSleepMinutes() == 0);
+
+        Label sleepValue = new Label(settingsService.getTabSleepMinutes() + " min");
+        sleepValue.setStyle("-fx-font-size: 13px; -fx-font-weight: 600; -fx-text-fill: " + PRIMARY_COLOR + "; -fx-min-width: 60;");
+
+        int initialMinutes = settingsService.getTabSleepMinutes() > 0 ? settingsService.getTabSleepMinutes() : 30;
+        StackPane sleepSlider = createModernSlider(5, 120, initialMinutes, (value) -> {
+            if (value.intValue() != settingsService.getTabSleepMinutes()) {
+                settingsService.setTabSleepMinutes(value.intValue());
+            }
+            sleepValue.setText(value.intValue() + " min");
+        });
+        HBox.setHgrow(sleepSlider, Priority.ALWAYS);
+        sleepSliderBox.getChildren().addAll(sleepSlider, sleepValue);
+
+        memoryCard.getChildren().addAll(
+            createToggleRow("Sleep inactive tabs", "Free the memory of background tabs you have not used for a while",
+                "mdi2s-sleep", settingsService.getTabSleepMinutes() > 0, enabled -> {
+                    Slider slider = (Slider) sleepSlider.getChildren().get(3);
+                    settingsService.setTabSleepMinutes(enabled ? (int) slider.getValue() : 0);
+                    sleepSliderBox.setDisable(!enabled);
+                }),
+            sleepSliderBox
+        );
+        contentArea.getChildren().add(memoryCard);
+
         VBox infoBox = new VBox(8);
         infoBox.setStyle(
             "-fx-background-color: #fef3c7;" +
@@ -5,6 +5,7 @@ module com.example.nexus {
     requires javafx.web;
     requires javafx.media;
 
+    requires java.net.http;
     requires java.sql;
     requires java.desktop;
     requires jdk.jsobject;
@@ -30,4 +31,6 @@ module com.example.nexus {
     exports com.example.nexus.service;
     exports com.example.nexus.repository;
     exports com.example.nexus.exception;
+    // The page runtime calls back into PageRuntime.Bridge.
+    exports com.example.nexus.view.components to javafx.web;
 }
@@ -36,6 +36,7 @@ CREATE TABLE IF NOT EXISTS settings (
     clear_cache_on_exit BOOLEAN DEFAULT 0,
     block_popups BOOLEAN DEFAULT 1,
     do_not_track BOOLEAN DEFAULT 1,
+    block_trackers BOOLEAN DEFAULT 1,
     block_third_party_cookies BOOLEAN DEFAULT 0,
     https_only_mode BOOLEAN DEFAULT 0,
     save_browsing_history BOOLEAN DEFAULT 1,
@@ -52,6 +53,7 @@ CREATE TABLE IF NOT EXISTS settings (
     preload_pages BOOLEAN DEFAULT 1,
     lazy_load_images BOOLEAN DEFAULT 1,
     max_tabs_in_memory INTEGER DEFAULT 0,
+    tab_sleep_minutes INTEGER DEFAULT 30,
     -- Accessibility
     high_contrast BOOLEAN DEFAULT 0,
     reduce_motion BOOLEAN DEFAULT 0,
@@ -126,6 +128,9 @@ CREATE TABLE IF NOT EXISTS downloads (
     file_size INTEGER DEFAULT 0,
     downloaded_size INTEGER DEFAULT 0,
     status TEXT DEFAULT 'pending',
+    priority INTEGER DEFAULT 0,
+    checksum TEXT,
+    expected_checksum TEXT,
     start_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     end_time TIMESTAMP,
     FOREIGN KEY (profile_id) REFERENCES profile (id) ON DELETE CASCADE
@@ -146,6 +151,36 @@ CREATE TABLE IF NOT EXISTS tabs (
     FOREIGN KEY (profile_id) REFERENCES profile (id) ON DELETE CASCADE
 );
 
+-- Cookies table - persistent cookies per profile, looked up by registrable domain (site)
+CREATE TABLE IF NOT EXISTS cookies (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    profile_id INTEGER NOT NULL DEFAULT 1,
+    site TEXT NOT NULL,
+    domain TEXT NOT NULL,
+    path TEXT NOT NULL,
+    name TEXT NOT NULL,
+    value TEXT,
+    expires_at INTEGER NOT NULL,
+    secure BOOLEAN DEFAULT 0,
+    http_only BOOLEAN DEFAULT 0,
+    UNIQUE (profile_id, domain, path, name),
+    FOREIGN KEY (profile_id) REFERENCES profile (id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_cookies_profile_site ON cookies (profile_id, site);
+
+-- Page load performance - timing histograms of one origin over one day
+CREATE TABLE IF NOT EXISTS page_load_stats (
+    id INTEGER PRIMARY KEY AUTOINCREMENT,
+    origin TEXT NOT NULL,
+    day INTEGER NOT NULL,
+    loads INTEGER NOT NULL DEFAULT 0,
+    histograms BLOB NOT NULL,
+    UNIQUE (origin, day)
+);
+
+CREATE INDEX IF NOT EXISTS idx_page_load_stats_day ON page_load_stats (day);
+
 -- Profile table
 CREATE TABLE IF NOT EXISTS profile (
     id INTEGER PRIMARY KEY AUTOINCREMENT,
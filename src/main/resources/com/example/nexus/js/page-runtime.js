@@ -0,0 +1,239 @@
+/*
+ * Nexus page runtime, installed once per window by PageRuntime. The script evaluates to an
+ * object only PageRuntime holds: its install() takes the bridge and returns the command entry
+ * point, so neither is reachable through a global. Commands arrive flattened as id, name,
+ * argument count, arguments...; the result of every command with an id above zero is handed
+ * back through the bridge. __VERSION__ is filled in when the script is loaded.
+ */
+(function () {
+    var bridge = null;
+    // Tells run() whether it still belongs to the window's current document.
+    var marker = Object.freeze({v: __VERSION__});
+
+    function emit(type, data) {
+        bridge.emit(type, data === undefined ? null : data);
+    }
+
+    // Find in page. Text nodes are scanned in time slices, so a huge document never blocks the
+    // page, and matches are wrapped in <mark> elements as they are found. Progress goes back as
+    // a 'find' event of "current,total,done"; a new query cancels the scan in flight.
+    var FIND_CLASS = '__nexus-find', FIND_CURRENT = '__nexus-find-current', SLICE_MILLIS = 8;
+    var SKIPPED = {SCRIPT: true, STYLE: true, NOSCRIPT: true, TEMPLATE: true, TEXTAREA: true};
+    var finder = {token: 0, marks: [], splits: [], current: -1, done: true};
+
+    var nextSlice = window.requestIdleCallback
+        ? function (fn) { window.requestIdleCallback(fn, {timeout: 50}); }
+        : function (fn) { window.setTimeout(fn, 0); };
+
+    function reportFind() {
+        emit('find', (finder.current + 1) + ',' + finder.marks.length + ',' + (finder.done ? 1 : 0));
+    }
+
+    function ensureFindStyle() {
+        if (document.getElementById(FIND_CLASS)) return;
+        var style = document.createElement('style');
+        style.id = FIND_CLASS;
+        style.textContent = 'mark.' + FIND_CLASS + '{background:#fde047 !important;color:#000 !important}'
+            + 'mark.' + FIND_CLASS + '.' + FIND_CURRENT + '{background:#fb923c !important}';
+        (document.head || document.documentElement).appendChild(style);
+    }
+
+    // Gives each split text node its whole text back and drops the pieces split off it. Unlike
+    // normalize(), this leaves alone the text nodes the page itself keeps side by side.
+    function clearFind() {
+        finder.token++;
+        for (var i = 0; i < finder.splits.length; i++) {
+            var split = finder.splits[i];
+            if (!split.node.parentNode) continue;
+            for (var j = 0; j < split.pieces.length; j++) {
+                var piece = split.pieces[j];
+                if (piece.parentNode) piece.parentNode.removeChild(piece);
+            }
+            split.node.data = split.text;
+        }
+        for (var k = 0; k < finder.marks.length; k++) {
+            var mark = finder.marks[k], parent = mark.parentNode;
+            if (!parent) continue;
+            // Still holds its match only if the page removed the original node meanwhile.
+            while (mark.firstChild) parent.insertBefore(mark.firstChild, mark);
+            parent.removeChild(mark);
+        }
+        finder.marks = [];
+        finder.splits = [];
+        finder.current = -1;
+        finder.done = true;
+    }
+
+    // Wraps every match in a text node and moves the walker past the pieces it split off.
+    function markMatches(walker, node, needle, matchCase) {
+        var hay = matchCase ? node.data : node.data.toLowerCase();
+        if (hay.length !== node.data.length) hay = node.data;
+        var at = hay.indexOf(needle);
+        // splitText keeps the original node as the leading piece; the rest are new nodes.
+        var split = {node: node, text: node.data, pieces: []};
+        while (at >= 0) {
+            var match = node.splitText(at);
+            node = match.splitText(needle.length);
+            split.pieces.push(match, node);
+            var mark = document.createElement('mark');
+            mark.className = FIND_CLASS;
+            match.parentNode.replaceChild(mark, match);
+            mark.appendChild(match);
+            finder.marks.push(mark);
+            hay = hay.substring(at + needle.length);
+            at = hay.indexOf(needle);
+        }
+        if (split.pieces.length) finder.splits.push(split);
+        walker.currentNode = node;
+    }
+
+    function selectMatch(index) {
+        var previous = finder.marks[finder.current];
+        if (previous) previous.className = FIND_CLASS;
+        finder.current = index;
+        var mark = finder.marks[index];
+        mark.className = FIND_CLASS + ' ' + FIND_CURRENT;
+        try {
+            mark.scrollIntoView({block: 'center', inline: 'nearest'});
+        } catch (e) {
+            mark.scrollIntoView();
+        }
+    }
+
+    function startFind(query, matchCase) {
+        clearFind();
+        if (!query || !document.body) {
+            reportFind();
+            return;
+        }
+        ensureFindStyle();
+        var token = finder.token, needle = matchCase ? query : query.toLowerCase();
+        var walker = document.createTreeWalker(document.body, NodeFilter.SHOW_TEXT, {
+            acceptNode: function (node) {
+                var parent = node.parentNode;
+                return parent && !SKIPPED[parent.nodeName] ? NodeFilter.FILTER_ACCEPT : NodeFilter.FILTER_REJECT;
+            }
+        }, false);
+        finder.done = false;
+
+        function slice() {
+            if (token !== finder.token) return;
+            var end = Date.now() + SLICE_MILLIS, found = finder.marks.length, node;
+            while ((node = walker.nextNode())) {
+                markMatches(walker, node, needle, matchCase);
+                if (Date.now() >= end) break;
+            }
+            if (!node) finder.done = true;
+            if (finder.current < 0 && finder.marks.length > 0) selectMatch(0);
+            if (finder.done || finder.marks.length !== found) reportFind();
+            if (!finder.done) nextSlice(slice);
+        }
+        // The first slice runs now, so the first match shows up without waiting for idle time.
+        slice();
+    }
+
+    var commands = {
+        favicon: function () {
+            var link = document.querySelector("link[rel*='icon']");
+            return link ? link.href : null;
+        },
+
+        scrollPosition: function () {
+            return window.scrollX + ',' + window.scrollY;
+        },
+
+        scrollTo: function (x, y) {
+            window.scrollTo(x, y);
+        },
+
+        mediaPlaying: function () {
+            var media = document.querySelectorAll('video, audio');
+            for (var i = 0; i < media.length; i++) {
+                var m = media[i];
+                if (!m.paused && !m.ended && m.currentTime > 0) return true;
+            }
+            return false;
+        },
+
+        findStart: startFind,
+
+        findStep: function (forward) {
+            var n = finder.marks.length;
+            // Wrapping around waits for the scan to finish, or it would skip matches not found yet.
+            if (n > 0 && (finder.done || (forward ? finder.current < n - 1 : finder.current > 0))) {
+                selectMatch(((finder.current + (forward ? 1 : -1)) % n + n) % n);
+            }
+            reportFind();
+        },
+
+        findClear: function () {
+            clearFind();
+        },
+
+        links: function () {
+            var seen = {}, out = [];
+            function add(u) { if (u && !seen[u]) { seen[u] = true; out.push(u); } }
+            var a = document.querySelectorAll('a[href]');
+            for (var i = 0; i < a.length; i++) add(a[i].href);
+            var img = document.querySelectorAll('img');
+            for (var j = 0; j < img.length; j++) add(img[j].currentSrc || img[j].src);
+            return out.join('\n');
+        },
+
+        // "ttfb,domContentLoaded,load,resources,resourceBytes", times in ms; -1 where not reached.
+        timing: function () {
+            var nav = performance.getEntriesByType ? performance.getEntriesByType('navigation')[0] : null;
+            var t = performance.timing, s = t.navigationStart;
+            function at(v, legacy) { return nav ? (v > 0 ? Math.round(v) : -1) : (legacy > 0 ? legacy - s : -1); }
+            var res = performance.getEntriesByType ? performance.getEntriesByType('resource') : [], bytes = 0;
+            for (var i = 0; i < res.length; i++) bytes += res[i].transferSize || res[i].encodedBodySize || 0;
+            return [at(nav && nav.responseStart, t.responseStart),
+                    at(nav && nav.domContentLoadedEventEnd, t.domContentLoadedEventEnd),
+                    at(nav && (nav.loadEventEnd || nav.loadEventStart), t.loadEventEnd || t.loadEventStart),
+                    res.length, bytes].join(',');
+        },
+
+        // "jsHeapUsed,jsHeapTotal,domNodes,domContentLoaded,load,resources"; -1 where not available.
+        sample: function () {
+            var m = performance.memory, t = performance.timing, s = t.navigationStart;
+            var r = performance.getEntriesByType ? performance.getEntriesByType('resource') : [];
+            return [m ? m.usedJSHeapSize : -1, m ? m.totalJSHeapSize : -1,
+                    document.getElementsByTagName('*').length,
+                    t.domContentLoadedEventEnd > 0 ? t.domContentLoadedEventEnd - s : -1,
+                    t.loadEventEnd > 0 ? t.loadEventEnd - s : -1,
+                    r.length].join(',');
+        }
+    };
+
+    // Arguments are read by index and commands called directly, so a page that replaces
+    // Function.prototype.apply or Array.prototype.slice does not get to see or answer them.
+    function run() {
+        if (window.__nexus !== marker) return false;
+        var i = 0;
+        while (i < arguments.length) {
+            var id = arguments[i], fn = commands[arguments[i + 1]], argc = arguments[i + 2];
+            var a = arguments[i + 3], b = arguments[i + 4], result = null;
+            i += 3 + argc;
+            try {
+                result = fn ? (argc > 1 ? fn(a, b) : argc > 0 ? fn(a) : fn()) : null;
+            } catch (e) {
+                result = null;
+            }
+            if (id > 0) bridge.deliver(id, result === undefined ? null : result);
+        }
+        return true;
+    }
+
+    return {
+        install: function (javaBridge) {
+            // Locked, so a page can neither replace the marker nor clear it to force a reinstall.
+            try {
+                Object.defineProperty(window, '__nexus', {value: marker, writable: false, configurable: false});
+            } catch (e) {
+                return null;
+            }
+            bridge = javaBridge;
+            return {run: run};
+        }
+    };
+})();